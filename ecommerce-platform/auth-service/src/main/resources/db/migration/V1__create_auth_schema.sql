@@ -0,0 +1,33 @@
+-- Auth schema as previously generated by Hibernate, plus the indexes its repository queries need.
+-- Runs in the schema named by spring.flyway.schemas (auth).
+
+CREATE TABLE users (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    email        VARCHAR(255) NOT NULL,
+    password     VARCHAR(255) NOT NULL,
+    first_name   VARCHAR(255) NOT NULL,
+    last_name    VARCHAR(255) NOT NULL,
+    phone_number VARCHAR(255),
+    role         VARCHAR(255) NOT NULL,
+    enabled      BOOLEAN      NOT NULL,
+    created_at   TIMESTAMP(6) NOT NULL,
+    updated_at   TIMESTAMP(6),
+    CONSTRAINT uk_users_email UNIQUE (email),
+    CONSTRAINT ck_users_role CHECK (role IN ('ADMIN', 'MANAGER', 'EMPLOYEE', 'CUSTOMER'))
+);
+
+CREATE TABLE addresses (
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id        BIGINT       NOT NULL,
+    street_address VARCHAR(255) NOT NULL,
+    city           VARCHAR(255) NOT NULL,
+    state          VARCHAR(255) NOT NULL,
+    postal_code    VARCHAR(255) NOT NULL,
+    country        VARCHAR(255) NOT NULL,
+    address_type   VARCHAR(255) NOT NULL,
+    is_default     BOOLEAN,
+    CONSTRAINT fk_addresses_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+-- findByUserId, findByUserIdAndAddressType; login by email uses uk_users_email
+CREATE INDEX idx_addresses_user_id ON addresses (user_id);
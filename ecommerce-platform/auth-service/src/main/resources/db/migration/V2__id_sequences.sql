@@ -0,0 +1,8 @@
+-- Pooled sequences replace the identity columns, so Hibernate can batch inserts. Each nextval
+-- reserves a block of 50 ids, which must match allocationSize on the entities.
+
+CREATE SEQUENCE users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE addresses_seq START WITH 1 INCREMENT BY 50;
+
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE addresses ALTER COLUMN id DROP IDENTITY;
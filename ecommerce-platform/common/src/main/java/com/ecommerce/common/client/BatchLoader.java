@@ -0,0 +1,119 @@
+package com.ecommerce.common.client;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Collects single-key lookups made within a short window and resolves them with one batch call.
+ * <p>
+ * The first key after an idle period opens a window of {@code maxDelay}; the batch is sent when the
+ * window closes or as soon as it holds {@code maxBatchSize} distinct keys, whichever comes first.
+ * Repeated keys within a window share one future. Keys missing from the loader's result complete
+ * with {@code null}; if the loader throws, every future in the batch fails with that exception.
+ *
+ * @param <K> lookup key, usually an entity id
+ * @param <V> looked-up value
+ */
+public class BatchLoader<K, V> {
+    
+    private final Function<Collection<K>, Map<K, V>> loader;
+    private final int maxBatchSize;
+    private final Duration maxDelay;
+    private final ScheduledExecutorService scheduler;
+    private final Executor executor;
+    
+    private Map<K, CompletableFuture<V>> pending = new LinkedHashMap<>();
+    
+    public BatchLoader(Function<Collection<K>, Map<K, V>> loader, int maxBatchSize, Duration maxDelay,
+                       ScheduledExecutorService scheduler) {
+        this(loader, maxBatchSize, maxDelay, scheduler, scheduler);
+    }
+    
+    public BatchLoader(Function<Collection<K>, Map<K, V>> loader, int maxBatchSize, Duration maxDelay,
+                       ScheduledExecutorService scheduler, Executor executor) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("maxBatchSize must be at least 1");
+        }
+        this.loader = loader;
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelay = maxDelay;
+        this.scheduler = scheduler;
+        this.executor = executor;
+    }
+    
+    public CompletableFuture<V> load(K key) {
+        Map<K, CompletableFuture<V>> full = null;
+        CompletableFuture<V> future;
+        synchronized (this) {
+            future = pending.get(key);
+            if (future != null) {
+                return future;
+            }
+            future = new CompletableFuture<>();
+            pending.put(key, future);
+            if (pending.size() == 1) {
+                Map<K, CompletableFuture<V>> window = pending;
+                scheduler.schedule(() -> flush(window), maxDelay.toNanos(), TimeUnit.NANOSECONDS);
+            }
+            if (pending.size() >= maxBatchSize) {
+                full = pending;
+                pending = new LinkedHashMap<>();
+            }
+        }
+        if (full != null) {
+            Map<K, CompletableFuture<V>> batch = full;
+            executor.execute(() -> dispatch(batch));
+        }
+        return future;
+    }
+    
+    /**
+     * Loads several keys, batching them with any other lookups made in the same window.
+     */
+    public CompletableFuture<Map<K, V>> loadAll(Collection<K> keys) {
+        Map<K, CompletableFuture<V>> futures = new LinkedHashMap<>();
+        keys.forEach(key -> futures.computeIfAbsent(key, this::load));
+        return CompletableFuture.allOf(futures.values().toArray(new CompletableFuture[0]))
+                .thenApply(ignored -> {
+                    Map<K, V> result = new LinkedHashMap<>();
+                    futures.forEach((key, future) -> {
+                        V value = future.join();
+                        if (value != null) {
+                            result.put(key, value);
+                        }
+                    });
+                    return result;
+                });
+    }
+    
+    private void flush(Map<K, CompletableFuture<V>> window) {
+        synchronized (this) {
+            // The window was already sent because it filled up
+            if (pending != window) {
+                return;
+            }
+            pending = new LinkedHashMap<>();
+        }
+        dispatch(window);
+    }
+    
+    private void dispatch(Map<K, CompletableFuture<V>> batch) {
+        List<K> keys = List.copyOf(batch.keySet());
+        Map<K, V> loaded;
+        try {
+            loaded = loader.apply(keys);
+        } catch (RuntimeException ex) {
+            batch.values().forEach(future -> future.completeExceptionally(ex));
+            return;
+        }
+        batch.forEach((key, future) -> future.complete(loaded == null ? null : loaded.get(key)));
+    }
+}
@@ -0,0 +1,298 @@
+package com.ecommerce.common.client;
+
+import com.ecommerce.common.dto.ApiResponse;
+import com.ecommerce.common.logging.CorrelationIdFilter;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * JSON client for service-to-service calls.
+ * <p>
+ * One instance per downstream service, shared by every caller: it sits on a single JDK
+ * {@link HttpClient}, which keeps connections alive and reuses them, negotiating HTTP/2 where the
+ * server supports it. Every call has a timeout ({@link #withTimeout} overrides the default for one
+ * call site). Identical GETs already in flight are coalesced, so a burst of requests for the same
+ * resource costs one round trip; each caller still gets its own deserialized copy.
+ * <p>
+ * Latency is recorded in the {@code service.client.requests} timer with a percentile histogram,
+ * tagged by client name, method, URI template and outcome. Tags use the template rather than the
+ * expanded URI to keep the number of series bounded.
+ * <p>
+ * A client built with a {@link Builder#serviceToken service token} sends it in {@value #SERVICE_TOKEN_HEADER}
+ * on every call; the receiving service requires it on its {@code /api/internal/**} routes.
+ */
+public class ServiceClient {
+    
+    public static final String SERVICE_TOKEN_HEADER = "X-Service-Token";
+    
+    private static final String METRIC_NAME = "service.client.requests";
+    
+    private final String name;
+    private final HttpClient httpClient;
+    private final DefaultUriBuilderFactory uriFactory;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final Duration timeout;
+    private final String serviceToken;
+    private final Map<URI, CompletableFuture<HttpResponse<byte[]>>> inFlight;
+    private final Counter coalesced;
+    
+    private ServiceClient(Builder builder) {
+        this.name = builder.name;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(builder.connectTimeout)
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+        this.uriFactory = new DefaultUriBuilderFactory(builder.baseUrl);
+        this.objectMapper = builder.objectMapper;
+        this.meterRegistry = builder.meterRegistry;
+        this.timeout = builder.requestTimeout;
+        this.serviceToken = builder.serviceToken;
+        this.inFlight = new ConcurrentHashMap<>();
+        this.coalesced = Counter.builder("service.client.coalesced")
+                .description("GETs that joined an identical request already in flight")
+                .tag("client", name)
+                .register(meterRegistry);
+    }
+    
+    private ServiceClient(ServiceClient parent, Duration timeout) {
+        this.name = parent.name;
+        this.httpClient = parent.httpClient;
+        this.uriFactory = parent.uriFactory;
+        this.objectMapper = parent.objectMapper;
+        this.meterRegistry = parent.meterRegistry;
+        this.timeout = timeout;
+        this.serviceToken = parent.serviceToken;
+        this.inFlight = parent.inFlight;
+        this.coalesced = parent.coalesced;
+    }
+    
+    public static Builder builder(String name, String baseUrl) {
+        return new Builder(name, baseUrl);
+    }
+    
+    /**
+     * Returns a view of this client that shares its connections but uses a different timeout.
+     */
+    public ServiceClient withTimeout(Duration timeout) {
+        return new ServiceClient(this, timeout);
+    }
+    
+    public <T> T get(String uriTemplate, Class<T> responseType, Object... uriVariables) {
+        return get(uriTemplate, objectMapper.constructType(responseType), uriVariables);
+    }
+    
+    public <T> T get(String uriTemplate, JavaType responseType, Object... uriVariables) {
+        return await(getAsync(uriTemplate, responseType, uriVariables));
+    }
+    
+    public <T> CompletableFuture<T> getAsync(String uriTemplate, JavaType responseType, Object... uriVariables) {
+        URI uri = uriFactory.expand(uriTemplate, uriVariables);
+        CompletableFuture<HttpResponse<byte[]>> promise = new CompletableFuture<>();
+        CompletableFuture<HttpResponse<byte[]>> existing = inFlight.putIfAbsent(uri, promise);
+        if (existing != null) {
+            coalesced.increment();
+            return existing.thenApply(response -> read(response, responseType));
+        }
+        promise.whenComplete((response, ex) -> inFlight.remove(uri, promise));
+        HttpRequest request = newRequest(uri).GET().build();
+        send(request, uriTemplate).whenComplete((response, ex) -> {
+            if (ex != null) {
+                promise.completeExceptionally(ex);
+            } else {
+                promise.complete(response);
+            }
+        });
+        return promise.thenApply(response -> read(response, responseType));
+    }
+    
+    public <T> T post(String uriTemplate, Object body, Class<T> responseType, Object... uriVariables) {
+        return post(uriTemplate, body, objectMapper.constructType(responseType), uriVariables);
+    }
+    
+    public <T> T post(String uriTemplate, Object body, JavaType responseType, Object... uriVariables) {
+        URI uri = uriFactory.expand(uriTemplate, uriVariables);
+        HttpRequest request = newRequest(uri)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(write(body)))
+                .build();
+        return await(send(request, uriTemplate).thenApply(response -> read(response, responseType)));
+    }
+    
+    /**
+     * Type of an {@link ApiResponse} envelope around {@code dataType}, for endpoints that use the
+     * platform's standard response shape.
+     */
+    public JavaType apiResponseOf(Class<?> dataType) {
+        return objectMapper.getTypeFactory().constructParametricType(ApiResponse.class, dataType);
+    }
+    
+    public JavaType apiResponseOf(JavaType dataType) {
+        return objectMapper.getTypeFactory().constructParametricType(ApiResponse.class, dataType);
+    }
+    
+    public Duration getTimeout() {
+        return timeout;
+    }
+    
+    private HttpRequest.Builder newRequest(URI uri) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri)
+                .timeout(timeout)
+                .header("Accept", "application/json");
+        // Carry the caller's request id so one id threads through every service's logs
+        String requestId = CorrelationIdFilter.currentId();
+        if (requestId != null) {
+            builder.header(CorrelationIdFilter.HEADER, requestId);
+        }
+        if (serviceToken != null && !serviceToken.isBlank()) {
+            builder.header(SERVICE_TOKEN_HEADER, serviceToken);
+        }
+        return builder;
+    }
+    
+    private CompletableFuture<HttpResponse<byte[]>> send(HttpRequest request, String uriTemplate) {
+        long started = System.nanoTime();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .whenComplete((response, ex) -> timer(request.method(), uriTemplate, outcome(response, ex))
+                        .record(System.nanoTime() - started, TimeUnit.NANOSECONDS));
+    }
+    
+    private Timer timer(String method, String uriTemplate, String outcome) {
+        return Timer.builder(METRIC_NAME)
+                .description("Latency of calls to other services")
+                .tag("client", name)
+                .tag("method", method)
+                .tag("uri", uriTemplate)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+    
+    private static String outcome(HttpResponse<?> response, Throwable ex) {
+        if (ex != null) {
+            return unwrap(ex) instanceof HttpTimeoutException ? "TIMEOUT" : "IO_ERROR";
+        }
+        int status = response.statusCode();
+        if (status >= 500) {
+            return "SERVER_ERROR";
+        }
+        return status >= 400 ? "CLIENT_ERROR" : "SUCCESS";
+    }
+    
+    private <T> T read(HttpResponse<byte[]> response, JavaType responseType) {
+        int status = response.statusCode();
+        if (status < 200 || status >= 300) {
+            String body = new String(response.body(), StandardCharsets.UTF_8);
+            throw new ServiceClientException(
+                    name + " returned " + status + " for " + response.request().method() + " " + response.request().uri(),
+                    status, body);
+        }
+        if (responseType.getRawClass() == Void.class || response.body().length == 0) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(response.body(), responseType);
+        } catch (IOException ex) {
+            throw new ServiceClientException("Could not read response from " + name, ex);
+        }
+    }
+    
+    private byte[] write(Object body) {
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (IOException ex) {
+            throw new ServiceClientException("Could not write request to " + name, ex);
+        }
+    }
+    
+    private <T> T await(CompletableFuture<T> future) {
+        try {
+            // Joiners of a coalesced GET are bounded by their own timeout, not the leader's
+            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            throw new ServiceClientException(name + " did not respond within " + timeout.toMillis() + " ms", ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ServiceClientException("Interrupted while calling " + name, ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = unwrap(ex);
+            if (cause instanceof ServiceClientException serviceClientException) {
+                throw serviceClientException;
+            }
+            throw new ServiceClientException("Call to " + name + " failed: " + cause.getMessage(), cause);
+        }
+    }
+    
+    private static Throwable unwrap(Throwable ex) {
+        while ((ex instanceof CompletionException || ex instanceof ExecutionException) && ex.getCause() != null) {
+            ex = ex.getCause();
+        }
+        return ex;
+    }
+    
+    public static class Builder {
+        private final String name;
+        private final String baseUrl;
+        private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+        private MeterRegistry meterRegistry = Metrics.globalRegistry;
+        private Duration connectTimeout = Duration.ofSeconds(2);
+        private Duration requestTimeout = Duration.ofSeconds(5);
+        private String serviceToken;
+        
+        private Builder(String name, String baseUrl) {
+            this.name = name;
+            this.baseUrl = baseUrl;
+        }
+        
+        public Builder objectMapper(ObjectMapper objectMapper) {
+            this.objectMapper = objectMapper;
+            return this;
+        }
+        
+        public Builder meterRegistry(MeterRegistry meterRegistry) {
+            this.meterRegistry = meterRegistry;
+            return this;
+        }
+        
+        public Builder connectTimeout(Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+            return this;
+        }
+        
+        public Builder requestTimeout(Duration requestTimeout) {
+            this.requestTimeout = requestTimeout;
+            return this;
+        }
+        
+        public Builder serviceToken(String serviceToken) {
+            this.serviceToken = serviceToken;
+            return this;
+        }
+        
+        public ServiceClient build() {
+            return new ServiceClient(this);
+        }
+    }
+}
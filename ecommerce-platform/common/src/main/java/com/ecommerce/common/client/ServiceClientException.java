@@ -0,0 +1,35 @@
+package com.ecommerce.common.client;
+
+/**
+ * A call to another service failed: it returned a non-2xx status, timed out, or could not be sent.
+ * {@link #getStatusCode()} is {@code 0} when no response was received.
+ */
+public class ServiceClientException extends RuntimeException {
+    
+    private final int statusCode;
+    private final String responseBody;
+    
+    public ServiceClientException(String message, int statusCode, String responseBody) {
+        super(message);
+        this.statusCode = statusCode;
+        this.responseBody = responseBody;
+    }
+    
+    public ServiceClientException(String message, Throwable cause) {
+        super(message, cause);
+        this.statusCode = 0;
+        this.responseBody = null;
+    }
+    
+    public int getStatusCode() {
+        return statusCode;
+    }
+    
+    public String getResponseBody() {
+        return responseBody;
+    }
+    
+    public boolean isClientError() {
+        return statusCode >= 400 && statusCode < 500;
+    }
+}
@@ -0,0 +1,8 @@
+package com.ecommerce.common.constants;
+
+public enum InventoryHoldStatus {
+    ACTIVE,
+    RELEASING,
+    RELEASED,
+    CONFIRMED
+}
@@ -0,0 +1,132 @@
+package com.ecommerce.common.datasource;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces the single pool with a primary pool plus one pool per read replica when
+ * {@code datasource.replicas.enabled} is set. Services that turn this on must run with
+ * {@code spring.jpa.open-in-view: false} and read inside {@code @Transactional(readOnly = true)}:
+ * connections are released after every transaction so each one is routed on its own.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "datasource.replicas", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(ReplicaDataSourceProperties.class)
+public class ReplicaDataSourceConfiguration {
+    
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+    
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(DataSourceProperties dataSourceProperties,
+                                                             ReplicaDataSourceProperties replicaProperties,
+                                                             Environment environment,
+                                                             ObjectProvider<MeterRegistry> meterRegistry) {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        
+        HikariConfig primaryConfig = new HikariConfig();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primaryConfig));
+        primaryConfig.setJdbcUrl(dataSourceProperties.determineUrl());
+        primaryConfig.setUsername(dataSourceProperties.determineUsername());
+        primaryConfig.setPassword(dataSourceProperties.determinePassword());
+        primaryConfig.setDriverClassName(dataSourceProperties.determineDriverClassName());
+        primaryConfig.setPoolName("primary");
+        HikariDataSource primary = pool(primaryConfig, registry);
+        
+        List<ReplicaRoutingDataSource.Replica> replicas = new ArrayList<>();
+        for (int i = 0; i < replicaProperties.getUrls().size(); i++) {
+            HikariConfig config = new HikariConfig();
+            config.setJdbcUrl(replicaProperties.getUrls().get(i));
+            config.setUsername(replicaProperties.getUsername() != null
+                    ? replicaProperties.getUsername() : dataSourceProperties.determineUsername());
+            config.setPassword(replicaProperties.getPassword() != null
+                    ? replicaProperties.getPassword() : dataSourceProperties.determinePassword());
+            config.setDriverClassName(dataSourceProperties.determineDriverClassName());
+            config.setMaximumPoolSize(replicaProperties.getMaximumPoolSize());
+            config.setReadOnly(true);
+            config.setPoolName("replica-" + (i + 1));
+            replicas.add(new ReplicaRoutingDataSource.Replica(config.getPoolName(), pool(config, registry)));
+        }
+        
+        if (registry != null) {
+            replicas.forEach(replica -> {
+                Gauge.builder("datasource.replica.lag", replica, r -> r.getLag().toMillis() / 1000.0)
+                        .description("Last observed replication lag")
+                        .baseUnit("seconds")
+                        .tag("replica", replica.getName())
+                        .register(registry);
+                Gauge.builder("datasource.replica.healthy", replica, r -> r.isHealthy() ? 1 : 0)
+                        .description("Whether the replica is in the read rotation")
+                        .tag("replica", replica.getName())
+                        .register(registry);
+            });
+        }
+        return new ReplicaRoutingDataSource(primary, replicas);
+    }
+    
+    /**
+     * Migrations always run against the primary pool, never through the router. The pool is closed
+     * by the router, not by this bean.
+     */
+    @Bean(destroyMethod = "")
+    @FlywayDataSource
+    public DataSource flywayDataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return replicaRoutingDataSource.getPrimary();
+    }
+    
+    @Bean(destroyMethod = "close")
+    public ReplicaLagMonitor replicaLagMonitor(ReplicaRoutingDataSource replicaRoutingDataSource,
+                                               ReplicaDataSourceProperties replicaProperties) {
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(replicaRoutingDataSource.getReplicas(),
+                replicaProperties.getLagQuery(), replicaProperties.getMaxLag());
+        monitor.start(replicaProperties.getCheckInterval());
+        return monitor;
+    }
+    
+    @Bean
+    public FilterRegistrationBean<ReplicaRoutingFilter> replicaRoutingFilter() {
+        FilterRegistrationBean<ReplicaRoutingFilter> registration = new FilterRegistrationBean<>(new ReplicaRoutingFilter());
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+    
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionsAfterTransaction() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+    
+    private static HikariDataSource pool(HikariConfig config, MeterRegistry registry) {
+        if (registry != null) {
+            config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+        }
+        return new HikariDataSource(config);
+    }
+}
@@ -0,0 +1,43 @@
+package com.ecommerce.common.datasource;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "datasource.replicas")
+public class ReplicaDataSourceProperties {
+    
+    private boolean enabled = false;
+    
+    /**
+     * JDBC URLs of the read replicas.
+     */
+    private List<String> urls = new ArrayList<>();
+    
+    /**
+     * Replica credentials; default to {@code spring.datasource.*}.
+     */
+    private String username;
+    
+    private String password;
+    
+    private int maximumPoolSize = 10;
+    
+    /**
+     * Replicas lagging further behind than this are skipped.
+     */
+    private Duration maxLag = Duration.ofSeconds(5);
+    
+    private Duration checkInterval = Duration.ofSeconds(2);
+    
+    /**
+     * Returns the replica's lag in seconds. The default reports zero while the replica has replayed
+     * everything it received, so an idle primary does not look like lag.
+     */
+    private String lagQuery = "SELECT CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+            + "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0) END";
+}
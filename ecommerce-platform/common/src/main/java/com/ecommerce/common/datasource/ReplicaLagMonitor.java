@@ -0,0 +1,66 @@
+package com.ecommerce.common.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Polls each replica for its replication lag and takes replicas whose lag exceeds
+ * {@code datasource.replicas.max-lag}, or that cannot be reached, out of rotation until they
+ * catch up. The lag query must return one numeric column in seconds.
+ */
+@Slf4j
+public class ReplicaLagMonitor implements AutoCloseable {
+    
+    private final List<ReplicaRoutingDataSource.Replica> replicas;
+    private final String lagQuery;
+    private final Duration maxLag;
+    private final ScheduledExecutorService scheduler;
+    
+    public ReplicaLagMonitor(List<ReplicaRoutingDataSource.Replica> replicas, String lagQuery, Duration maxLag) {
+        this.replicas = replicas;
+        this.lagQuery = lagQuery;
+        this.maxLag = maxLag;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-lag-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    public void start(Duration interval) {
+        scheduler.scheduleWithFixedDelay(this::checkAll, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+    
+    public void checkAll() {
+        replicas.forEach(this::check);
+    }
+    
+    private void check(ReplicaRoutingDataSource.Replica replica) {
+        try (Connection connection = replica.getDataSource().getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.setQueryTimeout(Math.max(1, (int) maxLag.toSeconds()));
+            try (ResultSet resultSet = statement.executeQuery(lagQuery)) {
+                double seconds = resultSet.next() ? resultSet.getDouble(1) : Double.MAX_VALUE;
+                Duration lag = Duration.ofMillis((long) Math.min(seconds * 1000, Long.MAX_VALUE));
+                replica.update(lag.compareTo(maxLag) <= 0, lag);
+            }
+        } catch (SQLException | RuntimeException ex) {
+            log.debug("Lag check failed for replica {}: {}", replica.getName(), ex.getMessage());
+            replica.update(false, replica.getLag());
+        }
+    }
+    
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
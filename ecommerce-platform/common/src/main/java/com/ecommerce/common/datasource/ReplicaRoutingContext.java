@@ -0,0 +1,38 @@
+package com.ecommerce.common.datasource;
+
+/**
+ * Per-request routing state. Once a request has run a read-write transaction, its later reads go to
+ * the primary so the caller sees its own writes regardless of replica lag. Outside a request scope
+ * (scheduled jobs, startup) nothing is pinned and each transaction is routed on its own.
+ */
+public final class ReplicaRoutingContext {
+    
+    private static final ThreadLocal<Scope> SCOPE = new ThreadLocal<>();
+    
+    private ReplicaRoutingContext() {
+    }
+    
+    public static void open() {
+        SCOPE.set(new Scope());
+    }
+    
+    public static void close() {
+        SCOPE.remove();
+    }
+    
+    public static boolean isPinnedToPrimary() {
+        Scope scope = SCOPE.get();
+        return scope != null && scope.pinned;
+    }
+    
+    static void pinToPrimary() {
+        Scope scope = SCOPE.get();
+        if (scope != null) {
+            scope.pinned = true;
+        }
+    }
+    
+    private static final class Scope {
+        private boolean pinned;
+    }
+}
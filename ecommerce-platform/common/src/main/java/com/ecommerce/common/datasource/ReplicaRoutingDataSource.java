@@ -0,0 +1,150 @@
+package com.ecommerce.common.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends read-only transactions to a healthy replica and everything else to the primary.
+ * <p>
+ * The routing decision is made when a connection is first used, so this must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}: only then has the
+ * transaction manager published the transaction's read-only flag. Replicas take turns; a replica the
+ * {@link ReplicaLagMonitor} has marked unhealthy is skipped, and with none healthy reads fall back to
+ * the primary. Reads in a request that has already written are pinned to the primary, see
+ * {@link ReplicaRoutingContext}.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+    
+    static final String PRIMARY = "primary";
+    
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final AtomicInteger next = new AtomicInteger();
+    
+    public ReplicaRoutingDataSource(DataSource primary, List<Replica> replicas) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        this.replicas.forEach(replica -> targets.put(replica.getName(), replica.getDataSource()));
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+    }
+    
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                ReplicaRoutingContext.pinToPrimary();
+            }
+            return PRIMARY;
+        }
+        if (ReplicaRoutingContext.isPinnedToPrimary()) {
+            return PRIMARY;
+        }
+        Replica replica = nextHealthyReplica();
+        return replica != null ? replica.getName() : PRIMARY;
+    }
+    
+    public DataSource getPrimary() {
+        return primary;
+    }
+    
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+    
+    /**
+     * Pool-level introspection (e.g. Hikari busy checks) always sees the primary pool.
+     */
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        return primary.unwrap(iface);
+    }
+    
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || primary.isWrapperFor(iface);
+    }
+    
+    @Override
+    public void close() throws Exception {
+        for (Replica replica : replicas) {
+            if (replica.getDataSource() instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+        if (primary instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+    
+    private Replica nextHealthyReplica() {
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.isHealthy()) {
+                return replica;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * A replica pool and its last observed health.
+     */
+    public static class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean healthy = true;
+        private volatile Duration lag = Duration.ZERO;
+        
+        public Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+        
+        public String getName() {
+            return name;
+        }
+        
+        public DataSource getDataSource() {
+            return dataSource;
+        }
+        
+        public boolean isHealthy() {
+            return healthy;
+        }
+        
+        public Duration getLag() {
+            return lag;
+        }
+        
+        void update(boolean healthy, Duration lag) {
+            if (this.healthy != healthy) {
+                if (healthy) {
+                    log.info("Replica {} is back in rotation (lag {} ms)", name, lag.toMillis());
+                } else {
+                    log.warn("Replica {} taken out of rotation (lag {} ms)", name, lag.toMillis());
+                }
+            }
+            this.healthy = healthy;
+            this.lag = lag;
+        }
+    }
+}
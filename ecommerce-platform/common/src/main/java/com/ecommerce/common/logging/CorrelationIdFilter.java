@@ -0,0 +1,74 @@
+package com.ecommerce.common.logging;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.lang.NonNull;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Puts a request id into the MDC for the duration of a request and echoes it in the response.
+ * <p>
+ * An incoming {@value #HEADER} is reused when it looks sane, so one id follows a call through every
+ * service; otherwise a new one is generated.
+ */
+public class CorrelationIdFilter extends OncePerRequestFilter {
+    
+    public static final String HEADER = "X-Request-Id";
+    public static final String MDC_KEY = "requestId";
+    
+    private static final int MAX_LENGTH = 64;
+    
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        String requestId = request.getHeader(HEADER);
+        if (!isValid(requestId)) {
+            requestId = newId();
+        }
+        MDC.put(MDC_KEY, requestId);
+        response.setHeader(HEADER, requestId);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            MDC.remove(MDC_KEY);
+        }
+    }
+    
+    /**
+     * Request id of the current thread, or {@code null} outside a request.
+     */
+    public static String currentId() {
+        return MDC.get(MDC_KEY);
+    }
+    
+    static String newId() {
+        // Uniqueness within the log retention window is all that's needed; skip UUID's SecureRandom
+        long bits = ThreadLocalRandom.current().nextLong();
+        String hex = Long.toHexString(bits);
+        return hex.length() == 16 ? hex : "0".repeat(16 - hex.length()) + hex;
+    }
+    
+    static boolean isValid(String requestId) {
+        if (requestId == null || requestId.isEmpty() || requestId.length() > MAX_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < requestId.length(); i++) {
+            char c = requestId.charAt(i);
+            boolean allowed = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                    || c == '-' || c == '_' || c == '.';
+            if (!allowed) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,50 @@
+package com.ecommerce.common.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link AsyncAppender} that keeps count of what it throws away.
+ * <p>
+ * Run with {@code neverBlock} so a slow console or disk never stalls a request thread: once the
+ * queue passes the discarding threshold INFO and below are shed, and when it is full everything is.
+ * The counts are exported as metrics by {@link LoggingConfiguration}; they are read ahead of the
+ * enqueue, so they are close but not exact under contention.
+ */
+public class CountingAsyncAppender extends AsyncAppender {
+    
+    private final AtomicLong discarded = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    
+    @Override
+    protected void append(ILoggingEvent event) {
+        if (isStarted()) {
+            int remaining = getRemainingCapacity();
+            if (remaining < getDiscardingThreshold() && isDiscardable(event)) {
+                discarded.incrementAndGet();
+                return;
+            }
+            if (remaining == 0 && isNeverBlock()) {
+                dropped.incrementAndGet();
+                return;
+            }
+        }
+        super.append(event);
+    }
+    
+    /**
+     * Low-severity events shed because the queue was nearly full.
+     */
+    public long getDiscardedCount() {
+        return discarded.get();
+    }
+    
+    /**
+     * Events of any severity lost because the queue was full.
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+}
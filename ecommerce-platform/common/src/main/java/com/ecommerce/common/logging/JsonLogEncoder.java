@@ -0,0 +1,142 @@
+package com.ecommerce.common.logging;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.classic.spi.ThrowableProxyUtil;
+import ch.qos.logback.core.encoder.EncoderBase;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+
+/**
+ * Writes each event as one line of JSON:
+ * <pre>
+ * {"@timestamp":"...","level":"INFO","service":"...","thread":"...","logger":"...","message":"...","requestId":"...","exception":"..."}
+ * </pre>
+ * Every MDC entry becomes a top-level field. The encoder runs on the async appender's worker thread,
+ * so it reuses one buffer and one formatted timestamp-second per thread rather than going through a
+ * general-purpose JSON library.
+ */
+public class JsonLogEncoder extends EncoderBase<ILoggingEvent> {
+    
+    private static final DateTimeFormatter SECOND_FORMAT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss").withZone(ZoneOffset.UTC);
+    private static final int MAX_RETAINED_BUFFER = 16 * 1024;
+    private static final byte[] EMPTY = new byte[0];
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    
+    private final ThreadLocal<LineBuffer> buffers = ThreadLocal.withInitial(LineBuffer::new);
+    
+    private String service;
+    
+    public void setService(String service) {
+        this.service = service;
+    }
+    
+    @Override
+    public byte[] headerBytes() {
+        return EMPTY;
+    }
+    
+    @Override
+    public byte[] encode(ILoggingEvent event) {
+        LineBuffer buffer = buffers.get();
+        StringBuilder sb = buffer.reset();
+        
+        sb.append("{\"@timestamp\":\"");
+        buffer.appendTimestamp(event.getTimeStamp());
+        sb.append("\",\"level\":\"").append(event.getLevel().levelStr).append('"');
+        if (service != null) {
+            field(sb, "service", service);
+        }
+        field(sb, "thread", event.getThreadName());
+        field(sb, "logger", event.getLoggerName());
+        field(sb, "message", event.getFormattedMessage());
+        Map<String, String> mdc = event.getMDCPropertyMap();
+        if (mdc != null && !mdc.isEmpty()) {
+            for (Map.Entry<String, String> entry : mdc.entrySet()) {
+                field(sb, entry.getKey(), entry.getValue());
+            }
+        }
+        IThrowableProxy throwable = event.getThrowableProxy();
+        if (throwable != null) {
+            field(sb, "exception", ThrowableProxyUtil.asString(throwable));
+        }
+        sb.append("}\n");
+        
+        byte[] bytes = sb.toString().getBytes(StandardCharsets.UTF_8);
+        buffer.trim();
+        return bytes;
+    }
+    
+    @Override
+    public byte[] footerBytes() {
+        return EMPTY;
+    }
+    
+    private static void field(StringBuilder sb, String name, String value) {
+        if (value == null) {
+            return;
+        }
+        sb.append(",\"");
+        escape(sb, name);
+        sb.append("\":\"");
+        escape(sb, value);
+        sb.append('"');
+    }
+    
+    static void escape(StringBuilder sb, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        sb.append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xF]);
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+    }
+    
+    private static final class LineBuffer {
+        private StringBuilder sb = new StringBuilder(512);
+        private long cachedSecond = Long.MIN_VALUE;
+        private String cachedSecondText;
+        
+        StringBuilder reset() {
+            sb.setLength(0);
+            return sb;
+        }
+        
+        void appendTimestamp(long epochMillis) {
+            long second = Math.floorDiv(epochMillis, 1000);
+            if (second != cachedSecond) {
+                cachedSecondText = SECOND_FORMAT.format(Instant.ofEpochSecond(second));
+                cachedSecond = second;
+            }
+            int millis = (int) Math.floorMod(epochMillis, 1000);
+            sb.append(cachedSecondText).append('.')
+                    .append((char) ('0' + millis / 100))
+                    .append((char) ('0' + millis / 10 % 10))
+                    .append((char) ('0' + millis % 10))
+                    .append('Z');
+        }
+        
+        void trim() {
+            // One huge stack trace shouldn't pin a large buffer to the thread forever
+            if (sb.capacity() > MAX_RETAINED_BUFFER) {
+                sb = new StringBuilder(512);
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.ecommerce.common.logging;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.Appender;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.util.Iterator;
+
+/**
+ * Request correlation ids plus metrics for the async log pipeline set up in {@code logback-spring.xml}.
+ */
+@Configuration
+@ConditionalOnClass(name = "ch.qos.logback.classic.LoggerContext")
+public class LoggingConfiguration {
+    
+    @Bean
+    public FilterRegistrationBean<CorrelationIdFilter> correlationIdFilter() {
+        FilterRegistrationBean<CorrelationIdFilter> registration = new FilterRegistrationBean<>(new CorrelationIdFilter());
+        // Ahead of everything else so every log line of the request carries the id
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+    
+    @Bean
+    public MeterBinder asyncLoggingMetrics() {
+        return registry -> {
+            if (!(LoggerFactory.getILoggerFactory() instanceof LoggerContext context)) {
+                return;
+            }
+            Logger root = context.getLogger(Logger.ROOT_LOGGER_NAME);
+            for (Iterator<Appender<ILoggingEvent>> it = root.iteratorForAppenders(); it.hasNext(); ) {
+                if (it.next() instanceof CountingAsyncAppender appender) {
+                    FunctionCounter.builder("logging.async.discarded", appender, CountingAsyncAppender::getDiscardedCount)
+                            .description("INFO-and-below events shed because the log queue was nearly full")
+                            .tag("appender", appender.getName())
+                            .register(registry);
+                    FunctionCounter.builder("logging.async.dropped", appender, CountingAsyncAppender::getDroppedCount)
+                            .description("Events lost because the log queue was full")
+                            .tag("appender", appender.getName())
+                            .register(registry);
+                    Gauge.builder("logging.async.queue.remaining", appender, CountingAsyncAppender::getRemainingCapacity)
+                            .tag("appender", appender.getName())
+                            .register(registry);
+                }
+            }
+            for (TurboFilter filter : context.getTurboFilterList()) {
+                if (filter instanceof SamplingTurboFilter sampling) {
+                    FunctionCounter.builder("logging.sampled.suppressed", sampling, SamplingTurboFilter::getSuppressedCount)
+                            .description("Events dropped by per-logger sampling")
+                            .register(registry);
+                }
+            }
+        };
+    }
+}
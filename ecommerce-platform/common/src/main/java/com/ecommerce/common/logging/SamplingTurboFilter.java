@@ -0,0 +1,116 @@
+package com.ecommerce.common.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps one in N INFO-and-below events for configured loggers, configured as
+ * {@code logging.sampling.rules: com.ecommerce.product.service=20,com.ecommerce.order=5}.
+ * <p>
+ * The longest matching logger prefix wins. Each message template is sampled on its own, so a rare
+ * message ("Product deleted") is not starved by a frequent one from the same logger ("Reserved
+ * stock"), and the first occurrence of every template is always kept. WARN and ERROR are never
+ * sampled. Events are dropped before the message is formatted or handed to an appender.
+ */
+public class SamplingTurboFilter extends TurboFilter {
+    
+    // Bounds per-rule state when a logger builds its message templates dynamically
+    private static final int MAX_TEMPLATES_PER_RULE = 1024;
+    
+    private static final Sampler UNSAMPLED = new Sampler(1);
+    
+    private final Map<String, Sampler> rules = new ConcurrentHashMap<>();
+    private final Map<String, Sampler> byLogger = new ConcurrentHashMap<>();
+    private final AtomicLong suppressed = new AtomicLong();
+    
+    /**
+     * Comma-separated {@code logger=N} pairs; blank disables sampling.
+     */
+    public void setRules(String spec) {
+        rules.clear();
+        byLogger.clear();
+        if (spec == null || spec.isBlank()) {
+            return;
+        }
+        for (String rule : spec.split(",")) {
+            int eq = rule.indexOf('=');
+            if (eq <= 0) {
+                addError("Ignoring sampling rule without '=': " + rule);
+                continue;
+            }
+            String prefix = rule.substring(0, eq).trim();
+            try {
+                int oneIn = Integer.parseInt(rule.substring(eq + 1).trim());
+                if (oneIn > 1) {
+                    rules.put(prefix, new Sampler(oneIn));
+                }
+            } catch (NumberFormatException ex) {
+                addError("Ignoring sampling rule with a bad rate: " + rule);
+            }
+        }
+    }
+    
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        // format is null for isXxxEnabled() checks; those must not consume a sample
+        if (format == null || rules.isEmpty() || level.isGreaterOrEqual(Level.WARN)
+                || !level.isGreaterOrEqual(logger.getEffectiveLevel())) {
+            return FilterReply.NEUTRAL;
+        }
+        Sampler sampler = byLogger.computeIfAbsent(logger.getName(), this::ruleFor);
+        if (sampler == UNSAMPLED || sampler.keep(format)) {
+            return FilterReply.NEUTRAL;
+        }
+        suppressed.incrementAndGet();
+        return FilterReply.DENY;
+    }
+    
+    /**
+     * Events dropped by sampling since startup.
+     */
+    public long getSuppressedCount() {
+        return suppressed.get();
+    }
+    
+    private Sampler ruleFor(String loggerName) {
+        String name = loggerName;
+        while (true) {
+            Sampler sampler = rules.get(name);
+            if (sampler != null) {
+                return sampler;
+            }
+            int dot = name.lastIndexOf('.');
+            if (dot < 0) {
+                return UNSAMPLED;
+            }
+            name = name.substring(0, dot);
+        }
+    }
+    
+    private static final class Sampler {
+        private final int oneIn;
+        private final Map<String, AtomicLong> counters = new ConcurrentHashMap<>();
+        private final AtomicLong overflow = new AtomicLong();
+        
+        Sampler(int oneIn) {
+            this.oneIn = oneIn;
+        }
+        
+        boolean keep(String template) {
+            AtomicLong counter = counters.get(template);
+            if (counter == null) {
+                counter = counters.size() < MAX_TEMPLATES_PER_RULE
+                        ? counters.computeIfAbsent(template, key -> new AtomicLong())
+                        : overflow;
+            }
+            return counter.getAndIncrement() % oneIn == 0;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.ecommerce.common.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every public method of the platform's {@code @Service} and {@code @RestController} beans.
+ * <p>
+ * Recorded as {@code app.method.invocations}, tagged by layer, class, method, outcome and exception
+ * class. Every tag value comes from code rather than request data, so the number of series is bounded
+ * by the size of the code base.
+ */
+@Aspect
+@Component
+public class MethodMetricsAspect {
+    
+    public static final String METRIC_NAME = "app.method.invocations";
+    
+    private final MeterRegistry meterRegistry;
+    private final Map<TimerKey, Timer> timers = new ConcurrentHashMap<>();
+    
+    public MethodMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+    
+    @Around("within(com.ecommerce..*) && execution(public * *(..)) && "
+            + "(@within(org.springframework.stereotype.Service) || @within(org.springframework.web.bind.annotation.RestController))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Class<?> target = joinPoint.getTarget().getClass();
+        long started = System.nanoTime();
+        Class<? extends Throwable> failure = null;
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable ex) {
+            failure = ex.getClass();
+            throw ex;
+        } finally {
+            timer(target, method, failure).record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+    
+    private Timer timer(Class<?> target, Method method, Class<? extends Throwable> failure) {
+        return timers.computeIfAbsent(new TimerKey(target, method, failure), key -> Timer.builder(METRIC_NAME)
+                .description("Duration of controller and service method calls")
+                .tag("layer", target.getSimpleName().endsWith("Controller") ? "controller" : "service")
+                .tag("class", target.getSimpleName())
+                .tag("method", method.getName())
+                .tag("outcome", failure == null ? "SUCCESS" : "ERROR")
+                .tag("exception", failure == null ? "none" : failure.getSimpleName())
+                .register(meterRegistry));
+    }
+    
+    private record TimerKey(Class<?> target, Method method, Class<? extends Throwable> failure) {
+    }
+}
@@ -0,0 +1,35 @@
+package com.ecommerce.common.metrics;
+
+import io.micrometer.core.instrument.config.MeterFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Caps on tag cardinality shared by every service. Route templates and class names are bounded
+ * already; these filters stop a mistake (a raw path leaking into a tag) from flooding the registry.
+ */
+@Configuration
+public class MetricsConfiguration {
+    
+    @Value("${metrics.max-uri-tags:200}")
+    private int maxUriTags;
+    
+    @Value("${metrics.max-method-tags:1000}")
+    private int maxMethodTags;
+    
+    @Bean
+    public MeterFilter httpServerUriTagCap() {
+        return MeterFilter.maximumAllowableTags("http.server.requests", "uri", maxUriTags, MeterFilter.deny());
+    }
+    
+    @Bean
+    public MeterFilter serviceClientUriTagCap() {
+        return MeterFilter.maximumAllowableTags("service.client.requests", "uri", maxUriTags, MeterFilter.deny());
+    }
+    
+    @Bean
+    public MeterFilter methodTagCap() {
+        return MeterFilter.maximumAllowableTags(MethodMetricsAspect.METRIC_NAME, "method", maxMethodTags, MeterFilter.deny());
+    }
+}
@@ -0,0 +1,15 @@
+package com.ecommerce.common.sql;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Feeds every statement Hibernate prepares into the current {@link SqlCapture}s, unchanged.
+ */
+public class CountingStatementInspector implements StatementInspector {
+    
+    @Override
+    public String inspect(String sql) {
+        SqlStatementTracker.recordStatement(sql);
+        return sql;
+    }
+}
@@ -0,0 +1,46 @@
+package com.ecommerce.common.sql;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.config.MeterFilter;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Hooks statement counting into Hibernate and registers the per-request budget filter.
+ */
+@Configuration
+@ConditionalOnClass(name = "org.hibernate.resource.jdbc.spi.StatementInspector")
+@EnableConfigurationProperties(SqlBudgetProperties.class)
+public class SqlBudgetConfiguration {
+    
+    @Bean
+    public HibernatePropertiesCustomizer sqlStatementTracking() {
+        return properties -> {
+            properties.put(AvailableSettings.STATEMENT_INSPECTOR, new CountingStatementInspector());
+            properties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, SqlTimingSessionListener.class.getName());
+        };
+    }
+    
+    @Bean
+    public FilterRegistrationBean<SqlBudgetFilter> sqlBudgetFilter(SqlBudgetProperties properties,
+                                                                   ObjectProvider<MeterRegistry> meterRegistry) {
+        FilterRegistrationBean<SqlBudgetFilter> registration =
+                new FilterRegistrationBean<>(new SqlBudgetFilter(properties, meterRegistry.getIfAvailable()));
+        // Outermost, so statements issued while authenticating the request are counted too
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+    
+    @Bean
+    public MeterFilter sqlBudgetUriTagCap(@Value("${metrics.max-uri-tags:200}") int maxUriTags) {
+        return MeterFilter.maximumAllowableTags("http.server.sql", "uri", maxUriTags, MeterFilter.deny());
+    }
+}
@@ -0,0 +1,81 @@
+package com.ecommerce.common.sql;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.NonNull;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Counts the SQL statements and database time of each request and records them per endpoint as
+ * {@code http.server.sql.statements} and {@code http.server.sql.time}, tagged by method and route
+ * template. Requests over their {@link SqlBudgetProperties budget} are logged with the statement
+ * shapes they repeated, which is usually enough to spot the lazy load behind an N+1.
+ */
+@Slf4j
+public class SqlBudgetFilter extends OncePerRequestFilter {
+    
+    private final SqlBudgetProperties properties;
+    private final MeterRegistry meterRegistry;
+    
+    public SqlBudgetFilter(SqlBudgetProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+    
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        if (!properties.isEnabled()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        
+        try (SqlCapture capture = SqlStatementTracker.begin()) {
+            filterChain.doFilter(request, response);
+            report(request, capture);
+        }
+    }
+    
+    private void report(HttpServletRequest request, SqlCapture capture) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        String method = request.getMethod();
+        
+        if (meterRegistry != null) {
+            DistributionSummary.builder("http.server.sql.statements")
+                    .description("SQL statements issued per request")
+                    .tag("method", method)
+                    .tag("uri", uri)
+                    .register(meterRegistry)
+                    .record(capture.getStatementCount());
+            Timer.builder("http.server.sql.time")
+                    .description("Time spent executing SQL per request")
+                    .tag("method", method)
+                    .tag("uri", uri)
+                    .register(meterRegistry)
+                    .record(capture.getExecutionTime());
+        }
+        
+        String endpoint = method + " " + uri;
+        int budget = properties.budgetFor(endpoint);
+        if (capture.getStatementCount() > budget) {
+            Map<String, Integer> repeated = capture.getRepeatedShapes(properties.getRepeatThreshold());
+            log.warn("{} issued {} SQL statements (budget {}) in {} ms; repeated: {}",
+                    endpoint, capture.getStatementCount(), budget, capture.getExecutionTime().toMillis(),
+                    repeated.isEmpty() ? "none" : repeated);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.ecommerce.common.sql;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "sql.budget")
+public class SqlBudgetProperties {
+    
+    private boolean enabled = true;
+    
+    /**
+     * Statements a request may issue before a warning is logged.
+     */
+    private int defaultMaxStatements = 20;
+    
+    /**
+     * Per-endpoint budgets keyed by method and route template, e.g. {@code "GET /api/products/{productId}"}.
+     */
+    private Map<String, Integer> endpoints = new LinkedHashMap<>();
+    
+    /**
+     * A shape issued this many times in one request is reported as a likely N+1.
+     */
+    private int repeatThreshold = 3;
+    
+    public int budgetFor(String endpoint) {
+        return endpoints.getOrDefault(endpoint, defaultMaxStatements);
+    }
+}
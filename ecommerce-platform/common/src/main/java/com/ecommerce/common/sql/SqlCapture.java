@@ -0,0 +1,79 @@
+package com.ecommerce.common.sql;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Statements issued on one thread between {@link SqlStatementTracker#begin()} and {@link #close()}.
+ * <p>
+ * Tests use it to pin the exact number of statements an endpoint may issue:
+ * <pre>{@code
+ * try (SqlCapture sql = SqlStatementTracker.begin()) {
+ *     mockMvc.perform(get("/api/products/1"));
+ *     assertEquals(1, sql.getStatementCount(), sql.describe());
+ * }
+ * }</pre>
+ */
+public class SqlCapture implements AutoCloseable {
+    
+    private final Map<String, Integer> shapes = new LinkedHashMap<>();
+    private int statementCount;
+    private int roundTripCount;
+    private long executionNanos;
+    
+    SqlCapture() {
+    }
+    
+    void addStatement(String shape) {
+        statementCount++;
+        shapes.merge(shape, 1, Integer::sum);
+    }
+    
+    void addExecution(long nanos) {
+        roundTripCount++;
+        executionNanos += nanos;
+    }
+    
+    public int getStatementCount() {
+        return statementCount;
+    }
+    
+    /**
+     * JDBC executions: one per statement run on its own, one per batch however many rows it carries.
+     */
+    public int getRoundTripCount() {
+        return roundTripCount;
+    }
+    
+    public Duration getExecutionTime() {
+        return Duration.ofNanos(executionNanos);
+    }
+    
+    /**
+     * Statement shapes issued at least {@code minCount} times, most repeated first.
+     */
+    public Map<String, Integer> getRepeatedShapes(int minCount) {
+        return shapes.entrySet().stream()
+                .filter(entry -> entry.getValue() >= minCount)
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a, LinkedHashMap::new));
+    }
+    
+    public Map<String, Integer> getShapes() {
+        return Map.copyOf(shapes);
+    }
+    
+    public String describe() {
+        StringBuilder description = new StringBuilder()
+                .append(statementCount).append(" statements, ").append(roundTripCount).append(" round trips in ").append(getExecutionTime().toMillis()).append(" ms");
+        shapes.forEach((shape, count) -> description.append("\n  ").append(count).append(" x ").append(shape));
+        return description.toString();
+    }
+    
+    @Override
+    public void close() {
+        SqlStatementTracker.end(this);
+    }
+}
@@ -0,0 +1,67 @@
+package com.ecommerce.common.sql;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.regex.Pattern;
+
+/**
+ * Thread-bound record of the SQL statements a unit of work issues.
+ * <p>
+ * {@link #begin()} opens a {@link SqlCapture} on the current thread; until it is closed, every
+ * statement Hibernate prepares is added to it, and so is each JDBC execution with its duration.
+ * Captures nest, so a test can wrap a request that the {@link SqlBudgetFilter} is also measuring.
+ */
+public final class SqlStatementTracker {
+    
+    private static final ThreadLocal<Deque<SqlCapture>> CAPTURES = ThreadLocal.withInitial(ArrayDeque::new);
+    
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bin\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    
+    private SqlStatementTracker() {
+    }
+    
+    public static SqlCapture begin() {
+        SqlCapture capture = new SqlCapture();
+        CAPTURES.get().push(capture);
+        return capture;
+    }
+    
+    public static boolean isActive() {
+        return !CAPTURES.get().isEmpty();
+    }
+    
+    static void end(SqlCapture capture) {
+        Deque<SqlCapture> captures = CAPTURES.get();
+        captures.remove(capture);
+        if (captures.isEmpty()) {
+            CAPTURES.remove();
+        }
+    }
+    
+    static void recordStatement(String sql) {
+        Deque<SqlCapture> captures = CAPTURES.get();
+        if (captures.isEmpty()) {
+            return;
+        }
+        String shape = shapeOf(sql);
+        captures.forEach(capture -> capture.addStatement(shape));
+    }
+    
+    static void recordExecution(long nanos) {
+        CAPTURES.get().forEach(capture -> capture.addExecution(nanos));
+    }
+    
+    /**
+     * Reduces a statement to its shape: literals become {@code ?} and IN lists collapse, so the same
+     * query issued for different rows is counted as a repeat.
+     */
+    static String shapeOf(String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = IN_LIST.matcher(shape).replaceAll("in (...)");
+        return WHITESPACE.matcher(shape).replaceAll(" ").trim();
+    }
+}
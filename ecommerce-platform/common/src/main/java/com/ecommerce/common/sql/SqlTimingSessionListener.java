@@ -0,0 +1,32 @@
+package com.ecommerce.common.sql;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Adds JDBC execution time to the current {@link SqlCapture}s. Hibernate creates one instance per
+ * session, and a session is confined to one thread.
+ */
+public class SqlTimingSessionListener implements SessionEventListener {
+    
+    private long executionStarted;
+    
+    @Override
+    public void jdbcExecuteStatementStart() {
+        executionStarted = System.nanoTime();
+    }
+    
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        SqlStatementTracker.recordExecution(System.nanoTime() - executionStarted);
+    }
+    
+    @Override
+    public void jdbcExecuteBatchStart() {
+        executionStarted = System.nanoTime();
+    }
+    
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        SqlStatementTracker.recordExecution(System.nanoTime() - executionStarted);
+    }
+}
@@ -0,0 +1,68 @@
+package com.ecommerce.common.client;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchLoaderTest {
+    
+    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+    private final List<Collection<Long>> batches = new CopyOnWriteArrayList<>();
+    
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdownNow();
+    }
+    
+    @Test
+    void lookupsInOneWindowAreSentTogether() throws Exception {
+        // Arrange
+        BatchLoader<Long, String> loader = new BatchLoader<>(this::loadNames, 100, Duration.ofMillis(50), scheduler);
+        
+        // Act
+        CompletableFuture<String> first = loader.load(1L);
+        CompletableFuture<String> second = loader.load(2L);
+        CompletableFuture<String> repeated = loader.load(1L);
+        CompletableFuture<String> missing = loader.load(404L);
+        
+        // Assert
+        assertEquals("product-1", first.get(1, TimeUnit.SECONDS));
+        assertEquals("product-2", second.get(1, TimeUnit.SECONDS));
+        assertSame(first, repeated);
+        assertNull(missing.get(1, TimeUnit.SECONDS));
+        assertEquals(List.of(List.of(1L, 2L, 404L)), batches);
+    }
+    
+    @Test
+    void fullBatchIsSentWithoutWaiting() throws Exception {
+        // Arrange
+        BatchLoader<Long, String> loader = new BatchLoader<>(this::loadNames, 2, Duration.ofSeconds(30), scheduler);
+        
+        // Act
+        Map<Long, String> names = loader.loadAll(List.of(1L, 2L)).get(1, TimeUnit.SECONDS);
+        
+        // Assert
+        assertEquals(Map.of(1L, "product-1", 2L, "product-2"), names);
+        assertEquals(1, batches.size());
+    }
+    
+    private Map<Long, String> loadNames(Collection<Long> ids) {
+        batches.add(List.copyOf(ids));
+        return ids.stream()
+                .filter(id -> id < 100)
+                .collect(Collectors.toMap(Function.identity(), id -> "product-" + id));
+    }
+}
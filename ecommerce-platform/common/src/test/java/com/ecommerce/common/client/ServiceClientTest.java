@@ -0,0 +1,133 @@
+package com.ecommerce.common.client;
+
+import com.ecommerce.common.dto.ApiResponse;
+import com.fasterxml.jackson.databind.JavaType;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ServiceClientTest {
+    
+    private HttpServer server;
+    private SimpleMeterRegistry meterRegistry;
+    private ServiceClient client;
+    private final AtomicInteger productHits = new AtomicInteger();
+    private final CountDownLatch releaseProduct = new CountDownLatch(1);
+    
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/api/products/", exchange -> {
+            productHits.incrementAndGet();
+            await(releaseProduct);
+            respond(exchange, 200, "{\"success\":true,\"data\":{\"id\":7,\"name\":\"Lamp\"}}");
+        });
+        server.createContext("/slow", exchange -> {
+            sleep(500);
+            respond(exchange, 200, "{}");
+        });
+        server.createContext("/missing", exchange -> respond(exchange, 404, "{\"success\":false}"));
+        server.start();
+        
+        meterRegistry = new SimpleMeterRegistry();
+        client = ServiceClient.builder("product-service", "http://127.0.0.1:" + server.getAddress().getPort())
+                .meterRegistry(meterRegistry)
+                .requestTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+    
+    @Test
+    void identicalGetsInFlightShareOneRequest() throws Exception {
+        // Arrange
+        JavaType type = client.apiResponseOf(Map.class);
+        List<CompletableFuture<ApiResponse<Map<String, Object>>>> calls = new ArrayList<>();
+        
+        // Act
+        for (int i = 0; i < 8; i++) {
+            calls.add(client.getAsync("/api/products/{id}", type, 7));
+        }
+        releaseProduct.countDown();
+        
+        // Assert
+        for (CompletableFuture<ApiResponse<Map<String, Object>>> call : calls) {
+            assertEquals("Lamp", call.get(5, TimeUnit.SECONDS).getData().get("name"));
+        }
+        assertEquals(1, productHits.get());
+        assertEquals(7.0, meterRegistry.get("service.client.coalesced").counter().count());
+        assertEquals(1, meterRegistry.get("service.client.requests")
+                .tag("uri", "/api/products/{id}")
+                .tag("outcome", "SUCCESS")
+                .timer().count());
+    }
+    
+    @Test
+    void callsTimeOutIndependently() {
+        // Act
+        ServiceClientException ex = assertThrows(ServiceClientException.class,
+                () -> client.withTimeout(Duration.ofMillis(100)).get("/slow", Map.class));
+        
+        // Assert
+        assertEquals(0, ex.getStatusCode());
+        assertEquals(Duration.ofSeconds(5), client.getTimeout());
+    }
+    
+    @Test
+    void errorStatusIsReported() {
+        // Act
+        ServiceClientException ex = assertThrows(ServiceClientException.class,
+                () -> client.get("/missing", Map.class));
+        
+        // Assert
+        assertTrue(ex.isClientError());
+        assertEquals(404, ex.getStatusCode());
+        assertEquals("{\"success\":false}", ex.getResponseBody());
+    }
+    
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+        exchange.close();
+    }
+    
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.ecommerce.common.datasource;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Routes between two embedded H2 databases, each of which reports its own name.
+ */
+class ReplicaRoutingDataSourceTest {
+    
+    private ReplicaRoutingDataSource.Replica replica;
+    private ReplicaLagMonitor lagMonitor;
+    private JdbcTemplate replicaJdbc;
+    private JdbcTemplate jdbc;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+    
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource primaryDb = database("primary");
+        JdbcDataSource replicaDb = database("replica");
+        replicaJdbc = new JdbcTemplate(replicaDb);
+        replicaJdbc.execute("CREATE TABLE replica_lag (seconds DOUBLE)");
+        replicaJdbc.execute("INSERT INTO replica_lag VALUES (0)");
+        
+        replica = new ReplicaRoutingDataSource.Replica("replica-1", replicaDb);
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primaryDb, List.of(replica));
+        routing.afterPropertiesSet();
+        lagMonitor = new ReplicaLagMonitor(List.of(replica), "SELECT seconds FROM replica_lag", Duration.ofSeconds(5));
+        
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(routing);
+        jdbc = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        lagMonitor.close();
+        ReplicaRoutingContext.close();
+    }
+    
+    @Test
+    void readOnlyTransactionsUseTheReplica() {
+        // Act & Assert
+        assertEquals("replica", readOnly.execute(status -> node()));
+        assertEquals("primary", readWrite.execute(status -> node()));
+        assertEquals("primary", node());
+    }
+    
+    @Test
+    void readsAfterAWriteInTheSameRequestStayOnThePrimary() {
+        // Arrange
+        ReplicaRoutingContext.open();
+        assertEquals("replica", readOnly.execute(status -> node()));
+        
+        // Act
+        readWrite.executeWithoutResult(status -> jdbc.update("UPDATE node SET touched = TRUE"));
+        
+        // Assert
+        assertEquals("primary", readOnly.execute(status -> node()));
+        ReplicaRoutingContext.close();
+        assertEquals("replica", readOnly.execute(status -> node()));
+    }
+    
+    @Test
+    void laggingReplicaIsSkippedUntilItCatchesUp() {
+        // Arrange
+        replicaJdbc.update("UPDATE replica_lag SET seconds = 30");
+        
+        // Act
+        lagMonitor.checkAll();
+        
+        // Assert
+        assertFalse(replica.isHealthy());
+        assertEquals(Duration.ofSeconds(30), replica.getLag());
+        assertEquals("primary", readOnly.execute(status -> node()));
+        
+        replicaJdbc.update("UPDATE replica_lag SET seconds = 0.5");
+        lagMonitor.checkAll();
+        assertTrue(replica.isHealthy());
+        assertEquals("replica", readOnly.execute(status -> node()));
+    }
+    
+    private String node() {
+        return jdbc.queryForObject("SELECT name FROM node", String.class);
+    }
+    
+    private static JdbcDataSource database(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + "_" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE node (name VARCHAR(20), touched BOOLEAN DEFAULT FALSE)");
+        jdbc.update("INSERT INTO node (name) VALUES (?)", name);
+        return dataSource;
+    }
+}
@@ -0,0 +1,77 @@
+package com.ecommerce.common.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.spi.FilterReply;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StructuredLoggingTest {
+    
+    private final LoggerContext context = new LoggerContext();
+    
+    @Test
+    void encodesEventAsOneJsonLineWithMdc() throws Exception {
+        // Arrange
+        JsonLogEncoder encoder = new JsonLogEncoder();
+        encoder.setService("product-service");
+        LoggingEvent event = new LoggingEvent("test", context.getLogger("com.ecommerce.Test"), Level.INFO,
+                "Reserved \"{}\"\n\tdone", new IllegalStateException("boom"), new Object[]{"ä\u0001"});
+        event.setTimeStamp(1_700_000_000_123L);
+        event.setMDCPropertyMap(Map.of(CorrelationIdFilter.MDC_KEY, "abc123"));
+        
+        // Act
+        String line = new String(encoder.encode(event), StandardCharsets.UTF_8);
+        
+        // Assert
+        assertTrue(line.endsWith("}\n"));
+        assertEquals(1, line.split("\n").length);
+        JsonNode json = new ObjectMapper().readTree(line);
+        assertEquals("2023-11-14T22:13:20.123Z", json.get("@timestamp").asText());
+        assertEquals("INFO", json.get("level").asText());
+        assertEquals("product-service", json.get("service").asText());
+        assertEquals("com.ecommerce.Test", json.get("logger").asText());
+        assertEquals("Reserved \"ä\u0001\"\n\tdone", json.get("message").asText());
+        assertEquals("abc123", json.get("requestId").asText());
+        assertTrue(json.get("exception").asText().contains("IllegalStateException: boom"));
+    }
+    
+    @Test
+    void samplesEachTemplateOfAMatchedLoggerIndependently() {
+        // Arrange
+        SamplingTurboFilter filter = new SamplingTurboFilter();
+        filter.setRules("com.ecommerce.product=4, bad-rule");
+        filter.setContext(context);
+        context.addTurboFilter(filter);
+        filter.start();
+        Logger sampled = context.getLogger("com.ecommerce.product.service.ProductService");
+        Logger other = context.getLogger("com.ecommerce.order.service.OrderService");
+        
+        // Act
+        int kept = 0;
+        for (int i = 0; i < 100; i++) {
+            kept += filter.decide(null, sampled, Level.INFO, "Reserved stock for {} products", null, null)
+                    == FilterReply.NEUTRAL ? 1 : 0;
+        }
+        boolean rareKept = filter.decide(null, sampled, Level.INFO, "Deleting product with ID: {}", null, null)
+                == FilterReply.NEUTRAL;
+        
+        // Assert
+        assertEquals(25, kept);
+        assertTrue(rareKept);
+        assertEquals(75, filter.getSuppressedCount());
+        assertTrue(sampled.isInfoEnabled());
+        assertEquals(FilterReply.NEUTRAL,
+                filter.decide(null, sampled, Level.WARN, "Low stock", null, null));
+        assertEquals(FilterReply.NEUTRAL,
+                filter.decide(null, other, Level.INFO, "Order placed", null, null));
+    }
+}
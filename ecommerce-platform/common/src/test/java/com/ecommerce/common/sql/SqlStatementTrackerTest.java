@@ -0,0 +1,42 @@
+package com.ecommerce.common.sql;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqlStatementTrackerTest {
+    
+    @Test
+    void statementsForDifferentRowsShareAShape() {
+        // Act
+        String first = SqlStatementTracker.shapeOf("select * from product_images where product_id = 17 and url <> 'a''b'");
+        String second = SqlStatementTracker.shapeOf("select *   from product_images\n where product_id = 42 and url <> 'c'");
+        String inList = SqlStatementTracker.shapeOf("select * from products where id in (?, ?, ?)");
+        
+        // Assert
+        assertEquals(first, second);
+        assertEquals("select * from products where id in (...)", inList);
+    }
+    
+    @Test
+    void nestedCapturesBothSeeStatements() {
+        // Arrange
+        try (SqlCapture outer = SqlStatementTracker.begin()) {
+            SqlStatementTracker.recordStatement("select 1");
+            
+            // Act
+            try (SqlCapture inner = SqlStatementTracker.begin()) {
+                SqlStatementTracker.recordStatement("select * from products where id = ?");
+                SqlStatementTracker.recordStatement("select * from products where id = ?");
+                
+                // Assert
+                assertEquals(2, inner.getStatementCount());
+                assertEquals(Map.of("select * from products where id = ?", 2), inner.getRepeatedShapes(2));
+            }
+            assertEquals(3, outer.getStatementCount());
+        }
+        assertFalse(SqlStatementTracker.isActive());
+    }
+}
@@ -0,0 +1,122 @@
+package com.ecommerce.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Fills freshly booted services with a deterministic catalog and customer base through their public
+ * APIs, so the seeding exercises the same code paths a real deployment would.
+ */
+@Slf4j
+public class CatalogSeeder {
+    
+    static final String ADMIN_EMAIL = "admin@ecommerce.com";
+    static final String ADMIN_PASSWORD = "Admin@123";
+    static final String CUSTOMER_PASSWORD = "LoadTest@123";
+    
+    static final List<String> ADJECTIVES = List.of(
+            "Classic", "Wireless", "Compact", "Premium", "Vintage", "Smart", "Portable", "Ergonomic", "Organic", "Rugged");
+    static final List<String> NOUNS = List.of(
+            "Lamp", "Headphones", "Backpack", "Keyboard", "Kettle", "Jacket", "Speaker", "Chair", "Bottle", "Watch",
+            "Camera", "Blender", "Tent", "Monitor", "Sneakers");
+    
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final ObjectMapper objectMapper;
+    private final String authUrl;
+    private final String productUrl;
+    
+    public CatalogSeeder(ObjectMapper objectMapper, String authUrl, String productUrl) {
+        this.objectMapper = objectMapper;
+        this.authUrl = authUrl;
+        this.productUrl = productUrl;
+    }
+    
+    public SeedData seed(LoadTestOptions options) throws IOException, InterruptedException {
+        Random random = new Random(options.getRandomSeed());
+        String adminToken = login(ADMIN_EMAIL, ADMIN_PASSWORD).token();
+        
+        List<Long> categoryIds = new ArrayList<>();
+        for (int i = 0; i < options.getCategories(); i++) {
+            Map<String, Object> request = new LinkedHashMap<>();
+            request.put("name", "Category " + i);
+            request.put("description", "Load test category " + i);
+            categoryIds.add(post(productUrl + "/api/categories", request, adminToken).get("id").asLong());
+        }
+        
+        // Run-unique SKUs so seeding an external, already-seeded environment doesn't collide
+        String skuPrefix = "LT-" + Long.toString(System.currentTimeMillis(), 36).toUpperCase() + "-";
+        List<Long> productIds = new ArrayList<>();
+        for (int i = 0; i < options.getProducts(); i++) {
+            String adjective = ADJECTIVES.get(random.nextInt(ADJECTIVES.size()));
+            String noun = NOUNS.get(random.nextInt(NOUNS.size()));
+            Map<String, Object> request = new LinkedHashMap<>();
+            request.put("name", adjective + " " + noun + " " + i);
+            request.put("description", "A " + adjective.toLowerCase() + " " + noun.toLowerCase() + " for load testing");
+            request.put("price", BigDecimal.valueOf(500 + random.nextInt(50_000), 2));
+            request.put("categoryId", categoryIds.get(random.nextInt(categoryIds.size())));
+            request.put("stockQuantity", 1_000_000);
+            request.put("sku", skuPrefix + i);
+            request.put("imageUrls", List.of("https://img.example.com/" + i + ".jpg"));
+            productIds.add(post(productUrl + "/api/products", request, adminToken).get("id").asLong());
+        }
+        
+        List<Customer> customers = new ArrayList<>();
+        for (int i = 0; i < options.getCustomers(); i++) {
+            String email = "loadtest-" + skuPrefix.toLowerCase() + i + "@example.com";
+            Map<String, Object> request = new LinkedHashMap<>();
+            request.put("email", email);
+            request.put("password", CUSTOMER_PASSWORD);
+            request.put("firstName", "Load");
+            request.put("lastName", "Tester" + i);
+            JsonNode response = post(authUrl + "/api/auth/register", request, null);
+            customers.add(new Customer(email, CUSTOMER_PASSWORD, response.get("token").asText()));
+        }
+        
+        List<String> keywords = new ArrayList<>(ADJECTIVES);
+        keywords.addAll(NOUNS);
+        log.info("Seeded {} categories, {} products and {} customers", categoryIds.size(), productIds.size(), customers.size());
+        return new SeedData(categoryIds, productIds, customers, keywords);
+    }
+    
+    private Customer login(String email, String password) throws IOException, InterruptedException {
+        JsonNode response = post(authUrl + "/api/auth/login", Map.of("email", email, "password", password), null);
+        return new Customer(email, password, response.get("token").asText());
+    }
+    
+    private JsonNode post(String url, Object body, String token) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)));
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        HttpResponse<byte[]> response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() / 100 != 2) {
+            throw new IllegalStateException("Seeding call " + url + " failed with " + response.statusCode() + ": "
+                    + new String(response.body()));
+        }
+        return objectMapper.readTree(response.body()).get("data");
+    }
+    
+    public record Customer(String email, String password, String token) {
+    }
+    
+    public record SeedData(List<Long> categoryIds, List<Long> productIds, List<Customer> customers,
+                           List<String> keywords) {
+    }
+}
@@ -0,0 +1,198 @@
+package com.ecommerce.loadtest;
+
+import com.ecommerce.loadtest.OpenModelDriver.OperationStats;
+import com.ecommerce.loadtest.OpenModelDriver.RunResult;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Turns a run into {@code report.json}, {@code report.txt} and one HdrHistogram {@code .hgrm}
+ * percentile file per operation.
+ * <p>
+ * The JSON carries each full histogram, compressed and base64-encoded, next to the headline
+ * percentiles, so two releases can be compared at any percentile later, not just the ones printed.
+ * Given a baseline report, the text report adds the change at p50, p99 and p99.9.
+ */
+public class LatencyReport {
+    
+    static final List<Double> PERCENTILES = List.of(50.0, 90.0, 99.0, 99.9, 99.99);
+    private static final String TOTAL = "all";
+    
+    private final ObjectMapper objectMapper;
+    
+    public LatencyReport(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper.copy().enable(SerializationFeature.INDENT_OUTPUT);
+    }
+    
+    public Map<String, Object> toJson(LoadTestOptions options, RunResult result) {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("generatedAt", Instant.now().toString());
+        report.put("run", runSettings(options, result));
+        
+        Map<String, Object> operations = new LinkedHashMap<>();
+        Histogram allLatency = null;
+        Histogram allServiceTime = null;
+        long errors = 0;
+        long rejected = 0;
+        for (OperationStats stats : result.operations().values()) {
+            operations.put(stats.getName(), operation(stats.getLatency(), stats.getServiceTime(),
+                    stats.getErrors(), stats.getRejected(), stats.getStatuses(), result));
+            allLatency = merge(allLatency, stats.getLatency());
+            allServiceTime = merge(allServiceTime, stats.getServiceTime());
+            errors += stats.getErrors();
+            rejected += stats.getRejected();
+        }
+        operations.put(TOTAL, operation(allLatency, allServiceTime, errors, rejected, null, result));
+        report.put("operations", operations);
+        return report;
+    }
+    
+    /**
+     * Writes all report files into {@code directory}, returning the text report.
+     */
+    public String write(Path directory, Map<String, Object> report, RunResult result, JsonNode baseline) throws IOException {
+        Files.createDirectories(directory);
+        objectMapper.writeValue(directory.resolve("report.json").toFile(), report);
+        String text = toText(objectMapper.valueToTree(report), baseline);
+        Files.writeString(directory.resolve("report.txt"), text);
+        for (OperationStats stats : result.operations().values()) {
+            try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve(stats.getName() + ".hgrm")))) {
+                // Recorded in microseconds, printed in milliseconds
+                stats.getLatency().outputPercentileDistribution(out, 1000.0);
+            }
+        }
+        return text;
+    }
+    
+    public String toText(JsonNode report, JsonNode baseline) {
+        StringBuilder text = new StringBuilder();
+        JsonNode run = report.get("run");
+        text.append(String.format("Open-model run: %s req/s target, %s arrivals, %ss measured after %ss warmup%n",
+                run.get("targetRate").asText(), run.get("arrival").asText(),
+                run.get("durationSeconds").asText(), run.get("warmupSeconds").asText()));
+        text.append(String.format("Dispatcher max lag: %s ms%n%n", run.get("maxDispatchLagMs").asText()));
+        text.append("Latency from intended start, ms (coordinated-omission corrected)\n");
+        text.append(String.format("%-10s %9s %8s %8s %8s %8s %8s %8s %9s %9s %8s%n",
+                "operation", "count", "req/s", "p50", "p90", "p99", "p99.9", "p99.99", "max", "errors", "rejected"));
+        report.get("operations").fields().forEachRemaining(entry -> {
+            JsonNode op = entry.getValue();
+            JsonNode latency = op.get("latencyMs");
+            text.append(String.format("%-10s %9d %8.1f %8.2f %8.2f %8.2f %8.2f %8.2f %9.2f %9d %8d%n",
+                    entry.getKey(), op.get("count").asLong(), op.get("throughput").asDouble(),
+                    latency.get("p50").asDouble(), latency.get("p90").asDouble(), latency.get("p99").asDouble(),
+                    latency.get("p99.9").asDouble(), latency.get("p99.99").asDouble(), latency.get("max").asDouble(),
+                    op.get("errors").asLong(), op.get("rejected").asLong()));
+        });
+        
+        text.append("\nService time (actual send to response), ms\n");
+        text.append(String.format("%-10s %8s %8s %8s %9s%n", "operation", "p50", "p99", "p99.9", "max"));
+        report.get("operations").fields().forEachRemaining(entry -> {
+            JsonNode service = entry.getValue().get("serviceTimeMs");
+            text.append(String.format("%-10s %8.2f %8.2f %8.2f %9.2f%n", entry.getKey(), service.get("p50").asDouble(),
+                    service.get("p99").asDouble(), service.get("p99.9").asDouble(), service.get("max").asDouble()));
+        });
+        
+        if (baseline != null) {
+            text.append("\nChange against baseline (").append(baseline.path("generatedAt").asText("?")).append(")\n");
+            text.append(String.format("%-10s %10s %10s %10s%n", "operation", "p50", "p99", "p99.9"));
+            report.get("operations").fields().forEachRemaining(entry -> {
+                JsonNode before = baseline.path("operations").path(entry.getKey()).path("latencyMs");
+                if (before.isMissingNode()) {
+                    return;
+                }
+                JsonNode after = entry.getValue().get("latencyMs");
+                text.append(String.format("%-10s %10s %10s %10s%n", entry.getKey(),
+                        delta(before, after, "p50"), delta(before, after, "p99"), delta(before, after, "p99.9")));
+            });
+        }
+        return text.toString();
+    }
+    
+    private Map<String, Object> runSettings(LoadTestOptions options, RunResult result) {
+        Map<String, Object> run = new LinkedHashMap<>();
+        run.put("targetRate", options.getRate());
+        run.put("arrival", options.getArrival().name().toLowerCase());
+        run.put("durationSeconds", options.getDuration().toMillis() / 1000.0);
+        run.put("warmupSeconds", options.getWarmup().toMillis() / 1000.0);
+        run.put("mix", options.getMix());
+        run.put("maxInFlight", options.getMaxInFlight());
+        run.put("seed", options.getRandomSeed());
+        run.put("categories", options.getCategories());
+        run.put("products", options.getProducts());
+        run.put("customers", options.getCustomers());
+        run.put("external", options.isExternal());
+        run.put("maxDispatchLagMs", result.maxDispatchLag().toNanos() / 1_000_000.0);
+        run.put("javaVersion", System.getProperty("java.version"));
+        run.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+        return run;
+    }
+    
+    private Map<String, Object> operation(Histogram latency, Histogram serviceTime, long errors, long rejected,
+                                          Map<Integer, Long> statuses, RunResult result) {
+        Map<String, Object> op = new LinkedHashMap<>();
+        long count = latency == null ? 0 : latency.getTotalCount();
+        op.put("count", count);
+        op.put("throughput", count / (result.duration().toMillis() / 1000.0));
+        op.put("errors", errors);
+        op.put("rejected", rejected);
+        if (statuses != null) {
+            op.put("statuses", statuses);
+        }
+        op.put("latencyMs", summary(latency));
+        op.put("serviceTimeMs", summary(serviceTime));
+        if (latency != null) {
+            op.put("latencyHistogram", encode(latency));
+        }
+        return op;
+    }
+    
+    private static Map<String, Double> summary(Histogram histogram) {
+        Map<String, Double> summary = new LinkedHashMap<>();
+        for (double percentile : PERCENTILES) {
+            summary.put(label(percentile), histogram == null ? 0 : histogram.getValueAtPercentile(percentile) / 1000.0);
+        }
+        summary.put("max", histogram == null ? 0 : histogram.getMaxValue() / 1000.0);
+        summary.put("mean", histogram == null ? 0 : histogram.getMean() / 1000.0);
+        return summary;
+    }
+    
+    private static String label(double percentile) {
+        return percentile == Math.rint(percentile) ? "p" + (int) percentile : "p" + percentile;
+    }
+    
+    private static Histogram merge(Histogram into, Histogram from) {
+        Histogram merged = into != null ? into : new Histogram(from.getHighestTrackableValue(),
+                from.getNumberOfSignificantValueDigits());
+        merged.add(from);
+        return merged;
+    }
+    
+    private static String encode(Histogram histogram) {
+        ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+        int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+        return Base64.getEncoder().encodeToString(Arrays.copyOf(buffer.array(), length));
+    }
+    
+    private static String delta(JsonNode before, JsonNode after, String field) {
+        double was = before.path(field).asDouble();
+        double now = after.path(field).asDouble();
+        if (was == 0) {
+            return "n/a";
+        }
+        return String.format("%+.1f%%", (now - was) / was * 100);
+    }
+}
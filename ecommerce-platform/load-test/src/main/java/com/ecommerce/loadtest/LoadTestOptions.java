@@ -0,0 +1,97 @@
+package com.ecommerce.loadtest;
+
+import lombok.Builder;
+import lombok.Value;
+import org.springframework.boot.convert.DurationStyle;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Settings for one load-test run, read from {@code loadtest.*} system properties.
+ */
+@Value
+@Builder
+public class LoadTestOptions {
+    
+    public static final String DEFAULT_MIX = "login=5,browse=25,category=10,search=20,detail=30,reviews=5,review=5";
+    
+    /** Target arrival rate in requests per second, independent of how fast responses come back. */
+    double rate;
+    Duration duration;
+    /** Load applied before measurement starts, to get JIT, pools and caches to steady state. */
+    Duration warmup;
+    Arrival arrival;
+    /** Relative weights per operation; see {@link Workload}. */
+    Map<String, Integer> mix;
+    /** Cap on requests awaiting a response; beyond it requests are counted as rejected, not sent. */
+    int maxInFlight;
+    long randomSeed;
+    
+    int categories;
+    int products;
+    int customers;
+    
+    /** Set to drive already-running services instead of booting embedded ones. */
+    String authUrl;
+    String productUrl;
+    String authClasspath;
+    String productClasspath;
+    
+    Path reportDir;
+    /** Earlier report.json to print deltas against. */
+    Path baseline;
+    
+    public enum Arrival {
+        /** Evenly spaced requests. */
+        CONSTANT,
+        /** Exponentially distributed gaps with the same mean, closer to independent users. */
+        POISSON
+    }
+    
+    public boolean isExternal() {
+        return authUrl != null && productUrl != null;
+    }
+    
+    public static LoadTestOptions fromProperties(Properties properties) {
+        return LoadTestOptions.builder()
+                .rate(Double.parseDouble(properties.getProperty("loadtest.rate", "100")))
+                .duration(DurationStyle.detectAndParse(properties.getProperty("loadtest.duration", "60s")))
+                .warmup(DurationStyle.detectAndParse(properties.getProperty("loadtest.warmup", "15s")))
+                .arrival(Arrival.valueOf(properties.getProperty("loadtest.arrival", "poisson").toUpperCase()))
+                .mix(parseMix(properties.getProperty("loadtest.mix", DEFAULT_MIX)))
+                .maxInFlight(Integer.parseInt(properties.getProperty("loadtest.max-in-flight", "2000")))
+                .randomSeed(Long.parseLong(properties.getProperty("loadtest.seed", "42")))
+                .categories(Integer.parseInt(properties.getProperty("loadtest.categories", "20")))
+                .products(Integer.parseInt(properties.getProperty("loadtest.products", "500")))
+                .customers(Integer.parseInt(properties.getProperty("loadtest.customers", "50")))
+                .authUrl(properties.getProperty("loadtest.auth-url"))
+                .productUrl(properties.getProperty("loadtest.product-url"))
+                .authClasspath(properties.getProperty("loadtest.auth.classpath"))
+                .productClasspath(properties.getProperty("loadtest.product.classpath"))
+                .reportDir(Path.of(properties.getProperty("loadtest.report-dir", "build/load-test")))
+                .baseline(properties.containsKey("loadtest.baseline") ? Path.of(properties.getProperty("loadtest.baseline")) : null)
+                .build();
+    }
+    
+    static Map<String, Integer> parseMix(String spec) {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String entry : spec.split(",")) {
+            String[] parts = entry.split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Bad loadtest.mix entry '" + entry + "', expected name=weight");
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) {
+                mix.put(parts[0].trim(), weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("loadtest.mix has no operation with a positive weight");
+        }
+        return mix;
+    }
+}
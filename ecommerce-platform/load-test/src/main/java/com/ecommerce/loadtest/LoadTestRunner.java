@@ -0,0 +1,79 @@
+package com.ecommerce.loadtest;
+
+import com.ecommerce.loadtest.CatalogSeeder.SeedData;
+import com.ecommerce.loadtest.OpenModelDriver.RunResult;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * Entry point of the {@code loadTest} Gradle task: boot, seed, drive, report.
+ */
+@Slf4j
+public class LoadTestRunner {
+    
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.fromProperties(System.getProperties());
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        Files.createDirectories(options.getReportDir());
+        
+        ServiceProcess auth = null;
+        ServiceProcess product = null;
+        try {
+            String authUrl = options.getAuthUrl();
+            String productUrl = options.getProductUrl();
+            if (!options.isExternal()) {
+                auth = ServiceProcess.start("auth-service", options.getAuthClasspath(),
+                        "com.ecommerce.auth.AuthServiceApplication", options.getReportDir().resolve("auth-service.log"));
+                product = ServiceProcess.start("product-service", options.getProductClasspath(),
+                        "com.ecommerce.product.ProductServiceApplication", options.getReportDir().resolve("product-service.log"));
+                authUrl = auth.getBaseUrl();
+                productUrl = product.getBaseUrl();
+            }
+            
+            SeedData seed = new CatalogSeeder(objectMapper, authUrl, productUrl).seed(options);
+            Workload workload = new Workload(objectMapper, authUrl, productUrl, seed);
+            Map<String, Function<Random, HttpRequest>> operations = new LinkedHashMap<>();
+            options.getMix().keySet().forEach(name -> operations.put(name, workload.operation(name)));
+            
+            RunResult result;
+            ExecutorService responses = Executors.newFixedThreadPool(Math.max(4, Runtime.getRuntime().availableProcessors()));
+            try {
+                HttpClient httpClient = HttpClient.newBuilder()
+                        .version(HttpClient.Version.HTTP_1_1)
+                        .connectTimeout(Duration.ofSeconds(5))
+                        .executor(responses)
+                        .build();
+                result = new OpenModelDriver(httpClient, options).run(operations);
+            } finally {
+                responses.shutdownNow();
+            }
+            
+            LatencyReport report = new LatencyReport(objectMapper);
+            JsonNode baseline = options.getBaseline() == null ? null : objectMapper.readTree(options.getBaseline().toFile());
+            String text = report.write(options.getReportDir(), report.toJson(options, result), result, baseline);
+            System.out.println();
+            System.out.println(text);
+            log.info("Reports written to {}", options.getReportDir().toAbsolutePath());
+        } finally {
+            if (product != null) {
+                product.close();
+            }
+            if (auth != null) {
+                auth.close();
+            }
+        }
+    }
+}
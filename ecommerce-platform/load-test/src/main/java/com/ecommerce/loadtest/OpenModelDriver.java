@@ -0,0 +1,186 @@
+package com.ecommerce.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * Open-model load generator: requests are issued on a fixed arrival schedule whether or not earlier
+ * ones have completed, as independent users would.
+ * <p>
+ * Latency is measured from each request's <em>intended</em> start on that schedule, not from when it
+ * was actually sent. If the system under test (or this process) stalls, every request that should
+ * have gone out during the stall is charged for the wait, so the percentiles are free of coordinated
+ * omission. Time from actual send to response is kept alongside as service time; a wide gap between
+ * the two means the generator itself could not keep up.
+ */
+@Slf4j
+public class OpenModelDriver {
+    
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.HOURS.toMicros(1);
+    private static final int SIGNIFICANT_DIGITS = 3;
+    
+    private final HttpClient httpClient;
+    private final LoadTestOptions options;
+    
+    public OpenModelDriver(HttpClient httpClient, LoadTestOptions options) {
+        this.httpClient = httpClient;
+        this.options = options;
+    }
+    
+    /**
+     * Runs warmup followed by the measured period and waits for the stragglers.
+     *
+     * @param operations request factory per operation name in {@link LoadTestOptions#getMix()}
+     */
+    public RunResult run(Map<String, Function<Random, HttpRequest>> operations) throws InterruptedException {
+        Random random = new Random(options.getRandomSeed());
+        Map<String, OperationStats> stats = new LinkedHashMap<>();
+        String[] names = options.getMix().keySet().toArray(String[]::new);
+        int[] cumulativeWeights = new int[names.length];
+        int totalWeight = 0;
+        for (int i = 0; i < names.length; i++) {
+            totalWeight += options.getMix().get(names[i]);
+            cumulativeWeights[i] = totalWeight;
+            stats.put(names[i], new OperationStats(names[i]));
+        }
+        
+        AtomicInteger inFlight = new AtomicInteger();
+        double meanGapNanos = TimeUnit.SECONDS.toNanos(1) / options.getRate();
+        long start = System.nanoTime();
+        long measureFrom = start + options.getWarmup().toNanos();
+        long end = measureFrom + options.getDuration().toNanos();
+        long intended = start;
+        long maxLagNanos = 0;
+        log.info("Driving {} req/s ({} arrivals) for {} after {} warmup", options.getRate(),
+                options.getArrival().name().toLowerCase(), options.getDuration(), options.getWarmup());
+        
+        while (intended < end) {
+            long now;
+            while ((now = System.nanoTime()) < intended) {
+                LockSupport.parkNanos(intended - now);
+            }
+            int choice = random.nextInt(totalWeight);
+            int index = 0;
+            while (cumulativeWeights[index] <= choice) {
+                index++;
+            }
+            OperationStats operation = stats.get(names[index]);
+            boolean measured = intended >= measureFrom;
+            if (measured) {
+                maxLagNanos = Math.max(maxLagNanos, now - intended);
+            }
+            
+            if (inFlight.get() >= options.getMaxInFlight()) {
+                if (measured) {
+                    operation.rejected.increment();
+                }
+            } else {
+                HttpRequest request = operations.get(operation.name).apply(random);
+                inFlight.incrementAndGet();
+                long scheduledAt = intended;
+                long sentAt = System.nanoTime();
+                httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                        .whenComplete((response, ex) -> {
+                            long completedAt = System.nanoTime();
+                            inFlight.decrementAndGet();
+                            if (measured) {
+                                operation.record(scheduledAt, sentAt, completedAt, response == null ? -1 : response.statusCode());
+                            }
+                        });
+            }
+            intended += nextGap(random, meanGapNanos);
+        }
+        
+        long drainDeadline = System.nanoTime() + Workload.REQUEST_TIMEOUT.toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            Thread.sleep(10);
+        }
+        if (inFlight.get() > 0) {
+            log.warn("{} requests still outstanding after the drain timeout; they are not in the report", inFlight.get());
+        }
+        return new RunResult(stats, options.getDuration(), Duration.ofNanos(maxLagNanos));
+    }
+    
+    private long nextGap(Random random, double meanGapNanos) {
+        if (options.getArrival() == LoadTestOptions.Arrival.CONSTANT) {
+            return Math.max(1, Math.round(meanGapNanos));
+        }
+        return Math.max(1, Math.round(-Math.log(1 - random.nextDouble()) * meanGapNanos));
+    }
+    
+    /**
+     * Measurements for one operation. Histograms are in microseconds.
+     */
+    public static class OperationStats {
+        private final String name;
+        private final Histogram latency = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+        private final Histogram serviceTime = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+        
+        OperationStats(String name) {
+            this.name = name;
+        }
+        
+        void record(long scheduledAt, long sentAt, long completedAt, int status) {
+            latency.recordValue(Math.min(HIGHEST_TRACKABLE_MICROS, (completedAt - scheduledAt) / 1000));
+            serviceTime.recordValue(Math.min(HIGHEST_TRACKABLE_MICROS, (completedAt - sentAt) / 1000));
+            statuses.computeIfAbsent(status, key -> new LongAdder()).increment();
+            if (status < 200 || status >= 400) {
+                errors.increment();
+            }
+        }
+        
+        public String getName() {
+            return name;
+        }
+        
+        public Histogram getLatency() {
+            return latency;
+        }
+        
+        public Histogram getServiceTime() {
+            return serviceTime;
+        }
+        
+        public long getErrors() {
+            return errors.sum();
+        }
+        
+        public long getRejected() {
+            return rejected.sum();
+        }
+        
+        /**
+         * Responses by HTTP status; -1 counts requests that failed without one (timeouts, refused connections).
+         */
+        public Map<Integer, Long> getStatuses() {
+            Map<Integer, Long> counts = new TreeMap<>();
+            statuses.forEach((status, count) -> counts.put(status, count.sum()));
+            return counts;
+        }
+    }
+    
+    /**
+     * @param maxDispatchLag furthest the dispatcher fell behind its own schedule while measuring
+     */
+    public record RunResult(Map<String, OperationStats> operations, Duration duration, Duration maxDispatchLag) {
+    }
+}
@@ -0,0 +1,121 @@
+package com.ecommerce.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One service booted in its own JVM on a free port, backed by an in-memory H2 database.
+ * <p>
+ * Separate processes keep each service's {@code application.yml} and bean scan to itself and stop the
+ * load generator's own allocation and GC from showing up in the services' latency.
+ */
+@Slf4j
+public class ServiceProcess implements AutoCloseable {
+    
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+    
+    private final String name;
+    private final Process process;
+    private final int port;
+    
+    private ServiceProcess(String name, Process process, int port) {
+        this.name = name;
+        this.process = process;
+        this.port = port;
+    }
+    
+    /**
+     * Starts {@code mainClass} and waits until its health endpoint reports UP.
+     */
+    public static ServiceProcess start(String name, String classpath, String mainClass, Path logFile)
+            throws IOException, InterruptedException {
+        if (classpath == null || classpath.isBlank()) {
+            throw new IllegalStateException("No classpath for " + name + "; run through the loadTest Gradle task");
+        }
+        int port = freePort();
+        List<String> command = new ArrayList<>(List.of(
+                Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-Xms512m", "-Xmx512m",
+                "-cp", classpath,
+                mainClass,
+                "--server.port=" + port,
+                "--spring.datasource.url=jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.show-sql=false",
+                "--spring.sql.init.mode=never",
+                // Measure the services, not their console
+                "--logging.level.root=WARN",
+                "--logging.level.org.springframework.boot.web.embedded=INFO"
+        ));
+        log.info("Starting {} on port {} (log: {})", name, port, logFile);
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(logFile.toFile())
+                .start();
+        ServiceProcess service = new ServiceProcess(name, process, port);
+        try {
+            service.awaitHealthy();
+        } catch (IOException | InterruptedException | RuntimeException ex) {
+            service.close();
+            throw ex;
+        }
+        return service;
+    }
+    
+    public String getBaseUrl() {
+        return "http://localhost:" + port;
+    }
+    
+    private void awaitHealthy() throws IOException, InterruptedException {
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest health = HttpRequest.newBuilder(URI.create(getBaseUrl() + "/actuator/health"))
+                .timeout(Duration.ofSeconds(2))
+                .build();
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException(name + " exited during startup with code " + process.exitValue());
+            }
+            try {
+                HttpResponse<String> response = client.send(health, HttpResponse.BodyHandlers.ofString());
+                if (response.statusCode() == 200) {
+                    log.info("{} is up at {}", name, getBaseUrl());
+                    return;
+                }
+            } catch (IOException ex) {
+                // Not listening yet
+            }
+            Thread.sleep(500);
+        }
+        throw new IllegalStateException(name + " did not become healthy within " + STARTUP_TIMEOUT);
+    }
+    
+    @Override
+    public void close() throws InterruptedException {
+        process.destroy();
+        if (!process.waitFor(20, TimeUnit.SECONDS)) {
+            process.destroyForcibly();
+        }
+    }
+    
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.ecommerce.loadtest;
+
+import com.ecommerce.loadtest.CatalogSeeder.Customer;
+import com.ecommerce.loadtest.CatalogSeeder.SeedData;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * The operations a load-test run can mix, each a single HTTP call against the seeded data:
+ * <ul>
+ *   <li>{@code login}: POST /api/auth/login as a random seeded customer</li>
+ *   <li>{@code browse}: GET /api/products, a random page of 20</li>
+ *   <li>{@code category}: GET /api/products/category/{id}, first page of a random category</li>
+ *   <li>{@code search}: GET /api/products/search with one of the words product names are built from</li>
+ *   <li>{@code detail}: GET /api/products/{id} for a random product</li>
+ *   <li>{@code reviews}: GET /api/reviews/product/{id}</li>
+ *   <li>{@code review}: POST /api/reviews; customer and product are walked so no pair repeats until
+ *       every combination is used</li>
+ * </ul>
+ */
+public class Workload {
+    
+    static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final int PAGE_SIZE = 20;
+    
+    private final Map<String, Function<Random, HttpRequest>> operations = new LinkedHashMap<>();
+    private final ObjectMapper objectMapper;
+    private final AtomicLong reviewsPosted = new AtomicLong();
+    
+    public Workload(ObjectMapper objectMapper, String authUrl, String productUrl, SeedData seed) {
+        this.objectMapper = objectMapper;
+        List<Long> products = seed.productIds();
+        List<Long> categories = seed.categoryIds();
+        List<Customer> customers = seed.customers();
+        int pages = Math.max(1, products.size() / PAGE_SIZE);
+        
+        operations.put("login", random -> {
+            Customer customer = pick(customers, random);
+            return post(authUrl + "/api/auth/login", Map.of("email", customer.email(), "password", customer.password()), null);
+        });
+        operations.put("browse", random ->
+                get(productUrl + "/api/products?size=" + PAGE_SIZE + "&page=" + random.nextInt(pages)));
+        operations.put("category", random ->
+                get(productUrl + "/api/products/category/" + pick(categories, random) + "?size=" + PAGE_SIZE));
+        operations.put("search", random ->
+                get(productUrl + "/api/products/search?size=" + PAGE_SIZE + "&keyword="
+                        + URLEncoder.encode(pick(seed.keywords(), random), StandardCharsets.UTF_8)));
+        operations.put("detail", random -> get(productUrl + "/api/products/" + pick(products, random)));
+        operations.put("reviews", random -> get(productUrl + "/api/reviews/product/" + pick(products, random)));
+        operations.put("review", random -> {
+            long n = reviewsPosted.getAndIncrement();
+            Customer customer = customers.get((int) (n % customers.size()));
+            Long productId = products.get((int) ((n / customers.size()) % products.size()));
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("productId", productId);
+            body.put("rating", 1 + random.nextInt(5));
+            body.put("title", "Load test review " + n);
+            body.put("comment", "Posted by the load-test harness");
+            return post(productUrl + "/api/reviews", body, customer.token());
+        });
+    }
+    
+    /**
+     * Request factory for {@code name}; called on the dispatcher thread, so it must not block.
+     */
+    public Function<Random, HttpRequest> operation(String name) {
+        Function<Random, HttpRequest> operation = operations.get(name);
+        if (operation == null) {
+            throw new IllegalArgumentException("Unknown operation '" + name + "', expected one of " + operations.keySet());
+        }
+        return operation;
+    }
+    
+    private static <T> T pick(List<T> values, Random random) {
+        return values.get(random.nextInt(values.size()));
+    }
+    
+    private static HttpRequest get(String url) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Accept", "application/json")
+                .header("Accept-Encoding", "gzip")
+                .GET()
+                .build();
+    }
+    
+    private HttpRequest post(String url, Object body, String token) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/json");
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        try {
+            return request.POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body))).build();
+        } catch (JsonProcessingException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
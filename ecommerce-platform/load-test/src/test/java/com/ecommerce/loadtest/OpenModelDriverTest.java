@@ -0,0 +1,113 @@
+package com.ecommerce.loadtest;
+
+import com.ecommerce.loadtest.OpenModelDriver.OperationStats;
+import com.ecommerce.loadtest.OpenModelDriver.RunResult;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OpenModelDriverTest {
+    
+    private HttpServer server;
+    
+    @AfterEach
+    void tearDown() {
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+    
+    @Test
+    void requestsScheduledDuringAStallAreChargedForIt() throws Exception {
+        // Arrange: the server holds every response until 500ms after the driver's first request reaches it
+        CountDownLatch stall = new CountDownLatch(1);
+        AtomicLong releasedAt = new AtomicLong();
+        Queue<Long> heldArrivals = new ConcurrentLinkedQueue<>();
+        ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+        AtomicBoolean started = new AtomicBoolean();
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/", exchange -> {
+            long arrivedAt = System.nanoTime();
+            if (started.compareAndSet(false, true)) {
+                timer.schedule(() -> {
+                    releasedAt.set(System.nanoTime());
+                    stall.countDown();
+                }, 500, TimeUnit.MILLISECONDS);
+            }
+            if (stall.getCount() > 0) {
+                heldArrivals.add(arrivedAt);
+            }
+            try {
+                stall.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.start();
+        LoadTestOptions options = LoadTestOptions.builder()
+                .rate(100)
+                .duration(Duration.ofSeconds(1))
+                .warmup(Duration.ZERO)
+                .arrival(LoadTestOptions.Arrival.CONSTANT)
+                .mix(Map.of("ping", 1))
+                .maxInFlight(1000)
+                .randomSeed(1)
+                .reportDir(Path.of("build"))
+                .build();
+        HttpRequest ping = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getAddress().getPort() + "/")).build();
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        
+        // Act
+        RunResult result = new OpenModelDriver(httpClient, options).run(Map.of("ping", random -> ping));
+        timer.shutdown();
+        
+        // Assert
+        OperationStats stats = result.operations().get("ping");
+        assertEquals(100, stats.getLatency().getTotalCount());
+        assertEquals(0, stats.getErrors());
+        // Under a closed model only one request would have seen the stall; here every request that
+        // reached the server at least 100ms before the release waited at least that long, measured from
+        // its intended start, which is no later than its arrival
+        long heldAtLeast100ms = heldArrivals.stream()
+                .filter(arrivedAt -> releasedAt.get() - arrivedAt >= TimeUnit.MILLISECONDS.toNanos(100))
+                .count();
+        long stalled = stats.getLatency().getCountBetweenValues(100_000, stats.getLatency().getHighestTrackableValue());
+        assertTrue(heldAtLeast100ms >= 10, "requests held for 100ms or more: " + heldAtLeast100ms);
+        assertTrue(stalled >= heldAtLeast100ms, "requests charged for the stall: " + stalled + " of " + heldAtLeast100ms);
+        assertTrue(stats.getLatency().getMaxValue() >= 400_000);
+    }
+    
+    @Test
+    void parsesMixAndDropsZeroWeights() {
+        // Act
+        Map<String, Integer> mix = LoadTestOptions.parseMix("detail=30, search = 20,review=0");
+        
+        // Assert
+        assertEquals(Map.of("detail", 30, "search", 20), mix);
+        assertThrows(IllegalArgumentException.class, () -> LoadTestOptions.parseMix("detail"));
+    }
+}
@@ -0,0 +1,39 @@
+package com.ecommerce.order.client;
+
+import com.ecommerce.common.client.ServiceClient;
+import com.ecommerce.common.client.ServiceClientException;
+import com.ecommerce.common.exceptions.BadRequestException;
+import com.ecommerce.order.dto.InventoryDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Calls product-service's internal inventory API.
+ */
+@Component
+@RequiredArgsConstructor
+public class ProductServiceClient {
+    
+    private final ServiceClient productServiceHttpClient;
+    
+    public void reserveStock(List<InventoryDto.StockLine> lines) {
+        post("/api/internal/inventory/reserve", lines);
+    }
+    
+    public void releaseStock(List<InventoryDto.StockLine> lines) {
+        post("/api/internal/inventory/release", lines);
+    }
+    
+    private void post(String path, List<InventoryDto.StockLine> lines) {
+        try {
+            productServiceHttpClient.post(path, InventoryDto.StockAdjustmentRequest.builder().lines(lines).build(), Void.class);
+        } catch (ServiceClientException ex) {
+            if (ex.isClientError()) {
+                throw new BadRequestException("Product service rejected " + path + ": " + ex.getResponseBody());
+            }
+            throw ex;
+        }
+    }
+}
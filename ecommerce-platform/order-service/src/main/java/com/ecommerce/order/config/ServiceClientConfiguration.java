@@ -0,0 +1,35 @@
+package com.ecommerce.order.config;
+
+import com.ecommerce.common.client.ServiceClient;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * One shared {@link ServiceClient} per downstream service.
+ */
+@Configuration
+public class ServiceClientConfiguration {
+    
+    @Bean
+    public ServiceClient productServiceHttpClient(ObjectMapper objectMapper,
+                                                  ObjectProvider<MeterRegistry> meterRegistry,
+                                                  @Value("${services.product.url}") String baseUrl,
+                                                  @Value("${services.product.connect-timeout:2s}") Duration connectTimeout,
+                                                  @Value("${services.product.timeout:3s}") Duration timeout,
+                                                  @Value("${services.internal-token:}") String serviceToken) {
+        return ServiceClient.builder("product-service", baseUrl)
+                .objectMapper(objectMapper)
+                .meterRegistry(meterRegistry.getIfAvailable(() -> Metrics.globalRegistry))
+                .connectTimeout(connectTimeout)
+                .requestTimeout(timeout)
+                .serviceToken(serviceToken)
+                .build();
+    }
+}
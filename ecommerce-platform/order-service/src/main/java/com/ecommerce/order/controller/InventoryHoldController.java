@@ -0,0 +1,53 @@
+package com.ecommerce.order.controller;
+
+import com.ecommerce.common.dto.ApiResponse;
+import com.ecommerce.order.dto.InventoryDto;
+import com.ecommerce.order.service.InventoryHoldService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/holds")
+@RequiredArgsConstructor
+@SecurityRequirement(name = "bearerAuth")
+@Tag(name = "Inventory Holds", description = "Checkout stock reservation APIs")
+public class InventoryHoldController {
+    
+    private final InventoryHoldService inventoryHoldService;
+    
+    @PostMapping("/carts/{cartId}")
+    @Operation(summary = "Hold stock for a cart", description = "Reserves every item in the caller's cart until the hold expires")
+    public ResponseEntity<ApiResponse<List<InventoryDto.HoldResponse>>> placeHolds(
+            @PathVariable Long cartId,
+            Authentication authentication
+    ) {
+        List<InventoryDto.HoldResponse> holds = inventoryHoldService.placeHolds(cartId, Long.valueOf(authentication.getName()));
+        return ResponseEntity.ok(ApiResponse.success("Stock held successfully", holds));
+    }
+    
+    @PostMapping("/carts/{cartId}/confirm")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    @Operation(summary = "Confirm a cart's holds after payment", description = "Admin and Manager only")
+    public ResponseEntity<ApiResponse<Integer>> confirmHolds(@PathVariable Long cartId) {
+        int confirmed = inventoryHoldService.confirmHolds(cartId);
+        return ResponseEntity.ok(ApiResponse.success("Holds confirmed successfully", confirmed));
+    }
+    
+    @DeleteMapping("/carts/{cartId}")
+    @Operation(summary = "Release a cart's holds early")
+    public ResponseEntity<ApiResponse<Integer>> releaseHolds(
+            @PathVariable Long cartId,
+            Authentication authentication
+    ) {
+        int released = inventoryHoldService.releaseHolds(cartId, Long.valueOf(authentication.getName()));
+        return ResponseEntity.ok(ApiResponse.success("Holds released successfully", released));
+    }
+}
@@ -0,0 +1,35 @@
+package com.ecommerce.order.controller;
+
+import com.ecommerce.common.dto.ApiResponse;
+import com.ecommerce.order.service.CartPurgeService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/maintenance")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+@SecurityRequirement(name = "bearerAuth")
+@Tag(name = "Maintenance", description = "Background maintenance jobs, admin only")
+public class MaintenanceController {
+    
+    private final CartPurgeService cartPurgeService;
+    
+    @GetMapping("/cart-purge")
+    @Operation(summary = "Report of the last abandoned cart purge")
+    public ResponseEntity<ApiResponse<CartPurgeService.PurgeReport>> getLastCartPurge() {
+        return ResponseEntity.ok(ApiResponse.success(cartPurgeService.getLastReport()));
+    }
+    
+    @PostMapping("/cart-purge")
+    @Operation(summary = "Purge abandoned carts now")
+    public ResponseEntity<ApiResponse<CartPurgeService.PurgeReport>> purgeCarts() {
+        CartPurgeService.PurgeReport report = cartPurgeService.purgeIdleCarts();
+        return ResponseEntity.ok(ApiResponse.success("Cart purge completed", report));
+    }
+}
@@ -0,0 +1,42 @@
+package com.ecommerce.order.controller;
+
+import com.ecommerce.common.constants.PaymentStatus;
+import com.ecommerce.common.dto.ApiResponse;
+import com.ecommerce.order.dto.OrderDto;
+import com.ecommerce.order.service.OrderService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/orders")
+@RequiredArgsConstructor
+@SecurityRequirement(name = "bearerAuth")
+@Tag(name = "Orders", description = "Order management APIs")
+public class OrderController {
+    
+    private final OrderService orderService;
+    
+    @GetMapping("/{orderId}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'EMPLOYEE')")
+    @Operation(summary = "Get order by ID", description = "Admin, Manager, and Employee only")
+    public ResponseEntity<ApiResponse<OrderDto.OrderResponse>> getOrderById(@PathVariable Long orderId) {
+        OrderDto.OrderResponse order = orderService.getOrderById(orderId);
+        return ResponseEntity.ok(ApiResponse.success(order));
+    }
+    
+    @PatchMapping("/{orderId}/payment-status")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    @Operation(summary = "Update payment status", description = "Admin and Manager only")
+    public ResponseEntity<ApiResponse<OrderDto.OrderResponse>> updatePaymentStatus(
+            @PathVariable Long orderId,
+            @RequestParam PaymentStatus status
+    ) {
+        OrderDto.OrderResponse order = orderService.updatePaymentStatus(orderId, status);
+        return ResponseEntity.ok(ApiResponse.success("Payment status updated successfully", order));
+    }
+}
@@ -0,0 +1,38 @@
+package com.ecommerce.order.controller;
+
+import com.ecommerce.common.dto.ApiResponse;
+import com.ecommerce.order.dto.PurchaseDto;
+import com.ecommerce.order.service.PurchaseHistoryService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/api/internal/purchases")
+@RequiredArgsConstructor
+@Tag(name = "Purchase history (internal)", description = "Delivered purchases, used by product-service to verify reviews")
+public class PurchaseHistoryController {
+    
+    private final PurchaseHistoryService purchaseHistoryService;
+    
+    @GetMapping("/delivered")
+    @Operation(summary = "Delivered orders changed after the cursor, oldest first")
+    public ResponseEntity<ApiResponse<PurchaseDto.DeliveredPage>> getDelivered(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+            @RequestParam(defaultValue = "0") Long afterOrderId,
+            @RequestParam(defaultValue = "1000") int limit
+    ) {
+        return ResponseEntity.ok(ApiResponse.success(purchaseHistoryService.getDeliveredSince(since, afterOrderId, limit)));
+    }
+    
+    @GetMapping("/verify")
+    @Operation(summary = "Whether the user has a delivered order containing the product")
+    public ResponseEntity<ApiResponse<Boolean>> verify(@RequestParam Long userId, @RequestParam Long productId) {
+        return ResponseEntity.ok(ApiResponse.success(purchaseHistoryService.hasDeliveredPurchase(userId, productId)));
+    }
+}
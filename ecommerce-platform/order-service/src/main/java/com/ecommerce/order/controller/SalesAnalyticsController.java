@@ -0,0 +1,90 @@
+package com.ecommerce.order.controller;
+
+import com.ecommerce.common.dto.ApiResponse;
+import com.ecommerce.order.dto.AnalyticsDto;
+import com.ecommerce.order.service.SalesRollupCatchUpJob;
+import com.ecommerce.order.service.SalesRollupService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/analytics/sales")
+@RequiredArgsConstructor
+@PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+@SecurityRequirement(name = "bearerAuth")
+@Tag(name = "Sales Analytics", description = "Sales analytics served from pre-aggregated rollups")
+public class SalesAnalyticsController {
+    
+    private final SalesRollupService salesRollupService;
+    private final SalesRollupCatchUpJob catchUpJob;
+    
+    @GetMapping("/daily")
+    @Operation(summary = "Daily sales totals")
+    public ResponseEntity<ApiResponse<List<AnalyticsDto.DailySales>>> getDailySales(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        return ResponseEntity.ok(ApiResponse.success(salesRollupService.getDailySales(from, to)));
+    }
+    
+    @GetMapping("/products/{productId}")
+    @Operation(summary = "Daily sales for a product")
+    public ResponseEntity<ApiResponse<AnalyticsDto.SalesSeries>> getProductSales(
+            @PathVariable Long productId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        return ResponseEntity.ok(ApiResponse.success(salesRollupService.getProductSales(productId, from, to)));
+    }
+    
+    @GetMapping("/categories/{categoryId}")
+    @Operation(summary = "Daily sales for a category")
+    public ResponseEntity<ApiResponse<AnalyticsDto.SalesSeries>> getCategorySales(
+            @PathVariable Long categoryId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        return ResponseEntity.ok(ApiResponse.success(salesRollupService.getCategorySales(categoryId, from, to)));
+    }
+    
+    @GetMapping("/top-products")
+    @Operation(summary = "Best selling products by net revenue")
+    public ResponseEntity<ApiResponse<List<AnalyticsDto.ProductSalesTotal>>> getTopProducts(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "10") int limit
+    ) {
+        return ResponseEntity.ok(ApiResponse.success(salesRollupService.getTopProducts(from, to, limit)));
+    }
+    
+    @PostMapping("/catch-up")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Apply orders changed since the rollup watermark", description = "Admin only")
+    public ResponseEntity<ApiResponse<AnalyticsDto.CatchUpResult>> catchUp() {
+        int processed = catchUpJob.catchUp();
+        AnalyticsDto.CatchUpResult result = AnalyticsDto.CatchUpResult.builder()
+                .ordersProcessed(processed)
+                .watermarkDate(salesRollupService.getWatermark() != null
+                        ? salesRollupService.getWatermark().toLocalDate() : null)
+                .build();
+        return ResponseEntity.ok(ApiResponse.success(result));
+    }
+    
+    @PostMapping("/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Clear the rollups and rebuild them from order history", description = "Admin only")
+    public ResponseEntity<ApiResponse<Void>> rebuild() {
+        salesRollupService.resetForRebuild();
+        return ResponseEntity.accepted()
+                .body(ApiResponse.success("Sales rollups will be rebuilt by the catch-up job", null));
+    }
+}
@@ -0,0 +1,66 @@
+package com.ecommerce.order.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+public class AnalyticsDto {
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DailySales {
+        private LocalDate date;
+        private Long ordersPaid;
+        private Long ordersRefunded;
+        private Long unitsSold;
+        private BigDecimal revenue;
+        private Long unitsRefunded;
+        private BigDecimal refundedAmount;
+        private BigDecimal netRevenue;
+    }
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SalesSeries {
+        private Long id;
+        private LocalDate from;
+        private LocalDate to;
+        private Long unitsSold;
+        private BigDecimal revenue;
+        private Long unitsRefunded;
+        private BigDecimal refundedAmount;
+        private BigDecimal netRevenue;
+        private List<DailySales> days;
+    }
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ProductSalesTotal {
+        private Long productId;
+        private Long unitsSold;
+        private BigDecimal revenue;
+        private Long unitsRefunded;
+        private BigDecimal refundedAmount;
+        private BigDecimal netRevenue;
+    }
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CatchUpResult {
+        private Integer ordersProcessed;
+        private LocalDate watermarkDate;
+    }
+}
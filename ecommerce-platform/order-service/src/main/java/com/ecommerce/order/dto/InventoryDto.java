@@ -0,0 +1,45 @@
+package com.ecommerce.order.dto;
+
+import com.ecommerce.common.constants.InventoryHoldStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class InventoryDto {
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class StockLine {
+        private Long productId;
+        private Integer quantity;
+        /** The hold's key; product-service applies a reservation or release at most once per key. */
+        private String holdKey;
+    }
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class StockAdjustmentRequest {
+        private List<StockLine> lines;
+    }
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class HoldResponse {
+        private Long id;
+        private Long cartItemId;
+        private Long productId;
+        private Integer quantity;
+        private InventoryHoldStatus status;
+        private LocalDateTime expiresAt;
+    }
+}
@@ -0,0 +1,43 @@
+package com.ecommerce.order.dto;
+
+import com.ecommerce.common.constants.OrderStatus;
+import com.ecommerce.common.constants.PaymentStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class OrderDto {
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class OrderResponse {
+        private Long id;
+        private Long userId;
+        private String orderNumber;
+        private OrderStatus status;
+        private PaymentStatus paymentStatus;
+        private BigDecimal totalAmount;
+        private List<OrderItemResponse> items;
+        private LocalDateTime createdAt;
+        private LocalDateTime updatedAt;
+    }
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class OrderItemResponse {
+        private Long id;
+        private Long productId;
+        private Integer quantity;
+        private BigDecimal unitPrice;
+        private BigDecimal subtotal;
+    }
+}
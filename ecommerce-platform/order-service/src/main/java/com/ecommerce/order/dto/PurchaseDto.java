@@ -0,0 +1,38 @@
+package com.ecommerce.order.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class PurchaseDto {
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DeliveredOrder {
+        private Long orderId;
+        private Long userId;
+        private LocalDateTime updatedAt;
+        private List<Long> productIds;
+    }
+    
+    /**
+     * One page of the delivered-order feed. Pass {@code nextSince} and {@code nextAfterOrderId} back to
+     * continue; they stay at the request's cursor when the page is empty.
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DeliveredPage {
+        private List<DeliveredOrder> orders;
+        private LocalDateTime nextSince;
+        private Long nextAfterOrderId;
+        private boolean hasMore;
+    }
+}
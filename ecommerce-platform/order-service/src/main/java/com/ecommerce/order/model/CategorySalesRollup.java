@@ -0,0 +1,47 @@
+package com.ecommerce.order.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "category_sales_rollups", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_category_sales_rollups_category_id_date", columnNames = {"category_id", "sales_date"})
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategorySalesRollup {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "category_id", nullable = false)
+    private Long categoryId;
+
+    @Column(name = "sales_date", nullable = false)
+    private LocalDate salesDate;
+
+    @Column(name = "units_sold", nullable = false)
+    @Builder.Default
+    private Long unitsSold = 0L;
+
+    @Column(precision = 14, scale = 2, nullable = false)
+    @Builder.Default
+    private BigDecimal revenue = BigDecimal.ZERO;
+
+    @Column(name = "units_refunded", nullable = false)
+    @Builder.Default
+    private Long unitsRefunded = 0L;
+
+    @Column(name = "refunded_amount", precision = 14, scale = 2, nullable = false)
+    @Builder.Default
+    private BigDecimal refundedAmount = BigDecimal.ZERO;
+
+    @Column(name = "updated_at")
+    @Builder.Default
+    private LocalDateTime updatedAt = LocalDateTime.now();
+}
@@ -0,0 +1,50 @@
+package com.ecommerce.order.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "daily_sales_rollups")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailySalesRollup {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "sales_date", nullable = false, unique = true)
+    private LocalDate salesDate;
+
+    @Column(name = "orders_paid", nullable = false)
+    @Builder.Default
+    private Long ordersPaid = 0L;
+
+    @Column(name = "orders_refunded", nullable = false)
+    @Builder.Default
+    private Long ordersRefunded = 0L;
+
+    @Column(name = "units_sold", nullable = false)
+    @Builder.Default
+    private Long unitsSold = 0L;
+
+    @Column(precision = 14, scale = 2, nullable = false)
+    @Builder.Default
+    private BigDecimal revenue = BigDecimal.ZERO;
+
+    @Column(name = "units_refunded", nullable = false)
+    @Builder.Default
+    private Long unitsRefunded = 0L;
+
+    @Column(name = "refunded_amount", precision = 14, scale = 2, nullable = false)
+    @Builder.Default
+    private BigDecimal refundedAmount = BigDecimal.ZERO;
+
+    @Column(name = "updated_at")
+    @Builder.Default
+    private LocalDateTime updatedAt = LocalDateTime.now();
+}
@@ -0,0 +1,59 @@
+package com.ecommerce.order.model;
+
+import com.ecommerce.common.constants.InventoryHoldStatus;
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "inventory_holds", indexes = {
+    @Index(name = "idx_inventory_holds_status_expires_at", columnList = "status, expires_at"),
+    @Index(name = "idx_inventory_holds_status_updated_at", columnList = "status, updated_at"),
+    @Index(name = "idx_inventory_holds_cart_id", columnList = "cart_id")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryHold {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "inventory_holds_seq")
+    @SequenceGenerator(name = "inventory_holds_seq", sequenceName = "inventory_holds_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "cart_id", nullable = false)
+    private Long cartId;
+
+    @Column(name = "cart_item_id", nullable = false)
+    private Long cartItemId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    @Builder.Default
+    private InventoryHoldStatus status = InventoryHoldStatus.ACTIVE;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(name = "created_at")
+    @Builder.Default
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    @Column(name = "updated_at")
+    @Builder.Default
+    private LocalDateTime updatedAt = LocalDateTime.now();
+
+    @PreUpdate
+    protected void onUpdate() {
+        this.updatedAt = LocalDateTime.now();
+    }
+}
@@ -9,14 +9,18 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+    @Index(name = "idx_orders_updated_at_id", columnList = "updated_at, id"),
+    @Index(name = "idx_orders_user_id_created_at", columnList = "user_id, created_at")
+})
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class Order {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "user_id", nullable = false)
@@ -47,6 +51,13 @@ public class Order {
     @Builder.Default
     private PaymentStatus paymentStatus = PaymentStatus.PENDING;
 
+    // Payment status whose contribution is currently reflected in the sales rollups; written only by
+    // bulk updates in OrderRepository so it never bumps updated_at
+    @Enumerated(EnumType.STRING)
+    @Column(name = "rolled_up_payment_status", updatable = false)
+    @Builder.Default
+    private PaymentStatus rolledUpPaymentStatus = PaymentStatus.PENDING;
+
     @Column(name = "stripe_payment_intent_id")
     private String stripePaymentIntentId;
 
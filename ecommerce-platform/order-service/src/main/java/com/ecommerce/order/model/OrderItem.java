@@ -5,14 +5,17 @@ import lombok.*;
 import java.math.BigDecimal;
 
 @Entity
-@Table(name = "order_items")
+@Table(name = "order_items", indexes = {
+    @Index(name = "idx_order_items_order_id", columnList = "order_id")
+})
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class OrderItem {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_items_seq")
+    @SequenceGenerator(name = "order_items_seq", sequenceName = "order_items_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -22,6 +25,10 @@ public class OrderItem {
     @Column(name = "product_id", nullable = false)
     private Long productId;
 
+    // Snapshot of the product's category at order time, used by the sales rollups
+    @Column(name = "category_id")
+    private Long categoryId;
+
     @Column(nullable = false)
     private Integer quantity;
 
@@ -0,0 +1,26 @@
+package com.ecommerce.order.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Position of a catch-up job in the (updated_at, id) order of the orders table.
+ */
+@Entity
+@Table(name = "rollup_watermarks")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RollupWatermark {
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    @Column(name = "last_updated_at", nullable = false)
+    private LocalDateTime lastUpdatedAt;
+
+    @Column(name = "last_order_id", nullable = false)
+    private Long lastOrderId;
+}
@@ -6,14 +6,17 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "shopping_carts")
+@Table(name = "shopping_carts", indexes = {
+    @Index(name = "idx_shopping_carts_updated_at", columnList = "updated_at")
+})
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class ShoppingCart {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "shopping_carts_seq")
+    @SequenceGenerator(name = "shopping_carts_seq", sequenceName = "shopping_carts_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "user_id", nullable = false, unique = true)
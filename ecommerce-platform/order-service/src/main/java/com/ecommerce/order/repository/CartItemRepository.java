@@ -0,0 +1,20 @@
+package com.ecommerce.order.repository;
+
+import com.ecommerce.order.model.CartItem;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface CartItemRepository extends JpaRepository<CartItem, Long> {
+    List<CartItem> findByCartId(Long cartId);
+    
+    @Modifying
+    @Query(value = "DELETE FROM cart_items WHERE cart_id IN (:cartIds)", nativeQuery = true)
+    int deleteByCartIdIn(@Param("cartIds") Collection<Long> cartIds);
+}
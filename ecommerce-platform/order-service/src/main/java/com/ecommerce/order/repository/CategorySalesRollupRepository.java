@@ -0,0 +1,34 @@
+package com.ecommerce.order.repository;
+
+import com.ecommerce.order.model.CategorySalesRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface CategorySalesRollupRepository extends JpaRepository<CategorySalesRollup, Long> {
+    List<CategorySalesRollup> findByCategoryIdAndSalesDateBetweenOrderBySalesDate(Long categoryId, LocalDate from, LocalDate to);
+    
+    @Modifying
+    @Query(value = "INSERT INTO category_sales_rollups (category_id, sales_date, units_sold, revenue, units_refunded, refunded_amount, updated_at) " +
+                   "VALUES (:categoryId, :salesDate, :unitsSold, :revenue, :unitsRefunded, :refundedAmount, CURRENT_TIMESTAMP) " +
+                   "ON CONFLICT (category_id, sales_date) DO UPDATE SET " +
+                   "units_sold = category_sales_rollups.units_sold + EXCLUDED.units_sold, " +
+                   "revenue = category_sales_rollups.revenue + EXCLUDED.revenue, " +
+                   "units_refunded = category_sales_rollups.units_refunded + EXCLUDED.units_refunded, " +
+                   "refunded_amount = category_sales_rollups.refunded_amount + EXCLUDED.refunded_amount, " +
+                   "updated_at = EXCLUDED.updated_at",
+           nativeQuery = true)
+    void applyDelta(@Param("categoryId") Long categoryId,
+                    @Param("salesDate") LocalDate salesDate,
+                    @Param("unitsSold") long unitsSold,
+                    @Param("revenue") BigDecimal revenue,
+                    @Param("unitsRefunded") long unitsRefunded,
+                    @Param("refundedAmount") BigDecimal refundedAmount);
+}
@@ -0,0 +1,39 @@
+package com.ecommerce.order.repository;
+
+import com.ecommerce.order.model.DailySalesRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface DailySalesRollupRepository extends JpaRepository<DailySalesRollup, Long> {
+    List<DailySalesRollup> findBySalesDateBetweenOrderBySalesDate(LocalDate from, LocalDate to);
+    
+    @Modifying
+    @Query(value = "INSERT INTO daily_sales_rollups (sales_date, orders_paid, orders_refunded, units_sold, revenue, " +
+                   "units_refunded, refunded_amount, updated_at) " +
+                   "VALUES (:salesDate, :ordersPaid, :ordersRefunded, :unitsSold, :revenue, :unitsRefunded, " +
+                   ":refundedAmount, CURRENT_TIMESTAMP) " +
+                   "ON CONFLICT (sales_date) DO UPDATE SET " +
+                   "orders_paid = daily_sales_rollups.orders_paid + EXCLUDED.orders_paid, " +
+                   "orders_refunded = daily_sales_rollups.orders_refunded + EXCLUDED.orders_refunded, " +
+                   "units_sold = daily_sales_rollups.units_sold + EXCLUDED.units_sold, " +
+                   "revenue = daily_sales_rollups.revenue + EXCLUDED.revenue, " +
+                   "units_refunded = daily_sales_rollups.units_refunded + EXCLUDED.units_refunded, " +
+                   "refunded_amount = daily_sales_rollups.refunded_amount + EXCLUDED.refunded_amount, " +
+                   "updated_at = EXCLUDED.updated_at",
+           nativeQuery = true)
+    void applyDelta(@Param("salesDate") LocalDate salesDate,
+                    @Param("ordersPaid") long ordersPaid,
+                    @Param("ordersRefunded") long ordersRefunded,
+                    @Param("unitsSold") long unitsSold,
+                    @Param("revenue") BigDecimal revenue,
+                    @Param("unitsRefunded") long unitsRefunded,
+                    @Param("refundedAmount") BigDecimal refundedAmount);
+}
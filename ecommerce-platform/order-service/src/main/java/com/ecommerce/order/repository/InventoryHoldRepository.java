@@ -0,0 +1,66 @@
+package com.ecommerce.order.repository;
+
+import com.ecommerce.common.constants.InventoryHoldStatus;
+import com.ecommerce.order.model.InventoryHold;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface InventoryHoldRepository extends JpaRepository<InventoryHold, Long> {
+    List<InventoryHold> findByCartIdAndStatus(Long cartId, InventoryHoldStatus status);
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT h FROM InventoryHold h WHERE h.id IN :ids AND h.status = :status")
+    List<InventoryHold> findByIdInAndStatusForUpdate(@Param("ids") Collection<Long> ids,
+                                                     @Param("status") InventoryHoldStatus status);
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT h FROM InventoryHold h WHERE h.cartId = :cartId AND h.status = :status")
+    List<InventoryHold> findByCartIdAndStatusForUpdate(@Param("cartId") Long cartId,
+                                                       @Param("status") InventoryHoldStatus status);
+    
+    @Query("SELECT h FROM InventoryHold h WHERE h.status = :status AND h.id > :afterId ORDER BY h.id")
+    List<InventoryHold> findByStatusAfterId(@Param("status") InventoryHoldStatus status,
+                                            @Param("afterId") Long afterId,
+                                            Pageable pageable);
+    
+    @Query("SELECT h.id FROM InventoryHold h WHERE h.status = :status AND h.updatedAt < :before ORDER BY h.id")
+    List<Long> findIdsByStatusUpdatedBefore(@Param("status") InventoryHoldStatus status,
+                                            @Param("before") LocalDateTime before,
+                                            Pageable pageable);
+    
+    /**
+     * Locks a batch of active holds that expired before {@code before}, oldest first, via the
+     * status/expires_at index, skipping any hold another instance is releasing.
+     */
+    @Query(value = "SELECT id FROM inventory_holds WHERE status = 'ACTIVE' AND expires_at < :before " +
+                   "ORDER BY expires_at LIMIT :limit FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<Long> lockExpiredActiveIds(@Param("before") LocalDateTime before, @Param("limit") int limit);
+    
+    /**
+     * Deletes up to {@code limit} released or confirmed holds last changed before {@code before}.
+     */
+    @Modifying
+    @Query(value = "DELETE FROM inventory_holds WHERE id IN (SELECT id FROM inventory_holds " +
+                   "WHERE status IN ('RELEASED', 'CONFIRMED') AND updated_at < :before LIMIT :limit)",
+           nativeQuery = true)
+    int deleteFinishedBefore(@Param("before") LocalDateTime before, @Param("limit") int limit);
+    
+    @Modifying
+    @Query("UPDATE InventoryHold h SET h.status = :to, h.updatedAt = :now WHERE h.id IN :ids AND h.status = :from")
+    int transition(@Param("ids") Collection<Long> ids,
+                   @Param("from") InventoryHoldStatus from,
+                   @Param("to") InventoryHoldStatus to,
+                   @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,74 @@
+package com.ecommerce.order.repository;
+
+import com.ecommerce.common.constants.PaymentStatus;
+import com.ecommerce.order.model.Order;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface OrderRepository extends JpaRepository<Order, Long> {
+    Optional<Order> findByOrderNumber(String orderNumber);
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.id = :id")
+    Optional<Order> findByIdForUpdate(@Param("id") Long id);
+    
+    @Query("SELECT o.id AS id, o.updatedAt AS updatedAt FROM Order o WHERE " +
+           "(o.updatedAt > :since OR (o.updatedAt = :since AND o.id > :afterId)) " +
+           "AND o.updatedAt < :settledBefore " +
+           "ORDER BY o.updatedAt, o.id")
+    List<OrderChangeMarker> findChangedSince(@Param("since") LocalDateTime since,
+                                             @Param("afterId") Long afterId,
+                                             @Param("settledBefore") LocalDateTime settledBefore,
+                                             Pageable pageable);
+    
+    @Query("SELECT o.id AS id, o.updatedAt AS updatedAt FROM Order o WHERE " +
+           "o.status = com.ecommerce.common.constants.OrderStatus.DELIVERED " +
+           "AND (o.updatedAt > :since OR (o.updatedAt = :since AND o.id > :afterId)) " +
+           "AND o.updatedAt < :settledBefore " +
+           "ORDER BY o.updatedAt, o.id")
+    List<OrderChangeMarker> findDeliveredSince(@Param("since") LocalDateTime since,
+                                               @Param("afterId") Long afterId,
+                                               @Param("settledBefore") LocalDateTime settledBefore,
+                                               Pageable pageable);
+    
+    @Query("SELECT o.id AS orderId, o.userId AS userId, i.productId AS productId " +
+           "FROM OrderItem i JOIN i.order o WHERE o.id IN :orderIds")
+    List<PurchasedItem> findPurchasedItems(@Param("orderIds") Collection<Long> orderIds);
+    
+    @Query("SELECT CASE WHEN COUNT(i) > 0 THEN true ELSE false END FROM OrderItem i JOIN i.order o " +
+           "WHERE o.userId = :userId AND i.productId = :productId " +
+           "AND o.status = com.ecommerce.common.constants.OrderStatus.DELIVERED")
+    boolean existsDeliveredPurchase(@Param("userId") Long userId, @Param("productId") Long productId);
+    
+    @Modifying
+    @Query("UPDATE Order o SET o.rolledUpPaymentStatus = com.ecommerce.common.constants.PaymentStatus.PENDING")
+    int resetRolledUpPaymentStatus();
+    
+    // Bulk update so recording the rollup skips @PreUpdate and leaves updated_at alone
+    @Modifying
+    @Query("UPDATE Order o SET o.rolledUpPaymentStatus = :status WHERE o.id = :id")
+    int updateRolledUpPaymentStatus(@Param("id") Long id, @Param("status") PaymentStatus status);
+    
+    interface PurchasedItem {
+        Long getOrderId();
+        Long getUserId();
+        Long getProductId();
+    }
+    
+    interface OrderChangeMarker {
+        Long getId();
+        LocalDateTime getUpdatedAt();
+    }
+}
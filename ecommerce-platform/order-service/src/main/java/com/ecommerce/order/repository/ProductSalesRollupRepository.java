@@ -0,0 +1,51 @@
+package com.ecommerce.order.repository;
+
+import com.ecommerce.order.model.ProductSalesRollup;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface ProductSalesRollupRepository extends JpaRepository<ProductSalesRollup, Long> {
+    List<ProductSalesRollup> findByProductIdAndSalesDateBetweenOrderBySalesDate(Long productId, LocalDate from, LocalDate to);
+    
+    @Modifying
+    @Query(value = "INSERT INTO product_sales_rollups (product_id, sales_date, units_sold, revenue, units_refunded, refunded_amount, updated_at) " +
+                   "VALUES (:productId, :salesDate, :unitsSold, :revenue, :unitsRefunded, :refundedAmount, CURRENT_TIMESTAMP) " +
+                   "ON CONFLICT (product_id, sales_date) DO UPDATE SET " +
+                   "units_sold = product_sales_rollups.units_sold + EXCLUDED.units_sold, " +
+                   "revenue = product_sales_rollups.revenue + EXCLUDED.revenue, " +
+                   "units_refunded = product_sales_rollups.units_refunded + EXCLUDED.units_refunded, " +
+                   "refunded_amount = product_sales_rollups.refunded_amount + EXCLUDED.refunded_amount, " +
+                   "updated_at = EXCLUDED.updated_at",
+           nativeQuery = true)
+    void applyDelta(@Param("productId") Long productId,
+                    @Param("salesDate") LocalDate salesDate,
+                    @Param("unitsSold") long unitsSold,
+                    @Param("revenue") BigDecimal revenue,
+                    @Param("unitsRefunded") long unitsRefunded,
+                    @Param("refundedAmount") BigDecimal refundedAmount);
+    
+    @Query("SELECT r.productId AS productId, SUM(r.unitsSold) AS unitsSold, SUM(r.revenue) AS revenue, " +
+           "SUM(r.unitsRefunded) AS unitsRefunded, SUM(r.refundedAmount) AS refundedAmount " +
+           "FROM ProductSalesRollup r WHERE r.salesDate BETWEEN :from AND :to " +
+           "GROUP BY r.productId ORDER BY SUM(r.revenue) - SUM(r.refundedAmount) DESC")
+    List<ProductSalesTotal> findTopProducts(@Param("from") LocalDate from,
+                                            @Param("to") LocalDate to,
+                                            Pageable pageable);
+    
+    interface ProductSalesTotal {
+        Long getProductId();
+        Long getUnitsSold();
+        BigDecimal getRevenue();
+        Long getUnitsRefunded();
+        BigDecimal getRefundedAmount();
+    }
+}
@@ -0,0 +1,9 @@
+package com.ecommerce.order.repository;
+
+import com.ecommerce.order.model.RollupWatermark;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface RollupWatermarkRepository extends JpaRepository<RollupWatermark, String> {
+}
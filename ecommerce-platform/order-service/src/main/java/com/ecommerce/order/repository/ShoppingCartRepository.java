@@ -0,0 +1,51 @@
+package com.ecommerce.order.repository;
+
+import com.ecommerce.order.model.ShoppingCart;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ShoppingCartRepository extends JpaRepository<ShoppingCart, Long> {
+    Optional<ShoppingCart> findByUserId(Long userId);
+    
+    /**
+     * Locks the cart row, so checkouts of one cart run one at a time even before it has any holds.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM ShoppingCart c WHERE c.id = :id")
+    Optional<ShoppingCart> findByIdForUpdate(@Param("id") Long id);
+    
+    /**
+     * Locks a chunk of idle carts in updated_at order, skipping any cart a live request holds. Adding
+     * an item does not touch the cart's updated_at, so a cart with an item added since the cutoff is
+     * not idle either.
+     */
+    @Query(value = "SELECT c.id FROM shopping_carts c WHERE c.updated_at < :cutoff " +
+                   "AND NOT EXISTS (SELECT 1 FROM cart_items i WHERE i.cart_id = c.id AND i.added_at >= :cutoff) " +
+                   "ORDER BY c.updated_at LIMIT :limit FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<Long> lockIdleCartIds(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+    
+    @Modifying
+    @Query(value = "DELETE FROM shopping_carts WHERE id IN (:ids)", nativeQuery = true)
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+    
+    /**
+     * Bounds lock waits and statement time for the rest of the current transaction only.
+     */
+    @Query(value = "SELECT set_config('lock_timeout', :lockTimeout, true), " +
+                   "set_config('statement_timeout', :statementTimeout, true)",
+           nativeQuery = true)
+    Object setLocalTimeouts(@Param("lockTimeout") String lockTimeout,
+                            @Param("statementTimeout") String statementTimeout);
+}
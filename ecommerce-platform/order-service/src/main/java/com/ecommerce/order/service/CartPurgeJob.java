@@ -0,0 +1,19 @@
+package com.ecommerce.order.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "cart.purge.enabled", havingValue = "true", matchIfMissing = true)
+public class CartPurgeJob {
+    
+    private final CartPurgeService cartPurgeService;
+    
+    @Scheduled(cron = "${cart.purge.cron:0 30 3 * * *}")
+    public void run() {
+        cartPurgeService.purgeIdleCarts();
+    }
+}
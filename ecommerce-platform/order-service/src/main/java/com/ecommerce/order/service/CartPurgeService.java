@@ -0,0 +1,195 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.order.repository.CartItemRepository;
+import com.ecommerce.order.repository.ShoppingCartRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Deletes shopping carts that have been idle longer than {@code cart.purge.idle-after}.
+ * <p>
+ * Work is done in small chunks, each in its own short transaction that locks carts with
+ * {@code FOR UPDATE SKIP LOCKED} via the updated_at index, so a cart that a live request is touching
+ * is simply left for the next run. Lock waits and statement time are capped per chunk, the chunk size
+ * adapts to how long the last chunk took, and the sweeper backs off whenever the connection pool is
+ * under pressure. A cart is idle when neither its {@code updated_at} nor any of its items'
+ * {@code added_at} is after the cutoff.
+ */
+@Service
+@Slf4j
+public class CartPurgeService {
+    
+    private static final int MAX_CONSECUTIVE_FAILURES = 5;
+    
+    private final ShoppingCartRepository shoppingCartRepository;
+    private final CartItemRepository cartItemRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final DataSource dataSource;
+    
+    @Value("${cart.purge.idle-after:P30D}")
+    private Duration idleAfter;
+    
+    @Value("${cart.purge.chunk-size:200}")
+    private int initialChunkSize;
+    
+    @Value("${cart.purge.min-chunk-size:20}")
+    private int minChunkSize;
+    
+    @Value("${cart.purge.max-chunk-size:1000}")
+    private int maxChunkSize;
+    
+    @Value("${cart.purge.max-chunk-duration:250ms}")
+    private Duration maxChunkDuration;
+    
+    @Value("${cart.purge.lock-timeout:100ms}")
+    private Duration lockTimeout;
+    
+    @Value("${cart.purge.busy-backoff:2s}")
+    private Duration busyBackoff;
+    
+    @Value("${cart.purge.busy-pool-ratio:0.75}")
+    private double busyPoolRatio;
+    
+    @Value("${cart.purge.max-run-duration:PT10M}")
+    private Duration maxRunDuration;
+    
+    private volatile PurgeReport lastReport;
+    
+    public CartPurgeService(ShoppingCartRepository shoppingCartRepository,
+                            CartItemRepository cartItemRepository,
+                            PlatformTransactionManager transactionManager,
+                            DataSource dataSource) {
+        this.shoppingCartRepository = shoppingCartRepository;
+        this.cartItemRepository = cartItemRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.dataSource = dataSource;
+    }
+    
+    public PurgeReport purgeIdleCarts() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(idleAfter);
+        long started = System.nanoTime();
+        long deadline = started + maxRunDuration.toNanos();
+        int chunkSize = initialChunkSize;
+        long cartsDeleted = 0;
+        long itemsDeleted = 0;
+        int chunks = 0;
+        int throttles = 0;
+        int failures = 0;
+        
+        log.info("Purging carts idle since {}", cutoff);
+        
+        while (System.nanoTime() < deadline && !Thread.currentThread().isInterrupted()) {
+            if (isDatabaseBusy()) {
+                throttles++;
+                sleep(busyBackoff);
+                continue;
+            }
+            
+            long chunkStarted = System.nanoTime();
+            ChunkResult result;
+            try {
+                final int limit = chunkSize;
+                result = transactionTemplate.execute(status -> purgeChunk(cutoff, limit));
+                failures = 0;
+            } catch (PessimisticLockingFailureException | QueryTimeoutException ex) {
+                // Live traffic got in the way; retreat to a smaller chunk rather than wait
+                log.debug("Cart purge chunk gave up on locks: {}", ex.getMessage());
+                chunkSize = Math.max(minChunkSize, chunkSize / 2);
+                if (++failures >= MAX_CONSECUTIVE_FAILURES) {
+                    log.warn("Cart purge stopping after {} consecutive lock timeouts", failures);
+                    break;
+                }
+                sleep(busyBackoff);
+                continue;
+            }
+            
+            if (result == null || result.carts() == 0) {
+                break;
+            }
+            chunks++;
+            cartsDeleted += result.carts();
+            itemsDeleted += result.items();
+            
+            Duration elapsed = Duration.ofNanos(System.nanoTime() - chunkStarted);
+            chunkSize = nextChunkSize(chunkSize, elapsed);
+            // Keep the sweeper's share of database time at or below one half
+            sleep(elapsed);
+        }
+        
+        PurgeReport report = new PurgeReport(cutoff, cartsDeleted, itemsDeleted, chunks, throttles,
+                Duration.ofNanos(System.nanoTime() - started).toMillis());
+        lastReport = report;
+        log.info("Cart purge finished: {} carts and {} cart items deleted in {} chunks ({} throttles) in {} ms",
+                cartsDeleted, itemsDeleted, chunks, throttles, report.durationMs());
+        return report;
+    }
+    
+    public PurgeReport getLastReport() {
+        return lastReport;
+    }
+    
+    private ChunkResult purgeChunk(LocalDateTime cutoff, int limit) {
+        shoppingCartRepository.setLocalTimeouts(lockTimeout.toMillis() + "ms", maxChunkDuration.multipliedBy(4).toMillis() + "ms");
+        List<Long> cartIds = shoppingCartRepository.lockIdleCartIds(cutoff, limit);
+        if (cartIds.isEmpty()) {
+            return new ChunkResult(0, 0);
+        }
+        int items = cartItemRepository.deleteByCartIdIn(cartIds);
+        int carts = shoppingCartRepository.deleteByIdIn(cartIds);
+        return new ChunkResult(carts, items);
+    }
+    
+    private int nextChunkSize(int current, Duration elapsed) {
+        if (elapsed.compareTo(maxChunkDuration) > 0) {
+            return Math.max(minChunkSize, current / 2);
+        }
+        if (elapsed.compareTo(maxChunkDuration.dividedBy(2)) < 0) {
+            return Math.min(maxChunkSize, current + Math.max(1, current / 4));
+        }
+        return current;
+    }
+    
+    private boolean isDatabaseBusy() {
+        try {
+            if (!dataSource.isWrapperFor(HikariDataSource.class)) {
+                return false;
+            }
+            HikariPoolMXBean pool = dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean();
+            if (pool == null || pool.getTotalConnections() == 0) {
+                return false;
+            }
+            return pool.getThreadsAwaitingConnection() > 0
+                    || pool.getActiveConnections() >= busyPoolRatio * pool.getTotalConnections();
+        } catch (SQLException ex) {
+            return false;
+        }
+    }
+    
+    private void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private record ChunkResult(int carts, int items) {
+    }
+    
+    public record PurgeReport(LocalDateTime cutoff, long cartsDeleted, long cartItemsDeleted, int chunks,
+                              int throttles, long durationMs) {
+    }
+}
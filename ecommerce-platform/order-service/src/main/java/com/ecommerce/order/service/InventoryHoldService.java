@@ -0,0 +1,440 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.common.constants.InventoryHoldStatus;
+import com.ecommerce.common.exceptions.BadRequestException;
+import com.ecommerce.common.exceptions.ResourceNotFoundException;
+import com.ecommerce.order.client.ProductServiceClient;
+import com.ecommerce.order.dto.InventoryDto;
+import com.ecommerce.order.model.CartItem;
+import com.ecommerce.order.model.InventoryHold;
+import com.ecommerce.order.model.ShoppingCart;
+import com.ecommerce.order.repository.InventoryHoldRepository;
+import com.ecommerce.order.repository.ShoppingCartRepository;
+import com.ecommerce.order.util.HierarchicalTimingWheel;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Holds stock for each cart item between checkout and payment and releases it when the hold expires.
+ * <p>
+ * Holds are rows in {@code inventory_holds}; their expiry timers live in a
+ * {@link HierarchicalTimingWheel}, so placing and cancelling a hold is O(1) no matter how many are
+ * outstanding. A single ticker thread advances the wheel and queues expired hold ids, and the
+ * release job, on its own thread so long-running scheduled jobs cannot delay it, hands them back to product-service in batches: holds are first moved to
+ * {@code RELEASING}, their stock is returned, then they are marked {@code RELEASED}. Each hold's
+ * reservation and release lines carry its key, which product-service applies once per direction and
+ * only releases what was reserved. So holds stuck in {@code RELEASING} after a failed call or a crash
+ * are retried without returning stock twice, and a checkout that fails after its reservation landed
+ * gives the stock back.
+ * On startup every {@code ACTIVE} hold is re-armed from the database, and every
+ * {@code inventory.hold.sweep-interval-ms} the releaser also sweeps the table for active holds that
+ * expired more than {@code inventory.hold.sweep-grace} ago, so holds armed on an instance that died are
+ * released without waiting for a restart. Released and confirmed holds are deleted once they are older
+ * than {@code inventory.hold.retention}.
+ */
+@Service
+@Slf4j
+public class InventoryHoldService {
+    
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+    
+    private final InventoryHoldRepository holdRepository;
+    private final ShoppingCartRepository shoppingCartRepository;
+    private final ProductServiceClient productServiceClient;
+    private final TransactionTemplate transactionTemplate;
+    
+    private final HierarchicalTimingWheel<Long> wheel;
+    private final Map<Long, HierarchicalTimingWheel.Timeout<Long>> timeouts = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Long> expiredHoldIds = new ConcurrentLinkedQueue<>();
+    private final ScheduledExecutorService ticker;
+    private final ScheduledExecutorService releaser;
+    
+    @Value("${inventory.hold.ttl:PT10M}")
+    private Duration holdTtl;
+    
+    @Value("${inventory.hold.release-batch-size:500}")
+    private int releaseBatchSize;
+    
+    @Value("${inventory.hold.retry-after:PT1M}")
+    private Duration retryAfter;
+    
+    @Value("${inventory.hold.sweep-grace:PT30S}")
+    private Duration sweepGrace;
+    
+    @Value("${inventory.hold.retention:P7D}")
+    private Duration retention;
+    
+    public InventoryHoldService(InventoryHoldRepository holdRepository,
+                                ShoppingCartRepository shoppingCartRepository,
+                                ProductServiceClient productServiceClient,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${inventory.hold.tick:100ms}") Duration tick,
+                                @Value("${inventory.hold.release-interval-ms:500}") long releaseIntervalMs,
+                                @Value("${inventory.hold.retry-interval-ms:60000}") long retryIntervalMs,
+                                @Value("${inventory.hold.sweep-interval-ms:60000}") long sweepIntervalMs,
+                                @Value("${inventory.hold.purge-interval-ms:3600000}") long purgeIntervalMs) {
+        this.holdRepository = holdRepository;
+        this.shoppingCartRepository = shoppingCartRepository;
+        this.productServiceClient = productServiceClient;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.wheel = new HierarchicalTimingWheel<>(tick.toMillis(), 5, System.currentTimeMillis());
+        this.ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "inventory-hold-ticker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.ticker.scheduleAtFixedRate(this::tick, tick.toMillis(), tick.toMillis(), TimeUnit.MILLISECONDS);
+        this.releaser = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "inventory-hold-releaser");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.releaser.scheduleWithFixedDelay(this::releaseExpiredQuietly, releaseIntervalMs, releaseIntervalMs, TimeUnit.MILLISECONDS);
+        this.releaser.scheduleWithFixedDelay(this::retryStuckReleasesQuietly, retryIntervalMs, retryIntervalMs, TimeUnit.MILLISECONDS);
+        this.releaser.scheduleWithFixedDelay(this::sweepExpiredQuietly, sweepIntervalMs, sweepIntervalMs, TimeUnit.MILLISECONDS);
+        this.releaser.scheduleWithFixedDelay(this::purgeFinishedQuietly, purgeIntervalMs, purgeIntervalMs, TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * Reserves stock for every item in the cart. Calling it again while holds are active returns the
+     * existing holds rather than reserving twice; the cart row lock makes concurrent calls wait for
+     * the first one's holds.
+     */
+    @Transactional
+    public List<InventoryDto.HoldResponse> placeHolds(Long cartId, Long userId) {
+        ShoppingCart cart = shoppingCartRepository.findByIdForUpdate(cartId)
+                .orElseThrow(() -> new ResourceNotFoundException("Cart", "id", cartId));
+        if (!cart.getUserId().equals(userId)) {
+            throw new BadRequestException("You can only check out your own cart");
+        }
+        
+        List<InventoryHold> active = holdRepository.findByCartIdAndStatusForUpdate(cartId, InventoryHoldStatus.ACTIVE);
+        if (!active.isEmpty()) {
+            return active.stream().map(this::mapToHoldResponse).collect(Collectors.toList());
+        }
+        if (cart.getItems() == null || cart.getItems().isEmpty()) {
+            throw new BadRequestException("Cart is empty");
+        }
+        
+        LocalDateTime expiresAt = LocalDateTime.now().plus(holdTtl);
+        List<InventoryHold> holds = new ArrayList<>();
+        for (CartItem item : cart.getItems()) {
+            holds.add(InventoryHold.builder()
+                    .cartId(cartId)
+                    .cartItemId(item.getId())
+                    .userId(userId)
+                    .productId(item.getProductId())
+                    .quantity(item.getQuantity())
+                    .expiresAt(expiresAt)
+                    .build());
+        }
+        holds = holdRepository.saveAll(holds);
+        
+        List<InventoryHold> placed = holds;
+        List<InventoryDto.StockLine> lines = holds.stream().map(this::stockLine).collect(Collectors.toList());
+        // Registered before the call: a reservation that lands but whose reply is lost must be returned too
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    placed.forEach(InventoryHoldService.this::arm);
+                } else {
+                    // The holds did not commit; product-service returns only what the keyed reservation took
+                    releaseQuietly(lines);
+                }
+            }
+        });
+        productServiceClient.reserveStock(lines);
+        
+        log.info("Placed {} inventory holds for cart {} until {}", holds.size(), cartId, expiresAt);
+        return holds.stream().map(this::mapToHoldResponse).collect(Collectors.toList());
+    }
+    
+    /**
+     * Converts the cart's active holds into a sale once payment has been confirmed.
+     */
+    @Transactional
+    public int confirmHolds(Long cartId) {
+        List<InventoryHold> holds = holdRepository.findByCartIdAndStatusForUpdate(cartId, InventoryHoldStatus.ACTIVE);
+        holds.forEach(hold -> {
+            hold.setStatus(InventoryHoldStatus.CONFIRMED);
+            disarm(hold.getId());
+        });
+        log.info("Confirmed {} inventory holds for cart {}", holds.size(), cartId);
+        return holds.size();
+    }
+    
+    /**
+     * Releases the cart's active holds ahead of their expiry, e.g. when checkout is abandoned.
+     */
+    public int releaseHolds(Long cartId, Long userId) {
+        List<Long> ids = transactionTemplate.execute(status -> {
+            List<InventoryHold> holds = holdRepository.findByCartIdAndStatusForUpdate(cartId, InventoryHoldStatus.ACTIVE);
+            if (!holds.isEmpty() && !holds.get(0).getUserId().equals(userId)) {
+                throw new BadRequestException("You can only release your own holds");
+            }
+            return holds.stream().map(InventoryHold::getId).collect(Collectors.toList());
+        });
+        ids.forEach(this::disarm);
+        return release(ids, false);
+    }
+    
+    /**
+     * Hands expired holds back to product-service, one batch per call to the inventory API; normally
+     * run by the releaser thread.
+     */
+    public void releaseExpired() {
+        List<Long> batch = new ArrayList<>(releaseBatchSize);
+        Long holdId;
+        while ((holdId = expiredHoldIds.poll()) != null) {
+            batch.add(holdId);
+            if (batch.size() == releaseBatchSize) {
+                release(batch, true);
+                batch = new ArrayList<>(releaseBatchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            release(batch, true);
+        }
+    }
+    
+    /**
+     * Retries holds left in RELEASING by a failed call or a crash mid-release; normally run by the
+     * releaser thread.
+     */
+    public void retryStuckReleases() {
+        LocalDateTime before = LocalDateTime.now().minus(retryAfter);
+        List<Long> stuck = holdRepository.findIdsByStatusUpdatedBefore(
+                InventoryHoldStatus.RELEASING, before, PageRequest.of(0, releaseBatchSize));
+        if (!stuck.isEmpty()) {
+            log.info("Retrying release of {} inventory holds", stuck.size());
+            finishRelease(stuck);
+        }
+    }
+    
+    /**
+     * Releases active holds that expired more than the sweep grace ago, whichever instance armed them,
+     * one locked batch at a time; normally run by the releaser thread.
+     *
+     * @return number of holds released
+     */
+    public int sweepExpired() {
+        int released = 0;
+        List<Long> claimed;
+        do {
+            LocalDateTime now = LocalDateTime.now();
+            claimed = transactionTemplate.execute(status -> {
+                List<Long> ids = holdRepository.lockExpiredActiveIds(now.minus(sweepGrace), releaseBatchSize);
+                if (!ids.isEmpty()) {
+                    holdRepository.transition(ids, InventoryHoldStatus.ACTIVE, InventoryHoldStatus.RELEASING, now);
+                }
+                return ids;
+            });
+            if (!claimed.isEmpty()) {
+                claimed.forEach(this::disarm);
+                log.info("Sweeping {} expired inventory holds", claimed.size());
+                released += finishRelease(claimed);
+            }
+        } while (claimed.size() == releaseBatchSize);
+        return released;
+    }
+    
+    /**
+     * Deletes released and confirmed holds older than the retention period in batches; normally run
+     * by the releaser thread.
+     *
+     * @return number of holds deleted
+     */
+    public int purgeFinished() {
+        LocalDateTime before = LocalDateTime.now().minus(retention);
+        int deleted = 0;
+        int batch;
+        do {
+            batch = transactionTemplate.execute(status -> holdRepository.deleteFinishedBefore(before, releaseBatchSize));
+            deleted += batch;
+        } while (batch == releaseBatchSize);
+        if (deleted > 0) {
+            log.info("Deleted {} finished inventory holds older than {}", deleted, retention);
+        }
+        return deleted;
+    }
+    
+    /**
+     * Re-arms timers for every active hold after a restart; holds that expired while the service
+     * was down are released on the first tick.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverActiveHolds() {
+        long afterId = 0;
+        int recovered = 0;
+        List<InventoryHold> page;
+        do {
+            page = holdRepository.findByStatusAfterId(InventoryHoldStatus.ACTIVE, afterId, PageRequest.of(0, 1000));
+            page.forEach(this::arm);
+            recovered += page.size();
+            if (!page.isEmpty()) {
+                afterId = page.get(page.size() - 1).getId();
+            }
+        } while (!page.isEmpty());
+        if (recovered > 0) {
+            log.info("Recovered {} active inventory holds", recovered);
+        }
+    }
+    
+    public int getPendingHoldCount() {
+        return wheel.size();
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        ticker.shutdownNow();
+        releaser.shutdownNow();
+    }
+    
+    private void tick() {
+        try {
+            wheel.advance(System.currentTimeMillis(), expiredId -> {
+                timeouts.remove(expiredId);
+                expiredHoldIds.add(expiredId);
+            });
+        } catch (RuntimeException ex) {
+            log.error("Inventory hold ticker failed", ex);
+        }
+    }
+    
+    private void releaseExpiredQuietly() {
+        try {
+            releaseExpired();
+        } catch (RuntimeException ex) {
+            log.error("Releasing expired inventory holds failed", ex);
+        }
+    }
+    
+    private void retryStuckReleasesQuietly() {
+        try {
+            retryStuckReleases();
+        } catch (RuntimeException ex) {
+            log.error("Retrying inventory hold releases failed", ex);
+        }
+    }
+    
+    private void sweepExpiredQuietly() {
+        try {
+            sweepExpired();
+        } catch (RuntimeException ex) {
+            log.error("Sweeping expired inventory holds failed", ex);
+        }
+    }
+    
+    private void purgeFinishedQuietly() {
+        try {
+            purgeFinished();
+        } catch (RuntimeException ex) {
+            log.error("Deleting finished inventory holds failed", ex);
+        }
+    }
+    
+    private void arm(InventoryHold hold) {
+        long deadline = hold.getExpiresAt().atZone(ZONE).toInstant().toEpochMilli();
+        timeouts.put(hold.getId(), wheel.schedule(hold.getId(), deadline));
+    }
+    
+    private void disarm(Long holdId) {
+        HierarchicalTimingWheel.Timeout<Long> timeout = timeouts.remove(holdId);
+        if (timeout != null) {
+            wheel.cancel(timeout);
+        }
+    }
+    
+    private int release(Collection<Long> holdIds, boolean expiredOnly) {
+        if (holdIds.isEmpty()) {
+            return 0;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> claimed = transactionTemplate.execute(status -> {
+            List<Long> ids = holdRepository.findByIdInAndStatusForUpdate(holdIds, InventoryHoldStatus.ACTIVE).stream()
+                    .filter(hold -> !expiredOnly || !hold.getExpiresAt().isAfter(now))
+                    .map(InventoryHold::getId)
+                    .collect(Collectors.toList());
+            if (!ids.isEmpty()) {
+                holdRepository.transition(ids, InventoryHoldStatus.ACTIVE, InventoryHoldStatus.RELEASING, now);
+            }
+            return ids;
+        });
+        return claimed.isEmpty() ? 0 : finishRelease(claimed);
+    }
+    
+    private int finishRelease(List<Long> releasingIds) {
+        List<InventoryHold> holds = holdRepository.findAllById(releasingIds).stream()
+                .filter(hold -> hold.getStatus() == InventoryHoldStatus.RELEASING)
+                .collect(Collectors.toList());
+        if (holds.isEmpty()) {
+            return 0;
+        }
+        try {
+            productServiceClient.releaseStock(holds.stream().map(this::stockLine).collect(Collectors.toList()));
+        } catch (RuntimeException ex) {
+            log.warn("Releasing {} inventory holds failed, will retry: {}", holds.size(), ex.getMessage());
+            return 0;
+        }
+        List<Long> ids = holds.stream().map(InventoryHold::getId).collect(Collectors.toList());
+        transactionTemplate.executeWithoutResult(status ->
+                holdRepository.transition(ids, InventoryHoldStatus.RELEASING, InventoryHoldStatus.RELEASED, LocalDateTime.now()));
+        log.info("Released {} inventory holds", ids.size());
+        return ids.size();
+    }
+    
+    private void releaseQuietly(List<InventoryDto.StockLine> lines) {
+        try {
+            productServiceClient.releaseStock(lines);
+        } catch (RuntimeException ex) {
+            log.error("Failed to return stock after an aborted checkout: {}", lines, ex);
+        }
+    }
+    
+    /**
+     * The hold's line for both its reservation and its release; product-service applies each once per key.
+     */
+    private InventoryDto.StockLine stockLine(InventoryHold hold) {
+        return InventoryDto.StockLine.builder()
+                .productId(hold.getProductId())
+                .quantity(hold.getQuantity())
+                .holdKey("inventory-hold:" + hold.getId())
+                .build();
+    }
+    
+    private InventoryDto.HoldResponse mapToHoldResponse(InventoryHold hold) {
+        return InventoryDto.HoldResponse.builder()
+                .id(hold.getId())
+                .cartItemId(hold.getCartItemId())
+                .productId(hold.getProductId())
+                .quantity(hold.getQuantity())
+                .status(hold.getStatus())
+                .expiresAt(hold.getExpiresAt())
+                .build();
+    }
+}
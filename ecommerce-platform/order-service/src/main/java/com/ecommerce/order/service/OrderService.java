@@ -0,0 +1,73 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.common.constants.PaymentStatus;
+import com.ecommerce.common.exceptions.ResourceNotFoundException;
+import com.ecommerce.order.dto.OrderDto;
+import com.ecommerce.order.model.Order;
+import com.ecommerce.order.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OrderService {
+    
+    private final OrderRepository orderRepository;
+    private final SalesRollupService salesRollupService;
+    
+    @Transactional(readOnly = true)
+    public OrderDto.OrderResponse getOrderById(Long orderId) {
+        Order order = orderRepository.findById(orderId)
+                .orElseThrow(() -> new ResourceNotFoundException("Order", "id", orderId));
+        return mapToOrderResponse(order);
+    }
+    
+    @Transactional
+    public OrderDto.OrderResponse updatePaymentStatus(Long orderId, PaymentStatus paymentStatus) {
+        log.info("Updating payment status of order {} to {}", orderId, paymentStatus);
+        
+        Order order = orderRepository.findByIdForUpdate(orderId)
+                .orElseThrow(() -> new ResourceNotFoundException("Order", "id", orderId));
+        
+        order.setPaymentStatus(paymentStatus);
+        salesRollupService.applyOrder(order);
+        order = orderRepository.save(order);
+        
+        log.info("Payment status updated for order {}", orderId);
+        return mapToOrderResponse(order);
+    }
+    
+    private OrderDto.OrderResponse mapToOrderResponse(Order order) {
+        List<OrderDto.OrderItemResponse> items = new ArrayList<>();
+        if (order.getOrderItems() != null) {
+            items = order.getOrderItems().stream()
+                    .map(item -> OrderDto.OrderItemResponse.builder()
+                            .id(item.getId())
+                            .productId(item.getProductId())
+                            .quantity(item.getQuantity())
+                            .unitPrice(item.getUnitPrice())
+                            .subtotal(item.getSubtotal())
+                            .build())
+                    .collect(Collectors.toList());
+        }
+        
+        return OrderDto.OrderResponse.builder()
+                .id(order.getId())
+                .userId(order.getUserId())
+                .orderNumber(order.getOrderNumber())
+                .status(order.getStatus())
+                .paymentStatus(order.getPaymentStatus())
+                .totalAmount(order.getTotalAmount())
+                .items(items)
+                .createdAt(order.getCreatedAt())
+                .updatedAt(order.getUpdatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,78 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.order.dto.PurchaseDto;
+import com.ecommerce.order.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Who has received what, for product-service's verified-purchase badge on reviews.
+ * <p>
+ * The feed pages through delivered orders by {@code (updated_at, id)}, like the sales rollup catch-up,
+ * and leaves out orders changed within {@code purchases.feed.settle-delay} so a transaction that
+ * commits late with an earlier timestamp is not skipped. An order whose row changes again after
+ * delivery shows up a second time; consumers treat the feed as idempotent.
+ */
+@Service
+@RequiredArgsConstructor
+public class PurchaseHistoryService {
+    
+    private static final int MAX_PAGE_SIZE = 5000;
+    
+    private final OrderRepository orderRepository;
+    
+    @Value("${purchases.feed.settle-delay:PT5S}")
+    private Duration settleDelay;
+    
+    @Transactional(readOnly = true)
+    public PurchaseDto.DeliveredPage getDeliveredSince(LocalDateTime since, Long afterOrderId, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        List<OrderRepository.OrderChangeMarker> markers = orderRepository.findDeliveredSince(
+                since, afterOrderId, LocalDateTime.now().minus(settleDelay), PageRequest.of(0, pageSize));
+        if (markers.isEmpty()) {
+            return PurchaseDto.DeliveredPage.builder()
+                    .orders(List.of())
+                    .nextSince(since)
+                    .nextAfterOrderId(afterOrderId)
+                    .hasMore(false)
+                    .build();
+        }
+        
+        Map<Long, PurchaseDto.DeliveredOrder> orders = new LinkedHashMap<>();
+        for (OrderRepository.OrderChangeMarker marker : markers) {
+            orders.put(marker.getId(), PurchaseDto.DeliveredOrder.builder()
+                    .orderId(marker.getId())
+                    .updatedAt(marker.getUpdatedAt())
+                    .productIds(new ArrayList<>())
+                    .build());
+        }
+        for (OrderRepository.PurchasedItem item : orderRepository.findPurchasedItems(orders.keySet())) {
+            PurchaseDto.DeliveredOrder order = orders.get(item.getOrderId());
+            order.setUserId(item.getUserId());
+            order.getProductIds().add(item.getProductId());
+        }
+        
+        OrderRepository.OrderChangeMarker last = markers.get(markers.size() - 1);
+        return PurchaseDto.DeliveredPage.builder()
+                .orders(new ArrayList<>(orders.values()))
+                .nextSince(last.getUpdatedAt())
+                .nextAfterOrderId(last.getId())
+                .hasMore(markers.size() == pageSize)
+                .build();
+    }
+    
+    @Transactional(readOnly = true)
+    public boolean hasDeliveredPurchase(Long userId, Long productId) {
+        return orderRepository.existsDeliveredPurchase(userId, productId);
+    }
+}
@@ -0,0 +1,53 @@
+package com.ecommerce.order.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Periodically replays orders changed since the rollup watermark. Each batch runs in its own
+ * transaction, so a long backlog (e.g. after a rebuild) never holds locks for more than one batch.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SalesRollupCatchUpJob {
+    
+    private final SalesRollupService salesRollupService;
+    private final AtomicBoolean running = new AtomicBoolean();
+    
+    @Value("${analytics.rollup.catch-up-max-batches:1000}")
+    private int maxBatchesPerRun;
+    
+    @Scheduled(fixedDelayString = "${analytics.rollup.catch-up-interval-ms:60000}",
+               initialDelayString = "${analytics.rollup.catch-up-initial-delay-ms:30000}")
+    public void run() {
+        catchUp();
+    }
+    
+    public int catchUp() {
+        if (!running.compareAndSet(false, true)) {
+            return 0;
+        }
+        try {
+            int processed = 0;
+            for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+                int count = salesRollupService.catchUpBatch();
+                processed += count;
+                if (count == 0) {
+                    break;
+                }
+            }
+            if (processed > 0) {
+                log.info("Sales rollup catch-up processed {} orders", processed);
+            }
+            return processed;
+        } finally {
+            running.set(false);
+        }
+    }
+}
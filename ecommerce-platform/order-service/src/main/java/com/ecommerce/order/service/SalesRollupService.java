@@ -0,0 +1,296 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.common.constants.PaymentStatus;
+import com.ecommerce.common.exceptions.BadRequestException;
+import com.ecommerce.order.dto.AnalyticsDto;
+import com.ecommerce.order.model.DailySalesRollup;
+import com.ecommerce.order.model.Order;
+import com.ecommerce.order.model.OrderItem;
+import com.ecommerce.order.model.RollupWatermark;
+import com.ecommerce.order.repository.CategorySalesRollupRepository;
+import com.ecommerce.order.repository.DailySalesRollupRepository;
+import com.ecommerce.order.repository.OrderRepository;
+import com.ecommerce.order.repository.ProductSalesRollupRepository;
+import com.ecommerce.order.repository.RollupWatermarkRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains the product, category and daily sales rollups.
+ * <p>
+ * Every order remembers which payment status is currently reflected in the rollups
+ * ({@link Order#getRolledUpPaymentStatus()}), so applying an order is idempotent: only the
+ * difference between that status and the current one is added. That marker is written with a bulk
+ * update rather than through the entity, so rolling an order up never touches its {@code updated_at}
+ * and does not send it back through the feeds keyed on it. The incremental path runs inside
+ * the transaction that changes the payment status; the catch-up path walks the orders table from a
+ * watermark and picks up anything the incremental path did not see.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SalesRollupService {
+    
+    static final String WATERMARK_NAME = "sales-rollups";
+    private static final int MAX_RANGE_DAYS = 366;
+    
+    private final OrderRepository orderRepository;
+    private final ProductSalesRollupRepository productSalesRollupRepository;
+    private final CategorySalesRollupRepository categorySalesRollupRepository;
+    private final DailySalesRollupRepository dailySalesRollupRepository;
+    private final RollupWatermarkRepository watermarkRepository;
+    
+    @Value("${analytics.rollup.catch-up-batch-size:500}")
+    private int catchUpBatchSize;
+    
+    @Value("${analytics.rollup.settle-delay:PT1M}")
+    private Duration settleDelay;
+    
+    /**
+     * Brings the rollups in line with the order's current payment status. The caller must hold a
+     * write lock on the order row so concurrent appliers cannot double count.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void applyOrder(Order order) {
+        PaymentStatus applied = order.getRolledUpPaymentStatus() != null
+                ? order.getRolledUpPaymentStatus() : PaymentStatus.PENDING;
+        PaymentStatus target = order.getPaymentStatus();
+        
+        int soldDelta = soldWeight(target) - soldWeight(applied);
+        int refundedDelta = refundedWeight(target) - refundedWeight(applied);
+        
+        if ((soldDelta != 0 || refundedDelta != 0) && order.getOrderItems() != null) {
+            applyDeltas(order, soldDelta, refundedDelta);
+        }
+        if (applied != target) {
+            orderRepository.updateRolledUpPaymentStatus(order.getId(), target);
+        }
+    }
+    
+    /**
+     * Applies one batch of orders changed since the watermark and advances it.
+     *
+     * @return number of orders examined; zero once the watermark has caught up
+     */
+    @Transactional
+    public int catchUpBatch() {
+        RollupWatermark watermark = watermarkRepository.findById(WATERMARK_NAME)
+                .orElseGet(this::initialWatermark);
+        LocalDateTime settledBefore = LocalDateTime.now().minus(settleDelay);
+        
+        List<OrderRepository.OrderChangeMarker> changed = orderRepository.findChangedSince(
+                watermark.getLastUpdatedAt(), watermark.getLastOrderId(), settledBefore,
+                PageRequest.of(0, catchUpBatchSize));
+        
+        for (OrderRepository.OrderChangeMarker marker : changed) {
+            orderRepository.findByIdForUpdate(marker.getId()).ifPresent(this::applyOrder);
+        }
+        
+        if (!changed.isEmpty()) {
+            OrderRepository.OrderChangeMarker last = changed.get(changed.size() - 1);
+            watermark.setLastUpdatedAt(last.getUpdatedAt());
+            watermark.setLastOrderId(last.getId());
+            watermarkRepository.save(watermark);
+        }
+        return changed.size();
+    }
+    
+    /**
+     * Drops all rollups and rewinds the watermark so the catch-up job rebuilds them from history.
+     */
+    @Transactional
+    public void resetForRebuild() {
+        log.info("Resetting sales rollups for a full rebuild");
+        productSalesRollupRepository.deleteAllInBatch();
+        categorySalesRollupRepository.deleteAllInBatch();
+        dailySalesRollupRepository.deleteAllInBatch();
+        int orders = orderRepository.resetRolledUpPaymentStatus();
+        watermarkRepository.save(initialWatermark());
+        log.info("Sales rollups cleared, {} orders queued for catch-up", orders);
+    }
+    
+    @Transactional(readOnly = true)
+    public LocalDateTime getWatermark() {
+        return watermarkRepository.findById(WATERMARK_NAME)
+                .map(RollupWatermark::getLastUpdatedAt)
+                .orElse(null);
+    }
+    
+    @Transactional(readOnly = true)
+    public List<AnalyticsDto.DailySales> getDailySales(LocalDate from, LocalDate to) {
+        validateRange(from, to);
+        return dailySalesRollupRepository.findBySalesDateBetweenOrderBySalesDate(from, to).stream()
+                .map(this::mapToDailySales)
+                .collect(Collectors.toList());
+    }
+    
+    @Transactional(readOnly = true)
+    public AnalyticsDto.SalesSeries getProductSales(Long productId, LocalDate from, LocalDate to) {
+        validateRange(from, to);
+        List<AnalyticsDto.DailySales> days = productSalesRollupRepository
+                .findByProductIdAndSalesDateBetweenOrderBySalesDate(productId, from, to).stream()
+                .map(r -> dailySales(r.getSalesDate(), r.getUnitsSold(), r.getRevenue(),
+                        r.getUnitsRefunded(), r.getRefundedAmount()))
+                .collect(Collectors.toList());
+        return mapToSeries(productId, from, to, days);
+    }
+    
+    @Transactional(readOnly = true)
+    public AnalyticsDto.SalesSeries getCategorySales(Long categoryId, LocalDate from, LocalDate to) {
+        validateRange(from, to);
+        List<AnalyticsDto.DailySales> days = categorySalesRollupRepository
+                .findByCategoryIdAndSalesDateBetweenOrderBySalesDate(categoryId, from, to).stream()
+                .map(r -> dailySales(r.getSalesDate(), r.getUnitsSold(), r.getRevenue(),
+                        r.getUnitsRefunded(), r.getRefundedAmount()))
+                .collect(Collectors.toList());
+        return mapToSeries(categoryId, from, to, days);
+    }
+    
+    @Transactional(readOnly = true)
+    public List<AnalyticsDto.ProductSalesTotal> getTopProducts(LocalDate from, LocalDate to, int limit) {
+        validateRange(from, to);
+        if (limit < 1 || limit > 100) {
+            throw new BadRequestException("Limit must be between 1 and 100");
+        }
+        return productSalesRollupRepository.findTopProducts(from, to, PageRequest.of(0, limit)).stream()
+                .map(t -> AnalyticsDto.ProductSalesTotal.builder()
+                        .productId(t.getProductId())
+                        .unitsSold(t.getUnitsSold())
+                        .revenue(t.getRevenue())
+                        .unitsRefunded(t.getUnitsRefunded())
+                        .refundedAmount(t.getRefundedAmount())
+                        .netRevenue(t.getRevenue().subtract(t.getRefundedAmount()))
+                        .build())
+                .collect(Collectors.toList());
+    }
+    
+    private void applyDeltas(Order order, int soldDelta, int refundedDelta) {
+        LocalDate salesDate = order.getCreatedAt().toLocalDate();
+        Map<Long, ItemTotals> byProduct = totalsBy(order.getOrderItems(), OrderItem::getProductId);
+        Map<Long, ItemTotals> byCategory = totalsBy(order.getOrderItems(), OrderItem::getCategoryId);
+        ItemTotals orderTotals = new ItemTotals();
+        byProduct.values().forEach(orderTotals::add);
+        
+        byProduct.forEach((productId, totals) -> productSalesRollupRepository.applyDelta(
+                productId, salesDate,
+                totals.units * soldDelta, totals.amount.multiply(BigDecimal.valueOf(soldDelta)),
+                totals.units * refundedDelta, totals.amount.multiply(BigDecimal.valueOf(refundedDelta))));
+        
+        byCategory.forEach((categoryId, totals) -> categorySalesRollupRepository.applyDelta(
+                categoryId, salesDate,
+                totals.units * soldDelta, totals.amount.multiply(BigDecimal.valueOf(soldDelta)),
+                totals.units * refundedDelta, totals.amount.multiply(BigDecimal.valueOf(refundedDelta))));
+        
+        dailySalesRollupRepository.applyDelta(salesDate, soldDelta, refundedDelta,
+                orderTotals.units * soldDelta, orderTotals.amount.multiply(BigDecimal.valueOf(soldDelta)),
+                orderTotals.units * refundedDelta, orderTotals.amount.multiply(BigDecimal.valueOf(refundedDelta)));
+        
+        log.debug("Applied order {} to sales rollups (sold {}, refunded {})", order.getId(), soldDelta, refundedDelta);
+    }
+    
+    private Map<Long, ItemTotals> totalsBy(List<OrderItem> items, Function<OrderItem, Long> key) {
+        Map<Long, ItemTotals> totals = new HashMap<>();
+        for (OrderItem item : items) {
+            Long id = key.apply(item);
+            if (id != null) {
+                totals.computeIfAbsent(id, k -> new ItemTotals()).add(item);
+            }
+        }
+        return totals;
+    }
+    
+    // A refunded order was paid first, so it counts both as sold and as refunded
+    private static int soldWeight(PaymentStatus status) {
+        return status == PaymentStatus.COMPLETED || status == PaymentStatus.REFUNDED ? 1 : 0;
+    }
+    
+    private static int refundedWeight(PaymentStatus status) {
+        return status == PaymentStatus.REFUNDED ? 1 : 0;
+    }
+    
+    private RollupWatermark initialWatermark() {
+        return RollupWatermark.builder()
+                .name(WATERMARK_NAME)
+                .lastUpdatedAt(LocalDateTime.of(1970, 1, 1, 0, 0))
+                .lastOrderId(0L)
+                .build();
+    }
+    
+    private void validateRange(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new BadRequestException("'from' must not be after 'to'");
+        }
+        if (from.plusDays(MAX_RANGE_DAYS).isBefore(to)) {
+            throw new BadRequestException("Date range must not exceed " + MAX_RANGE_DAYS + " days");
+        }
+    }
+    
+    private AnalyticsDto.SalesSeries mapToSeries(Long id, LocalDate from, LocalDate to, List<AnalyticsDto.DailySales> days) {
+        long unitsSold = days.stream().mapToLong(AnalyticsDto.DailySales::getUnitsSold).sum();
+        long unitsRefunded = days.stream().mapToLong(AnalyticsDto.DailySales::getUnitsRefunded).sum();
+        BigDecimal revenue = days.stream().map(AnalyticsDto.DailySales::getRevenue).reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal refunded = days.stream().map(AnalyticsDto.DailySales::getRefundedAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
+        
+        return AnalyticsDto.SalesSeries.builder()
+                .id(id)
+                .from(from)
+                .to(to)
+                .unitsSold(unitsSold)
+                .revenue(revenue)
+                .unitsRefunded(unitsRefunded)
+                .refundedAmount(refunded)
+                .netRevenue(revenue.subtract(refunded))
+                .days(days)
+                .build();
+    }
+    
+    private AnalyticsDto.DailySales mapToDailySales(DailySalesRollup rollup) {
+        AnalyticsDto.DailySales day = dailySales(rollup.getSalesDate(), rollup.getUnitsSold(), rollup.getRevenue(),
+                rollup.getUnitsRefunded(), rollup.getRefundedAmount());
+        day.setOrdersPaid(rollup.getOrdersPaid());
+        day.setOrdersRefunded(rollup.getOrdersRefunded());
+        return day;
+    }
+    
+    private AnalyticsDto.DailySales dailySales(LocalDate date, Long unitsSold, BigDecimal revenue,
+                                               Long unitsRefunded, BigDecimal refundedAmount) {
+        return AnalyticsDto.DailySales.builder()
+                .date(date)
+                .unitsSold(unitsSold)
+                .revenue(revenue)
+                .unitsRefunded(unitsRefunded)
+                .refundedAmount(refundedAmount)
+                .netRevenue(revenue.subtract(refundedAmount))
+                .build();
+    }
+    
+    private static class ItemTotals {
+        private long units;
+        private BigDecimal amount = BigDecimal.ZERO;
+        
+        void add(OrderItem item) {
+            units += item.getQuantity();
+            amount = amount.add(item.getSubtotal());
+        }
+        
+        void add(ItemTotals other) {
+            units += other.units;
+            amount = amount.add(other.amount);
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.ecommerce.order.util;
+
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel (Varghese &amp; Lauck) with O(1) schedule and cancel.
+ * <p>
+ * Level 0 has one slot per tick; each higher level has slots that span a full rotation of the level
+ * below. An entry is placed on the lowest level whose range covers its remaining delay and is moved
+ * down ("cascaded") when the lower wheel wraps into its slot, so every entry is touched at most once
+ * per level. Deadlines beyond the top level's range are parked there and re-placed on cascade.
+ * <p>
+ * All operations are guarded by the wheel's monitor; each one does a constant amount of work apart
+ * from {@link #advance}, which is proportional to the ticks elapsed plus the entries expired or
+ * cascaded.
+ *
+ * @param <T> payload handed to the expiry callback
+ */
+public class HierarchicalTimingWheel<T> {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+
+    private final long tickMillis;
+    private final long originMillis;
+    private final int levels;
+    private final long maxDelayTicks;
+    private final Bucket<T>[][] wheels;
+
+    // Next tick to be processed
+    private long currentTick;
+    private int size;
+
+    public HierarchicalTimingWheel(long tickMillis, int levels, long originMillis) {
+        if (tickMillis <= 0 || levels < 1 || levels > 9) {
+            throw new IllegalArgumentException("tickMillis must be positive and levels between 1 and 9");
+        }
+        this.tickMillis = tickMillis;
+        this.levels = levels;
+        this.originMillis = originMillis;
+        this.maxDelayTicks = (1L << (SLOT_BITS * levels)) - 1;
+        @SuppressWarnings("unchecked")
+        Bucket<T>[][] buckets = new Bucket[levels][SLOTS];
+        for (Bucket<T>[] wheel : buckets) {
+            for (int i = 0; i < SLOTS; i++) {
+                wheel[i] = new Bucket<>();
+            }
+        }
+        this.wheels = buckets;
+    }
+
+    /**
+     * Schedules {@code payload} to expire at {@code deadlineMillis}. Deadlines in the past expire on
+     * the next {@link #advance}.
+     */
+    public synchronized Timeout<T> schedule(T payload, long deadlineMillis) {
+        long deadlineTick = Math.max(currentTick, ceilDiv(deadlineMillis - originMillis, tickMillis));
+        Timeout<T> timeout = new Timeout<>(payload, deadlineTick);
+        place(timeout);
+        size++;
+        return timeout;
+    }
+
+    /**
+     * Removes a pending timeout.
+     *
+     * @return {@code false} if it had already expired or been cancelled
+     */
+    public synchronized boolean cancel(Timeout<T> timeout) {
+        if (timeout.bucket == null) {
+            return false;
+        }
+        timeout.bucket.remove(timeout);
+        size--;
+        return true;
+    }
+
+    /**
+     * Processes every tick up to and including {@code nowMillis}, handing expired payloads to
+     * {@code onExpired}. The callback runs while the wheel is locked and must not block.
+     *
+     * @return number of payloads expired
+     */
+    public synchronized int advance(long nowMillis, Consumer<T> onExpired) {
+        long nowTick = Math.floorDiv(nowMillis - originMillis, tickMillis);
+        int expired = 0;
+        while (currentTick <= nowTick) {
+            cascade(currentTick);
+            Bucket<T> due = wheels[0][(int) (currentTick & SLOT_MASK)];
+            Timeout<T> timeout;
+            while ((timeout = due.poll()) != null) {
+                size--;
+                expired++;
+                onExpired.accept(timeout.payload);
+            }
+            currentTick++;
+            if (size == 0 && currentTick <= nowTick) {
+                // Nothing left to expire or cascade; jump straight to now
+                currentTick = nowTick + 1;
+            }
+        }
+        return expired;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public long getTickMillis() {
+        return tickMillis;
+    }
+
+    private void cascade(long tick) {
+        // When a lower wheel wraps, move the matching slot of the next level down
+        for (int level = 1; level < levels; level++) {
+            long shift = (long) SLOT_BITS * level;
+            if ((tick & ((1L << shift) - 1)) != 0) {
+                return;
+            }
+            Bucket<T> bucket = wheels[level][(int) ((tick >>> shift) & SLOT_MASK)];
+            Timeout<T> moving = bucket.detachAll();
+            while (moving != null) {
+                Timeout<T> next = moving.next;
+                moving.prev = null;
+                moving.next = null;
+                place(moving);
+                moving = next;
+            }
+        }
+    }
+
+    private void place(Timeout<T> timeout) {
+        long delay = Math.min(timeout.deadlineTick - currentTick, maxDelayTicks);
+        long tick = currentTick + delay;
+        int level = 0;
+        while (level < levels - 1 && delay >= (1L << (SLOT_BITS * (level + 1)))) {
+            level++;
+        }
+        wheels[level][(int) ((tick >>> (SLOT_BITS * level)) & SLOT_MASK)].add(timeout);
+    }
+
+    private static long ceilDiv(long x, long y) {
+        return -Math.floorDiv(-x, y);
+    }
+
+    /**
+     * Handle to a scheduled payload, used to cancel it.
+     */
+    public static final class Timeout<T> {
+        private final T payload;
+        private final long deadlineTick;
+        private Bucket<T> bucket;
+        private Timeout<T> prev;
+        private Timeout<T> next;
+
+        private Timeout(T payload, long deadlineTick) {
+            this.payload = payload;
+            this.deadlineTick = deadlineTick;
+        }
+
+        public T getPayload() {
+            return payload;
+        }
+    }
+
+    /**
+     * Intrusive doubly linked list of timeouts sharing a slot.
+     */
+    private static final class Bucket<T> {
+        private Timeout<T> head;
+
+        void add(Timeout<T> timeout) {
+            timeout.bucket = this;
+            timeout.prev = null;
+            timeout.next = head;
+            if (head != null) {
+                head.prev = timeout;
+            }
+            head = timeout;
+        }
+
+        void remove(Timeout<T> timeout) {
+            if (timeout.prev != null) {
+                timeout.prev.next = timeout.next;
+            } else {
+                head = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.prev = timeout.prev;
+            }
+            timeout.bucket = null;
+            timeout.prev = null;
+            timeout.next = null;
+        }
+
+        Timeout<T> poll() {
+            Timeout<T> first = head;
+            if (first != null) {
+                remove(first);
+            }
+            return first;
+        }
+
+        Timeout<T> detachAll() {
+            Timeout<T> first = head;
+            head = null;
+            for (Timeout<T> t = first; t != null; t = t.next) {
+                t.bucket = null;
+            }
+            return first;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+-- Orders schema as previously generated by Hibernate, plus the indexes its repository queries need.
+-- Runs in the schema named by spring.flyway.schemas (orders).
+
+CREATE TABLE orders (
+    id                       BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    order_number             VARCHAR(255)   NOT NULL,
+    user_id                  BIGINT         NOT NULL,
+    status                   VARCHAR(255)   NOT NULL,
+    total_amount             NUMERIC(10, 2) NOT NULL,
+    shipping_address         TEXT,
+    billing_address          TEXT,
+    payment_method           VARCHAR(255),
+    payment_status           VARCHAR(255),
+    rolled_up_payment_status VARCHAR(255),
+    stripe_payment_intent_id VARCHAR(255),
+    created_at               TIMESTAMP(6),
+    updated_at               TIMESTAMP(6),
+    CONSTRAINT uk_orders_order_number UNIQUE (order_number),
+    CONSTRAINT ck_orders_status CHECK (status IN ('PENDING', 'PROCESSING', 'SHIPPED', 'DELIVERED', 'CANCELLED')),
+    CONSTRAINT ck_orders_payment_status CHECK (payment_status IN ('PENDING', 'COMPLETED', 'FAILED', 'REFUNDED')),
+    CONSTRAINT ck_orders_rolled_up_payment_status CHECK (rolled_up_payment_status IN ('PENDING', 'COMPLETED', 'FAILED', 'REFUNDED'))
+);
+
+CREATE TABLE order_items (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    order_id    BIGINT         NOT NULL,
+    product_id  BIGINT         NOT NULL,
+    category_id BIGINT,
+    quantity    INTEGER        NOT NULL,
+    unit_price  NUMERIC(10, 2) NOT NULL,
+    subtotal    NUMERIC(10, 2) NOT NULL,
+    CONSTRAINT fk_order_items_order FOREIGN KEY (order_id) REFERENCES orders (id)
+);
+
+CREATE TABLE shopping_carts (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id    BIGINT NOT NULL,
+    created_at TIMESTAMP(6),
+    updated_at TIMESTAMP(6),
+    CONSTRAINT uk_shopping_carts_user_id UNIQUE (user_id)
+);
+
+CREATE TABLE cart_items (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    cart_id    BIGINT  NOT NULL,
+    product_id BIGINT  NOT NULL,
+    quantity   INTEGER NOT NULL,
+    added_at   TIMESTAMP(6),
+    CONSTRAINT fk_cart_items_cart FOREIGN KEY (cart_id) REFERENCES shopping_carts (id)
+);
+
+CREATE TABLE inventory_holds (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    cart_id      BIGINT       NOT NULL,
+    cart_item_id BIGINT       NOT NULL,
+    user_id      BIGINT       NOT NULL,
+    product_id   BIGINT       NOT NULL,
+    quantity     INTEGER      NOT NULL,
+    status       VARCHAR(255) NOT NULL,
+    expires_at   TIMESTAMP(6) NOT NULL,
+    created_at   TIMESTAMP(6),
+    updated_at   TIMESTAMP(6),
+    CONSTRAINT ck_inventory_holds_status CHECK (status IN ('ACTIVE', 'RELEASING', 'RELEASED', 'CONFIRMED'))
+);
+
+CREATE TABLE daily_sales_rollups (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    sales_date      DATE           NOT NULL,
+    orders_paid     BIGINT         NOT NULL,
+    orders_refunded BIGINT         NOT NULL,
+    units_sold      BIGINT         NOT NULL,
+    revenue         NUMERIC(14, 2) NOT NULL,
+    units_refunded  BIGINT         NOT NULL,
+    refunded_amount NUMERIC(14, 2) NOT NULL,
+    updated_at      TIMESTAMP(6),
+    CONSTRAINT uk_daily_sales_rollups_sales_date UNIQUE (sales_date)
+);
+
+CREATE TABLE product_sales_rollups (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    product_id      BIGINT         NOT NULL,
+    sales_date      DATE           NOT NULL,
+    units_sold      BIGINT         NOT NULL,
+    revenue         NUMERIC(14, 2) NOT NULL,
+    units_refunded  BIGINT         NOT NULL,
+    refunded_amount NUMERIC(14, 2) NOT NULL,
+    updated_at      TIMESTAMP(6),
+    CONSTRAINT uk_product_sales_rollups_product_id_date UNIQUE (product_id, sales_date)
+);
+
+CREATE TABLE category_sales_rollups (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    category_id     BIGINT         NOT NULL,
+    sales_date      DATE           NOT NULL,
+    units_sold      BIGINT         NOT NULL,
+    revenue         NUMERIC(14, 2) NOT NULL,
+    units_refunded  BIGINT         NOT NULL,
+    refunded_amount NUMERIC(14, 2) NOT NULL,
+    updated_at      TIMESTAMP(6),
+    CONSTRAINT uk_category_sales_rollups_category_id_date UNIQUE (category_id, sales_date)
+);
+
+CREATE TABLE rollup_watermarks (
+    name            VARCHAR(64)  NOT NULL PRIMARY KEY,
+    last_updated_at TIMESTAMP(6) NOT NULL,
+    last_order_id   BIGINT       NOT NULL
+);
+
+-- rollup catch-up and the delivered-purchase feed page by (updated_at, id)
+CREATE INDEX idx_orders_updated_at_id ON orders (updated_at, id);
+-- a user's orders, newest first; verified-purchase checks
+CREATE INDEX idx_orders_user_id_created_at ON orders (user_id, created_at);
+-- item loads per order, purchased-items lookups
+CREATE INDEX idx_order_items_order_id ON order_items (order_id);
+-- idle-cart purge
+CREATE INDEX idx_shopping_carts_updated_at ON shopping_carts (updated_at);
+-- cart contents, purge of cart items
+CREATE INDEX idx_cart_items_cart_id ON cart_items (cart_id);
+-- hold expiry sweep
+CREATE INDEX idx_inventory_holds_status_expires_at ON inventory_holds (status, expires_at);
+-- holds of a cart at checkout
+CREATE INDEX idx_inventory_holds_cart_id ON inventory_holds (cart_id);
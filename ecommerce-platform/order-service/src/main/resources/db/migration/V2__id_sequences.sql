@@ -0,0 +1,15 @@
+-- Pooled sequences replace the identity columns, so Hibernate can batch inserts. Each nextval
+-- reserves a block of 50 ids, which must match allocationSize on the entities.
+-- The sales rollups keep their identity columns: only native upserts write them.
+
+CREATE SEQUENCE orders_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE order_items_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE shopping_carts_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE cart_items_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE inventory_holds_seq START WITH 1 INCREMENT BY 50;
+
+ALTER TABLE orders ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE order_items ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE shopping_carts ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE cart_items ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE inventory_holds ALTER COLUMN id DROP IDENTITY;
@@ -0,0 +1,3 @@
+-- Finished holds past inventory.hold.retention are deleted in batches, and holds stuck in RELEASING
+-- are found by status and age; both filter on status and updated_at.
+CREATE INDEX idx_inventory_holds_status_updated_at ON inventory_holds (status, updated_at);
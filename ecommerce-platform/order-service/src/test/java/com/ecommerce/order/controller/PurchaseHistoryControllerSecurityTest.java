@@ -0,0 +1,52 @@
+package com.ecommerce.order.controller;
+
+import com.ecommerce.common.client.ServiceClient;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class PurchaseHistoryControllerSecurityTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Test
+    void rejectsAnonymousCallers() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/internal/purchases/delivered").param("since", "2024-01-01T00:00:00"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/internal/purchases/verify").param("userId", "1").param("productId", "2"))
+                .andExpect(status().isForbidden());
+    }
+    
+    @Test
+    void rejectsAWrongTokenAndSignedInUsers() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/internal/purchases/verify").param("userId", "1").param("productId", "2")
+                        .header(ServiceClient.SERVICE_TOKEN_HEADER, "guessed-token"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/internal/purchases/verify").param("userId", "1").param("productId", "2")
+                        .with(user("1").roles("CUSTOMER")))
+                .andExpect(status().isForbidden());
+    }
+    
+    @Test
+    void acceptsTheServiceToken() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/internal/purchases/verify").param("userId", "1").param("productId", "2")
+                        .header(ServiceClient.SERVICE_TOKEN_HEADER, "test-service-token"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data").value(false));
+    }
+}
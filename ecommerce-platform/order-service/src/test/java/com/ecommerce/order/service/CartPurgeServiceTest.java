@@ -0,0 +1,93 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.order.model.CartItem;
+import com.ecommerce.order.model.ShoppingCart;
+import com.ecommerce.order.repository.CartItemRepository;
+import com.ecommerce.order.repository.ShoppingCartRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = {
+        "cart.purge.idle-after=P30D",
+        "cart.purge.chunk-size=2",
+        "cart.purge.min-chunk-size=2",
+        "cart.purge.max-chunk-size=2"
+})
+@ActiveProfiles("test")
+class CartPurgeServiceTest {
+    
+    @Autowired
+    private CartPurgeService cartPurgeService;
+    
+    @Autowired
+    private ShoppingCartRepository shoppingCartRepository;
+    
+    @Autowired
+    private CartItemRepository cartItemRepository;
+    
+    @AfterEach
+    void tearDown() {
+        cartItemRepository.deleteAll();
+        shoppingCartRepository.deleteAll();
+    }
+    
+    @Test
+    void deletesIdleCartsInChunksAndKeepsRecentlyUsedOnes() {
+        // Arrange: five carts idle for 40 days, one updated yesterday, one idle cart with an item added yesterday
+        LocalDateTime idle = LocalDateTime.now().minusDays(40);
+        LocalDateTime recent = LocalDateTime.now().minusDays(1);
+        for (long userId = 1; userId <= 5; userId++) {
+            cart(userId, idle, idle);
+        }
+        ShoppingCart updated = cart(6L, recent, idle);
+        ShoppingCart refilled = cart(7L, idle, recent);
+        
+        // Act
+        CartPurgeService.PurgeReport report = cartPurgeService.purgeIdleCarts();
+        
+        // Assert
+        assertEquals(5, report.cartsDeleted());
+        assertEquals(5, report.cartItemsDeleted());
+        assertEquals(3, report.chunks());
+        assertEquals(List.of(updated.getId(), refilled.getId()),
+                shoppingCartRepository.findAll().stream().map(ShoppingCart::getId).sorted().toList());
+        assertEquals(2, cartItemRepository.count());
+    }
+    
+    @Test
+    void leavesNothingToDoOnceEveryCartIsRecent() {
+        // Arrange
+        cart(1L, LocalDateTime.now().minusDays(29), LocalDateTime.now().minusDays(29));
+        
+        // Act
+        CartPurgeService.PurgeReport report = cartPurgeService.purgeIdleCarts();
+        
+        // Assert
+        assertEquals(0, report.cartsDeleted());
+        assertEquals(0, report.chunks());
+        assertEquals(1, shoppingCartRepository.count());
+    }
+    
+    private ShoppingCart cart(Long userId, LocalDateTime updatedAt, LocalDateTime itemAddedAt) {
+        ShoppingCart cart = shoppingCartRepository.save(ShoppingCart.builder()
+                .userId(userId)
+                .createdAt(updatedAt)
+                .updatedAt(updatedAt)
+                .build());
+        cartItemRepository.save(CartItem.builder()
+                .cart(cart)
+                .productId(100 + userId)
+                .quantity(1)
+                .addedAt(itemAddedAt)
+                .build());
+        return cart;
+    }
+}
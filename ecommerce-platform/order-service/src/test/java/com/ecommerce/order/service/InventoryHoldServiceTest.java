@@ -0,0 +1,256 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.common.constants.InventoryHoldStatus;
+import com.ecommerce.common.exceptions.BadRequestException;
+import com.ecommerce.order.client.ProductServiceClient;
+import com.ecommerce.order.dto.InventoryDto;
+import com.ecommerce.order.model.CartItem;
+import com.ecommerce.order.model.InventoryHold;
+import com.ecommerce.order.model.ShoppingCart;
+import com.ecommerce.order.repository.CartItemRepository;
+import com.ecommerce.order.repository.InventoryHoldRepository;
+import com.ecommerce.order.repository.ShoppingCartRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest(properties = {
+        "inventory.hold.ttl=PT0.5S",
+        "inventory.hold.tick=20ms",
+        "inventory.hold.retry-after=PT0S"
+})
+@ActiveProfiles("test")
+class InventoryHoldServiceTest {
+    
+    private static final long USER_ID = 42L;
+    
+    @Autowired
+    private InventoryHoldService inventoryHoldService;
+    
+    @Autowired
+    private InventoryHoldRepository holdRepository;
+    
+    @Autowired
+    private ShoppingCartRepository shoppingCartRepository;
+    
+    @Autowired
+    private CartItemRepository cartItemRepository;
+    
+    @MockBean
+    private ProductServiceClient productServiceClient;
+    
+    private ShoppingCart cart;
+    
+    @BeforeEach
+    void setUp() {
+        cart = shoppingCartRepository.save(ShoppingCart.builder().userId(USER_ID).build());
+        cartItemRepository.save(CartItem.builder().cart(cart).productId(7L).quantity(2).build());
+        cartItemRepository.save(CartItem.builder().cart(cart).productId(8L).quantity(1).build());
+        cartItemRepository.save(CartItem.builder().cart(cart).productId(7L).quantity(3).build());
+    }
+    
+    @AfterEach
+    void tearDown() {
+        holdRepository.deleteAll();
+        cartItemRepository.deleteAll();
+        shoppingCartRepository.deleteAll();
+    }
+    
+    @Test
+    void placesOneHoldPerItemAndReservesEachOnceByKey() {
+        // Act
+        List<InventoryDto.HoldResponse> placed = inventoryHoldService.placeHolds(cart.getId(), USER_ID);
+        List<InventoryDto.HoldResponse> again = inventoryHoldService.placeHolds(cart.getId(), USER_ID);
+        
+        // Assert
+        assertEquals(3, placed.size());
+        assertEquals(ids(placed), ids(again));
+        verify(productServiceClient, times(1)).reserveStock(any());
+        verify(productServiceClient).reserveStock(keyedLines(placed));
+        assertThrows(BadRequestException.class, () -> inventoryHoldService.placeHolds(cart.getId(), USER_ID + 1));
+    }
+    
+    @Test
+    @SuppressWarnings("unchecked")
+    void returnsTheKeyedReservationWhenItsReplyIsLost() {
+        // Arrange: product-service applied the reservation but the reply timed out
+        doThrow(new IllegalStateException("read timed out")).when(productServiceClient).reserveStock(any());
+        ArgumentCaptor<List<InventoryDto.StockLine>> reserved = ArgumentCaptor.forClass(List.class);
+        
+        // Act
+        assertThrows(IllegalStateException.class, () -> inventoryHoldService.placeHolds(cart.getId(), USER_ID));
+        
+        // Assert: the same keyed lines go back, and no hold survives the rollback
+        verify(productServiceClient).reserveStock(reserved.capture());
+        verify(productServiceClient).releaseStock(reserved.getValue());
+        assertEquals(3, reserved.getValue().size());
+        assertTrue(reserved.getValue().stream().allMatch(line -> line.getHoldKey().startsWith("inventory-hold:")));
+        assertEquals(0, holdRepository.count());
+    }
+    
+    @Test
+    void returnsExpiredHoldsWithOneKeyPerHold() throws Exception {
+        // Arrange
+        List<InventoryDto.HoldResponse> placed = inventoryHoldService.placeHolds(cart.getId(), USER_ID);
+        awaitExpiry();
+        
+        // Act
+        inventoryHoldService.releaseExpired();
+        
+        // Assert
+        verify(productServiceClient).releaseStock(keyedLines(placed));
+        assertTrue(holdRepository.findAll().stream().allMatch(hold -> hold.getStatus() == InventoryHoldStatus.RELEASED));
+    }
+    
+    @Test
+    void releasesHoldsEarlyForTheirOwnerOnly() {
+        // Arrange
+        List<InventoryDto.HoldResponse> placed = inventoryHoldService.placeHolds(cart.getId(), USER_ID);
+        
+        // Act & Assert
+        assertThrows(BadRequestException.class, () -> inventoryHoldService.releaseHolds(cart.getId(), USER_ID + 1));
+        assertEquals(3, inventoryHoldService.releaseHolds(cart.getId(), USER_ID));
+        assertEquals(0, inventoryHoldService.releaseHolds(cart.getId(), USER_ID));
+        
+        verify(productServiceClient, times(1)).releaseStock(any());
+        verify(productServiceClient).releaseStock(keyedLines(placed));
+        assertTrue(holdRepository.findAll().stream().allMatch(hold -> hold.getStatus() == InventoryHoldStatus.RELEASED));
+    }
+    
+    @Test
+    void retriesAFailedReleaseWithTheSameKeys() throws Exception {
+        // Arrange
+        List<InventoryDto.HoldResponse> placed = inventoryHoldService.placeHolds(cart.getId(), USER_ID);
+        doThrow(new IllegalStateException("product-service unavailable"))
+                .doNothing()
+                .when(productServiceClient).releaseStock(any());
+        
+        // Act
+        int released = inventoryHoldService.releaseHolds(cart.getId(), USER_ID);
+        
+        // Assert
+        assertEquals(0, released);
+        assertTrue(holdRepository.findAll().stream().allMatch(hold -> hold.getStatus() == InventoryHoldStatus.RELEASING));
+        
+        // Act
+        Thread.sleep(20);
+        inventoryHoldService.retryStuckReleases();
+        
+        // Assert
+        verify(productServiceClient, times(2)).releaseStock(keyedLines(placed));
+        assertTrue(holdRepository.findAll().stream().allMatch(hold -> hold.getStatus() == InventoryHoldStatus.RELEASED));
+    }
+    
+    @Test
+    void sweepsExpiredHoldsNoInstanceIsTimingOut() {
+        // Arrange: an active hold armed by an instance that is gone, and one still live
+        InventoryHold orphaned = holdRepository.save(hold(InventoryHoldStatus.ACTIVE, LocalDateTime.now().minusMinutes(5)));
+        InventoryHold live = holdRepository.save(hold(InventoryHoldStatus.ACTIVE, LocalDateTime.now().plusMinutes(5)));
+        
+        // Act
+        int swept = inventoryHoldService.sweepExpired();
+        
+        // Assert
+        assertEquals(1, swept);
+        verify(productServiceClient).releaseStock(List.of(line(7L, 2, "inventory-hold:" + orphaned.getId())));
+        assertEquals(InventoryHoldStatus.RELEASED, holdRepository.findById(orphaned.getId()).orElseThrow().getStatus());
+        assertEquals(InventoryHoldStatus.ACTIVE, holdRepository.findById(live.getId()).orElseThrow().getStatus());
+        assertEquals(0, inventoryHoldService.sweepExpired());
+    }
+    
+    @Test
+    void purgesFinishedHoldsPastTheRetention() {
+        // Arrange
+        LocalDateTime longAgo = LocalDateTime.now().minusDays(30);
+        InventoryHold oldReleased = holdRepository.save(finished(InventoryHoldStatus.RELEASED, longAgo));
+        InventoryHold oldConfirmed = holdRepository.save(finished(InventoryHoldStatus.CONFIRMED, longAgo));
+        InventoryHold recentReleased = holdRepository.save(finished(InventoryHoldStatus.RELEASED, LocalDateTime.now()));
+        InventoryHold oldReleasing = holdRepository.save(finished(InventoryHoldStatus.RELEASING, longAgo));
+        
+        // Act
+        int purged = inventoryHoldService.purgeFinished();
+        
+        // Assert
+        assertEquals(2, purged);
+        assertTrue(holdRepository.findById(oldReleased.getId()).isEmpty());
+        assertTrue(holdRepository.findById(oldConfirmed.getId()).isEmpty());
+        assertTrue(holdRepository.findById(recentReleased.getId()).isPresent());
+        assertTrue(holdRepository.findById(oldReleasing.getId()).isPresent());
+    }
+    
+    @Test
+    void confirmedHoldsAreNeverReleased() throws Exception {
+        // Arrange
+        inventoryHoldService.placeHolds(cart.getId(), USER_ID);
+        
+        // Act
+        assertEquals(3, inventoryHoldService.confirmHolds(cart.getId()));
+        awaitExpiry();
+        inventoryHoldService.releaseExpired();
+        
+        // Assert
+        verify(productServiceClient, never()).releaseStock(any());
+        assertTrue(holdRepository.findAll().stream().allMatch(hold -> hold.getStatus() == InventoryHoldStatus.CONFIRMED));
+    }
+    
+    private void awaitExpiry() throws InterruptedException {
+        Thread.sleep(500);
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (inventoryHoldService.getPendingHoldCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+    }
+    
+    private InventoryHold hold(InventoryHoldStatus status, LocalDateTime expiresAt) {
+        return InventoryHold.builder()
+                .cartId(cart.getId())
+                .cartItemId(1L)
+                .userId(USER_ID)
+                .productId(7L)
+                .quantity(2)
+                .status(status)
+                .expiresAt(expiresAt)
+                .build();
+    }
+    
+    private InventoryHold finished(InventoryHoldStatus status, LocalDateTime updatedAt) {
+        InventoryHold hold = hold(status, updatedAt.plusMinutes(10));
+        hold.setUpdatedAt(updatedAt);
+        return hold;
+    }
+    
+    private List<InventoryDto.StockLine> keyedLines(List<InventoryDto.HoldResponse> holds) {
+        return holds.stream()
+                .map(hold -> line(hold.getProductId(), hold.getQuantity(), "inventory-hold:" + hold.getId()))
+                .toList();
+    }
+    
+    private static List<Long> ids(List<InventoryDto.HoldResponse> holds) {
+        return holds.stream().map(InventoryDto.HoldResponse::getId).sorted().toList();
+    }
+    
+    private static InventoryDto.StockLine line(Long productId, int quantity, String holdKey) {
+        return InventoryDto.StockLine.builder()
+                .productId(productId)
+                .quantity(quantity)
+                .holdKey(holdKey)
+                .build();
+    }
+}
@@ -0,0 +1,171 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.common.constants.PaymentStatus;
+import com.ecommerce.order.model.Order;
+import com.ecommerce.order.model.OrderItem;
+import com.ecommerce.order.model.RollupWatermark;
+import com.ecommerce.order.repository.CategorySalesRollupRepository;
+import com.ecommerce.order.repository.DailySalesRollupRepository;
+import com.ecommerce.order.repository.OrderRepository;
+import com.ecommerce.order.repository.OrderRepository.OrderChangeMarker;
+import com.ecommerce.order.repository.ProductSalesRollupRepository;
+import com.ecommerce.order.repository.RollupWatermarkRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class SalesRollupServiceTest {
+    
+    private static final LocalDateTime PLACED = LocalDateTime.of(2024, 3, 5, 10, 0);
+    private static final LocalDate SALES_DATE = PLACED.toLocalDate();
+    
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final ProductSalesRollupRepository productRollups = mock(ProductSalesRollupRepository.class);
+    private final CategorySalesRollupRepository categoryRollups = mock(CategorySalesRollupRepository.class);
+    private final DailySalesRollupRepository dailyRollups = mock(DailySalesRollupRepository.class);
+    private final RollupWatermarkRepository watermarkRepository = mock(RollupWatermarkRepository.class);
+    private final SalesRollupService service = new SalesRollupService(
+            orderRepository, productRollups, categoryRollups, dailyRollups, watermarkRepository);
+    
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "catchUpBatchSize", 2);
+        ReflectionTestUtils.setField(service, "settleDelay", Duration.ofMinutes(1));
+    }
+    
+    @Test
+    void appliesOnlyTheDifferenceFromWhatIsAlreadyRolledUp() {
+        // Arrange: two lines of product 7 and one of product 8, both in category 3
+        Order order = order(1L, line(7L, 3L, 2, "20.00"), line(7L, 3L, 1, "10.00"), line(8L, 3L, 1, "5.00"));
+        order.setPaymentStatus(PaymentStatus.COMPLETED);
+        
+        // Act
+        service.applyOrder(order);
+        
+        // Assert
+        verify(productRollups).applyDelta(eq(7L), eq(SALES_DATE), eq(3L), amount("30.00"), eq(0L), amount("0"));
+        verify(productRollups).applyDelta(eq(8L), eq(SALES_DATE), eq(1L), amount("5.00"), eq(0L), amount("0"));
+        verify(categoryRollups).applyDelta(eq(3L), eq(SALES_DATE), eq(4L), amount("35.00"), eq(0L), amount("0"));
+        verify(dailyRollups).applyDelta(eq(SALES_DATE), eq(1L), eq(0L), eq(4L), amount("35.00"), eq(0L), amount("0"));
+        verify(orderRepository).updateRolledUpPaymentStatus(1L, PaymentStatus.COMPLETED);
+    }
+    
+    @Test
+    void reapplyingTheSameStatusChangesNothingAndARefundOnlyAddsTheRefund() {
+        // Arrange
+        Order order = order(1L, line(7L, 3L, 2, "20.00"));
+        order.setPaymentStatus(PaymentStatus.COMPLETED);
+        order.setRolledUpPaymentStatus(PaymentStatus.COMPLETED);
+        
+        // Act
+        service.applyOrder(order);
+        
+        // Assert
+        verifyNoInteractions(productRollups, categoryRollups, dailyRollups);
+        verify(orderRepository, never()).updateRolledUpPaymentStatus(any(), any());
+        
+        // Act: refunded after it was counted as sold
+        order.setPaymentStatus(PaymentStatus.REFUNDED);
+        service.applyOrder(order);
+        
+        // Assert
+        verify(productRollups).applyDelta(eq(7L), eq(SALES_DATE), eq(0L), amount("0"), eq(2L), amount("20.00"));
+        verify(dailyRollups).applyDelta(eq(SALES_DATE), eq(0L), eq(1L), eq(0L), amount("0"), eq(2L), amount("20.00"));
+        verify(orderRepository).updateRolledUpPaymentStatus(1L, PaymentStatus.REFUNDED);
+    }
+    
+    @Test
+    void catchUpAppliesChangedOrdersAndAdvancesTheWatermark() {
+        // Arrange
+        RollupWatermark watermark = RollupWatermark.builder()
+                .name(SalesRollupService.WATERMARK_NAME)
+                .lastUpdatedAt(PLACED.minusDays(1))
+                .lastOrderId(0L)
+                .build();
+        when(watermarkRepository.findById(SalesRollupService.WATERMARK_NAME)).thenReturn(Optional.of(watermark));
+        Order paid = order(1L, line(7L, 3L, 1, "10.00"));
+        paid.setPaymentStatus(PaymentStatus.COMPLETED);
+        Order counted = order(2L, line(8L, 3L, 1, "5.00"));
+        counted.setPaymentStatus(PaymentStatus.COMPLETED);
+        counted.setRolledUpPaymentStatus(PaymentStatus.COMPLETED);
+        List<OrderChangeMarker> changed = List.of(marker(1L, PLACED), marker(2L, PLACED.plusMinutes(5)));
+        when(orderRepository.findChangedSince(any(), anyLong(), any(), any())).thenReturn(changed);
+        when(orderRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(paid));
+        when(orderRepository.findByIdForUpdate(2L)).thenReturn(Optional.of(counted));
+        
+        // Act
+        int processed = service.catchUpBatch();
+        
+        // Assert: only the order the incremental path missed moves the rollups
+        assertEquals(2, processed);
+        verify(productRollups).applyDelta(eq(7L), eq(SALES_DATE), eq(1L), amount("10.00"), eq(0L), amount("0"));
+        verify(productRollups, never()).applyDelta(eq(8L), any(), anyLong(), any(), anyLong(), any());
+        ArgumentCaptor<RollupWatermark> saved = ArgumentCaptor.forClass(RollupWatermark.class);
+        verify(watermarkRepository).save(saved.capture());
+        assertEquals(PLACED.plusMinutes(5), saved.getValue().getLastUpdatedAt());
+        assertEquals(2L, saved.getValue().getLastOrderId());
+        verify(orderRepository).findChangedSince(eq(PLACED.minusDays(1)), eq(0L), any(), any());
+    }
+    
+    @Test
+    void caughtUpBatchLeavesTheWatermarkAlone() {
+        // Arrange
+        when(watermarkRepository.findById(SalesRollupService.WATERMARK_NAME)).thenReturn(Optional.empty());
+        when(orderRepository.findChangedSince(any(), anyLong(), any(), any())).thenReturn(List.of());
+        
+        // Act
+        int processed = service.catchUpBatch();
+        
+        // Assert
+        assertEquals(0, processed);
+        verify(watermarkRepository, never()).save(any());
+    }
+    
+    private static Order order(Long id, OrderItem... items) {
+        return Order.builder()
+                .id(id)
+                .createdAt(PLACED)
+                .orderItems(List.of(items))
+                .build();
+    }
+    
+    private static OrderItem line(Long productId, Long categoryId, int quantity, String subtotal) {
+        return OrderItem.builder()
+                .productId(productId)
+                .categoryId(categoryId)
+                .quantity(quantity)
+                .subtotal(new BigDecimal(subtotal))
+                .build();
+    }
+    
+    private static OrderChangeMarker marker(Long id, LocalDateTime updatedAt) {
+        OrderChangeMarker marker = mock(OrderChangeMarker.class);
+        when(marker.getId()).thenReturn(id);
+        when(marker.getUpdatedAt()).thenReturn(updatedAt);
+        return marker;
+    }
+    
+    private static BigDecimal amount(String expected) {
+        BigDecimal value = new BigDecimal(expected);
+        return argThat(actual -> actual != null && actual.compareTo(value) == 0);
+    }
+}
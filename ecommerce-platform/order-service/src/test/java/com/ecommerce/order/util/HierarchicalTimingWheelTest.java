@@ -0,0 +1,84 @@
+package com.ecommerce.order.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HierarchicalTimingWheelTest {
+    
+    @Test
+    void advance_ExpiresOnlyDueEntries() {
+        // Arrange
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(10, 4, 0);
+        wheel.schedule("a", 50);
+        wheel.schedule("b", 55);
+        wheel.schedule("c", 1_000);
+        List<String> expired = new ArrayList<>();
+        
+        // Act
+        wheel.advance(49, expired::add);
+        List<String> beforeDeadline = new ArrayList<>(expired);
+        wheel.advance(60, expired::add);
+        
+        // Assert
+        assertTrue(beforeDeadline.isEmpty());
+        assertEquals(List.of("a", "b"), expired.stream().sorted().toList());
+        assertEquals(1, wheel.size());
+    }
+    
+    @Test
+    void cancel_RemovesPendingEntry() {
+        // Arrange
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(10, 4, 0);
+        HierarchicalTimingWheel.Timeout<String> timeout = wheel.schedule("a", 5_000);
+        List<String> expired = new ArrayList<>();
+        
+        // Act
+        boolean cancelled = wheel.cancel(timeout);
+        boolean cancelledTwice = wheel.cancel(timeout);
+        wheel.advance(10_000, expired::add);
+        
+        // Assert
+        assertTrue(cancelled);
+        assertFalse(cancelledTwice);
+        assertTrue(expired.isEmpty());
+        assertEquals(0, wheel.size());
+    }
+    
+    @Test
+    void advance_MatchesDeadlinesAcrossLevels() {
+        // Arrange
+        HierarchicalTimingWheel<Integer> wheel = new HierarchicalTimingWheel<>(1, 3, 0);
+        Random random = new Random(42);
+        Map<Integer, Long> deadlines = new HashMap<>();
+        for (int i = 0; i < 5_000; i++) {
+            // Up to well past the 3-level range of 2^18 ticks to exercise parking on the top level
+            long deadline = (long) random.nextInt(600_000);
+            deadlines.put(i, deadline);
+            wheel.schedule(i, deadline);
+        }
+        Map<Integer, Long> expiredAt = new HashMap<>();
+        
+        // Act
+        for (long now = 0; now <= 600_000; now += 1 + random.nextInt(500)) {
+            final long tick = now;
+            wheel.advance(now, id -> expiredAt.put(id, tick));
+        }
+        wheel.advance(600_000, id -> expiredAt.put(id, 600_000L));
+        
+        // Assert
+        assertEquals(deadlines.size(), expiredAt.size());
+        for (Map.Entry<Integer, Long> entry : deadlines.entrySet()) {
+            long firedAt = expiredAt.get(entry.getKey());
+            assertTrue(firedAt >= entry.getValue(), "expired early: " + entry.getKey());
+            assertTrue(firedAt - entry.getValue() <= 500, "expired late: " + entry.getKey());
+        }
+        assertEquals(0, wheel.size());
+    }
+}
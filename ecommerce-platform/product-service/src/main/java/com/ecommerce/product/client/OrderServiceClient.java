@@ -0,0 +1,35 @@
+package com.ecommerce.product.client;
+
+import com.ecommerce.common.client.ServiceClient;
+import com.ecommerce.common.dto.ApiResponse;
+import com.ecommerce.product.dto.PurchaseDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Calls order-service's internal purchase history API.
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderServiceClient {
+    
+    private final ServiceClient orderServiceHttpClient;
+    
+    public PurchaseDto.DeliveredPage getDeliveredSince(LocalDateTime since, long afterOrderId, int limit) {
+        ApiResponse<PurchaseDto.DeliveredPage> response = orderServiceHttpClient.get(
+                "/api/internal/purchases/delivered?since={since}&afterOrderId={afterOrderId}&limit={limit}",
+                orderServiceHttpClient.apiResponseOf(PurchaseDto.DeliveredPage.class),
+                since, afterOrderId, limit);
+        return response.getData();
+    }
+    
+    public boolean hasDeliveredPurchase(long userId, long productId) {
+        ApiResponse<Boolean> response = orderServiceHttpClient.get(
+                "/api/internal/purchases/verify?userId={userId}&productId={productId}",
+                orderServiceHttpClient.apiResponseOf(Boolean.class),
+                userId, productId);
+        return Boolean.TRUE.equals(response.getData());
+    }
+}
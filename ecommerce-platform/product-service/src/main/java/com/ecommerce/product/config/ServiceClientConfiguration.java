@@ -0,0 +1,35 @@
+package com.ecommerce.product.config;
+
+import com.ecommerce.common.client.ServiceClient;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * One shared {@link ServiceClient} per downstream service.
+ */
+@Configuration
+public class ServiceClientConfiguration {
+    
+    @Bean
+    public ServiceClient orderServiceHttpClient(ObjectMapper objectMapper,
+                                                ObjectProvider<MeterRegistry> meterRegistry,
+                                                @Value("${services.order.url}") String baseUrl,
+                                                @Value("${services.order.connect-timeout:2s}") Duration connectTimeout,
+                                                @Value("${services.order.timeout:3s}") Duration timeout,
+                                                @Value("${services.internal-token:}") String serviceToken) {
+        return ServiceClient.builder("order-service", baseUrl)
+                .objectMapper(objectMapper)
+                .meterRegistry(meterRegistry.getIfAvailable(() -> Metrics.globalRegistry))
+                .connectTimeout(connectTimeout)
+                .requestTimeout(timeout)
+                .serviceToken(serviceToken)
+                .build();
+    }
+}
@@ -0,0 +1,68 @@
+package com.ecommerce.product.controller;
+
+import com.ecommerce.common.dto.ApiResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Conditional GET handling for public catalog reads. When the client's {@code If-None-Match} matches
+ * the current entity tag the body supplier is never invoked, so a revalidation skips the query,
+ * mapping and JSON serialization of the resource.
+ */
+@Component
+public class CatalogCacheSupport {
+    
+    private final CacheControl cacheControl;
+    
+    public CatalogCacheSupport(@Value("${catalog.http-cache.max-age:60s}") Duration maxAge,
+                               @Value("${catalog.http-cache.stale-while-revalidate:30s}") Duration staleWhileRevalidate) {
+        this.cacheControl = CacheControl.maxAge(maxAge)
+                .cachePublic()
+                .staleWhileRevalidate(staleWhileRevalidate);
+    }
+    
+    public <T> ResponseEntity<ApiResponse<T>> conditional(WebRequest request, String etag, Supplier<T> body) {
+        if (etag == null) {
+            // Unknown resource; let the supplier raise the usual 404
+            return ResponseEntity.ok(ApiResponse.success(body.get()));
+        }
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(cacheControl)
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .body(ApiResponse.success(body.get()));
+    }
+    
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        // Weak comparison, as RFC 9110 requires for If-None-Match; gzip responses carry weak tags
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -2,6 +2,7 @@ package com.ecommerce.product.controller;
 
 import com.ecommerce.common.dto.ApiResponse;
 import com.ecommerce.product.dto.CategoryDto;
+import com.ecommerce.product.service.CatalogVersionService;
 import com.ecommerce.product.service.CategoryService;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
@@ -10,6 +11,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -20,6 +22,8 @@ import java.util.List;
 public class CategoryController {
     
     private final CategoryService categoryService;
+    private final CatalogVersionService catalogVersionService;
+    private final CatalogCacheSupport catalogCacheSupport;
     
     @PostMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
@@ -31,15 +35,18 @@ public class CategoryController {
     }
     
     @GetMapping
-    public ResponseEntity<ApiResponse<List<CategoryDto.CategoryResponse>>> getAllCategories() {
-        List<CategoryDto.CategoryResponse> categories = categoryService.getAllCategories();
-        return ResponseEntity.ok(ApiResponse.success(categories));
+    public ResponseEntity<ApiResponse<List<CategoryDto.CategoryResponse>>> getAllCategories(WebRequest webRequest) {
+        return catalogCacheSupport.conditional(webRequest, catalogVersionService.getCategoryEtag(),
+                categoryService::getAllCategories);
     }
     
     @GetMapping("/{categoryId}")
-    public ResponseEntity<ApiResponse<CategoryDto.CategoryResponse>> getCategoryById(@PathVariable Long categoryId) {
-        CategoryDto.CategoryResponse category = categoryService.getCategoryById(categoryId);
-        return ResponseEntity.ok(ApiResponse.success(category));
+    public ResponseEntity<ApiResponse<CategoryDto.CategoryResponse>> getCategoryById(
+            @PathVariable Long categoryId,
+            WebRequest webRequest
+    ) {
+        return catalogCacheSupport.conditional(webRequest, catalogVersionService.getCategoryEtag(),
+                () -> categoryService.getCategoryById(categoryId));
     }
     
     @DeleteMapping("/{categoryId}")
@@ -0,0 +1,38 @@
+package com.ecommerce.product.controller;
+
+import com.ecommerce.common.dto.ApiResponse;
+import com.ecommerce.product.dto.InventoryDto;
+import com.ecommerce.product.service.ProductService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/internal/inventory")
+@RequiredArgsConstructor
+@Tag(name = "Inventory (internal)", description = "Stock reservation APIs used by order-service")
+public class InventoryController {
+    
+    private final ProductService productService;
+    
+    @PostMapping("/reserve")
+    @Operation(summary = "Reserve stock for all lines atomically")
+    public ResponseEntity<ApiResponse<Void>> reserveStock(
+            @Valid @RequestBody InventoryDto.StockAdjustmentRequest request
+    ) {
+        productService.reserveStock(request.getLines());
+        return ResponseEntity.ok(ApiResponse.success("Stock reserved successfully", null));
+    }
+    
+    @PostMapping("/release")
+    @Operation(summary = "Return previously reserved stock")
+    public ResponseEntity<ApiResponse<Void>> releaseStock(
+            @Valid @RequestBody InventoryDto.StockAdjustmentRequest request
+    ) {
+        productService.releaseStock(request.getLines());
+        return ResponseEntity.ok(ApiResponse.success("Stock released successfully", null));
+    }
+}
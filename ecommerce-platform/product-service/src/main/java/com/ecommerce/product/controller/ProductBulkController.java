@@ -0,0 +1,44 @@
+package com.ecommerce.product.controller;
+
+import com.ecommerce.common.dto.ApiResponse;
+import com.ecommerce.product.dto.BulkUpdateDto;
+import com.ecommerce.product.service.ProductBulkUpdateService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/products/bulk")
+@RequiredArgsConstructor
+@Tag(name = "Product bulk updates", description = "Catalog-wide price and stock changes")
+public class ProductBulkController {
+    
+    private final ProductBulkUpdateService productBulkUpdateService;
+    
+    @PostMapping("/price")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    @SecurityRequirement(name = "bearerAuth")
+    @Operation(summary = "Adjust prices in bulk",
+            description = "Percentage or absolute change with rounding, for a category subtree or a list of products. Admin and Manager only")
+    public ResponseEntity<ApiResponse<BulkUpdateDto.BulkUpdateSummary>> adjustPrices(
+            @Valid @RequestBody BulkUpdateDto.PriceAdjustmentRequest request
+    ) {
+        return ResponseEntity.ok(ApiResponse.success("Prices adjusted", productBulkUpdateService.adjustPrices(request)));
+    }
+    
+    @PostMapping("/stock")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'EMPLOYEE')")
+    @SecurityRequirement(name = "bearerAuth")
+    @Operation(summary = "Sync stock in bulk",
+            description = "Sets or shifts stock levels by SKU, e.g. from the nightly warehouse feed")
+    public ResponseEntity<ApiResponse<BulkUpdateDto.BulkUpdateSummary>> syncStock(
+            @Valid @RequestBody BulkUpdateDto.StockSyncRequest request
+    ) {
+        return ResponseEntity.ok(ApiResponse.success("Stock synced", productBulkUpdateService.syncStock(request)));
+    }
+}
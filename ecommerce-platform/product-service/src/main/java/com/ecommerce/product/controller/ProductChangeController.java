@@ -0,0 +1,123 @@
+package com.ecommerce.product.controller;
+
+import com.ecommerce.common.dto.ApiResponse;
+import com.ecommerce.product.dto.ChangeFeedDto;
+import com.ecommerce.product.service.ProductChangeFeed;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+@RestController
+@RequestMapping("/api/products/changes")
+@Slf4j
+@Tag(name = "Product changes", description = "Committed price, stock, rating and catalog changes in order")
+public class ProductChangeController {
+    
+    private static final int MAX_LIMIT = 500;
+    
+    private final ProductChangeFeed productChangeFeed;
+    private final Duration longPollTimeout;
+    private final Duration streamTimeout;
+    
+    public ProductChangeController(ProductChangeFeed productChangeFeed,
+                                   @Value("${catalog.changes.long-poll-timeout:30s}") Duration longPollTimeout,
+                                   @Value("${catalog.changes.stream-timeout:30m}") Duration streamTimeout) {
+        this.productChangeFeed = productChangeFeed;
+        this.longPollTimeout = longPollTimeout;
+        this.streamTimeout = streamTimeout;
+    }
+    
+    @GetMapping
+    @Operation(summary = "Long-poll for product changes",
+            description = "Changes after the given sequence, waiting up to the long-poll timeout for one. Without after, "
+                    + "returns the current head to start from. Pass lastSequence back as after; reset means changes were missed")
+    public CompletableFuture<ResponseEntity<ApiResponse<ChangeFeedDto.ChangePage>>> getChanges(
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "100") int limit
+    ) {
+        int pageLimit = Math.max(1, Math.min(limit, MAX_LIMIT));
+        CompletableFuture<ChangeFeedDto.ChangePage> page = after == null
+                ? CompletableFuture.completedFuture(productChangeFeed.page(productChangeFeed.head(), pageLimit))
+                : productChangeFeed.await(after, pageLimit, longPollTimeout);
+        return page.thenApply(changes -> ResponseEntity.ok(ApiResponse.success(changes)));
+    }
+    
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream product changes",
+            description = "Server-Sent Events: a change event per product change with the sequence as its id. Resumes after "
+                    + "Last-Event-ID or after. A reset event means changes were missed; overflow means the client fell too far behind")
+    public ResponseEntity<SseEmitter> streamChanges(
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+            @RequestParam(required = false) Long after
+    ) {
+        long from = lastEventId != null ? lastEventId : after != null ? after : productChangeFeed.head();
+        SseEmitter emitter = new SseEmitter(streamTimeout.toMillis());
+        Optional<ProductChangeFeed.Subscription> subscription = productChangeFeed.subscribe(from, new EmitterSink(emitter));
+        if (subscription.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        emitter.onCompletion(subscription.get()::cancel);
+        emitter.onTimeout(subscription.get()::cancel);
+        emitter.onError(ex -> subscription.get().cancel());
+        return ResponseEntity.ok(emitter);
+    }
+    
+    /**
+     * Writes each batch of changes as consecutive events with a single flush.
+     */
+    private record EmitterSink(SseEmitter emitter) implements ProductChangeFeed.Sink {
+        
+        @Override
+        public void send(List<ChangeFeedDto.Change> changes) throws IOException {
+            Set<ResponseBodyEmitter.DataWithMediaType> events = new LinkedHashSet<>();
+            for (ChangeFeedDto.Change change : changes) {
+                events.addAll(SseEmitter.event()
+                        .id(Long.toString(change.getSequence()))
+                        .name("change")
+                        .data(change, MediaType.APPLICATION_JSON)
+                        .build());
+            }
+            emitter.send(events);
+        }
+        
+        @Override
+        public void reset(long lastSequence) throws IOException {
+            emitter.send(SseEmitter.event()
+                    .id(Long.toString(lastSequence))
+                    .name("reset")
+                    .data(lastSequence));
+        }
+        
+        @Override
+        public void heartbeat() throws IOException {
+            emitter.send(SseEmitter.event().comment("heartbeat"));
+        }
+        
+        @Override
+        public void close(boolean overflowed) {
+            if (overflowed) {
+                try {
+                    emitter.send(SseEmitter.event().name("overflow").data("Reconnect with Last-Event-ID to resume"));
+                } catch (IOException | IllegalStateException ex) {
+                    log.debug("Could not tell an overflowed subscriber: {}", ex.getMessage());
+                }
+            }
+            emitter.complete();
+        }
+    }
+}
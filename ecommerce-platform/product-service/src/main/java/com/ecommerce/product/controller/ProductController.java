@@ -1,8 +1,15 @@
 package com.ecommerce.product.controller;
 
 import com.ecommerce.common.dto.ApiResponse;
+import com.ecommerce.product.dto.FacetDto;
 import com.ecommerce.product.dto.ProductDto;
+import com.ecommerce.product.dto.SuggestionDto;
+import com.ecommerce.product.service.CatalogVersionService;
+import com.ecommerce.product.service.ProductFieldSet;
 import com.ecommerce.product.service.ProductService;
+import com.ecommerce.product.service.ProductSuggestionService;
+import com.ecommerce.product.service.TrendingProductsTracker;
+import com.fasterxml.jackson.databind.util.RawValue;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -16,6 +23,10 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.math.BigDecimal;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/products")
@@ -24,6 +35,10 @@ import org.springframework.web.bind.annotation.*;
 public class ProductController {
     
     private final ProductService productService;
+    private final ProductSuggestionService productSuggestionService;
+    private final TrendingProductsTracker trendingProductsTracker;
+    private final CatalogVersionService catalogVersionService;
+    private final CatalogCacheSupport catalogCacheSupport;
     
     @PostMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'EMPLOYEE')")
@@ -38,48 +53,154 @@ public class ProductController {
     }
     
     @GetMapping("/{productId}")
-    @Operation(summary = "Get product by ID")
-    public ResponseEntity<ApiResponse<ProductDto.ProductResponse>> getProductById(@PathVariable Long productId) {
-        ProductDto.ProductResponse product = productService.getProductById(productId);
-        return ResponseEntity.ok(ApiResponse.success(product));
+    @Operation(summary = "Get product by ID", description = "Data is a ProductResponse, served from pre-encoded JSON")
+    public ResponseEntity<ApiResponse<RawValue>> getProductById(
+            @PathVariable Long productId,
+            WebRequest webRequest
+    ) {
+        CatalogVersionService.ProductVersion version = catalogVersionService.getProductVersion(productId);
+        if (version != null) {
+            // Revalidations count too: a 304 is still a shopper looking at the product
+            trendingProductsTracker.recordView(productId, version.categoryId());
+        }
+        return catalogCacheSupport.conditional(webRequest, version == null ? null : version.etag(),
+                () -> productService.getProductJsonById(productId));
     }
     
     @GetMapping
-    @Operation(summary = "Get all products with pagination")
-    public ResponseEntity<ApiResponse<Page<ProductDto.ProductResponse>>> getAllProducts(
+    @Operation(summary = "Get all products with pagination",
+            description = "Page content is ProductResponse, served from pre-encoded JSON; view=card or fields=a,b,c trims it. "
+                    + "Sorts by price, averageRating, stockQuantity and createdAt, and the minPrice, maxPrice, minRating "
+                    + "and inStockOnly filters, are answered from the catalog snapshot")
+    public ResponseEntity<ApiResponse<Page<RawValue>>> getAllProducts(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "id") String sortBy,
-            @RequestParam(defaultValue = "ASC") String direction
+            @RequestParam(defaultValue = "ASC") String direction,
+            @RequestParam(required = false) String view,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) BigDecimal minRating,
+            @RequestParam(defaultValue = "false") boolean inStockOnly,
+            WebRequest webRequest
     ) {
         Sort.Direction sortDirection = Sort.Direction.fromString(direction);
         Pageable pageable = PageRequest.of(page, size, Sort.by(sortDirection, sortBy));
-        Page<ProductDto.ProductResponse> products = productService.getAllProducts(pageable);
-        return ResponseEntity.ok(ApiResponse.success(products));
+        ProductFieldSet fieldSet = ProductFieldSet.of(view, fields);
+        ProductDto.ListingFilter filter = ProductDto.ListingFilter.builder()
+                .minPrice(minPrice)
+                .maxPrice(maxPrice)
+                .minRating(minRating)
+                .inStockOnly(inStockOnly)
+                .build();
+        return catalogCacheSupport.conditional(webRequest, catalogVersionService.getProductListEtag(),
+                () -> productService.getAllProductsJson(pageable, fieldSet, filter));
     }
     
     @GetMapping("/search")
-    @Operation(summary = "Search products by keyword")
-    public ResponseEntity<ApiResponse<Page<ProductDto.ProductResponse>>> searchProducts(
+    @Operation(summary = "Search products by keyword", description = "Supports view=card and fields= like the full listing")
+    public ResponseEntity<ApiResponse<Page<RawValue>>> searchProducts(
             @RequestParam String keyword,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String view,
+            @RequestParam(required = false) String fields,
+            WebRequest webRequest
     ) {
         Pageable pageable = PageRequest.of(page, size);
-        Page<ProductDto.ProductResponse> products = productService.searchProducts(keyword, pageable);
-        return ResponseEntity.ok(ApiResponse.success(products));
+        ProductFieldSet fieldSet = ProductFieldSet.of(view, fields);
+        return catalogCacheSupport.conditional(webRequest, catalogVersionService.getProductListEtag(),
+                () -> productService.searchProductsJson(keyword, pageable, fieldSet));
+    }
+    
+    @GetMapping("/suggest")
+    @Operation(summary = "Typeahead suggestions",
+            description = "Products and categories whose name (any word of it) or SKU starts with the query, best rated first")
+    public ResponseEntity<ApiResponse<List<SuggestionDto.Suggestion>>> suggest(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "8") int limit
+    ) {
+        return ResponseEntity.ok(ApiResponse.success(productSuggestionService.suggest(q, limit)));
+    }
+    
+    @GetMapping("/trending")
+    @Operation(summary = "Trending products",
+            description = "Most viewed products recently, optionally within one category; content is ProductResponse")
+    public ResponseEntity<ApiResponse<List<RawValue>>> getTrendingProducts(
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(defaultValue = "10") int limit
+    ) {
+        return ResponseEntity.ok(ApiResponse.success(productService.getTrendingProductsJson(categoryId, Math.min(limit, 50))));
+    }
+    
+    @GetMapping("/{productId}/bought-together")
+    @Operation(summary = "Frequently bought together",
+            description = "Products most often delivered in the same orders, from in-memory co-occurrence counts; content is ProductResponse")
+    public ResponseEntity<ApiResponse<List<RawValue>>> getBoughtTogether(
+            @PathVariable Long productId,
+            @RequestParam(defaultValue = "5") int limit
+    ) {
+        return ResponseEntity.ok(ApiResponse.success(productService.getBoughtTogetherJson(productId, Math.min(limit, 20))));
+    }
+    
+    @GetMapping("/batch")
+    @Operation(summary = "Get many products by ID",
+            description = "Products in request order, served from pre-encoded JSON; unknown IDs are listed under missing")
+    public ResponseEntity<ApiResponse<ProductDto.BatchResponse>> getProductsByIds(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok(ApiResponse.success(productService.getProductsJsonByIds(ids)));
+    }
+    
+    @PostMapping("/batch")
+    @Operation(summary = "Get many products by ID (body)", description = "Same as GET /batch, for ID lists too long for a URL")
+    public ResponseEntity<ApiResponse<ProductDto.BatchResponse>> getProductsByIds(
+            @Valid @RequestBody ProductDto.BatchRequest request
+    ) {
+        return ResponseEntity.ok(ApiResponse.success(productService.getProductsJsonByIds(request.getIds())));
     }
     
     @GetMapping("/category/{categoryId}")
-    @Operation(summary = "Get products by category")
-    public ResponseEntity<ApiResponse<Page<ProductDto.ProductResponse>>> getProductsByCategory(
+    @Operation(summary = "Get products by category",
+            description = "Includes subcategories at any depth unless includeSubcategories=false. Supports sorting, view=card and fields= like the full listing")
+    public ResponseEntity<ApiResponse<Page<RawValue>>> getProductsByCategory(
             @PathVariable Long categoryId,
+            @RequestParam(defaultValue = "true") boolean includeSubcategories,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "id") String sortBy,
+            @RequestParam(defaultValue = "ASC") String direction,
+            @RequestParam(required = false) String view,
+            @RequestParam(required = false) String fields,
+            WebRequest webRequest
+    ) {
+        Sort.Direction sortDirection = Sort.Direction.fromString(direction);
+        Pageable pageable = PageRequest.of(page, size, Sort.by(sortDirection, sortBy));
+        ProductFieldSet fieldSet = ProductFieldSet.of(view, fields);
+        return catalogCacheSupport.conditional(webRequest, catalogVersionService.getProductListEtag(),
+                () -> productService.getProductsByCategoryJson(categoryId, includeSubcategories, pageable, fieldSet));
+    }
+    
+    @GetMapping("/filter")
+    @Operation(summary = "Filter products by facets",
+            description = "Values within a facet are ORed, facets are ANDed. Returns the page and the count for every facet value")
+    public ResponseEntity<ApiResponse<FacetDto.FilterResponse>> filterProducts(
+            @RequestParam(required = false) List<Long> categoryId,
+            @RequestParam(required = false) List<String> priceBand,
+            @RequestParam(required = false) List<String> ratingBand,
+            @RequestParam(required = false) Boolean inStock,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size
+            @RequestParam(defaultValue = "10") int size,
+            WebRequest webRequest
     ) {
+        FacetDto.FilterRequest filter = FacetDto.FilterRequest.builder()
+                .categoryIds(categoryId)
+                .priceBands(priceBand)
+                .ratingBands(ratingBand)
+                .inStock(inStock)
+                .build();
         Pageable pageable = PageRequest.of(page, size);
-        Page<ProductDto.ProductResponse> products = productService.getProductsByCategory(categoryId, pageable);
-        return ResponseEntity.ok(ApiResponse.success(products));
+        return catalogCacheSupport.conditional(webRequest, catalogVersionService.getProductListEtag(),
+                () -> productService.filterProductsJson(filter, pageable));
     }
     
     @PutMapping("/{productId}")
@@ -0,0 +1,105 @@
+package com.ecommerce.product.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public class BulkUpdateDto {
+    
+    public enum PriceAdjustmentType {
+        /** {@code value} is a percentage, e.g. -15 for 15% off. */
+        PERCENTAGE,
+        /** {@code value} is added to the price, e.g. -5.00. */
+        ABSOLUTE
+    }
+    
+    public enum PriceRounding {
+        /** To the cent. */
+        CENTS,
+        /** To the nearest whole unit. */
+        WHOLE,
+        /** To the nearest whole unit, less one cent (19.99). */
+        NINETY_NINE
+    }
+    
+    public enum StockSyncMode {
+        /** {@code quantity} replaces the stock level. */
+        SET,
+        /** {@code quantity} is added to the stock level, which does not go below zero. */
+        DELTA
+    }
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PriceAdjustmentRequest {
+        /** Either a category or explicit product IDs. */
+        private Long categoryId;
+        
+        @Builder.Default
+        private Boolean includeSubcategories = true;
+        
+        private List<@NotNull Long> productIds;
+        
+        @NotNull(message = "Adjustment type is required")
+        private PriceAdjustmentType type;
+        
+        @NotNull(message = "Adjustment value is required")
+        private BigDecimal value;
+        
+        @Builder.Default
+        private PriceRounding rounding = PriceRounding.CENTS;
+    }
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class StockSyncLine {
+        @NotBlank(message = "SKU is required")
+        private String sku;
+        
+        @NotNull(message = "Quantity is required")
+        private Integer quantity;
+    }
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class StockSyncRequest {
+        @NotNull(message = "Sync mode is required")
+        private StockSyncMode mode;
+        
+        @NotEmpty(message = "At least one stock line is required")
+        private List<@Valid StockSyncLine> lines;
+    }
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class BulkUpdateSummary {
+        /** Products the request addressed that exist. */
+        private long matched;
+        /** Products whose row was changed. */
+        private long updated;
+        private long unknownSkuCount;
+        /** The first unknown SKUs, up to a hundred. */
+        private List<String> unknownSkus;
+        private long unknownProductIdCount;
+        /** The first requested product IDs that do not exist, up to a hundred. */
+        private List<Long> unknownProductIds;
+        private int chunks;
+        private long durationMs;
+    }
+}
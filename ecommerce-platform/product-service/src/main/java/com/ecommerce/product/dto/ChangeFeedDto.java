@@ -0,0 +1,47 @@
+package com.ecommerce.product.dto;
+
+import com.ecommerce.product.event.ProductChangedEvent;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class ChangeFeedDto {
+    
+    /**
+     * One committed change to one product, with its price, stock and rating just after it; those are
+     * null for a deletion.
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Change {
+        private long sequence;
+        private ProductChangedEvent.ChangeType type;
+        private Long productId;
+        private BigDecimal price;
+        private Integer stockQuantity;
+        private BigDecimal averageRating;
+        private LocalDateTime updatedAt;
+    }
+    
+    /**
+     * Changes after the requested sequence, oldest first. {@code reset} means changes were missed, because
+     * the sequence is older than the retained window or comes from another instance: re-read the listing,
+     * then resume from {@code lastSequence}.
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ChangePage {
+        private List<Change> changes;
+        private long lastSequence;
+        private boolean reset;
+    }
+}
@@ -0,0 +1,44 @@
+package com.ecommerce.product.dto;
+
+import com.fasterxml.jackson.databind.util.RawValue;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+import java.util.Map;
+
+public class FacetDto {
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class FilterRequest {
+        private List<Long> categoryIds;
+        private List<String> priceBands;
+        private List<String> ratingBands;
+        private Boolean inStock;
+    }
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class FilterResponse {
+        private Page<RawValue> products;
+        private Map<String, List<FacetCount>> facets;
+    }
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class FacetCount {
+        private String value;
+        private String label;
+        private long count;
+    }
+}
@@ -0,0 +1,45 @@
+package com.ecommerce.product.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+public class InventoryDto {
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class StockLine {
+        @NotNull(message = "Product ID is required")
+        private Long productId;
+        
+        @NotNull(message = "Quantity is required")
+        @Min(value = 1, message = "Quantity must be at least 1")
+        private Integer quantity;
+        
+        /**
+         * Optional; identifies the caller's hold. A keyed reservation is applied at most once, and a keyed
+         * release returns stock at most once and only if that key's reservation was applied.
+         */
+        @Size(max = 100, message = "Hold key must be at most 100 characters")
+        private String holdKey;
+    }
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class StockAdjustmentRequest {
+        @NotEmpty(message = "At least one stock line is required")
+        private List<@Valid StockLine> lines;
+    }
+}
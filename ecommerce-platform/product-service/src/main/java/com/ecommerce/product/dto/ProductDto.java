@@ -1,5 +1,6 @@
 package com.ecommerce.product.dto;
 
+import com.fasterxml.jackson.databind.util.RawValue;
 import jakarta.validation.constraints.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -85,4 +86,62 @@ public class ProductDto {
         private Boolean isPrimary;
         private Integer displayOrder;
     }
+    
+    /**
+     * The listing-page view of a product: no description, timestamps or image list, just the primary image.
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ProductCard {
+        private Long id;
+        private String name;
+        private String sku;
+        private BigDecimal price;
+        private Long categoryId;
+        private Integer stockQuantity;
+        private BigDecimal averageRating;
+        private Integer totalReviews;
+        private String primaryImageUrl;
+    }
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class BatchRequest {
+        @NotEmpty(message = "At least one product ID is required")
+        private List<@NotNull Long> ids;
+    }
+    
+    /**
+     * Products in the order they were asked for, each ProductResponse JSON; ids with no product are listed in {@code missing}.
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class BatchResponse {
+        private List<RawValue> products;
+        private List<Long> missing;
+    }
+    
+    /**
+     * Optional bounds on the full listing; null leaves an attribute unfiltered. Prices and ratings are inclusive.
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ListingFilter {
+        private BigDecimal minPrice;
+        private BigDecimal maxPrice;
+        private BigDecimal minRating;
+        private boolean inStockOnly;
+        
+        public boolean isEmpty() {
+            return minPrice == null && maxPrice == null && minRating == null && !inStockOnly;
+        }
+    }
 }
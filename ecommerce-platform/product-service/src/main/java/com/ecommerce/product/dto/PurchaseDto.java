@@ -0,0 +1,37 @@
+package com.ecommerce.product.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * order-service's delivered-purchase feed, as read by {@code OrderServiceClient}.
+ */
+public class PurchaseDto {
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DeliveredOrder {
+        private Long orderId;
+        private Long userId;
+        private LocalDateTime updatedAt;
+        private List<Long> productIds;
+    }
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DeliveredPage {
+        private List<DeliveredOrder> orders;
+        private LocalDateTime nextSince;
+        private Long nextAfterOrderId;
+        private boolean hasMore;
+    }
+}
@@ -0,0 +1,26 @@
+package com.ecommerce.product.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+public class SuggestionDto {
+    
+    public enum SuggestionType {
+        PRODUCT,
+        CATEGORY
+    }
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Suggestion {
+        private SuggestionType type;
+        private Long id;
+        private String text;
+        private String sku;
+        private String categoryName;
+    }
+}
@@ -0,0 +1,22 @@
+package com.ecommerce.product.event;
+
+import java.util.List;
+
+/**
+ * Published inside the transaction that changed one or more products. Listeners that keep derived
+ * state should use {@code @TransactionalEventListener} so they only react to committed changes.
+ */
+public record ProductChangedEvent(ChangeType type, List<Long> productIds) {
+    
+    public static ProductChangedEvent of(ChangeType type, Long productId) {
+        return new ProductChangedEvent(type, List.of(productId));
+    }
+    
+    public enum ChangeType {
+        CREATED,
+        UPDATED,
+        STOCK_CHANGED,
+        RATING_CHANGED,
+        DELETED
+    }
+}
@@ -0,0 +1,8 @@
+package com.ecommerce.product.event;
+
+/**
+ * Published inside the transaction that created, edited or deleted a review. The product's rating is
+ * not updated in that transaction; {@code ProductRatingUpdater} picks the product up once it commits.
+ */
+public record ReviewChangedEvent(Long productId) {
+}
@@ -0,0 +1,43 @@
+package com.ecommerce.product.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * One row per (ancestor, descendant) pair of the category tree, a category being its own ancestor at
+ * depth 0. The primary key leads with the ancestor, so "everything under X" is one index range scan at
+ * any depth; the descendant index serves the reverse lookup used when a category is added or removed.
+ */
+@Entity
+@Table(name = "category_closure", indexes = {
+    @Index(name = "idx_category_closure_descendant", columnList = "descendant_id")
+})
+@IdClass(CategoryClosure.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryClosure {
+    
+    @Id
+    @Column(name = "ancestor_id")
+    private Long ancestorId;
+    
+    @Id
+    @Column(name = "descendant_id")
+    private Long descendantId;
+    
+    @Column(nullable = false)
+    private Integer depth;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long ancestorId;
+        private Long descendantId;
+    }
+}
@@ -11,7 +11,10 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+    @Index(name = "idx_products_updated_at", columnList = "updated_at"),
+    @Index(name = "idx_products_category_id", columnList = "category_id")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -19,7 +22,8 @@ import java.util.List;
 public class Product {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "products_seq")
+    @SequenceGenerator(name = "products_seq", sequenceName = "products_seq", allocationSize = 50)
     private Long id;
     
     @Column(nullable = false)
@@ -68,18 +72,4 @@ public class Product {
     protected void onUpdate() {
         this.updatedAt = LocalDateTime.now();
     }
-    
-    public void updateRating() {
-        if (reviews != null && !reviews.isEmpty()) {
-            double average = reviews.stream()
-                    .mapToInt(Review::getRating)
-                    .average()
-                    .orElse(0.0);
-            this.averageRating = BigDecimal.valueOf(average);
-            this.totalReviews = reviews.size();
-        } else {
-            this.averageRating = BigDecimal.ZERO;
-            this.totalReviews = 0;
-        }
-    }
 }
@@ -7,7 +7,9 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "product_images")
+@Table(name = "product_images", indexes = {
+    @Index(name = "idx_product_images_product_id", columnList = "product_id")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -15,7 +17,8 @@ import lombok.NoArgsConstructor;
 public class ProductImage {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_images_seq")
+    @SequenceGenerator(name = "product_images_seq", sequenceName = "product_images_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
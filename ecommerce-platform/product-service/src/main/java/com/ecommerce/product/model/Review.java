@@ -9,7 +9,10 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "reviews")
+@Table(name = "reviews", indexes = {
+    @Index(name = "idx_reviews_product_id_user_id", columnList = "product_id, user_id"),
+    @Index(name = "idx_reviews_user_id", columnList = "user_id")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -17,7 +20,8 @@ import java.time.LocalDateTime;
 public class Review {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reviews_seq")
+    @SequenceGenerator(name = "reviews_seq", sequenceName = "reviews_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
@@ -0,0 +1,50 @@
+package com.ecommerce.product.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Where one caller-keyed stock hold stands: reserved, or released (possibly before its reservation
+ * arrived). New keys are only ever inserted, so saving one never looks it up first; a concurrent
+ * duplicate fails on the primary key instead.
+ */
+@Entity
+@Table(name = "stock_hold_keys", indexes = {
+    @Index(name = "idx_stock_hold_keys_updated_at", columnList = "updated_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockHoldKey implements Persistable<String> {
+    
+    @Id
+    @Column(name = "hold_key", length = 100)
+    private String holdKey;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private State state;
+    
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+    
+    @Override
+    public String getId() {
+        return holdKey;
+    }
+    
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+    
+    public enum State {
+        RESERVED,
+        RELEASED
+    }
+}
@@ -0,0 +1,36 @@
+package com.ecommerce.product.repository;
+
+import com.ecommerce.product.model.CategoryClosure;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface CategoryClosureRepository extends JpaRepository<CategoryClosure, CategoryClosure.Key> {
+    
+    @Query("SELECT cc.descendantId FROM CategoryClosure cc WHERE cc.ancestorId = :ancestorId")
+    List<Long> findDescendantIds(@Param("ancestorId") Long ancestorId);
+    
+    @Query("SELECT COUNT(cc) FROM CategoryClosure cc WHERE cc.depth = 0")
+    long countSelfLinks();
+    
+    /**
+     * Links a new leaf category under every ancestor of its parent, the parent included.
+     */
+    @Modifying
+    @Query("INSERT INTO CategoryClosure (ancestorId, descendantId, depth) " +
+           "SELECT cc.ancestorId, :categoryId, cc.depth + 1 FROM CategoryClosure cc WHERE cc.descendantId = :parentId")
+    int insertPathsUnder(@Param("parentId") Long parentId, @Param("categoryId") Long categoryId);
+    
+    /**
+     * Drops every link into the category's subtree, i.e. the subtree itself and its paths from above.
+     */
+    @Modifying
+    @Query("DELETE FROM CategoryClosure cc WHERE cc.descendantId IN " +
+           "(SELECT sub.descendantId FROM CategoryClosure sub WHERE sub.ancestorId = :categoryId)")
+    int deleteSubtree(@Param("categoryId") Long categoryId);
+}
@@ -2,8 +2,10 @@ package com.ecommerce.product.repository;
 
 import com.ecommerce.product.model.Category;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,4 +14,20 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
     Optional<Category> findByName(String name);
     List<Category> findByParentCategoryIsNull();
     List<Category> findByParentCategoryId(Long parentId);
+    
+    @Query("SELECT c.id AS id, p.id AS parentId FROM Category c LEFT JOIN c.parentCategory p")
+    List<CategoryLink> findAllLinks();
+    
+    @Query("SELECT COUNT(c) AS total, MAX(c.createdAt) AS lastModified FROM Category c")
+    CategoryStamp getCategoryStamp();
+    
+    interface CategoryLink {
+        Long getId();
+        Long getParentId();
+    }
+    
+    interface CategoryStamp {
+        long getTotal();
+        LocalDateTime getLastModified();
+    }
 }
@@ -4,15 +4,37 @@ import com.ecommerce.product.model.Product;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
+    
+    /** Columns of {@link CardRow}: no description, and the primary image by subquery instead of the image list. */
+    String CARD_SELECT = "SELECT p.id AS id, p.name AS name, p.sku AS sku, p.price AS price, c.id AS categoryId, " +
+                         "p.stockQuantity AS stockQuantity, p.averageRating AS averageRating, p.totalReviews AS totalReviews, " +
+                         "(SELECT MIN(i.imageUrl) FROM ProductImage i WHERE i.product = p AND i.isPrimary = true) AS primaryImageUrl " +
+                         "FROM Product p LEFT JOIN p.category c ";
+    
+    /** Columns of {@link SnapshotRow}. */
+    String SNAPSHOT_SELECT = "SELECT p.id AS id, c.id AS categoryId, p.price AS price, p.stockQuantity AS stockQuantity, " +
+                             "p.averageRating AS averageRating, p.createdAt AS createdAt, p.updatedAt AS updatedAt " +
+                             "FROM Product p LEFT JOIN p.category c ";
+    
+    /** Categories at or below {@code :categoryId}, read from the closure table. */
+    String IN_CATEGORY_SUBTREE = "IN (SELECT cc.descendantId FROM CategoryClosure cc WHERE cc.ancestorId = :categoryId)";
+    
+    /** A bulk price rule: scale and shift, then round to {@code step} and take off {@code offset}. */
+    String ADJUSTED_PRICE = "(ROUND((p.price * :factor + :amount) / :step, 0) * :step - :offset)";
+    
     Optional<Product> findBySku(String sku);
     List<Product> findByCategoryId(Long categoryId);
     Page<Product> findByCategoryId(Long categoryId, Pageable pageable);
@@ -22,6 +44,197 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
            "LOWER(p.description) LIKE LOWER(CONCAT('%', :keyword, '%'))")
     Page<Product> searchProducts(@Param("keyword") String keyword, Pageable pageable);
     
+    @Query(value = CARD_SELECT, countQuery = "SELECT COUNT(p) FROM Product p")
+    Page<CardRow> findCards(Pageable pageable);
+    
+    @Query(value = CARD_SELECT + "WHERE " +
+           "LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
+           "LOWER(p.description) LIKE LOWER(CONCAT('%', :keyword, '%'))",
+           countQuery = "SELECT COUNT(p) FROM Product p WHERE " +
+           "LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
+           "LOWER(p.description) LIKE LOWER(CONCAT('%', :keyword, '%'))")
+    Page<CardRow> searchCards(@Param("keyword") String keyword, Pageable pageable);
+    
+    @Query(value = CARD_SELECT + "WHERE c.id = :categoryId",
+           countQuery = "SELECT COUNT(p) FROM Product p WHERE p.category.id = :categoryId")
+    Page<CardRow> findCardsByCategoryId(@Param("categoryId") Long categoryId, Pageable pageable);
+    
+    @Query(value = "SELECT p FROM Product p WHERE p.category.id " + IN_CATEGORY_SUBTREE,
+           countQuery = "SELECT COUNT(p) FROM Product p WHERE p.category.id " + IN_CATEGORY_SUBTREE)
+    Page<Product> findInCategorySubtree(@Param("categoryId") Long categoryId, Pageable pageable);
+    
+    @Query(value = CARD_SELECT + "WHERE c.id " + IN_CATEGORY_SUBTREE,
+           countQuery = "SELECT COUNT(p) FROM Product p WHERE p.category.id " + IN_CATEGORY_SUBTREE)
+    Page<CardRow> findCardsInCategorySubtree(@Param("categoryId") Long categoryId, Pageable pageable);
+    
+    @Query("SELECT CASE WHEN COUNT(p) > 0 THEN true ELSE false END FROM Product p WHERE p.category.id " + IN_CATEGORY_SUBTREE)
+    boolean existsInCategorySubtree(@Param("categoryId") Long categoryId);
+    
     @Query("SELECT p FROM Product p WHERE p.stockQuantity > 0")
     Page<Product> findAvailableProducts(Pageable pageable);
+    
+    @Query("SELECT p.updatedAt AS updatedAt, p.category.id AS categoryId FROM Product p WHERE p.id = :productId")
+    Optional<ProductVersion> findVersionById(@Param("productId") Long productId);
+    
+    @Query("SELECT p.id AS id, p.updatedAt AS updatedAt FROM Product p WHERE p.id IN :ids")
+    List<VersionStamp> findVersionsByIdIn(@Param("ids") Collection<Long> ids);
+    
+    @Query("SELECT DISTINCT p FROM Product p LEFT JOIN FETCH p.category LEFT JOIN FETCH p.images WHERE p.id IN :ids")
+    List<Product> findWithDetailsByIdIn(@Param("ids") Collection<Long> ids);
+    
+    @Query("SELECT COUNT(p) AS total, MAX(p.updatedAt) AS lastModified FROM Product p")
+    CatalogStamp getCatalogStamp();
+    
+    @Query("SELECT p.id AS id, c.id AS categoryId, p.price AS price, p.stockQuantity AS stockQuantity, " +
+           "p.averageRating AS averageRating FROM Product p LEFT JOIN p.category c WHERE p.id > :afterId ORDER BY p.id")
+    List<FacetAttributes> findFacetAttributesAfter(@Param("afterId") long afterId, Pageable pageable);
+    
+    @Query("SELECT p.id AS id, c.id AS categoryId, p.price AS price, p.stockQuantity AS stockQuantity, " +
+           "p.averageRating AS averageRating FROM Product p LEFT JOIN p.category c WHERE p.id IN :ids")
+    List<FacetAttributes> findFacetAttributesByIdIn(@Param("ids") Collection<Long> ids);
+    
+    @Query(SNAPSHOT_SELECT + "WHERE p.id > :afterId ORDER BY p.id")
+    List<SnapshotRow> findSnapshotRowsAfter(@Param("afterId") long afterId, Pageable pageable);
+    
+    @Query(SNAPSHOT_SELECT + "WHERE p.id IN :ids")
+    List<SnapshotRow> findSnapshotRowsByIdIn(@Param("ids") Collection<Long> ids);
+    
+    /** Rows changed after ({@code since}, {@code afterId}) in (updated_at, id) order, for keyset paging. */
+    @Query(SNAPSHOT_SELECT + "WHERE p.updatedAt > :since OR (p.updatedAt = :since AND p.id > :afterId) ORDER BY p.updatedAt, p.id")
+    List<SnapshotRow> findSnapshotRowsChangedAfter(@Param("since") LocalDateTime since,
+                                                   @Param("afterId") long afterId,
+                                                   Pageable pageable);
+    
+    @Query("SELECT p.id AS id, p.name AS name, p.sku AS sku, c.id AS categoryId, p.stockQuantity AS stockQuantity, " +
+           "p.averageRating AS averageRating, p.totalReviews AS totalReviews " +
+           "FROM Product p LEFT JOIN p.category c WHERE p.id > :afterId ORDER BY p.id")
+    List<SuggestionSource> findSuggestionSourcesAfter(@Param("afterId") long afterId, Pageable pageable);
+    
+    @Modifying
+    @Query("UPDATE Product p SET p.stockQuantity = p.stockQuantity - :quantity, p.updatedAt = :now " +
+           "WHERE p.id = :productId AND p.stockQuantity >= :quantity")
+    int decrementStock(@Param("productId") Long productId,
+                       @Param("quantity") int quantity,
+                       @Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Query("UPDATE Product p SET p.stockQuantity = p.stockQuantity + :quantity, p.updatedAt = :now " +
+           "WHERE p.id = :productId")
+    int incrementStock(@Param("productId") Long productId,
+                       @Param("quantity") int quantity,
+                       @Param("now") LocalDateTime now);
+    
+    @Query("SELECT p.id FROM Product p WHERE p.id IN :ids")
+    List<Long> findIdsByIdIn(@Param("ids") Collection<Long> ids);
+    
+    @Query("SELECT p.id FROM Product p WHERE p.category.id IN :categoryIds AND p.id > :afterId ORDER BY p.id")
+    List<Long> findIdsByCategoryIdInAfter(@Param("categoryIds") Collection<Long> categoryIds,
+                                          @Param("afterId") long afterId,
+                                          Pageable pageable);
+    
+    @Query("SELECT p.id AS id, p.sku AS sku, p.stockQuantity AS stockQuantity FROM Product p WHERE p.sku IN :skus")
+    List<StockLevel> findStockLevelsBySkuIn(@Param("skus") Collection<String> skus);
+    
+    @Modifying
+    @Query("UPDATE Product p SET p.price = CASE WHEN " + ADJUSTED_PRICE + " < :minPrice THEN :minPrice " +
+           "ELSE " + ADJUSTED_PRICE + " END, p.updatedAt = :now WHERE p.id IN :ids")
+    int adjustPrices(@Param("ids") Collection<Long> ids,
+                     @Param("factor") BigDecimal factor,
+                     @Param("amount") BigDecimal amount,
+                     @Param("step") BigDecimal step,
+                     @Param("offset") BigDecimal offset,
+                     @Param("minPrice") BigDecimal minPrice,
+                     @Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Query("UPDATE Product p SET p.averageRating = :averageRating, p.totalReviews = :totalReviews, p.updatedAt = :now " +
+           "WHERE p.id = :productId")
+    int updateRating(@Param("productId") Long productId,
+                     @Param("averageRating") BigDecimal averageRating,
+                     @Param("totalReviews") int totalReviews,
+                     @Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Query("UPDATE Product p SET p.stockQuantity = :quantity, p.updatedAt = :now " +
+           "WHERE p.id IN :ids AND p.stockQuantity <> :quantity")
+    int setStock(@Param("ids") Collection<Long> ids,
+                 @Param("quantity") int quantity,
+                 @Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Query("UPDATE Product p SET p.stockQuantity = CASE WHEN p.stockQuantity + :delta < 0 THEN 0 " +
+           "ELSE p.stockQuantity + :delta END, p.updatedAt = :now WHERE p.id IN :ids")
+    int adjustStock(@Param("ids") Collection<Long> ids,
+                    @Param("delta") int delta,
+                    @Param("now") LocalDateTime now);
+    
+    interface VersionStamp {
+        Long getId();
+        LocalDateTime getUpdatedAt();
+    }
+    
+    interface ProductVersion {
+        LocalDateTime getUpdatedAt();
+        Long getCategoryId();
+    }
+    
+    interface CatalogStamp {
+        long getTotal();
+        LocalDateTime getLastModified();
+    }
+    
+    /**
+     * The columns the facet index is built from.
+     */
+    interface FacetAttributes {
+        Long getId();
+        Long getCategoryId();
+        BigDecimal getPrice();
+        Integer getStockQuantity();
+        BigDecimal getAverageRating();
+    }
+    
+    /**
+     * The columns the catalog snapshot is built from.
+     */
+    interface SnapshotRow {
+        Long getId();
+        Long getCategoryId();
+        BigDecimal getPrice();
+        Integer getStockQuantity();
+        BigDecimal getAverageRating();
+        LocalDateTime getCreatedAt();
+        LocalDateTime getUpdatedAt();
+    }
+    
+    /**
+     * The columns the typeahead index is built from.
+     */
+    interface SuggestionSource {
+        Long getId();
+        String getName();
+        String getSku();
+        Long getCategoryId();
+        Integer getStockQuantity();
+        BigDecimal getAverageRating();
+        Integer getTotalReviews();
+    }
+    
+    interface StockLevel {
+        Long getId();
+        String getSku();
+        Integer getStockQuantity();
+    }
+    
+    interface CardRow {
+        Long getId();
+        String getName();
+        String getSku();
+        BigDecimal getPrice();
+        Long getCategoryId();
+        Integer getStockQuantity();
+        BigDecimal getAverageRating();
+        Integer getTotalReviews();
+        String getPrimaryImageUrl();
+    }
 }
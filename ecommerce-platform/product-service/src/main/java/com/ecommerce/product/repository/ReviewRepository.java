@@ -4,8 +4,11 @@ import com.ecommerce.product.model.Review;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,4 +18,14 @@ public interface ReviewRepository extends JpaRepository<Review, Long> {
     Page<Review> findByProductId(Long productId, Pageable pageable);
     Optional<Review> findByProductIdAndUserId(Long productId, Long userId);
     List<Review> findByUserId(Long userId);
+    
+    @Query("SELECT r.product.id AS productId, AVG(r.rating) AS averageRating, COUNT(r) AS totalReviews " +
+           "FROM Review r WHERE r.product.id IN :productIds GROUP BY r.product.id")
+    List<RatingSummary> summarizeRatings(@Param("productIds") Collection<Long> productIds);
+    
+    interface RatingSummary {
+        Long getProductId();
+        Double getAverageRating();
+        Long getTotalReviews();
+    }
 }
@@ -0,0 +1,29 @@
+package com.ecommerce.product.repository;
+
+import com.ecommerce.product.model.StockHoldKey;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface StockHoldKeyRepository extends JpaRepository<StockHoldKey, String> {
+    
+    @Query("SELECT k.holdKey FROM StockHoldKey k WHERE k.holdKey IN :keys")
+    List<String> findKnownKeys(@Param("keys") Collection<String> keys);
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT k FROM StockHoldKey k WHERE k.holdKey IN :keys")
+    List<StockHoldKey> findByHoldKeyInForUpdate(@Param("keys") Collection<String> keys);
+    
+    @Modifying
+    @Query("DELETE FROM StockHoldKey k WHERE k.updatedAt < :before")
+    int deleteUpdatedBefore(@Param("before") LocalDateTime before);
+}
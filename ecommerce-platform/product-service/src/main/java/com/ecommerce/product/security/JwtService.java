@@ -17,7 +17,7 @@ public class JwtService {
         return extractAllClaims(token).getSubject();
     }
     
-    private Claims extractAllClaims(String token) {
+    public Claims extractAllClaims(String token) {
         return Jwts.parser()
                 .setSigningKey(getSignInKey())
                 .build()
@@ -0,0 +1,58 @@
+package com.ecommerce.product.security;
+
+import com.ecommerce.common.client.ServiceClient;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+
+/**
+ * Authenticates other services on the {@code /api/internal/**} routes by the shared token they send in
+ * {@value ServiceClient#SERVICE_TOKEN_HEADER}, as {@code ROLE_SERVICE}. Other routes never accept the token,
+ * and a blank configured token authenticates nothing.
+ */
+@Component
+public class ServiceTokenAuthenticationFilter extends OncePerRequestFilter {
+    
+    public static final String ROLE = "SERVICE";
+    
+    private static final String INTERNAL_PREFIX = "/api/internal/";
+    
+    private final byte[] token;
+    
+    public ServiceTokenAuthenticationFilter(@Value("${services.internal-token:}") String token) {
+        this.token = token.isBlank() ? null : token.getBytes(StandardCharsets.UTF_8);
+    }
+    
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(request.getContextPath() + INTERNAL_PREFIX);
+    }
+    
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        String presented = request.getHeader(ServiceClient.SERVICE_TOKEN_HEADER);
+        if (token != null && presented != null
+                && MessageDigest.isEqual(token, presented.getBytes(StandardCharsets.UTF_8))) {
+            SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                    "service", null, List.of(new SimpleGrantedAuthority("ROLE_" + ROLE))));
+        }
+        filterChain.doFilter(request, response);
+    }
+}
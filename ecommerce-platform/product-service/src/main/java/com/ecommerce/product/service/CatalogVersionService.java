@@ -0,0 +1,94 @@
+package com.ecommerce.product.service;
+
+import com.ecommerce.product.repository.CategoryRepository;
+import com.ecommerce.product.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Computes entity tags for catalog reads without loading or serializing the resource.
+ * <p>
+ * A product's tag comes from its {@code updated_at}, read by primary key. Listing tags come from the
+ * product count and newest {@code updated_at}, which change on every create, update, stock or rating
+ * change and delete; category tags add the category count and newest {@code created_at}, since category
+ * responses embed product counts. Listing and category versions are reused for
+ * {@code catalog.http-cache.version-ttl} so a burst of revalidations costs one aggregate query.
+ */
+@Service
+public class CatalogVersionService {
+    
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final long versionTtlNanos;
+    
+    private volatile CachedVersion listVersion;
+    private volatile CachedVersion categoryVersion;
+    
+    public CatalogVersionService(ProductRepository productRepository,
+                                 CategoryRepository categoryRepository,
+                                 @Value("${catalog.http-cache.version-ttl:1s}") Duration versionTtl) {
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+        this.versionTtlNanos = versionTtl.toNanos();
+    }
+    
+    /**
+     * @return the product's entity tag and category, or {@code null} if it does not exist
+     */
+    @Transactional(readOnly = true)
+    public ProductVersion getProductVersion(Long productId) {
+        return productRepository.findVersionById(productId)
+                .map(version -> new ProductVersion("\"p" + productId + "-" + stamp(version.getUpdatedAt()) + "\"",
+                        version.getCategoryId()))
+                .orElse(null);
+    }
+    
+    @Transactional(readOnly = true)
+    public String getProductListEtag() {
+        CachedVersion cached = listVersion;
+        if (cached == null || cached.isExpired()) {
+            cached = new CachedVersion("\"l" + productStamp() + "\"", System.nanoTime() + versionTtlNanos);
+            listVersion = cached;
+        }
+        return cached.etag();
+    }
+    
+    @Transactional(readOnly = true)
+    public String getCategoryEtag() {
+        CachedVersion cached = categoryVersion;
+        if (cached == null || cached.isExpired()) {
+            CategoryRepository.CategoryStamp categories = categoryRepository.getCategoryStamp();
+            String etag = "\"c" + categories.getTotal() + "-" + stamp(categories.getLastModified()) + "-" + productStamp() + "\"";
+            cached = new CachedVersion(etag, System.nanoTime() + versionTtlNanos);
+            categoryVersion = cached;
+        }
+        return cached.etag();
+    }
+    
+    private String productStamp() {
+        ProductRepository.CatalogStamp products = productRepository.getCatalogStamp();
+        return products.getTotal() + "-" + stamp(products.getLastModified());
+    }
+    
+    private static String stamp(LocalDateTime time) {
+        if (time == null) {
+            return "0";
+        }
+        long micros = time.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + time.getNano() / 1_000;
+        return Long.toHexString(micros);
+    }
+    
+    public record ProductVersion(String etag, Long categoryId) {
+    }
+    
+    private record CachedVersion(String etag, long expiresAtNanos) {
+        boolean isExpired() {
+            return System.nanoTime() - expiresAtNanos >= 0;
+        }
+    }
+}
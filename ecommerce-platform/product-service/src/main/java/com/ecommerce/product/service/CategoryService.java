@@ -4,21 +4,37 @@ import com.ecommerce.common.exceptions.BadRequestException;
 import com.ecommerce.common.exceptions.ResourceNotFoundException;
 import com.ecommerce.product.dto.CategoryDto;
 import com.ecommerce.product.model.Category;
+import com.ecommerce.product.model.CategoryClosure;
+import com.ecommerce.product.repository.CategoryClosureRepository;
 import com.ecommerce.product.repository.CategoryRepository;
+import com.ecommerce.product.repository.ProductRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
+/**
+ * Categories and their closure table ({@link CategoryClosure}), which is kept in step here: a new
+ * category is linked under its parent's ancestors and a deleted one takes its subtree's links with it.
+ * Categories cannot be moved, so those are the only changes. A tree written before the table existed,
+ * or behind its back, is relinked at startup.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class CategoryService {
     
     private final CategoryRepository categoryRepository;
+    private final CategoryClosureRepository categoryClosureRepository;
+    private final ProductRepository productRepository;
     
     @Transactional
     public CategoryDto.CategoryResponse createCategory(CategoryDto.CreateCategoryRequest request) {
@@ -40,23 +56,30 @@ public class CategoryService {
         }
         
         category = categoryRepository.save(category);
+        categoryClosureRepository.save(new CategoryClosure(category.getId(), category.getId(), 0));
+        if (category.getParentCategory() != null) {
+            categoryClosureRepository.insertPathsUnder(category.getParentCategory().getId(), category.getId());
+        }
         log.info("Category created successfully with ID: {}", category.getId());
         
         return mapToCategoryResponse(category);
     }
     
+    @Transactional(readOnly = true)
     public CategoryDto.CategoryResponse getCategoryById(Long categoryId) {
         Category category = categoryRepository.findById(categoryId)
                 .orElseThrow(() -> new ResourceNotFoundException("Category", "id", categoryId));
         return mapToCategoryResponse(category);
     }
     
+    @Transactional(readOnly = true)
     public List<CategoryDto.CategoryResponse> getAllCategories() {
         return categoryRepository.findAll().stream()
                 .map(this::mapToCategoryResponse)
                 .collect(Collectors.toList());
     }
     
+    @Transactional(readOnly = true)
     public List<CategoryDto.CategoryResponse> getRootCategories() {
         return categoryRepository.findByParentCategoryIsNull().stream()
                 .map(this::mapToCategoryResponse)
@@ -70,14 +93,46 @@ public class CategoryService {
         Category category = categoryRepository.findById(categoryId)
                 .orElseThrow(() -> new ResourceNotFoundException("Category", "id", categoryId));
         
-        if (category.getProducts() != null && !category.getProducts().isEmpty()) {
+        if (productRepository.existsInCategorySubtree(categoryId)) {
             throw new BadRequestException("Cannot delete category with existing products");
         }
         
-        categoryRepository.deleteById(categoryId);
+        categoryClosureRepository.deleteSubtree(categoryId);
+        categoryRepository.delete(category);
         log.info("Category deleted successfully: {}", categoryId);
     }
     
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillClosureIfNeeded() {
+        if (categoryClosureRepository.countSelfLinks() != categoryRepository.count()) {
+            rebuildClosure();
+        }
+    }
+    
+    /**
+     * Recomputes the closure table from the parent links, returning the number of rows written.
+     */
+    @Transactional
+    public int rebuildClosure() {
+        Map<Long, Long> parents = new HashMap<>();
+        for (CategoryRepository.CategoryLink link : categoryRepository.findAllLinks()) {
+            parents.put(link.getId(), link.getParentId());
+        }
+        List<CategoryClosure> rows = new ArrayList<>();
+        for (Long categoryId : parents.keySet()) {
+            Long ancestorId = categoryId;
+            for (int depth = 0; ancestorId != null && depth <= parents.size(); depth++) {
+                rows.add(new CategoryClosure(ancestorId, categoryId, depth));
+                ancestorId = parents.get(ancestorId);
+            }
+        }
+        categoryClosureRepository.deleteAllInBatch();
+        categoryClosureRepository.saveAll(rows);
+        log.info("Category closure rebuilt: {} links for {} categories", rows.size(), parents.size());
+        return rows.size();
+    }
+    
     private CategoryDto.CategoryResponse mapToCategoryResponse(Category category) {
         return CategoryDto.CategoryResponse.builder()
                 .id(category.getId())
@@ -0,0 +1,273 @@
+package com.ecommerce.product.service;
+
+import com.ecommerce.common.exceptions.BadRequestException;
+import com.ecommerce.common.exceptions.ResourceNotFoundException;
+import com.ecommerce.product.dto.BulkUpdateDto;
+import com.ecommerce.product.event.ProductChangedEvent;
+import com.ecommerce.product.repository.CategoryClosureRepository;
+import com.ecommerce.product.repository.CategoryRepository;
+import com.ecommerce.product.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Category-wide price changes and warehouse stock syncs as set-based updates.
+ * <p>
+ * Rows are never loaded as entities. Work goes in chunks of {@code catalog.bulk.chunk-size}
+ * products, each in its own short transaction, so a million-row sync neither holds locks for its
+ * whole run nor loses finished chunks when a later one fails. A price chunk is one
+ * {@code UPDATE ... WHERE id IN (...)} with the rule evaluated by the database. A stock chunk is one
+ * lookup by SKU, then one UPDATE per distinct target value in the chunk; warehouse feeds repeat the
+ * same few quantities, so that stays a handful of statements. Every UPDATE sets {@code updated_at},
+ * which JPA's {@code @PreUpdate} does not do for bulk statements. Each chunk publishes one
+ * {@link ProductChangedEvent} for the products it changed, delivered when the chunk commits.
+ */
+@Service
+@Slf4j
+public class ProductBulkUpdateService {
+    
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+    private static final BigDecimal CENT = new BigDecimal("0.01");
+    private static final int MAX_REPORTED_UNKNOWN = 100;
+    
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final CategoryClosureRepository categoryClosureRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    
+    @Value("${catalog.bulk.chunk-size:1000}")
+    private int chunkSize;
+    
+    public ProductBulkUpdateService(ProductRepository productRepository,
+                                    CategoryRepository categoryRepository,
+                                    CategoryClosureRepository categoryClosureRepository,
+                                    ApplicationEventPublisher eventPublisher,
+                                    PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+        this.categoryClosureRepository = categoryClosureRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+    
+    /**
+     * Applies a price rule to a category (by default with its subcategories) or to explicit products.
+     * Prices never drop below one cent. Explicit product IDs that do not exist are reported back.
+     */
+    public BulkUpdateDto.BulkUpdateSummary adjustPrices(BulkUpdateDto.PriceAdjustmentRequest request) {
+        boolean byCategory = request.getCategoryId() != null;
+        boolean byProducts = request.getProductIds() != null && !request.getProductIds().isEmpty();
+        if (byCategory == byProducts) {
+            throw new BadRequestException("Give either a category ID or product IDs");
+        }
+        PriceRule rule = priceRule(request);
+        long started = System.nanoTime();
+        long matched = 0;
+        long updated = 0;
+        long unknownCount = 0;
+        List<Long> unknownIds = new ArrayList<>();
+        int chunks = 0;
+        
+        if (byCategory) {
+            if (!categoryRepository.existsById(request.getCategoryId())) {
+                throw new ResourceNotFoundException("Category", "id", request.getCategoryId());
+            }
+            Set<Long> categoryIds = Boolean.FALSE.equals(request.getIncludeSubcategories())
+                    ? Set.of(request.getCategoryId())
+                    : Set.copyOf(categoryClosureRepository.findDescendantIds(request.getCategoryId()));
+            long afterId = 0;
+            while (true) {
+                final long from = afterId;
+                ChunkResult chunk = transactionTemplate.execute(status -> {
+                    List<Long> ids = productRepository.findIdsByCategoryIdInAfter(categoryIds, from, PageRequest.of(0, chunkSize));
+                    return ids.isEmpty() ? ChunkResult.EMPTY : adjustPriceChunk(ids, rule);
+                });
+                if (chunk == null || chunk.matched() == 0) {
+                    break;
+                }
+                chunks++;
+                matched += chunk.matched();
+                updated += chunk.updated();
+                afterId = chunk.lastId();
+            }
+        } else {
+            List<Long> ids = new ArrayList<>(new TreeSet<>(request.getProductIds()));
+            for (int from = 0; from < ids.size(); from += chunkSize) {
+                List<Long> slice = ids.subList(from, Math.min(ids.size(), from + chunkSize));
+                ListedChunkResult chunk = transactionTemplate.execute(status -> adjustListedPriceChunk(slice, rule));
+                chunks++;
+                if (chunk == null) {
+                    continue;
+                }
+                matched += chunk.matched();
+                updated += chunk.updated();
+                unknownCount += chunk.unknownIds().size();
+                for (Long id : chunk.unknownIds()) {
+                    if (unknownIds.size() < MAX_REPORTED_UNKNOWN) {
+                        unknownIds.add(id);
+                    }
+                }
+            }
+        }
+        
+        long durationMs = (System.nanoTime() - started) / 1_000_000;
+        log.info("Bulk price {} {} ({}): {} products updated, {} unknown, {} chunks in {} ms",
+                request.getType(), request.getValue(), request.getRounding(), updated, unknownCount, chunks, durationMs);
+        return BulkUpdateDto.BulkUpdateSummary.builder()
+                .matched(matched)
+                .updated(updated)
+                .unknownSkus(List.of())
+                .unknownProductIdCount(unknownCount)
+                .unknownProductIds(unknownIds)
+                .chunks(chunks)
+                .durationMs(durationMs)
+                .build();
+    }
+    
+    /**
+     * Sets or shifts stock levels by SKU. Repeated SKUs are merged first: the last quantity wins for
+     * {@code SET}, deltas add up for {@code DELTA}. Rows already at the target are left untouched.
+     */
+    public BulkUpdateDto.BulkUpdateSummary syncStock(BulkUpdateDto.StockSyncRequest request) {
+        boolean set = request.getMode() == BulkUpdateDto.StockSyncMode.SET;
+        Map<String, Integer> quantities = new LinkedHashMap<>();
+        for (BulkUpdateDto.StockSyncLine line : request.getLines()) {
+            if (set && line.getQuantity() < 0) {
+                throw new BadRequestException("Stock cannot be set below zero for SKU " + line.getSku());
+            }
+            quantities.merge(line.getSku(), line.getQuantity(), set ? (previous, next) -> next : Integer::sum);
+        }
+        List<String> skus = new ArrayList<>(quantities.keySet());
+        long started = System.nanoTime();
+        long matched = 0;
+        long updated = 0;
+        long unknownCount = 0;
+        List<String> unknownSkus = new ArrayList<>();
+        int chunks = 0;
+        
+        for (int from = 0; from < skus.size(); from += chunkSize) {
+            List<String> slice = skus.subList(from, Math.min(skus.size(), from + chunkSize));
+            StockChunkResult chunk = transactionTemplate.execute(status -> syncStockChunk(slice, quantities, set));
+            chunks++;
+            if (chunk == null) {
+                continue;
+            }
+            matched += chunk.matched();
+            updated += chunk.updated();
+            unknownCount += chunk.unknownSkus().size();
+            for (String sku : chunk.unknownSkus()) {
+                if (unknownSkus.size() < MAX_REPORTED_UNKNOWN) {
+                    unknownSkus.add(sku);
+                }
+            }
+        }
+        
+        long durationMs = (System.nanoTime() - started) / 1_000_000;
+        log.info("Stock sync ({}): {} of {} SKUs matched, {} updated, {} unknown, {} chunks in {} ms",
+                request.getMode(), matched, skus.size(), updated, unknownCount, chunks, durationMs);
+        return BulkUpdateDto.BulkUpdateSummary.builder()
+                .matched(matched)
+                .updated(updated)
+                .unknownSkuCount(unknownCount)
+                .unknownSkus(unknownSkus)
+                .unknownProductIds(List.of())
+                .chunks(chunks)
+                .durationMs(durationMs)
+                .build();
+    }
+    
+    private ChunkResult adjustPriceChunk(List<Long> ids, PriceRule rule) {
+        int updated = productRepository.adjustPrices(ids, rule.factor(), rule.amount(), rule.step(), rule.offset(),
+                CENT, LocalDateTime.now());
+        eventPublisher.publishEvent(new ProductChangedEvent(ProductChangedEvent.ChangeType.UPDATED, List.copyOf(ids)));
+        return new ChunkResult(ids.size(), updated, ids.get(ids.size() - 1));
+    }
+    
+    private ListedChunkResult adjustListedPriceChunk(List<Long> ids, PriceRule rule) {
+        Set<Long> found = new HashSet<>(productRepository.findIdsByIdIn(ids));
+        List<Long> unknown = ids.stream().filter(id -> !found.contains(id)).toList();
+        if (found.isEmpty()) {
+            return new ListedChunkResult(0, 0, unknown);
+        }
+        ChunkResult chunk = adjustPriceChunk(ids.stream().filter(found::contains).toList(), rule);
+        return new ListedChunkResult(chunk.matched(), chunk.updated(), unknown);
+    }
+    
+    private StockChunkResult syncStockChunk(List<String> skus, Map<String, Integer> quantities, boolean set) {
+        List<ProductRepository.StockLevel> levels = productRepository.findStockLevelsBySkuIn(skus);
+        Set<String> found = new HashSet<>();
+        Map<Integer, List<Long>> idsByValue = new HashMap<>();
+        for (ProductRepository.StockLevel level : levels) {
+            found.add(level.getSku());
+            int quantity = quantities.get(level.getSku());
+            boolean changes = set ? quantity != level.getStockQuantity() : quantity != 0;
+            if (changes) {
+                idsByValue.computeIfAbsent(quantity, value -> new ArrayList<>()).add(level.getId());
+            }
+        }
+        
+        LocalDateTime now = LocalDateTime.now();
+        int updated = 0;
+        List<Long> changed = new ArrayList<>();
+        for (Map.Entry<Integer, List<Long>> group : idsByValue.entrySet()) {
+            updated += set
+                    ? productRepository.setStock(group.getValue(), group.getKey(), now)
+                    : productRepository.adjustStock(group.getValue(), group.getKey(), now);
+            changed.addAll(group.getValue());
+        }
+        if (!changed.isEmpty()) {
+            eventPublisher.publishEvent(new ProductChangedEvent(ProductChangedEvent.ChangeType.STOCK_CHANGED, changed));
+        }
+        List<String> unknown = skus.stream().filter(sku -> !found.contains(sku)).toList();
+        return new StockChunkResult(levels.size(), updated, unknown);
+    }
+    
+    private static PriceRule priceRule(BulkUpdateDto.PriceAdjustmentRequest request) {
+        BigDecimal factor = BigDecimal.ONE;
+        BigDecimal amount = BigDecimal.ZERO;
+        if (request.getType() == BulkUpdateDto.PriceAdjustmentType.PERCENTAGE) {
+            if (request.getValue().compareTo(HUNDRED.negate()) <= 0) {
+                throw new BadRequestException("A percentage adjustment must be above -100");
+            }
+            factor = BigDecimal.ONE.add(request.getValue().divide(HUNDRED, 6, RoundingMode.HALF_UP));
+        } else {
+            amount = request.getValue();
+        }
+        return switch (request.getRounding() == null ? BulkUpdateDto.PriceRounding.CENTS : request.getRounding()) {
+            case CENTS -> new PriceRule(factor, amount, CENT, BigDecimal.ZERO);
+            case WHOLE -> new PriceRule(factor, amount, BigDecimal.ONE, BigDecimal.ZERO);
+            case NINETY_NINE -> new PriceRule(factor, amount, BigDecimal.ONE, CENT);
+        };
+    }
+    
+    private record PriceRule(BigDecimal factor, BigDecimal amount, BigDecimal step, BigDecimal offset) {
+    }
+    
+    private record ChunkResult(int matched, int updated, long lastId) {
+        static final ChunkResult EMPTY = new ChunkResult(0, 0, 0);
+    }
+    
+    private record ListedChunkResult(int matched, int updated, List<Long> unknownIds) {
+    }
+    
+    private record StockChunkResult(int matched, int updated, List<String> unknownSkus) {
+    }
+}
@@ -0,0 +1,406 @@
+package com.ecommerce.product.service;
+
+import com.ecommerce.product.dto.ChangeFeedDto;
+import com.ecommerce.product.event.ProductChangedEvent;
+import com.ecommerce.product.repository.ProductRepository;
+import com.ecommerce.product.repository.ProductRepository.SnapshotRow;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Committed product changes in order, for clients that would otherwise poll listings to spot them.
+ * <p>
+ * Every {@link ProductChangedEvent} becomes one {@link ChangeFeedDto.Change} per product. Each carries
+ * the price, stock and rating read once after the commit, so most clients need no follow-up request.
+ * That read runs on the feed's single recorder thread, in commit order, so the committing request
+ * does not wait for it.
+ * Changes get consecutive sequence numbers and the last {@code catalog.changes.retained} are kept in a
+ * ring. Numbering starts from the startup time in microseconds, so it keeps increasing across
+ * restarts. A client resumes after the last sequence it saw. When that is older than the ring, or
+ * ahead of it, the reply is a reset: re-read the listing, then follow from the head.
+ * <p>
+ * Long-poll clients wait on a future completed by the next change. Stream subscribers share the ring
+ * instead of holding copies: each keeps a cursor, and a sender thread pushes whatever lies between its
+ * cursor and the head. So a subscriber's buffer is the ring itself, bounded by
+ * {@code catalog.changes.max-lag}. A subscriber that falls further behind is dropped and told it
+ * overflowed; it reconnects from its last sequence, or re-lists if that has left the ring. A slow
+ * connection therefore costs a cursor and a blocked sender thread, never unbounded memory.
+ * <p>
+ * The feed holds changes committed through this instance. Clients should stick to one instance.
+ */
+@Service
+@Slf4j
+public class ProductChangeFeed {
+    
+    /** Changes pushed to a subscriber per write. */
+    private static final int SEND_BATCH = 100;
+    
+    private final ProductRepository productRepository;
+    private final ChangeFeedDto.Change[] ring;
+    private final int maxLag;
+    private final int maxSubscribers;
+    private final long origin;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private final Queue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+    private final ExecutorService recorder;
+    private final ExecutorService senders;
+    private final ScheduledExecutorService scheduler;
+    private final Counter overflows;
+    
+    private long head;
+    
+    public ProductChangeFeed(ProductRepository productRepository,
+                             MeterRegistry meterRegistry,
+                             @Value("${catalog.changes.retained:10000}") int retained,
+                             @Value("${catalog.changes.max-lag:1000}") int maxLag,
+                             @Value("${catalog.changes.max-subscribers:500}") int maxSubscribers,
+                             @Value("${catalog.changes.heartbeat-interval:15s}") Duration heartbeatInterval) {
+        if (maxLag > retained) {
+            throw new IllegalArgumentException("catalog.changes.max-lag cannot exceed catalog.changes.retained");
+        }
+        this.productRepository = productRepository;
+        this.ring = new ChangeFeedDto.Change[retained];
+        this.maxLag = maxLag;
+        this.maxSubscribers = maxSubscribers;
+        this.origin = System.currentTimeMillis() * 1_000;
+        this.head = origin;
+        Gauge.builder("catalog.changes.subscribers", subscriptions, Set::size)
+                .description("Clients following the product change stream")
+                .register(meterRegistry);
+        this.overflows = Counter.builder("catalog.changes.overflows")
+                .description("Stream subscribers dropped for falling too far behind")
+                .register(meterRegistry);
+        this.recorder = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "catalog-changes-recorder");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger senderCount = new AtomicInteger();
+        this.senders = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "catalog-changes-" + senderCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "catalog-changes-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::heartbeat, heartbeatInterval.toMillis(), heartbeatInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * Sequence of the latest change; following from here yields only changes still to come.
+     */
+    public long head() {
+        lock.readLock().lock();
+        try {
+            return head;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        List<Long> productIds = List.copyOf(new LinkedHashSet<>(event.productIds()));
+        if (productIds.isEmpty()) {
+            return;
+        }
+        try {
+            recorder.execute(() -> recordQuietly(event.type(), productIds));
+        } catch (RejectedExecutionException ex) {
+            log.debug("Change feed shut down; dropped {} changes", productIds.size());
+        }
+    }
+    
+    /**
+     * Up to {@code limit} changes after {@code after}, or a reset if changes after it are no longer held.
+     */
+    public ChangeFeedDto.ChangePage page(long after, int limit) {
+        lock.readLock().lock();
+        try {
+            long oldest = Math.max(origin + 1, head - ring.length + 1);
+            if (after > head || after < oldest - 1) {
+                return ChangeFeedDto.ChangePage.builder()
+                        .changes(List.of())
+                        .lastSequence(head)
+                        .reset(true)
+                        .build();
+            }
+            long to = Math.min(head, after + limit);
+            List<ChangeFeedDto.Change> changes = new ArrayList<>((int) (to - after));
+            for (long sequence = after + 1; sequence <= to; sequence++) {
+                changes.add(ring[slot(sequence)]);
+            }
+            return ChangeFeedDto.ChangePage.builder()
+                    .changes(changes)
+                    .lastSequence(to)
+                    .reset(false)
+                    .build();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Like {@link #page}, but while there is nothing after {@code after} waits up to {@code timeout}
+     * for a change; completes with an empty page if none comes.
+     */
+    public CompletableFuture<ChangeFeedDto.ChangePage> await(long after, int limit, Duration timeout) {
+        ChangeFeedDto.ChangePage page = page(after, limit);
+        if (page.isReset() || !page.getChanges().isEmpty()) {
+            return CompletableFuture.completedFuture(page);
+        }
+        Waiter waiter = new Waiter(after, limit, new CompletableFuture<>());
+        waiters.add(waiter);
+        waiter.future().whenComplete((result, ex) -> waiters.remove(waiter));
+        // A change appended since the page was read has already notified the waiters
+        if (head() > after) {
+            wakeWaiters();
+        }
+        return waiter.future().completeOnTimeout(page, timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * Starts pushing the changes after {@code after} to the sink, then every later one as it commits.
+     * Empty when {@code catalog.changes.max-subscribers} are already following.
+     */
+    public Optional<Subscription> subscribe(long after, Sink sink) {
+        if (subscriptions.size() >= maxSubscribers) {
+            return Optional.empty();
+        }
+        Subscription subscription = new Subscription(after, sink, head() - after > maxLag);
+        subscriptions.add(subscription);
+        schedule(subscription);
+        return Optional.of(subscription);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        recorder.shutdownNow();
+        scheduler.shutdownNow();
+        subscriptions.forEach(Subscription::cancel);
+        senders.shutdownNow();
+        waiters.forEach(waiter -> waiter.future().complete(page(waiter.after(), waiter.limit())));
+    }
+    
+    private void recordQuietly(ProductChangedEvent.ChangeType type, List<Long> productIds) {
+        try {
+            record(type, productIds);
+        } catch (RuntimeException ex) {
+            log.error("Recording {} product changes failed", productIds.size(), ex);
+        }
+    }
+    
+    private void record(ProductChangedEvent.ChangeType type, List<Long> productIds) {
+        Map<Long, SnapshotRow> rows = type == ProductChangedEvent.ChangeType.DELETED
+                ? Map.of()
+                : productRepository.findSnapshotRowsByIdIn(productIds).stream()
+                        .collect(Collectors.toMap(SnapshotRow::getId, Function.identity()));
+        List<ChangeFeedDto.Change> changes = new ArrayList<>(productIds.size());
+        for (Long productId : productIds) {
+            SnapshotRow row = rows.get(productId);
+            changes.add(row == null
+                    // Deleted, possibly by a later commit than the one reported
+                    ? ChangeFeedDto.Change.builder()
+                            .type(ProductChangedEvent.ChangeType.DELETED)
+                            .productId(productId)
+                            .build()
+                    : ChangeFeedDto.Change.builder()
+                            .type(type)
+                            .productId(productId)
+                            .price(row.getPrice())
+                            .stockQuantity(row.getStockQuantity())
+                            .averageRating(row.getAverageRating())
+                            .updatedAt(row.getUpdatedAt())
+                            .build());
+        }
+        append(changes);
+    }
+    
+    private void append(List<ChangeFeedDto.Change> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        long latest;
+        lock.writeLock().lock();
+        try {
+            for (ChangeFeedDto.Change change : changes) {
+                change.setSequence(++head);
+                ring[slot(head)] = change;
+            }
+            latest = head;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        for (Subscription subscription : subscriptions) {
+            if (!subscription.resetPending && latest - subscription.cursor > maxLag) {
+                subscription.overflowed = true;
+                subscription.cancel();
+                overflows.increment();
+                log.info("Dropped change stream subscriber {} changes behind", latest - subscription.cursor);
+            }
+            schedule(subscription);
+        }
+        wakeWaiters();
+    }
+    
+    private void wakeWaiters() {
+        for (Waiter waiter : waiters) {
+            if (!waiter.future().isDone()) {
+                ChangeFeedDto.ChangePage page = page(waiter.after(), waiter.limit());
+                if (page.isReset() || !page.getChanges().isEmpty()) {
+                    waiter.future().complete(page);
+                }
+            }
+        }
+    }
+    
+    private void heartbeat() {
+        for (Subscription subscription : subscriptions) {
+            subscription.heartbeatDue = true;
+            schedule(subscription);
+        }
+    }
+    
+    /**
+     * Hands the subscription to a sender thread unless one already has it.
+     */
+    private void schedule(Subscription subscription) {
+        if (subscription.sending.compareAndSet(false, true)) {
+            try {
+                senders.execute(() -> send(subscription));
+            } catch (RejectedExecutionException ex) {
+                subscription.sending.set(false);
+            }
+        }
+    }
+    
+    /**
+     * Pushes everything between the subscription's cursor and the head. Only one thread runs this per
+     * subscription at a time; a write blocked on a slow client holds up that client alone.
+     */
+    private void send(Subscription subscription) {
+        do {
+            try {
+                while (!subscription.cancelled) {
+                    if (subscription.resetPending) {
+                        subscription.resetPending = false;
+                        long latest = head();
+                        subscription.sink.reset(latest);
+                        subscription.cursor = latest;
+                        continue;
+                    }
+                    ChangeFeedDto.ChangePage page = page(subscription.cursor, SEND_BATCH);
+                    if (page.isReset()) {
+                        subscription.resetPending = true;
+                    } else if (!page.getChanges().isEmpty()) {
+                        subscription.sink.send(page.getChanges());
+                        subscription.cursor = page.getLastSequence();
+                    } else if (subscription.heartbeatDue) {
+                        subscription.heartbeatDue = false;
+                        subscription.sink.heartbeat();
+                    } else {
+                        break;
+                    }
+                }
+            } catch (IOException | RuntimeException ex) {
+                log.debug("Change stream subscriber gone: {}", ex.getMessage());
+                subscription.cancel();
+            }
+            if (subscription.cancelled) {
+                subscription.sink.close(subscription.overflowed);
+                return;
+            }
+            subscription.sending.set(false);
+        } while (subscription.hasWork() && subscription.sending.compareAndSet(false, true));
+    }
+    
+    private int slot(long sequence) {
+        return (int) Math.floorMod(sequence, (long) ring.length);
+    }
+    
+    /**
+     * Where a subscription's changes go; called from one sender thread at a time.
+     */
+    public interface Sink {
+        
+        void send(List<ChangeFeedDto.Change> changes) throws IOException;
+        
+        /**
+         * Changes were missed; the client should re-read what it mirrors, then follow from {@code lastSequence}.
+         */
+        void reset(long lastSequence) throws IOException;
+        
+        void heartbeat() throws IOException;
+        
+        /**
+         * The feed has stopped sending, because the client fell behind, went away or the feed shut down.
+         */
+        void close(boolean overflowed);
+    }
+    
+    public final class Subscription {
+        
+        private final Sink sink;
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private volatile long cursor;
+        private volatile boolean resetPending;
+        private volatile boolean heartbeatDue;
+        private volatile boolean overflowed;
+        private volatile boolean cancelled;
+        
+        private Subscription(long cursor, Sink sink, boolean resetPending) {
+            this.cursor = cursor;
+            this.sink = sink;
+            this.resetPending = resetPending;
+        }
+        
+        /**
+         * Stops the subscription; the sink is closed by its sender thread.
+         */
+        public void cancel() {
+            cancelled = true;
+            subscriptions.remove(this);
+        }
+        
+        private boolean hasWork() {
+            return cancelled || resetPending || heartbeatDue || cursor < head();
+        }
+    }
+    
+    private record Waiter(long after, int limit, CompletableFuture<ChangeFeedDto.ChangePage> future) {
+    }
+}
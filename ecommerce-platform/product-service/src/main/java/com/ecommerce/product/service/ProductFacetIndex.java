@@ -0,0 +1,337 @@
+package com.ecommerce.product.service;
+
+import com.ecommerce.common.exceptions.BadRequestException;
+import com.ecommerce.product.dto.FacetDto;
+import com.ecommerce.product.event.ProductChangedEvent;
+import com.ecommerce.product.repository.ProductRepository;
+import com.ecommerce.product.repository.ProductRepository.FacetAttributes;
+import com.ecommerce.product.util.CompressedBitmap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory bitmap indexes over the filterable product attributes: category, price band, rating band
+ * and availability.
+ * <p>
+ * Every attribute value owns a {@link CompressedBitmap} of the ids of the products that have it. A filter
+ * ORs the selected values of a dimension and ANDs the dimensions together. Facet counts are
+ * disjunctive: each dimension is counted against the other dimensions' selections only, so a shopper
+ * sees how many results picking another value would give rather than zeros for everything unselected.
+ * <p>
+ * The index is built by a keyset scan when the application is ready (or on first use if that failed)
+ * and kept current by committed {@link ProductChangedEvent}s, which re-read only the changed rows.
+ * Those events fire on the request that made the change, which is pinned to the primary by then, so
+ * replica lag does not leak into the index. Product ids are used as bitmap values and must fit in an int.
+ */
+@Service
+@Slf4j
+public class ProductFacetIndex {
+    
+    public static final String CATEGORY = "category";
+    public static final String PRICE = "price";
+    public static final String RATING = "rating";
+    public static final String AVAILABILITY = "availability";
+    
+    static final String UNRATED = "unrated";
+    static final String IN_STOCK = "in-stock";
+    static final String OUT_OF_STOCK = "out-of-stock";
+    
+    private static final List<String> DIMENSIONS = List.of(CATEGORY, PRICE, RATING, AVAILABILITY);
+    private static final List<String> RATING_BANDS = List.of(UNRATED, "1-2", "2-3", "3-4", "4-5");
+    private static final int SCAN_BATCH = 1000;
+    
+    private final ProductRepository productRepository;
+    private final BigDecimal[] priceBounds;
+    private final List<String> priceBands;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Set<Long> changedDuringRebuild = ConcurrentHashMap.newKeySet();
+    
+    private volatile boolean loaded;
+    private volatile boolean rebuilding;
+    private Snapshot snapshot;
+    
+    public ProductFacetIndex(ProductRepository productRepository,
+                             @Value("${catalog.facets.price-bands:25,50,100,250,500}") BigDecimal[] priceBounds) {
+        this.productRepository = productRepository;
+        this.priceBounds = priceBounds.clone();
+        Arrays.sort(this.priceBounds);
+        this.priceBands = new ArrayList<>();
+        BigDecimal lower = BigDecimal.ZERO;
+        for (BigDecimal upper : this.priceBounds) {
+            priceBands.add(lower.stripTrailingZeros().toPlainString() + "-" + upper.stripTrailingZeros().toPlainString());
+            lower = upper;
+        }
+        priceBands.add(lower.stripTrailingZeros().toPlainString() + "+");
+        this.snapshot = new Snapshot();
+    }
+    
+    /**
+     * Page of matching product ids, ascending, plus the facet counts for every dimension.
+     *
+     * @throws BadRequestException if a price or rating band is not one the index defines
+     */
+    public Result filter(FacetDto.FilterRequest filter, long offset, int limit) {
+        Map<String, List<String>> selection = toSelection(filter);
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            Map<String, CompressedBitmap> selected = new LinkedHashMap<>();
+            selection.forEach((dimension, values) -> {
+                CompressedBitmap union = new CompressedBitmap();
+                for (String value : values) {
+                    CompressedBitmap bitmap = snapshot.dimensions.get(dimension).get(value);
+                    if (bitmap != null) {
+                        union = CompressedBitmap.or(union, bitmap);
+                    }
+                }
+                selected.put(dimension, union);
+            });
+            
+            CompressedBitmap matching = snapshot.all;
+            for (CompressedBitmap union : selected.values()) {
+                matching = CompressedBitmap.and(matching, union);
+            }
+            
+            Map<String, List<FacetDto.FacetCount>> facets = new LinkedHashMap<>();
+            for (String dimension : DIMENSIONS) {
+                CompressedBitmap base = snapshot.all;
+                for (Map.Entry<String, CompressedBitmap> other : selected.entrySet()) {
+                    if (!other.getKey().equals(dimension)) {
+                        base = CompressedBitmap.and(base, other.getValue());
+                    }
+                }
+                List<String> chosen = selection.getOrDefault(dimension, List.of());
+                List<FacetDto.FacetCount> counts = new ArrayList<>();
+                for (Map.Entry<String, CompressedBitmap> value : snapshot.dimensions.get(dimension).entrySet()) {
+                    long count = CompressedBitmap.andCardinality(base, value.getValue());
+                    // Bands are a fixed list and always reported; categories only when they can match
+                    if (count > 0 || !CATEGORY.equals(dimension) || chosen.contains(value.getKey())) {
+                        counts.add(new FacetDto.FacetCount(value.getKey(), value.getKey(), count));
+                    }
+                }
+                facets.put(dimension, counts);
+            }
+            
+            List<Long> productIds = Arrays.stream(matching.page(offset, limit)).asLongStream().boxed().toList();
+            return new Result(matching.cardinality(), productIds, facets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            ensureLoaded();
+        } catch (RuntimeException ex) {
+            log.warn("Could not build the facet index at startup, will retry on first use: {}", ex.getMessage());
+        }
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        try {
+            refresh(event.productIds());
+        } catch (RuntimeException ex) {
+            // The change is committed; rather than serve a stale index, rebuild it on next use
+            log.warn("Facet index refresh failed for products {}, scheduling a rebuild", event.productIds(), ex);
+            loaded = false;
+        }
+    }
+    
+    /**
+     * Re-reads the given products and moves them to their current values, dropping those that no longer exist.
+     */
+    public void refresh(Collection<Long> productIds) {
+        if (rebuilding) {
+            changedDuringRebuild.addAll(productIds);
+        }
+        if (!loaded || productIds.isEmpty()) {
+            return;
+        }
+        Map<Long, FacetAttributes> rows = productRepository.findFacetAttributesByIdIn(productIds).stream()
+                .collect(Collectors.toMap(FacetAttributes::getId, Function.identity()));
+        lock.writeLock().lock();
+        try {
+            for (Long productId : productIds) {
+                FacetAttributes row = rows.get(productId);
+                if (row == null) {
+                    snapshot.remove(Math.toIntExact(productId));
+                } else {
+                    snapshot.put(row);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Builds a fresh index from the database and swaps it in. Products changed while the scan runs are
+     * re-read afterwards, so the result is at least as new as the last change committed before it returned.
+     */
+    public synchronized void rebuild() {
+        long started = System.nanoTime();
+        Snapshot fresh = new Snapshot();
+        rebuilding = true;
+        changedDuringRebuild.clear();
+        try {
+            long afterId = 0;
+            List<FacetAttributes> batch;
+            do {
+                batch = productRepository.findFacetAttributesAfter(afterId, PageRequest.of(0, SCAN_BATCH));
+                batch.forEach(fresh::put);
+                if (!batch.isEmpty()) {
+                    afterId = batch.get(batch.size() - 1).getId();
+                }
+            } while (batch.size() == SCAN_BATCH);
+            
+            lock.writeLock().lock();
+            try {
+                snapshot = fresh;
+                loaded = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            rebuilding = false;
+        }
+        if (!changedDuringRebuild.isEmpty()) {
+            List<Long> changed = new ArrayList<>(changedDuringRebuild);
+            changedDuringRebuild.removeAll(changed);
+            refresh(changed);
+        }
+        log.info("Facet index built over {} products in {} ms",
+                fresh.all.cardinality(), (System.nanoTime() - started) / 1_000_000);
+    }
+    
+    private void ensureLoaded() {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    rebuild();
+                }
+            }
+        }
+    }
+    
+    private Map<String, List<String>> toSelection(FacetDto.FilterRequest filter) {
+        Map<String, List<String>> selection = new LinkedHashMap<>();
+        if (filter.getCategoryIds() != null && !filter.getCategoryIds().isEmpty()) {
+            selection.put(CATEGORY, filter.getCategoryIds().stream().map(String::valueOf).toList());
+        }
+        if (filter.getPriceBands() != null && !filter.getPriceBands().isEmpty()) {
+            selection.put(PRICE, validated(PRICE, filter.getPriceBands(), priceBands));
+        }
+        if (filter.getRatingBands() != null && !filter.getRatingBands().isEmpty()) {
+            selection.put(RATING, validated(RATING, filter.getRatingBands(), RATING_BANDS));
+        }
+        if (filter.getInStock() != null) {
+            selection.put(AVAILABILITY, List.of(filter.getInStock() ? IN_STOCK : OUT_OF_STOCK));
+        }
+        return selection;
+    }
+    
+    private static List<String> validated(String dimension, List<String> values, List<String> allowed) {
+        for (String value : values) {
+            if (!allowed.contains(value)) {
+                throw new BadRequestException("Unknown " + dimension + " band '" + value + "', expected one of " + allowed);
+            }
+        }
+        return values;
+    }
+    
+    private String priceBand(BigDecimal price) {
+        for (int i = 0; i < priceBounds.length; i++) {
+            if (price.compareTo(priceBounds[i]) < 0) {
+                return priceBands.get(i);
+            }
+        }
+        return priceBands.get(priceBounds.length);
+    }
+    
+    private static String ratingBand(BigDecimal averageRating) {
+        if (averageRating == null || averageRating.signum() <= 0) {
+            return UNRATED;
+        }
+        // 1.0 <= r < 2.0 is "1-2" and so on; a perfect 5.0 belongs to "4-5"
+        int floor = Math.max(1, Math.min(4, averageRating.intValue()));
+        return RATING_BANDS.get(floor);
+    }
+    
+    public record Result(long total, List<Long> productIds, Map<String, List<FacetDto.FacetCount>> facets) {
+    }
+    
+    /**
+     * One generation of the index. Mutated only under the write lock once published.
+     */
+    private final class Snapshot {
+        private final CompressedBitmap all = new CompressedBitmap();
+        private final Map<String, Map<String, CompressedBitmap>> dimensions = new HashMap<>();
+        private final Map<Integer, String[]> valuesByProduct = new HashMap<>();
+        
+        Snapshot() {
+            dimensions.put(CATEGORY, new HashMap<>());
+            dimensions.put(PRICE, emptyBitmaps(priceBands));
+            dimensions.put(RATING, emptyBitmaps(RATING_BANDS));
+            dimensions.put(AVAILABILITY, emptyBitmaps(List.of(IN_STOCK, OUT_OF_STOCK)));
+        }
+        
+        void put(FacetAttributes row) {
+            int productId = Math.toIntExact(row.getId());
+            remove(productId);
+            String[] values = {
+                    row.getCategoryId() == null ? null : row.getCategoryId().toString(),
+                    priceBand(row.getPrice()),
+                    ratingBand(row.getAverageRating()),
+                    row.getStockQuantity() != null && row.getStockQuantity() > 0 ? IN_STOCK : OUT_OF_STOCK
+            };
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] != null) {
+                    dimensions.get(DIMENSIONS.get(i)).computeIfAbsent(values[i], value -> new CompressedBitmap()).add(productId);
+                }
+            }
+            all.add(productId);
+            valuesByProduct.put(productId, values);
+        }
+        
+        void remove(int productId) {
+            String[] values = valuesByProduct.remove(productId);
+            if (values == null) {
+                return;
+            }
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] != null) {
+                    dimensions.get(DIMENSIONS.get(i)).get(values[i]).remove(productId);
+                }
+            }
+            all.remove(productId);
+        }
+        
+        private static Map<String, CompressedBitmap> emptyBitmaps(List<String> values) {
+            Map<String, CompressedBitmap> bitmaps = new LinkedHashMap<>();
+            values.forEach(value -> bitmaps.put(value, new CompressedBitmap()));
+            return bitmaps;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.ecommerce.product.service;
+
+import com.ecommerce.common.exceptions.BadRequestException;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Which product fields a listing returns: every field (the default), the predefined {@code card} view,
+ * or a sparse {@code fields=} selection of either. A selection that the card columns cover is served
+ * from the card query, so naming only card fields also skips the description and image rows.
+ */
+public final class ProductFieldSet {
+    
+    public static final Set<String> CARD_FIELDS = ordered("id", "name", "sku", "price", "categoryId",
+            "stockQuantity", "averageRating", "totalReviews", "primaryImageUrl");
+    public static final Set<String> ALL_FIELDS = ordered("id", "name", "description", "price", "categoryName",
+            "categoryId", "stockQuantity", "sku", "averageRating", "totalReviews", "images", "primaryImageUrl",
+            "createdAt", "updatedAt");
+    
+    public static final ProductFieldSet FULL = new ProductFieldSet("full", null);
+    
+    private final String view;
+    private final Set<String> fields;
+    
+    private ProductFieldSet(String view, Set<String> fields) {
+        this.view = view;
+        this.fields = fields;
+    }
+    
+    /**
+     * @param view   {@code full} (or absent) or {@code card}
+     * @param fields comma-separated field names, optionally narrowing the view
+     * @throws BadRequestException for an unknown view or field, or a field the card view does not have
+     */
+    public static ProductFieldSet of(String view, String fields) {
+        boolean card = "card".equalsIgnoreCase(view);
+        if (view != null && !card && !"full".equalsIgnoreCase(view)) {
+            throw new BadRequestException("Unknown view '" + view + "', expected full or card");
+        }
+        if (fields == null || fields.isBlank()) {
+            return card ? new ProductFieldSet("card", CARD_FIELDS) : FULL;
+        }
+        Set<String> allowed = card ? CARD_FIELDS : ALL_FIELDS;
+        Set<String> selected = new LinkedHashSet<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (!name.isEmpty()) {
+                if (!allowed.contains(name)) {
+                    throw new BadRequestException("Unknown field '" + name + "', expected some of " + allowed);
+                }
+                selected.add(name);
+            }
+        }
+        return selected.isEmpty() ? FULL : new ProductFieldSet("fields", Collections.unmodifiableSet(selected));
+    }
+    
+    public boolean isFull() {
+        return fields == null;
+    }
+    
+    public boolean usesCardQuery() {
+        return fields != null && CARD_FIELDS.containsAll(fields);
+    }
+    
+    /**
+     * {@code full}, {@code card} or {@code fields}; a bounded value for metric tags.
+     */
+    public String getView() {
+        return view;
+    }
+    
+    public Set<String> getFields() {
+        return fields == null ? ALL_FIELDS : fields;
+    }
+    
+    private static Set<String> ordered(String... names) {
+        return Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList(names)));
+    }
+}
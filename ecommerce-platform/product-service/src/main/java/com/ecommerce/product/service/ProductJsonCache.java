@@ -0,0 +1,102 @@
+package com.ecommerce.product.service;
+
+import com.ecommerce.product.dto.ProductDto;
+import com.ecommerce.product.event.ProductChangedEvent;
+import com.ecommerce.product.model.Product;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.RawValue;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Cache of each product's {@link ProductDto.ProductResponse} already encoded as UTF-8 JSON.
+ * <p>
+ * Fragments are handed to Jackson as {@link RawValue}s, which the generator copies into the output
+ * buffer as-is, so a response built from cached fragments only serializes its envelope. Each fragment
+ * remembers the {@code updatedAt} it was built from and is only used while that still matches, which
+ * keeps it correct even for changes made by another instance; committed {@link ProductChangedEvent}s
+ * evict entries so stale fragments do not linger.
+ */
+@Component
+@Slf4j
+public class ProductJsonCache {
+    
+    private final ObjectMapper objectMapper;
+    private final int maxEntries;
+    private final Map<Long, Fragment> fragments = new ConcurrentHashMap<>();
+    
+    public ProductJsonCache(ObjectMapper objectMapper, @Value("${catalog.json-cache.max-entries:10000}") int maxEntries) {
+        this.objectMapper = objectMapper;
+        this.maxEntries = maxEntries;
+    }
+    
+    /**
+     * Returns the cached fragment if it was built from the same version of the product.
+     */
+    public RawValue getIfCurrent(Long productId, LocalDateTime updatedAt) {
+        Fragment fragment = fragments.get(productId);
+        return fragment != null && fragment.updatedAt().equals(updatedAt) ? fragment.json() : null;
+    }
+    
+    public RawValue get(Product product, Function<Product, ProductDto.ProductResponse> mapper) {
+        RawValue cached = getIfCurrent(product.getId(), product.getUpdatedAt());
+        return cached != null ? cached : put(product.getId(), product.getUpdatedAt(), mapper.apply(product));
+    }
+    
+    public RawValue put(Long productId, LocalDateTime updatedAt, ProductDto.ProductResponse response) {
+        RawValue json = encode(response);
+        if (updatedAt != null) {
+            if (fragments.size() >= maxEntries) {
+                evictSome();
+            }
+            fragments.put(productId, new Fragment(json, updatedAt));
+        }
+        return json;
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        event.productIds().forEach(fragments::remove);
+    }
+    
+    public int size() {
+        return fragments.size();
+    }
+    
+    private RawValue encode(ProductDto.ProductResponse response) {
+        try {
+            SerializedString json = new SerializedString(objectMapper.writeValueAsString(response));
+            // Encode to UTF-8 once now rather than on every write
+            json.asUnquotedUTF8();
+            return new RawValue(json);
+        } catch (JsonProcessingException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+    
+    private void evictSome() {
+        // Drop roughly a tenth of the entries; hot products are re-encoded on their next read
+        int toEvict = Math.max(1, maxEntries / 10);
+        Iterator<Long> keys = fragments.keySet().iterator();
+        while (toEvict-- > 0 && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+        log.debug("Product JSON cache full, evicted down to {} entries", fragments.size());
+    }
+    
+    private record Fragment(RawValue json, LocalDateTime updatedAt) {
+    }
+}
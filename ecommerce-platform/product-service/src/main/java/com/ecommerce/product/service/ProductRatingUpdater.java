@@ -0,0 +1,159 @@
+package com.ecommerce.product.service;
+
+import com.ecommerce.product.event.ProductChangedEvent;
+import com.ecommerce.product.event.ReviewChangedEvent;
+import com.ecommerce.product.repository.ProductRepository;
+import com.ecommerce.product.repository.ReviewRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies review changes to product ratings in the background, one product update per flush.
+ * <p>
+ * Review writes only insert, edit or delete the review; once they commit, the product is marked
+ * pending here together with the time of its oldest unapplied review. Every
+ * {@code catalog.ratings.flush-interval} the pending products are taken in chunks of
+ * {@code catalog.ratings.flush-batch}, their ratings recomputed with one grouped query over the reviews,
+ * and each product row written once, however many reviews arrived for it in the meantime. Review
+ * latency therefore no longer depends on how hot the product is, and the product row sees one writer.
+ * <p>
+ * A rating trails its reviews by at most the flush interval plus the time one flush takes; the actual
+ * delay is recorded per product as {@code catalog.ratings.lag}, and {@code catalog.ratings.pending} shows
+ * the backlog. A failed chunk is re-queued with its original times, so the lag metric shows the miss.
+ * Pending marks live in memory: products marked when an instance stops uncleanly are caught up by
+ * their next review.
+ */
+@Service
+@Slf4j
+public class ProductRatingUpdater {
+    
+    private final ReviewRepository reviewRepository;
+    private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final ScheduledExecutorService scheduler;
+    private final Timer lag;
+    private final int flushBatch;
+    
+    /** Pending product id to the {@link System#nanoTime()} of its oldest unapplied review. */
+    private final ConcurrentHashMap<Long, Long> pending = new ConcurrentHashMap<>();
+    
+    public ProductRatingUpdater(ReviewRepository reviewRepository,
+                                ProductRepository productRepository,
+                                ApplicationEventPublisher eventPublisher,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry,
+                                @Value("${catalog.ratings.flush-interval:1s}") Duration flushInterval,
+                                @Value("${catalog.ratings.flush-batch:500}") int flushBatch) {
+        this.reviewRepository = reviewRepository;
+        this.productRepository = productRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.flushBatch = flushBatch;
+        this.lag = Timer.builder("catalog.ratings.lag")
+                .description("Time from a review change to the product rating reflecting it")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("catalog.ratings.pending", pending, Map::size)
+                .description("Products with review changes not yet applied to their rating")
+                .register(meterRegistry);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "rating-updater");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, flushInterval.toMillis(), flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onReviewChanged(ReviewChangedEvent event) {
+        pending.putIfAbsent(event.productId(), System.nanoTime());
+    }
+    
+    /**
+     * Applies every pending product now; normally run by the scheduler. Returns the number applied.
+     */
+    public synchronized int flush() {
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        Map<Long, Long> taken = new HashMap<>();
+        for (Long productId : pending.keySet()) {
+            Long since = pending.remove(productId);
+            if (since != null) {
+                taken.put(productId, since);
+            }
+        }
+        
+        List<Long> productIds = new ArrayList<>(taken.keySet());
+        int applied = 0;
+        for (int from = 0; from < productIds.size(); from += flushBatch) {
+            List<Long> chunk = productIds.subList(from, Math.min(productIds.size(), from + flushBatch));
+            try {
+                transactionTemplate.executeWithoutResult(status -> applyRatings(chunk));
+            } catch (RuntimeException ex) {
+                log.warn("Rating update for {} products failed, will retry: {}", chunk.size(), ex.getMessage());
+                chunk.forEach(productId -> pending.merge(productId, taken.get(productId), Math::min));
+                continue;
+            }
+            long now = System.nanoTime();
+            chunk.forEach(productId -> lag.record(now - taken.get(productId), TimeUnit.NANOSECONDS));
+            applied += chunk.size();
+        }
+        return applied;
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        flushQuietly();
+    }
+    
+    private void applyRatings(List<Long> productIds) {
+        Map<Long, ReviewRepository.RatingSummary> summaries = new HashMap<>();
+        for (ReviewRepository.RatingSummary summary : reviewRepository.summarizeRatings(productIds)) {
+            summaries.put(summary.getProductId(), summary);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (Long productId : productIds) {
+            ReviewRepository.RatingSummary summary = summaries.get(productId);
+            BigDecimal average = summary == null
+                    ? BigDecimal.ZERO
+                    : BigDecimal.valueOf(summary.getAverageRating()).setScale(2, RoundingMode.HALF_UP);
+            int total = summary == null ? 0 : summary.getTotalReviews().intValue();
+            productRepository.updateRating(productId, average, total, now);
+        }
+        eventPublisher.publishEvent(new ProductChangedEvent(ProductChangedEvent.ChangeType.RATING_CHANGED, List.copyOf(productIds)));
+    }
+    
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException ex) {
+            log.warn("Rating flush failed: {}", ex.getMessage());
+        }
+    }
+}
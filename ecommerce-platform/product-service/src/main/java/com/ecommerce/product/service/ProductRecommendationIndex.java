@@ -0,0 +1,282 @@
+package com.ecommerce.product.service;
+
+import com.ecommerce.product.client.OrderServiceClient;
+import com.ecommerce.product.dto.PurchaseDto;
+import com.ecommerce.product.util.BloomFilter;
+import com.ecommerce.product.util.NeighbourCounts;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * "Frequently bought together", served from memory.
+ * <p>
+ * Every delivered order from order-service's feed adds one to each ordered pair of distinct products
+ * in it. Counts live in one {@link NeighbourCounts} per product, holding at most
+ * {@code catalog.recommendations.tracked-per-product} neighbours, so memory grows with the catalog and
+ * not with order history. The top {@code catalog.recommendations.neighbours} of each product are kept
+ * as a ready array, and a lookup is one map read with no query.
+ * <p>
+ * New deliveries are folded in every {@code catalog.recommendations.poll-interval}. Every
+ * {@code catalog.recommendations.rebuild-interval}, and at startup, the whole feed is re-read into
+ * fresh counts and swapped in. The rebuild splits products across
+ * {@code catalog.recommendations.rebuild-threads} workers that fold each page in parallel while the
+ * next one is fetched, and lookups keep using the old counts until the swap. The feed can repeat an
+ * order, so counted order ids go into a {@link BloomFilter}. A false positive (0.1%) skips a new order,
+ * which recommendations can afford. Baskets beyond {@value #MAX_BASKET} distinct products are cut
+ * there to keep one bulk order from costing a quadratic number of updates.
+ */
+@Service
+@Slf4j
+public class ProductRecommendationIndex {
+    
+    private static final int MAX_BASKET = 50;
+    private static final double ORDER_FILTER_FALSE_POSITIVE_RATE = 0.001;
+    
+    private final OrderServiceClient orderServiceClient;
+    private final boolean enabled;
+    private final int neighbours;
+    private final int trackedPerProduct;
+    private final int pageSize;
+    private final int rebuildThreads;
+    private final Duration pollInterval;
+    private final Duration rebuildInterval;
+    private final ScheduledExecutorService scheduler;
+    
+    /** Top neighbours per product, replaced whole on rebuild and per product on poll. */
+    private volatile Map<Long, long[]> served = new ConcurrentHashMap<>();
+    private Map<Long, NeighbourCounts> counts = new HashMap<>();
+    private BloomFilter countedOrders;
+    private long expectedOrders;
+    private Cursor cursor = Cursor.START;
+    
+    public ProductRecommendationIndex(OrderServiceClient orderServiceClient,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${catalog.recommendations.enabled:true}") boolean enabled,
+                                      @Value("${catalog.recommendations.neighbours:10}") int neighbours,
+                                      @Value("${catalog.recommendations.tracked-per-product:30}") int trackedPerProduct,
+                                      @Value("${catalog.recommendations.expected-orders:1000000}") long expectedOrders,
+                                      @Value("${catalog.recommendations.page-size:1000}") int pageSize,
+                                      @Value("${catalog.recommendations.rebuild-threads:0}") int rebuildThreads,
+                                      @Value("${catalog.recommendations.poll-interval:1m}") Duration pollInterval,
+                                      @Value("${catalog.recommendations.rebuild-interval:24h}") Duration rebuildInterval) {
+        this.orderServiceClient = orderServiceClient;
+        this.enabled = enabled;
+        this.neighbours = neighbours;
+        this.trackedPerProduct = Math.max(trackedPerProduct, neighbours);
+        this.expectedOrders = expectedOrders;
+        this.pageSize = pageSize;
+        this.rebuildThreads = rebuildThreads > 0 ? rebuildThreads : Runtime.getRuntime().availableProcessors();
+        this.pollInterval = pollInterval;
+        this.rebuildInterval = rebuildInterval;
+        Gauge.builder("catalog.recommendations.products", this, index -> index.served.size())
+                .description("Products with bought-together recommendations")
+                .register(meterRegistry);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "recommendations");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    /**
+     * Up to {@code limit} product ids most often bought with the given one, most frequent first.
+     */
+    public List<Long> boughtTogether(long productId, int limit) {
+        long[] top = served.get(productId);
+        if (top == null) {
+            return List.of();
+        }
+        return Arrays.stream(top).limit(limit).boxed().toList();
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            scheduler.scheduleWithFixedDelay(this::pollQuietly, 0, pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+            scheduler.scheduleWithFixedDelay(this::rebuildQuietly, rebuildInterval.toMillis(), rebuildInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+    
+    /**
+     * Recounts the whole feed in parallel and swaps the result in. Returns the number of orders counted.
+     */
+    public synchronized long rebuild() {
+        long started = System.nanoTime();
+        BloomFilter seen = new BloomFilter(expectedOrders, ORDER_FILTER_FALSE_POSITIVE_RATE);
+        List<Map<Long, NeighbourCounts>> partitions = new ArrayList<>();
+        for (int i = 0; i < rebuildThreads; i++) {
+            partitions.add(new HashMap<>());
+        }
+        ExecutorService workers = Executors.newFixedThreadPool(rebuildThreads, runnable -> {
+            Thread thread = new Thread(runnable, "recommendations-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Cursor position = Cursor.START;
+        long orders = 0;
+        try {
+            List<Future<?>> inFlight = List.of();
+            PurchaseDto.DeliveredPage page;
+            do {
+                page = orderServiceClient.getDeliveredSince(position.since(), position.afterOrderId(), pageSize);
+                List<long[]> baskets = baskets(page, seen);
+                orders += baskets.size();
+                // Fold this page while the next one is fetched; each worker owns the products of its partition
+                await(inFlight);
+                List<Future<?>> submitted = new ArrayList<>();
+                for (int i = 0; i < rebuildThreads; i++) {
+                    int partition = i;
+                    submitted.add(workers.submit(() -> fold(baskets, partitions.get(partition), partition, rebuildThreads)));
+                }
+                inFlight = submitted;
+                position = new Cursor(page.getNextSince(), page.getNextAfterOrderId());
+            } while (page.isHasMore());
+            await(inFlight);
+        } finally {
+            workers.shutdownNow();
+        }
+        
+        Map<Long, NeighbourCounts> built = new HashMap<>();
+        partitions.forEach(built::putAll);
+        Map<Long, long[]> snapshot = new ConcurrentHashMap<>();
+        built.forEach((productId, neighbourCounts) -> snapshot.put(productId, neighbourCounts.top(neighbours)));
+        counts = built;
+        countedOrders = seen;
+        cursor = position;
+        served = snapshot;
+        log.info("Bought-together counts rebuilt from {} orders for {} products on {} threads in {} ms",
+                orders, built.size(), rebuildThreads, (System.nanoTime() - started) / 1_000_000);
+        return orders;
+    }
+    
+    /**
+     * Folds in orders delivered since the last poll, rebuilding instead if nothing has been counted yet
+     * and afterwards if the order filter has filled up. Returns the number of new orders counted.
+     */
+    public synchronized long poll() {
+        if (countedOrders == null) {
+            return rebuild();
+        }
+        long orders = 0;
+        PurchaseDto.DeliveredPage page;
+        do {
+            page = orderServiceClient.getDeliveredSince(cursor.since(), cursor.afterOrderId(), pageSize);
+            List<long[]> baskets = baskets(page, countedOrders);
+            fold(baskets, counts, 0, 1);
+            Set<Long> touched = new HashSet<>();
+            baskets.forEach(basket -> Arrays.stream(basket).forEach(touched::add));
+            touched.forEach(productId -> served.put(productId, counts.get(productId).top(neighbours)));
+            orders += baskets.size();
+            // Folded orders are in the filter, so if a later page fails this one is not counted twice
+            cursor = new Cursor(page.getNextSince(), page.getNextAfterOrderId());
+        } while (page.isHasMore());
+        
+        if (countedOrders.isSaturated()) {
+            expectedOrders *= 2;
+            rebuild();
+        }
+        return orders;
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+    
+    /**
+     * Distinct products of each order not counted before, marking the orders counted. Single-product
+     * orders pair with nothing and are left out.
+     */
+    private static List<long[]> baskets(PurchaseDto.DeliveredPage page, BloomFilter seen) {
+        List<long[]> baskets = new ArrayList<>();
+        for (PurchaseDto.DeliveredOrder order : page.getOrders()) {
+            if (order.getOrderId() == null || order.getProductIds() == null || seen.mightContain(order.getOrderId())) {
+                continue;
+            }
+            seen.add(order.getOrderId());
+            long[] basket = order.getProductIds().stream()
+                    .filter(Objects::nonNull)
+                    .distinct()
+                    .limit(MAX_BASKET)
+                    .mapToLong(Long::longValue)
+                    .toArray();
+            if (basket.length > 1) {
+                baskets.add(basket);
+            }
+        }
+        return baskets;
+    }
+    
+    private void fold(List<long[]> baskets, Map<Long, NeighbourCounts> target, int partition, int partitionCount) {
+        for (long[] basket : baskets) {
+            for (long productId : basket) {
+                if (Math.floorMod(productId, partitionCount) != partition) {
+                    continue;
+                }
+                NeighbourCounts neighbourCounts = target.computeIfAbsent(productId, id -> new NeighbourCounts(trackedPerProduct));
+                for (long other : basket) {
+                    if (other != productId) {
+                        neighbourCounts.increment(other);
+                    }
+                }
+            }
+        }
+    }
+    
+    private static void await(List<Future<?>> futures) {
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Recommendation rebuild interrupted", ex);
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("Recommendation rebuild failed", ex.getCause());
+        }
+    }
+    
+    private void pollQuietly() {
+        try {
+            poll();
+        } catch (RuntimeException ex) {
+            log.warn("Bought-together feed poll failed, keeping the current counts: {}", ex.getMessage());
+        }
+    }
+    
+    private void rebuildQuietly() {
+        try {
+            rebuild();
+        } catch (RuntimeException ex) {
+            log.warn("Bought-together rebuild failed, keeping the current counts: {}", ex.getMessage());
+        }
+    }
+    
+    private record Cursor(LocalDateTime since, long afterOrderId) {
+        static final Cursor START = new Cursor(LocalDateTime.of(1970, 1, 1, 0, 0), 0);
+    }
+}
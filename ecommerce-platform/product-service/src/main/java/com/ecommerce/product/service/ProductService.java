@@ -2,30 +2,59 @@ package com.ecommerce.product.service;
 
 import com.ecommerce.common.exceptions.BadRequestException;
 import com.ecommerce.common.exceptions.ResourceNotFoundException;
+import com.ecommerce.product.dto.FacetDto;
+import com.ecommerce.product.dto.InventoryDto;
 import com.ecommerce.product.dto.ProductDto;
+import com.ecommerce.product.event.ProductChangedEvent;
 import com.ecommerce.product.model.Category;
 import com.ecommerce.product.model.Product;
 import com.ecommerce.product.model.ProductImage;
 import com.ecommerce.product.repository.CategoryRepository;
 import com.ecommerce.product.repository.ProductRepository;
+import com.fasterxml.jackson.databind.util.RawValue;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ProductService {
     
+    /** Ids per IN list; keeps statements well under driver and planner limits. */
+    private static final int BATCH_CHUNK_SIZE = 500;
+    private static final int MAX_BATCH_IDS = 2000;
+    
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
+    private final ProductJsonCache productJsonCache;
+    private final ProductFacetIndex productFacetIndex;
+    private final TrendingProductsTracker trendingProductsTracker;
+    private final ProductRecommendationIndex productRecommendationIndex;
+    private final ProductViewEncoder productViewEncoder;
+    private final ProductSnapshotIndex productSnapshotIndex;
+    private final StockHoldLedger stockHoldLedger;
+    private final ApplicationEventPublisher eventPublisher;
     
     @Transactional
     public ProductDto.ProductResponse createProduct(ProductDto.CreateProductRequest request) {
@@ -66,32 +95,219 @@ public class ProductService {
         }
         
         product = productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.of(ProductChangedEvent.ChangeType.CREATED, product.getId()));
         log.info("Product created successfully with ID: {}", product.getId());
         
         return mapToProductResponse(product);
     }
     
+    @Transactional(readOnly = true)
     public ProductDto.ProductResponse getProductById(Long productId) {
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("Product", "id", productId));
         return mapToProductResponse(product);
     }
     
+    /**
+     * Same as {@link #getProductById} but served from the pre-encoded JSON cache; a hit costs one
+     * primary-key lookup of {@code updated_at}, the same one the product's ETag is computed from.
+     */
+    @Transactional(readOnly = true)
+    public RawValue getProductJsonById(Long productId) {
+        LocalDateTime updatedAt = productRepository.findVersionById(productId)
+                .map(ProductRepository.ProductVersion::getUpdatedAt)
+                .orElseThrow(() -> new ResourceNotFoundException("Product", "id", productId));
+        RawValue cached = productJsonCache.getIfCurrent(productId, updatedAt);
+        if (cached != null) {
+            return cached;
+        }
+        Product product = productRepository.findById(productId)
+                .orElseThrow(() -> new ResourceNotFoundException("Product", "id", productId));
+        return productJsonCache.put(productId, product.getUpdatedAt(), mapToProductResponse(product));
+    }
+    
+    /**
+     * Many products by id in request order, duplicates collapsed. Each chunk costs one query for the
+     * {@code updated_at} versions, which also finds the missing ids; products whose cached fragment is
+     * current are served from it and only the rest are loaded, with category and images fetched in
+     * the same query.
+     */
+    @Transactional(readOnly = true)
+    public ProductDto.BatchResponse getProductsJsonByIds(List<Long> productIds) {
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(productIds));
+        if (ids.size() > MAX_BATCH_IDS) {
+            throw new BadRequestException("At most " + MAX_BATCH_IDS + " product IDs per request");
+        }
+        Map<Long, RawValue> found = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += BATCH_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + BATCH_CHUNK_SIZE));
+            List<Long> toLoad = new ArrayList<>();
+            for (ProductRepository.VersionStamp version : productRepository.findVersionsByIdIn(chunk)) {
+                RawValue cached = productJsonCache.getIfCurrent(version.getId(), version.getUpdatedAt());
+                if (cached != null) {
+                    found.put(version.getId(), cached);
+                } else {
+                    toLoad.add(version.getId());
+                }
+            }
+            if (!toLoad.isEmpty()) {
+                productRepository.findWithDetailsByIdIn(toLoad)
+                        .forEach(product -> found.put(product.getId(), productJsonCache.get(product, this::mapToProductResponse)));
+            }
+        }
+        
+        List<RawValue> products = new ArrayList<>(found.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            RawValue json = found.get(id);
+            if (json != null) {
+                products.add(json);
+            } else {
+                missing.add(id);
+            }
+        }
+        return ProductDto.BatchResponse.builder()
+                .products(products)
+                .missing(missing)
+                .build();
+    }
+    
+    /**
+     * Listing in the given view. The full view is served from the JSON fragment cache; card and
+     * sparse views are encoded per request, from the card query whenever it covers the fields.
+     * Filtered listings and those sorted by anything but id take the page's ids from the catalog
+     * snapshot and load only those products.
+     */
+    @Transactional(readOnly = true)
+    public Page<RawValue> getAllProductsJson(Pageable pageable, ProductFieldSet fieldSet, ProductDto.ListingFilter filter) {
+        if (!filter.isEmpty() || usesSnapshot(pageable.getSort())) {
+            if (!productSnapshotIndex.isEnabled()) {
+                throw new BadRequestException("Listing filters are not available on this instance");
+            }
+            if (!productSnapshotIndex.canSort(pageable.getSort())) {
+                throw new BadRequestException("Filtered listings sort by one of " + ProductSnapshotIndex.SORTABLE.keySet());
+            }
+            ProductSnapshotIndex.Result result = productSnapshotIndex.page(pageable.getSort(), ProductSnapshotIndex.filter(
+                    filter.getMinPrice(), filter.getMaxPrice(), filter.getMinRating(), filter.isInStockOnly(), null),
+                    pageable.getOffset(), pageable.getPageSize());
+            return productViewEncoder.measure(fieldSet,
+                    () -> new PageImpl<>(getProductsJsonInOrder(result.productIds(), fieldSet), pageable, result.total()));
+        }
+        return productViewEncoder.measure(fieldSet, () -> fieldSet.usesCardQuery()
+                ? productRepository.findCards(pageable).map(row -> productViewEncoder.encode(mapToProductCard(row), fieldSet))
+                : productRepository.findAll(pageable).map(product -> toJson(product, fieldSet)));
+    }
+    
+    @Transactional(readOnly = true)
+    public Page<RawValue> searchProductsJson(String keyword, Pageable pageable, ProductFieldSet fieldSet) {
+        return productViewEncoder.measure(fieldSet, () -> fieldSet.usesCardQuery()
+                ? productRepository.searchCards(keyword, pageable).map(row -> productViewEncoder.encode(mapToProductCard(row), fieldSet))
+                : productRepository.searchProducts(keyword, pageable).map(product -> toJson(product, fieldSet)));
+    }
+    
+    /**
+     * Products in the category and, unless {@code includeSubcategories} is false, in every category
+     * below it; the subtree comes from the closure table, so any depth is one query plus its count.
+     */
+    @Transactional(readOnly = true)
+    public Page<RawValue> getProductsByCategoryJson(Long categoryId, boolean includeSubcategories,
+                                                    Pageable pageable, ProductFieldSet fieldSet) {
+        if (!categoryRepository.existsById(categoryId)) {
+            throw new ResourceNotFoundException("Category", "id", categoryId);
+        }
+        if (fieldSet.usesCardQuery()) {
+            return productViewEncoder.measure(fieldSet, () -> (includeSubcategories
+                    ? productRepository.findCardsInCategorySubtree(categoryId, pageable)
+                    : productRepository.findCardsByCategoryId(categoryId, pageable))
+                    .map(row -> productViewEncoder.encode(mapToProductCard(row), fieldSet)));
+        }
+        return productViewEncoder.measure(fieldSet, () -> (includeSubcategories
+                ? productRepository.findInCategorySubtree(categoryId, pageable)
+                : productRepository.findByCategoryId(categoryId, pageable))
+                .map(product -> toJson(product, fieldSet)));
+    }
+    
+    /**
+     * Filters by category, price band, rating band and availability against the in-memory facet index.
+     * Only the page's products are loaded; they come back in id order.
+     */
+    @Transactional(readOnly = true)
+    public FacetDto.FilterResponse filterProductsJson(FacetDto.FilterRequest filter, Pageable pageable) {
+        ProductFacetIndex.Result result = productFacetIndex.filter(filter, pageable.getOffset(), pageable.getPageSize());
+        List<RawValue> content = getProductsJsonInOrder(result.productIds());
+        
+        List<FacetDto.FacetCount> categoryCounts = result.facets().get(ProductFacetIndex.CATEGORY);
+        Map<String, String> categoryNames = categoryRepository.findAllById(categoryCounts.stream()
+                        .map(count -> Long.valueOf(count.getValue()))
+                        .toList())
+                .stream()
+                .collect(Collectors.toMap(category -> category.getId().toString(), Category::getName));
+        categoryCounts.forEach(count -> count.setLabel(categoryNames.getOrDefault(count.getValue(), count.getValue())));
+        categoryCounts.sort(Comparator.comparingLong(FacetDto.FacetCount::getCount).reversed());
+        
+        return FacetDto.FilterResponse.builder()
+                .products(new PageImpl<>(content, pageable, result.total()))
+                .facets(result.facets())
+                .build();
+    }
+    
+    /**
+     * Most viewed products of late, optionally only those in one category. A busy category has its own
+     * tracked products; a quiet one only has those among the globally tracked, so it may come back short
+     * or empty.
+     */
+    @Transactional(readOnly = true)
+    public List<RawValue> getTrendingProductsJson(Long categoryId, int limit) {
+        List<TrendingProductsTracker.Trending> trending = trendingProductsTracker.top();
+        if (categoryId != null) {
+            if (!categoryRepository.existsById(categoryId)) {
+                throw new ResourceNotFoundException("Category", "id", categoryId);
+            }
+            trending = Stream.concat(trendingProductsTracker.topInCategory(categoryId).stream(), trending.stream())
+                    .sorted(Comparator.comparingDouble(TrendingProductsTracker.Trending::views).reversed())
+                    .toList();
+        }
+        List<Long> productIds = trending.stream()
+                .map(TrendingProductsTracker.Trending::productId)
+                .distinct()
+                .toList();
+        if (categoryId != null) {
+            // Products can move between categories after they were viewed
+            Set<Long> inCategory = productRepository.findFacetAttributesByIdIn(productIds).stream()
+                    .filter(attributes -> categoryId.equals(attributes.getCategoryId()))
+                    .map(ProductRepository.FacetAttributes::getId)
+                    .collect(Collectors.toSet());
+            productIds = productIds.stream().filter(inCategory::contains).toList();
+        }
+        return getProductsJsonInOrder(productIds.subList(0, Math.min(limit, productIds.size())));
+    }
+    
+    @Transactional(readOnly = true)
+    public List<RawValue> getBoughtTogetherJson(Long productId, int limit) {
+        if (!productRepository.existsById(productId)) {
+            throw new ResourceNotFoundException("Product", "id", productId);
+        }
+        return getProductsJsonInOrder(productRecommendationIndex.boughtTogether(productId, limit));
+    }
+    
+    @Transactional(readOnly = true)
     public Page<ProductDto.ProductResponse> getAllProducts(Pageable pageable) {
         return productRepository.findAll(pageable)
                 .map(this::mapToProductResponse);
     }
     
+    @Transactional(readOnly = true)
     public Page<ProductDto.ProductResponse> searchProducts(String keyword, Pageable pageable) {
         return productRepository.searchProducts(keyword, pageable)
                 .map(this::mapToProductResponse);
     }
     
+    @Transactional(readOnly = true)
     public Page<ProductDto.ProductResponse> getProductsByCategory(Long categoryId, Pageable pageable) {
         if (!categoryRepository.existsById(categoryId)) {
             throw new ResourceNotFoundException("Category", "id", categoryId);
         }
-        return productRepository.findByCategoryId(categoryId, pageable)
+        return productRepository.findInCategorySubtree(categoryId, pageable)
                 .map(this::mapToProductResponse);
     }
     
@@ -121,6 +337,7 @@ public class ProductService {
         }
         
         product = productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.of(ProductChangedEvent.ChangeType.UPDATED, productId));
         log.info("Product updated successfully: {}", productId);
         
         return mapToProductResponse(product);
@@ -135,6 +352,7 @@ public class ProductService {
         }
         
         productRepository.deleteById(productId);
+        eventPublisher.publishEvent(ProductChangedEvent.of(ProductChangedEvent.ChangeType.DELETED, productId));
         log.info("Product deleted successfully: {}", productId);
     }
     
@@ -145,11 +363,133 @@ public class ProductService {
         
         product.setStockQuantity(quantity);
         product = productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.of(ProductChangedEvent.ChangeType.STOCK_CHANGED, productId));
         
         log.info("Updated stock for product {}: new quantity = {}", productId, quantity);
         return mapToProductResponse(product);
     }
     
+    /**
+     * Takes stock for every line or for none of them; used by order-service to hold inventory
+     * during checkout. Lines carrying a hold key are applied once per key, so a retried reservation
+     * does not take the same hold's stock twice.
+     */
+    @Transactional
+    public void reserveStock(List<InventoryDto.StockLine> lines) {
+        LocalDateTime now = LocalDateTime.now();
+        // Lock rows in a fixed order so concurrent reservations cannot deadlock
+        Map<Long, Integer> quantities = new TreeMap<>();
+        stockHoldLedger.claimReservations(lines, now)
+                .forEach(line -> quantities.merge(line.getProductId(), line.getQuantity(), Integer::sum));
+        if (quantities.isEmpty()) {
+            return;
+        }
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            if (productRepository.decrementStock(entry.getKey(), entry.getValue(), now) == 0) {
+                if (!productRepository.existsById(entry.getKey())) {
+                    throw new ResourceNotFoundException("Product", "id", entry.getKey());
+                }
+                throw new BadRequestException("Insufficient stock for product " + entry.getKey());
+            }
+        }
+        eventPublisher.publishEvent(new ProductChangedEvent(ProductChangedEvent.ChangeType.STOCK_CHANGED,
+                new ArrayList<>(quantities.keySet())));
+        log.info("Reserved stock for {} products", quantities.size());
+    }
+    
+    /**
+     * Returns stock. Lines carrying a hold key are applied once per key, and only if that key's
+     * reservation was applied, so a retried release, or one sent after a reservation that never
+     * landed, does not return stock that was not taken.
+     */
+    @Transactional
+    public void releaseStock(List<InventoryDto.StockLine> lines) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, Integer> quantities = new TreeMap<>();
+        stockHoldLedger.claimReleases(lines, now)
+                .forEach(line -> quantities.merge(line.getProductId(), line.getQuantity(), Integer::sum));
+        if (quantities.isEmpty()) {
+            return;
+        }
+        int released = 0;
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            released += productRepository.incrementStock(entry.getKey(), entry.getValue(), now);
+        }
+        eventPublisher.publishEvent(new ProductChangedEvent(ProductChangedEvent.ChangeType.STOCK_CHANGED,
+                new ArrayList<>(quantities.keySet())));
+        log.info("Released stock for {} of {} products", released, quantities.size());
+    }
+    
+    /**
+     * Loads the products, with category and images, in one query and returns their cached JSON in the
+     * order given, skipping ids that no longer exist.
+     */
+    private List<RawValue> getProductsJsonInOrder(List<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Product> products = productRepository.findWithDetailsByIdIn(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        return productIds.stream()
+                .map(products::get)
+                .filter(Objects::nonNull)
+                .map(product -> productJsonCache.get(product, this::mapToProductResponse))
+                .toList();
+    }
+    
+    /**
+     * Loads a snapshot page's products, with category and images, in one query and returns them in
+     * the snapshot's order. Ids deleted since the snapshot saw them are skipped and dropped from it.
+     */
+    private List<RawValue> getProductsJsonInOrder(List<Long> productIds, ProductFieldSet fieldSet) {
+        if (productIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Product> products = productRepository.findWithDetailsByIdIn(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        List<RawValue> content = new ArrayList<>(productIds.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : productIds) {
+            Product product = products.get(id);
+            if (product != null) {
+                content.add(toJson(product, fieldSet));
+            } else {
+                missing.add(id);
+            }
+        }
+        productSnapshotIndex.forget(missing);
+        return content;
+    }
+    
+    /**
+     * Id order is the primary key index, which the database pages through cheaply; any other sort the
+     * snapshot supports would be a full sort there.
+     */
+    private boolean usesSnapshot(Sort sort) {
+        return productSnapshotIndex.isEnabled() && sort.isSorted() && productSnapshotIndex.canSort(sort)
+                && sort.getOrderFor("id") == null;
+    }
+    
+    private RawValue toJson(Product product, ProductFieldSet fieldSet) {
+        return fieldSet.isFull()
+                ? productJsonCache.get(product, this::mapToProductResponse)
+                : productViewEncoder.encode(mapToProductResponse(product), fieldSet);
+    }
+    
+    private ProductDto.ProductCard mapToProductCard(ProductRepository.CardRow row) {
+        return ProductDto.ProductCard.builder()
+                .id(row.getId())
+                .name(row.getName())
+                .sku(row.getSku())
+                .price(row.getPrice())
+                .categoryId(row.getCategoryId())
+                .stockQuantity(row.getStockQuantity())
+                .averageRating(row.getAverageRating())
+                .totalReviews(row.getTotalReviews())
+                .primaryImageUrl(row.getPrimaryImageUrl())
+                .build();
+    }
+    
     private ProductDto.ProductResponse mapToProductResponse(Product product) {
         List<ProductDto.ProductImageDto> imageDtos = new ArrayList<>();
         if (product.getImages() != null) {
@@ -0,0 +1,569 @@
+package com.ecommerce.product.service;
+
+import com.ecommerce.product.event.ProductChangedEvent;
+import com.ecommerce.product.repository.ProductRepository;
+import com.ecommerce.product.repository.ProductRepository.SnapshotRow;
+import com.ecommerce.product.util.ProductColumnFile;
+import com.ecommerce.product.util.ProductColumnFile.SortKey;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Answers sorted and filtered listings of the whole catalog with product ids, from a memory-mapped
+ * {@link ProductColumnFile} instead of a full-table sort in the database. The caller then loads only
+ * the page's products by id.
+ * <p>
+ * The file at {@code catalog.snapshot.path} outlives the process. At startup it is reopened if it was
+ * closed cleanly and then caught up from its {@code updated_at} watermark. If the product count still
+ * differs afterwards, or the file cannot be reopened, it is rebuilt by a keyset scan. Committed
+ * {@link ProductChangedEvent}s queue the changed ids, and the index's own thread re-reads them in
+ * batches after {@code catalog.snapshot.apply-delay}, so committing requests never wait on the file
+ * and readers are blocked only while a batch is written. Every {@code catalog.snapshot.poll-interval}
+ * the rows updated since the watermark are read as well, which picks up changes made through other
+ * instances. Each poll re-reads the last {@code catalog.snapshot.poll-overlap}, so a transaction that
+ * commits after a later one is not skipped. Products deleted through another instance stay in the file
+ * until a page turns up their id and the caller reports it through {@link #forget}.
+ * <p>
+ * All writes to the file are serialized on this instance's monitor. Growing the file copies it without
+ * the write lock, then swaps the copy in.
+ * <p>
+ * One instance owns the file and holds a lock next to it. Others on the same host, and an empty path,
+ * fall back to a temporary file that is rebuilt at every start.
+ */
+@Service
+@Slf4j
+public class ProductSnapshotIndex {
+    
+    /** Sort properties the snapshot can order by, by their name on {@code Product}. */
+    public static final Map<String, SortKey> SORTABLE = sortable();
+    
+    private static final int SCAN_BATCH = 1000;
+    /** Beyond this many rows in one change, re-sorting the permutations beats shifting them per row. */
+    private static final int BULK_CHANGES = 256;
+    
+    private final ProductRepository productRepository;
+    private final boolean enabled;
+    private final String configuredPath;
+    private final int initialCapacity;
+    private final Duration pollInterval;
+    private final Duration pollOverlap;
+    private final Duration applyDelay;
+    private final ScheduledExecutorService scheduler;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Set<Long> changedDuringRebuild = ConcurrentHashMap.newKeySet();
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean applyScheduled = new AtomicBoolean();
+    
+    private volatile boolean loaded;
+    private volatile boolean rebuilding;
+    private Path path;
+    private boolean temporary;
+    private FileChannel lockChannel;
+    private ProductColumnFile file;
+    
+    public ProductSnapshotIndex(ProductRepository productRepository,
+                                MeterRegistry meterRegistry,
+                                @Value("${catalog.snapshot.enabled:true}") boolean enabled,
+                                @Value("${catalog.snapshot.path:}") String configuredPath,
+                                @Value("${catalog.snapshot.initial-capacity:100000}") int initialCapacity,
+                                @Value("${catalog.snapshot.poll-interval:10s}") Duration pollInterval,
+                                @Value("${catalog.snapshot.poll-overlap:5s}") Duration pollOverlap,
+                                @Value("${catalog.snapshot.apply-delay:100ms}") Duration applyDelay) {
+        this.productRepository = productRepository;
+        this.enabled = enabled;
+        this.configuredPath = configuredPath;
+        this.initialCapacity = initialCapacity;
+        this.pollInterval = pollInterval;
+        this.pollOverlap = pollOverlap;
+        this.applyDelay = applyDelay;
+        Gauge.builder("catalog.snapshot.products", this, ProductSnapshotIndex::size)
+                .description("Products in the memory-mapped catalog snapshot")
+                .register(meterRegistry);
+        Gauge.builder("catalog.snapshot.pending", pending, Set::size)
+                .description("Changed products not yet applied to the catalog snapshot")
+                .register(meterRegistry);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "catalog-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    /**
+     * Whether {@link #page} can order by this sort: unsorted (id order) or one {@link #SORTABLE} property.
+     */
+    public boolean canSort(Sort sort) {
+        return sort.isUnsorted() || (sort.stream().count() == 1 && SORTABLE.containsKey(sort.iterator().next().getProperty()));
+    }
+    
+    /**
+     * Ids of one page of the matching products in the given order, ties broken by id, with the total
+     * number of matches.
+     */
+    public Result page(Sort sort, ProductColumnFile.Filter filter, long offset, int limit) {
+        if (!canSort(sort)) {
+            throw new IllegalArgumentException("The catalog snapshot cannot sort by " + sort);
+        }
+        Sort.Order order = sort.isUnsorted() ? Sort.Order.asc("id") : sort.iterator().next();
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            ProductColumnFile.Page page = file.page(SORTABLE.get(order.getProperty()), order.isDescending(), filter, offset, limit);
+            List<Long> productIds = new ArrayList<>(page.ids().length);
+            for (long id : page.ids()) {
+                productIds.add(id);
+            }
+            return new Result(page.total(), productIds);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Builds a filter; null bounds and an empty or null category list leave that attribute unfiltered.
+     */
+    public static ProductColumnFile.Filter filter(BigDecimal minPrice, BigDecimal maxPrice, BigDecimal minRating,
+                                                  boolean inStockOnly, Collection<Long> categoryIds) {
+        return new ProductColumnFile.Filter(
+                minPrice == null ? Long.MIN_VALUE : hundredths(minPrice, RoundingMode.CEILING),
+                maxPrice == null ? Long.MAX_VALUE : hundredths(maxPrice, RoundingMode.FLOOR),
+                minRating == null ? Integer.MIN_VALUE : (int) hundredths(minRating, RoundingMode.CEILING),
+                inStockOnly,
+                categoryIds == null || categoryIds.isEmpty() ? null : categoryIds.stream().mapToLong(Long::longValue).toArray());
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            ensureLoaded();
+        } catch (RuntimeException ex) {
+            log.warn("Could not load the catalog snapshot at startup, will retry on first use: {}", ex.getMessage());
+        }
+        scheduler.scheduleWithFixedDelay(this::pollQuietly, pollInterval.toMillis(), pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        enqueue(event.productIds());
+    }
+    
+    /**
+     * Applies every queued change now; normally run by the index's thread. Returns the number of
+     * products re-read.
+     */
+    public synchronized int applyPending() {
+        applyScheduled.set(false);
+        List<Long> productIds = new ArrayList<>(pending);
+        pending.removeAll(productIds);
+        for (int from = 0; from < productIds.size(); from += SCAN_BATCH) {
+            refresh(productIds.subList(from, Math.min(productIds.size(), from + SCAN_BATCH)));
+        }
+        return productIds.size();
+    }
+    
+    /**
+     * Re-reads the given products and applies their current values, dropping those that no longer exist.
+     */
+    public void refresh(Collection<Long> productIds) {
+        if (rebuilding) {
+            changedDuringRebuild.addAll(productIds);
+        }
+        if (!loaded || productIds.isEmpty()) {
+            return;
+        }
+        List<SnapshotRow> rows = productRepository.findSnapshotRowsByIdIn(productIds);
+        Set<Long> removed = new HashSet<>(productIds);
+        rows.forEach(row -> removed.remove(row.getId()));
+        apply(rows, removed, Long.MIN_VALUE);
+    }
+    
+    /**
+     * Queues products a caller found missing from the database, e.g. deleted through another instance;
+     * re-reading them drops them.
+     */
+    public void forget(Collection<Long> productIds) {
+        enqueue(productIds);
+    }
+    
+    /**
+     * Applies the products updated since the watermark, less the overlap; returns how many were read.
+     */
+    public synchronized int poll() {
+        if (!loaded) {
+            return 0;
+        }
+        long watermark;
+        lock.readLock().lock();
+        try {
+            watermark = file.watermark();
+        } finally {
+            lock.readLock().unlock();
+        }
+        LocalDateTime since = watermark == Long.MIN_VALUE
+                ? LocalDateTime.of(1970, 1, 1, 0, 0)
+                : fromMicros(watermark).minus(pollOverlap);
+        long afterId = 0;
+        int read = 0;
+        List<SnapshotRow> batch;
+        do {
+            batch = productRepository.findSnapshotRowsChangedAfter(since, afterId, PageRequest.of(0, SCAN_BATCH));
+            if (!batch.isEmpty()) {
+                SnapshotRow last = batch.get(batch.size() - 1);
+                apply(batch, List.of(), micros(last.getUpdatedAt()));
+                since = last.getUpdatedAt();
+                afterId = last.getId();
+                read += batch.size();
+            }
+        } while (batch.size() == SCAN_BATCH);
+        return read;
+    }
+    
+    /**
+     * Builds a fresh file from the database and swaps it in. Products changed while the scan runs are
+     * re-read afterwards, as in {@link ProductFacetIndex#rebuild()}.
+     */
+    public synchronized void rebuild() {
+        long started = System.nanoTime();
+        resolvePath();
+        rebuilding = true;
+        changedDuringRebuild.clear();
+        ProductColumnFile fresh = null;
+        try {
+            long products = productRepository.count();
+            fresh = ProductColumnFile.create(sibling(".building"), capacityFor(products));
+            long watermark = Long.MIN_VALUE;
+            long afterId = 0;
+            List<SnapshotRow> batch;
+            do {
+                batch = productRepository.findSnapshotRowsAfter(afterId, PageRequest.of(0, SCAN_BATCH));
+                ProductColumnFile grown = withRoom(fresh, batch.size());
+                if (grown != fresh) {
+                    closeQuietly(fresh);
+                    fresh = grown;
+                }
+                for (SnapshotRow row : batch) {
+                    fresh.append(toRow(row));
+                    if (row.getUpdatedAt() != null) {
+                        watermark = Math.max(watermark, micros(row.getUpdatedAt()));
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    afterId = batch.get(batch.size() - 1).getId();
+                }
+            } while (batch.size() == SCAN_BATCH);
+            fresh.sortAll();
+            fresh.setWatermark(watermark);
+            fresh.moveTo(path);
+            
+            lock.writeLock().lock();
+            try {
+                ProductColumnFile previous = file;
+                file = fresh;
+                loaded = true;
+                if (previous != null) {
+                    closeQuietly(previous);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } catch (IOException ex) {
+            if (fresh != null) {
+                closeQuietly(fresh);
+            }
+            throw new UncheckedIOException("Could not build the catalog snapshot at " + path, ex);
+        } finally {
+            rebuilding = false;
+        }
+        if (!changedDuringRebuild.isEmpty()) {
+            List<Long> changed = new ArrayList<>(changedDuringRebuild);
+            changedDuringRebuild.removeAll(changed);
+            refresh(changed);
+        }
+        log.info("Catalog snapshot built over {} products ({} KB mapped) in {} ms",
+                fresh.size(), fresh.memoryBytes() / 1024, (System.nanoTime() - started) / 1_000_000);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        lock.writeLock().lock();
+        try {
+            if (file != null) {
+                closeQuietly(file);
+                file = null;
+            }
+            loaded = false;
+            if (temporary && path != null) {
+                Files.deleteIfExists(path);
+            }
+            if (lockChannel != null) {
+                lockChannel.close();
+            }
+        } catch (IOException ex) {
+            log.warn("Could not release the catalog snapshot at {}: {}", path, ex.getMessage());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    private int size() {
+        ProductColumnFile current = file;
+        return current == null ? 0 : current.size();
+    }
+    
+    private void ensureLoaded() {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    load();
+                }
+            }
+        }
+    }
+    
+    /**
+     * Reopens the file left by the last clean shutdown and catches it up, or rebuilds it.
+     */
+    private void load() {
+        resolvePath();
+        if (!temporary && file == null && Files.exists(path)) {
+            try {
+                ProductColumnFile reopened = ProductColumnFile.open(path);
+                lock.writeLock().lock();
+                try {
+                    file = reopened;
+                    loaded = true;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                int caughtUp = poll();
+                long products = productRepository.count();
+                if (reopened.size() == products) {
+                    log.info("Catalog snapshot reopened with {} products, {} changes caught up", products, caughtUp);
+                    return;
+                }
+                log.info("Catalog snapshot holds {} products but the catalog has {}, rebuilding", reopened.size(), products);
+            } catch (IOException ex) {
+                log.info("Catalog snapshot at {} not reused, rebuilding: {}", path, ex.getMessage());
+            }
+        }
+        rebuild();
+    }
+    
+    private void enqueue(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        pending.addAll(productIds);
+        if (applyScheduled.compareAndSet(false, true)) {
+            try {
+                scheduler.schedule(this::applyPendingQuietly, applyDelay.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException ex) {
+                applyScheduled.set(false);
+            }
+        }
+    }
+    
+    private synchronized void apply(List<SnapshotRow> rows, Collection<Long> removals, long watermark) {
+        ProductColumnFile current = file;
+        if (current == null) {
+            return;
+        }
+        ProductColumnFile target;
+        try {
+            // Writers hold the monitor, so the copy is consistent while readers carry on
+            target = withRoom(current, rows.size());
+        } catch (IOException ex) {
+            loaded = false;
+            throw new UncheckedIOException("Could not grow the catalog snapshot at " + path, ex);
+        }
+        lock.writeLock().lock();
+        try {
+            file = target;
+            if (rows.size() + removals.size() > BULK_CHANGES) {
+                target.applyInBulk(rows.stream().map(ProductSnapshotIndex::toRow).toList(), removals);
+            } else {
+                rows.forEach(row -> target.upsert(toRow(row)));
+                removals.forEach(target::remove);
+            }
+            if (watermark > target.watermark()) {
+                target.setWatermark(watermark);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (target != current) {
+            // Readers that started before the swap have finished: the write lock waited for them
+            closeQuietly(current);
+        }
+    }
+    
+    /**
+     * The file itself if {@code rows} more fit, otherwise a copy of it at twice the capacity, moved into
+     * its place. The caller closes the old file once nothing reads it.
+     */
+    private ProductColumnFile withRoom(ProductColumnFile current, int rows) throws IOException {
+        if (current.size() + rows <= current.capacity()) {
+            return current;
+        }
+        Path target = current.path();
+        int capacity = (int) Math.min(ProductColumnFile.MAX_CAPACITY, Math.max(2L * current.capacity(), (long) current.size() + rows));
+        ProductColumnFile grown = current.copyTo(sibling(".growing"), capacity);
+        grown.moveTo(target);
+        return grown;
+    }
+    
+    private int capacityFor(long products) {
+        return (int) Math.min(ProductColumnFile.MAX_CAPACITY, Math.max(initialCapacity, products + products / 4 + 1));
+    }
+    
+    /**
+     * Settles where the file lives, once: the configured path if its lock can be taken, otherwise a
+     * temporary file.
+     */
+    private void resolvePath() {
+        if (path != null) {
+            return;
+        }
+        try {
+            if (!configuredPath.isBlank()) {
+                Path configured = Path.of(configuredPath).toAbsolutePath();
+                Files.createDirectories(configured.getParent());
+                FileChannel channel = FileChannel.open(configured.resolveSibling(configured.getFileName() + ".lock"),
+                        StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                FileLock fileLock;
+                try {
+                    fileLock = channel.tryLock();
+                } catch (OverlappingFileLockException ex) {
+                    fileLock = null;
+                }
+                if (fileLock != null) {
+                    lockChannel = channel;
+                    path = configured;
+                    return;
+                }
+                channel.close();
+                log.warn("Catalog snapshot {} is in use by another instance, using a temporary file", configured);
+            }
+            path = Files.createTempFile("catalog-", ".snapshot");
+            temporary = true;
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not set up the catalog snapshot file", ex);
+        }
+    }
+    
+    private Path sibling(String suffix) {
+        return path.resolveSibling(path.getFileName() + suffix);
+    }
+    
+    private void applyPendingQuietly() {
+        try {
+            applyPending();
+        } catch (RuntimeException ex) {
+            log.warn("Catalog snapshot refresh failed, scheduling a rebuild: {}", ex.getMessage());
+            loaded = false;
+        }
+    }
+    
+    private void pollQuietly() {
+        try {
+            if (loaded) {
+                poll();
+            } else {
+                ensureLoaded();
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Catalog snapshot poll failed, keeping the current snapshot: {}", ex.getMessage());
+        }
+    }
+    
+    private static ProductColumnFile.Row toRow(SnapshotRow row) {
+        return new ProductColumnFile.Row(
+                row.getId(),
+                row.getPrice() == null ? 0 : hundredths(row.getPrice(), RoundingMode.HALF_UP),
+                row.getCategoryId() == null ? 0 : row.getCategoryId(),
+                row.getCreatedAt() == null ? 0 : micros(row.getCreatedAt()),
+                row.getStockQuantity() == null ? 0 : row.getStockQuantity(),
+                row.getAverageRating() == null ? 0 : (int) hundredths(row.getAverageRating(), RoundingMode.HALF_UP));
+    }
+    
+    private static long hundredths(BigDecimal value, RoundingMode rounding) {
+        return value.movePointRight(2).setScale(0, rounding).longValue();
+    }
+    
+    private static long micros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + time.getNano() / 1_000;
+    }
+    
+    private static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000), (int) Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC);
+    }
+    
+    private static void closeQuietly(ProductColumnFile file) {
+        try {
+            file.close();
+        } catch (IOException ex) {
+            log.warn("Could not close catalog snapshot {}: {}", file.path(), ex.getMessage());
+        }
+    }
+    
+    // Insertion ordered, so the properties are listed in the same order in every error message
+    private static Map<String, SortKey> sortable() {
+        Map<String, SortKey> keys = new LinkedHashMap<>();
+        keys.put("id", SortKey.ID);
+        keys.put("price", SortKey.PRICE);
+        keys.put("averageRating", SortKey.RATING);
+        keys.put("stockQuantity", SortKey.STOCK);
+        keys.put("createdAt", SortKey.CREATED_AT);
+        return Collections.unmodifiableMap(keys);
+    }
+    
+    public record Result(long total, List<Long> productIds) {
+    }
+}
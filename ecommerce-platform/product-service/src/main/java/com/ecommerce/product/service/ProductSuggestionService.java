@@ -0,0 +1,244 @@
+package com.ecommerce.product.service;
+
+import com.ecommerce.product.dto.SuggestionDto;
+import com.ecommerce.product.event.ProductChangedEvent;
+import com.ecommerce.product.model.Category;
+import com.ecommerce.product.repository.CategoryRepository;
+import com.ecommerce.product.repository.ProductRepository;
+import com.ecommerce.product.repository.ProductRepository.SuggestionSource;
+import com.ecommerce.product.util.PrefixIndex;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Typeahead over product names, SKUs and category names.
+ * <p>
+ * Suggestions come from an immutable {@link PrefixIndex} held in memory, so a lookup never touches
+ * the database. Text is normalized (accents stripped, lower-cased, punctuation folded to spaces) and
+ * names are indexed under every word, so "lamp" finds "Desk Lamp". Products weigh more the better
+ * and more reviewed they are, and less when out of stock; a category weighs just above its best product.
+ * <p>
+ * Committed creates, updates and deletes schedule a rebuild after {@code catalog.suggest.rebuild-delay},
+ * so a burst of changes costs one rebuild, and never sooner than {@code catalog.suggest.min-rebuild-interval}
+ * after the previous one, so a steady trickle of edits cannot keep the catalog scan running. Stock and
+ * rating changes only nudge weights and, like category edits, wait for the periodic
+ * {@code catalog.suggest.refresh-interval} rebuild. The new index is built off to the side and
+ * swapped in with one volatile write, and lookups keep using the old one meanwhile.
+ */
+@Service
+@Slf4j
+public class ProductSuggestionService {
+    
+    private static final int SCAN_BATCH = 1000;
+    private static final int MAX_LIMIT = 20;
+    
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final Duration rebuildDelay;
+    private final Duration minRebuildInterval;
+    private final Duration refreshInterval;
+    private final ScheduledExecutorService scheduler;
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+    
+    private volatile PrefixIndex<SuggestionDto.Suggestion> index;
+    private volatile long lastBuiltNanos;
+    
+    public ProductSuggestionService(ProductRepository productRepository,
+                                    CategoryRepository categoryRepository,
+                                    @Value("${catalog.suggest.rebuild-delay:2s}") Duration rebuildDelay,
+                                    @Value("${catalog.suggest.min-rebuild-interval:1m}") Duration minRebuildInterval,
+                                    @Value("${catalog.suggest.refresh-interval:10m}") Duration refreshInterval) {
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+        this.rebuildDelay = rebuildDelay;
+        this.minRebuildInterval = minRebuildInterval;
+        this.refreshInterval = refreshInterval;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "suggestion-index");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    /**
+     * Up to {@code limit} suggestions for what the shopper has typed so far, best first.
+     */
+    public List<SuggestionDto.Suggestion> suggest(String query, int limit) {
+        String prefix = normalize(query);
+        if (prefix.isEmpty()) {
+            return List.of();
+        }
+        PrefixIndex<SuggestionDto.Suggestion> current = index;
+        if (current == null) {
+            current = rebuild();
+        }
+        return current.top(prefix, Math.min(limit, MAX_LIMIT));
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        long interval = refreshInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::rebuildQuietly, 0, interval, TimeUnit.MILLISECONDS);
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        ProductChangedEvent.ChangeType type = event.type();
+        if ((type == ProductChangedEvent.ChangeType.STOCK_CHANGED || type == ProductChangedEvent.ChangeType.RATING_CHANGED)
+                && index != null) {
+            // Stock and ratings only nudge the weight; let the periodic rebuild catch up rather than rebuild per order or review
+            return;
+        }
+        if (rebuildScheduled.compareAndSet(false, true)) {
+            long sinceLast = index == null ? Long.MAX_VALUE : System.nanoTime() - lastBuiltNanos;
+            long delay = Math.max(rebuildDelay.toNanos(), minRebuildInterval.toNanos() - sinceLast);
+            scheduler.schedule(() -> {
+                rebuildScheduled.set(false);
+                rebuildQuietly();
+            }, delay, TimeUnit.NANOSECONDS);
+        }
+    }
+    
+    /**
+     * Builds a fresh index from the database and swaps it in.
+     */
+    public synchronized PrefixIndex<SuggestionDto.Suggestion> rebuild() {
+        long started = System.nanoTime();
+        Map<Long, String> categoryNames = new HashMap<>();
+        for (Category category : categoryRepository.findAll()) {
+            categoryNames.put(category.getId(), category.getName());
+        }
+        
+        PrefixIndex.Builder<SuggestionDto.Suggestion> builder = PrefixIndex.builder();
+        Map<Long, Long> bestInCategory = new HashMap<>();
+        long afterId = 0;
+        List<SuggestionSource> batch;
+        do {
+            batch = productRepository.findSuggestionSourcesAfter(afterId, PageRequest.of(0, SCAN_BATCH));
+            for (SuggestionSource product : batch) {
+                long weight = weight(product);
+                builder.add(SuggestionDto.Suggestion.builder()
+                                .type(SuggestionDto.SuggestionType.PRODUCT)
+                                .id(product.getId())
+                                .text(product.getName())
+                                .sku(product.getSku())
+                                .categoryName(categoryNames.get(product.getCategoryId()))
+                                .build(),
+                        weight,
+                        keys(product.getName(), product.getSku()));
+                if (product.getCategoryId() != null) {
+                    bestInCategory.merge(product.getCategoryId(), weight, Math::max);
+                }
+            }
+            if (!batch.isEmpty()) {
+                afterId = batch.get(batch.size() - 1).getId();
+            }
+        } while (batch.size() == SCAN_BATCH);
+        
+        categoryNames.forEach((categoryId, name) -> builder.add(SuggestionDto.Suggestion.builder()
+                        .type(SuggestionDto.SuggestionType.CATEGORY)
+                        .id(categoryId)
+                        .text(name)
+                        .build(),
+                bestInCategory.getOrDefault(categoryId, 0L) + 1,
+                keys(name, null)));
+        
+        PrefixIndex<SuggestionDto.Suggestion> built = builder.build();
+        index = built;
+        lastBuiltNanos = System.nanoTime();
+        log.info("Suggestion index built with {} keys in {} ms", built.size(), (System.nanoTime() - started) / 1_000_000);
+        return built;
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+    
+    private void rebuildQuietly() {
+        try {
+            rebuild();
+        } catch (RuntimeException ex) {
+            log.warn("Suggestion index rebuild failed, keeping the previous one: {}", ex.getMessage());
+        }
+    }
+    
+    /**
+     * Rating lifted by how many reviews back it (log-damped), halved when out of stock.
+     */
+    private static long weight(SuggestionSource product) {
+        double rating = product.getAverageRating() == null ? 0 : product.getAverageRating().doubleValue();
+        int reviews = product.getTotalReviews() == null ? 0 : product.getTotalReviews();
+        double weight = (1 + rating) * Math.log(2 + reviews) * 1000;
+        if (product.getStockQuantity() == null || product.getStockQuantity() <= 0) {
+            weight /= 2;
+        }
+        return Math.round(weight);
+    }
+    
+    /**
+     * The normalized text from each word onwards, so any word of the name can start a match, plus the SKU.
+     */
+    private static List<String> keys(String name, String sku) {
+        List<String> keys = new ArrayList<>();
+        String normalized = normalize(name);
+        int start = 0;
+        while (start < normalized.length()) {
+            keys.add(normalized.substring(start));
+            int space = normalized.indexOf(' ', start);
+            if (space < 0) {
+                break;
+            }
+            start = space + 1;
+        }
+        if (sku != null) {
+            keys.add(normalize(sku));
+        }
+        return keys;
+    }
+    
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFKD);
+        StringBuilder out = new StringBuilder(decomposed.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < decomposed.length(); ) {
+            int codePoint = decomposed.codePointAt(i);
+            i += Character.charCount(codePoint);
+            if (Character.getType(codePoint) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(codePoint)) {
+                if (pendingSpace && out.length() > 0) {
+                    out.append(' ');
+                }
+                pendingSpace = false;
+                out.appendCodePoint(codePoint);
+            } else {
+                pendingSpace = true;
+            }
+        }
+        return out.toString().toLowerCase(Locale.ROOT);
+    }
+}
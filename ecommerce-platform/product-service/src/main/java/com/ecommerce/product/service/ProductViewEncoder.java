@@ -0,0 +1,91 @@
+package com.ecommerce.product.service;
+
+import com.ecommerce.product.dto.ProductDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.util.RawValue;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.data.domain.Page;
+import org.springframework.stereotype.Component;
+
+import java.io.UncheckedIOException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Encodes products for a {@link ProductFieldSet} and reports what each view costs.
+ * <p>
+ * Listings are recorded as {@code catalog.products.list.time} (query plus encoding) and
+ * {@code catalog.products.list.payload} (bytes of product JSON per page), both tagged with the view,
+ * so the card and sparse views can be compared with the full one on the same dashboard.
+ */
+@Component
+public class ProductViewEncoder {
+    
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    
+    public ProductViewEncoder(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+    }
+    
+    public RawValue encode(ProductDto.ProductCard card, ProductFieldSet fieldSet) {
+        ObjectNode node = objectMapper.valueToTree(card);
+        return encode(node, fieldSet);
+    }
+    
+    public RawValue encode(ProductDto.ProductResponse response, ProductFieldSet fieldSet) {
+        ObjectNode node = objectMapper.valueToTree(response);
+        if (fieldSet.getFields().contains("primaryImageUrl")) {
+            node.put("primaryImageUrl", response.getImages() == null ? null : response.getImages().stream()
+                    .filter(image -> Boolean.TRUE.equals(image.getIsPrimary()))
+                    .map(ProductDto.ProductImageDto::getImageUrl)
+                    .findFirst()
+                    .orElse(null));
+        }
+        return encode(node, fieldSet);
+    }
+    
+    /**
+     * Runs a listing and records its time and payload under the field set's view.
+     */
+    public Page<RawValue> measure(ProductFieldSet fieldSet, Supplier<Page<RawValue>> listing) {
+        long started = System.nanoTime();
+        Page<RawValue> page = listing.get();
+        Timer.builder("catalog.products.list.time")
+                .description("Time to query and encode a product listing page")
+                .tag("view", fieldSet.getView())
+                .register(meterRegistry)
+                .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        long bytes = 0;
+        for (RawValue json : page.getContent()) {
+            if (json.rawValue() instanceof SerializableString string) {
+                bytes += string.asUnquotedUTF8().length;
+            }
+        }
+        DistributionSummary.builder("catalog.products.list.payload")
+                .description("Bytes of product JSON in a listing page")
+                .baseUnit("bytes")
+                .tag("view", fieldSet.getView())
+                .register(meterRegistry)
+                .record(bytes);
+        return page;
+    }
+    
+    private RawValue encode(ObjectNode node, ProductFieldSet fieldSet) {
+        node.retain(fieldSet.getFields());
+        try {
+            SerializedString json = new SerializedString(objectMapper.writeValueAsString(node));
+            json.asUnquotedUTF8();
+            return new RawValue(json);
+        } catch (JsonProcessingException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
@@ -3,12 +3,14 @@ package com.ecommerce.product.service;
 import com.ecommerce.common.exceptions.BadRequestException;
 import com.ecommerce.common.exceptions.ResourceNotFoundException;
 import com.ecommerce.product.dto.ReviewDto;
+import com.ecommerce.product.event.ReviewChangedEvent;
 import com.ecommerce.product.model.Product;
 import com.ecommerce.product.model.Review;
 import com.ecommerce.product.repository.ProductRepository;
 import com.ecommerce.product.repository.ReviewRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -21,6 +23,8 @@ public class ReviewService {
     
     private final ReviewRepository reviewRepository;
     private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final VerifiedPurchaseIndex verifiedPurchaseIndex;
     
     @Transactional
     public ReviewDto.ReviewResponse createReview(Long userId, ReviewDto.CreateReviewRequest request) {
@@ -41,19 +45,19 @@ public class ReviewService {
                 .rating(request.getRating())
                 .title(request.getTitle())
                 .comment(request.getComment())
-                .verifiedPurchase(false) // TODO: Set based on order history
+                .verifiedPurchase(verifiedPurchaseIndex.isVerifiedPurchase(userId, product.getId()))
                 .build();
         
         review = reviewRepository.save(review);
         
-        // Update product rating
-        product.updateRating();
-        productRepository.save(product);
+        // The product's rating is recomputed after commit, coalesced with other reviews of it
+        eventPublisher.publishEvent(new ReviewChangedEvent(product.getId()));
         
         log.info("Review created successfully with ID: {}", review.getId());
         return mapToReviewResponse(review);
     }
     
+    @Transactional(readOnly = true)
     public Page<ReviewDto.ReviewResponse> getProductReviews(Long productId, Pageable pageable) {
         if (!productRepository.existsById(productId)) {
             throw new ResourceNotFoundException("Product", "id", productId);
@@ -84,11 +88,9 @@ public class ReviewService {
         }
         
         review = reviewRepository.save(review);
-        
-        // Update product rating
-        Product product = review.getProduct();
-        product.updateRating();
-        productRepository.save(product);
+        if (request.getRating() != null) {
+            eventPublisher.publishEvent(new ReviewChangedEvent(review.getProduct().getId()));
+        }
         
         log.info("Review updated successfully: {}", reviewId);
         return mapToReviewResponse(review);
@@ -105,12 +107,9 @@ public class ReviewService {
             throw new BadRequestException("You can only delete your own reviews");
         }
         
-        Product product = review.getProduct();
+        Long productId = review.getProduct().getId();
         reviewRepository.deleteById(reviewId);
-        
-        // Update product rating after deletion
-        product.updateRating();
-        productRepository.save(product);
+        eventPublisher.publishEvent(new ReviewChangedEvent(productId));
         
         log.info("Review deleted successfully: {}", reviewId);
     }
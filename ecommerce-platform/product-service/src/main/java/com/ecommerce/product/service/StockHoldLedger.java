@@ -0,0 +1,131 @@
+package com.ecommerce.product.service;
+
+import com.ecommerce.product.dto.InventoryDto;
+import com.ecommerce.product.model.StockHoldKey;
+import com.ecommerce.product.repository.StockHoldKeyRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Tracks caller-keyed stock holds so reserving and releasing them is safe to retry after a lost
+ * response or a crash. A hold's reservation and release carry the same key: the reservation is
+ * applied once, and the release returns stock once and only if the reservation was applied. A
+ * release that arrives first leaves the key released, so the late reservation is skipped rather than
+ * taking stock nobody will return.
+ * <p>
+ * Keys are recorded in the same transaction as the stock change: a concurrent duplicate blocks on the
+ * primary key or row lock and then fails or sees the new state, and the caller's retry finds the key.
+ * Keys older than the retention period, long after any caller stops retrying, are pruned at most once
+ * per prune interval.
+ */
+@Service
+@Slf4j
+public class StockHoldLedger {
+    
+    private static final Duration PRUNE_INTERVAL = Duration.ofHours(1);
+    
+    private final StockHoldKeyRepository stockHoldKeyRepository;
+    private final Duration retention;
+    private final AtomicLong lastPrunedAt = new AtomicLong();
+    
+    public StockHoldLedger(StockHoldKeyRepository stockHoldKeyRepository,
+                           @Value("${inventory.hold-key-retention:P7D}") Duration retention) {
+        this.stockHoldKeyRepository = stockHoldKeyRepository;
+        this.retention = retention;
+    }
+    
+    /**
+     * Records the lines' hold keys as reserved and returns the lines still to apply: unkeyed lines, and
+     * keyed ones whose key was neither reserved nor released before.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<InventoryDto.StockLine> claimReservations(List<InventoryDto.StockLine> lines, LocalDateTime now) {
+        Set<String> keys = keys(lines);
+        if (keys.isEmpty()) {
+            return lines;
+        }
+        pruneIfDue(now);
+        Set<String> known = new HashSet<>(stockHoldKeyRepository.findKnownKeys(keys));
+        keys.removeAll(known);
+        stockHoldKeyRepository.saveAllAndFlush(keys.stream()
+                .map(key -> new StockHoldKey(key, StockHoldKey.State.RESERVED, now))
+                .toList());
+        if (!known.isEmpty()) {
+            log.info("Skipped {} stock reservations already reserved or released", known.size());
+        }
+        return applicable(lines, keys::contains);
+    }
+    
+    /**
+     * Marks the lines' hold keys released and returns the lines still to apply: unkeyed lines, and
+     * keyed ones whose reservation was applied and not yet released. Unknown keys are recorded as
+     * released so their reservation, if it arrives later, is not applied.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<InventoryDto.StockLine> claimReleases(List<InventoryDto.StockLine> lines, LocalDateTime now) {
+        Set<String> keys = keys(lines);
+        if (keys.isEmpty()) {
+            return lines;
+        }
+        pruneIfDue(now);
+        Set<String> releasing = new HashSet<>();
+        for (StockHoldKey known : stockHoldKeyRepository.findByHoldKeyInForUpdate(keys)) {
+            keys.remove(known.getHoldKey());
+            if (known.getState() == StockHoldKey.State.RESERVED) {
+                known.setState(StockHoldKey.State.RELEASED);
+                known.setUpdatedAt(now);
+                releasing.add(known.getHoldKey());
+            }
+        }
+        stockHoldKeyRepository.saveAllAndFlush(keys.stream()
+                .map(key -> new StockHoldKey(key, StockHoldKey.State.RELEASED, now))
+                .toList());
+        if (!keys.isEmpty()) {
+            log.info("Recorded {} stock releases that arrived before their reservation", keys.size());
+        }
+        return applicable(lines, releasing::contains);
+    }
+    
+    private static Set<String> keys(List<InventoryDto.StockLine> lines) {
+        return lines.stream()
+                .map(InventoryDto.StockLine::getHoldKey)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+    
+    /**
+     * Unkeyed lines, and the first line of each claimed key; a key repeated within a request is applied once.
+     */
+    private static List<InventoryDto.StockLine> applicable(List<InventoryDto.StockLine> lines, Predicate<String> claimed) {
+        Set<String> seen = new HashSet<>();
+        return lines.stream()
+                .filter(line -> line.getHoldKey() == null
+                        || (claimed.test(line.getHoldKey()) && seen.add(line.getHoldKey())))
+                .toList();
+    }
+    
+    private void pruneIfDue(LocalDateTime now) {
+        long nowMillis = System.currentTimeMillis();
+        long last = lastPrunedAt.get();
+        if (nowMillis - last >= PRUNE_INTERVAL.toMillis() && lastPrunedAt.compareAndSet(last, nowMillis)) {
+            int pruned = stockHoldKeyRepository.deleteUpdatedBefore(now.minus(retention));
+            if (pruned > 0) {
+                log.info("Pruned {} stock hold keys older than {}", pruned, retention);
+            }
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package com.ecommerce.product.service;
+
+import com.ecommerce.product.util.CountMinSketch;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Time-decayed product view counts, kept in memory instead of written per view.
+ * <p>
+ * Views go into a {@link CountMinSketch}; the products with the highest estimates are tracked in a
+ * bounded min-heap of {@code catalog.trending.capacity} entries. Recording a view is four atomic adds
+ * on one cache line and a comparison against the heap's smallest count. Only views of products above
+ * that count touch the heap, and past a product's first few views only every eighth does; if another
+ * thread holds the heap the update is skipped rather than waited for. Every
+ * {@code catalog.trending.decay-interval} all counts are scaled so they halve over
+ * {@code catalog.trending.half-life}, and the heaps are re-scored from the sketch.
+ * <p>
+ * Category views are counted in a second, smaller sketch. Once a category's decayed views reach
+ * {@code catalog.trending.category-min-views} it gets a heap of its own, of
+ * {@code catalog.trending.category-capacity} products scored from the same product sketch, so its
+ * trending rail is not limited to the products that made the global heap. At most
+ * {@code catalog.trending.max-categories} categories are tracked, and one whose views decay below half
+ * the threshold is dropped again.
+ * <p>
+ * Memory is fixed by the sketch widths and heap capacities, independent of catalog size. Counts are per
+ * instance; behind a load balancer each instance sees a representative sample of traffic.
+ */
+@Component
+@Slf4j
+public class TrendingProductsTracker {
+    
+    /** Fixed-point scale so decayed counts keep fractions of a view. */
+    private static final long SCALE = 1024;
+    
+    private final CountMinSketch sketch;
+    private final CountMinSketch categorySketch;
+    private final Ranking ranking;
+    private final Map<Long, Ranking> categoryRankings = new ConcurrentHashMap<>();
+    private final int categoryCapacity;
+    private final long categoryThreshold;
+    private final int maxCategories;
+    private final double decayFactor;
+    private final ScheduledExecutorService scheduler;
+    
+    public TrendingProductsTracker(@Value("${catalog.trending.sketch-width:65536}") int sketchWidth,
+                                   @Value("${catalog.trending.capacity:1000}") int capacity,
+                                   @Value("${catalog.trending.category-capacity:100}") int categoryCapacity,
+                                   @Value("${catalog.trending.category-min-views:100}") long categoryMinViews,
+                                   @Value("${catalog.trending.max-categories:200}") int maxCategories,
+                                   @Value("${catalog.trending.half-life:30m}") Duration halfLife,
+                                   @Value("${catalog.trending.decay-interval:1m}") Duration decayInterval) {
+        this.sketch = new CountMinSketch(sketchWidth);
+        this.categorySketch = new CountMinSketch(Math.max(64, sketchWidth / 16));
+        this.ranking = new Ranking(capacity);
+        this.categoryCapacity = categoryCapacity;
+        this.categoryThreshold = categoryMinViews * SCALE;
+        this.maxCategories = maxCategories;
+        this.decayFactor = Math.pow(0.5, (double) decayInterval.toMillis() / halfLife.toMillis());
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "trending-decay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::decay, decayInterval.toMillis(), decayInterval.toMillis(), TimeUnit.MILLISECONDS);
+        log.info("Trending tracker: {} KB sketches, top {} products, top {} per busy category, half-life {}",
+                (sketch.memoryBytes() + categorySketch.memoryBytes()) / 1024, capacity, categoryCapacity, halfLife);
+    }
+    
+    /**
+     * Counts one view of a product in the given category, or in none if {@code categoryId} is null.
+     */
+    public void recordView(long productId, Long categoryId) {
+        long estimate = sketch.add(productId, SCALE);
+        ranking.offer(productId, estimate);
+        if (categoryId == null) {
+            return;
+        }
+        long categoryEstimate = categorySketch.add(categoryId, SCALE);
+        Ranking categoryRanking = categoryRankings.get(categoryId);
+        if (categoryRanking == null && categoryEstimate >= categoryThreshold && categoryRankings.size() < maxCategories) {
+            categoryRanking = categoryRankings.computeIfAbsent(categoryId, id -> new Ranking(categoryCapacity));
+        }
+        if (categoryRanking != null) {
+            categoryRanking.offer(productId, estimate);
+        }
+    }
+    
+    /**
+     * Tracked products, most viewed first, with their current decayed view estimates.
+     */
+    public List<Trending> top() {
+        return ranking.top(sketch);
+    }
+    
+    /**
+     * The category's tracked products, most viewed first; empty while the category is below
+     * {@code catalog.trending.category-min-views}. Products are ranked in the category they were viewed
+     * in, so callers should still check the category of the ones they show.
+     */
+    public List<Trending> topInCategory(long categoryId) {
+        Ranking categoryRanking = categoryRankings.get(categoryId);
+        return categoryRanking == null ? List.of() : categoryRanking.top(sketch);
+    }
+    
+    /**
+     * Applies one decay step now; normally run by the scheduler.
+     */
+    public void decay() {
+        sketch.decay(decayFactor);
+        categorySketch.decay(decayFactor);
+        ranking.rescore(sketch);
+        // Half the threshold to drop, so a category hovering around it does not lose its heap every step
+        categoryRankings.keySet().removeIf(categoryId -> categorySketch.estimate(categoryId) < categoryThreshold / 2);
+        categoryRankings.values().forEach(categoryRanking -> categoryRanking.rescore(sketch));
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+    
+    public record Trending(long productId, double views) {
+    }
+    
+    /**
+     * One bounded heap with its lock and the count a product must beat to enter it.
+     */
+    private static final class Ranking {
+        private final TopK topK;
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile long threshold;
+        
+        Ranking(int capacity) {
+            this.topK = new TopK(capacity);
+        }
+        
+        void offer(long productId, long estimate) {
+            long views = estimate / SCALE;
+            // Past the first few views, offer only every eighth so hot products do not hammer the heap
+            if (estimate > threshold && (views < 16 || (views & 7) == 0) && lock.tryLock()) {
+                try {
+                    topK.offer(productId, estimate);
+                    threshold = topK.isFull() ? topK.minCount() : 0;
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+        
+        List<Trending> top(CountMinSketch sketch) {
+            long[] ids;
+            lock.lock();
+            try {
+                ids = Arrays.copyOf(topK.ids, topK.size);
+            } finally {
+                lock.unlock();
+            }
+            List<Trending> trending = new ArrayList<>(ids.length);
+            for (long id : ids) {
+                trending.add(new Trending(id, (double) sketch.estimate(id) / SCALE));
+            }
+            trending.sort(Comparator.comparingDouble(Trending::views).reversed());
+            return trending;
+        }
+        
+        void rescore(CountMinSketch sketch) {
+            lock.lock();
+            try {
+                topK.rescore(sketch);
+                threshold = topK.isFull() ? topK.minCount() : 0;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+    
+    /**
+     * Indexed min-heap of (product, count): the root is the entry to evict, and a position map lets a
+     * tracked product's count be raised in place.
+     */
+    private static final class TopK {
+        private final long[] ids;
+        private final long[] counts;
+        private final Map<Long, Integer> positions;
+        private int size;
+        
+        TopK(int capacity) {
+            this.ids = new long[capacity];
+            this.counts = new long[capacity];
+            this.positions = new HashMap<>(capacity * 2);
+        }
+        
+        boolean isFull() {
+            return size == ids.length;
+        }
+        
+        long minCount() {
+            return size == 0 ? 0 : counts[0];
+        }
+        
+        void offer(long id, long count) {
+            Integer position = positions.get(id);
+            if (position != null) {
+                if (count > counts[position]) {
+                    counts[position] = count;
+                    siftDown(position);
+                }
+            } else if (size < ids.length) {
+                set(size, id, count);
+                siftUp(size++);
+            } else if (count > counts[0]) {
+                positions.remove(ids[0]);
+                set(0, id, count);
+                siftDown(0);
+            }
+        }
+        
+        void rescore(CountMinSketch sketch) {
+            int kept = 0;
+            positions.clear();
+            for (int i = 0; i < size; i++) {
+                long count = sketch.estimate(ids[i]);
+                if (count > 0) {
+                    ids[kept] = ids[i];
+                    counts[kept++] = count;
+                }
+            }
+            Arrays.fill(ids, kept, size, 0);
+            size = kept;
+            for (int i = 0; i < size; i++) {
+                positions.put(ids[i], i);
+            }
+            for (int i = size / 2 - 1; i >= 0; i--) {
+                siftDown(i);
+            }
+        }
+        
+        private void siftUp(int index) {
+            int i = index;
+            while (i > 0) {
+                int parent = (i - 1) / 2;
+                if (counts[parent] <= counts[i]) {
+                    break;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+        
+        private void siftDown(int index) {
+            int i = index;
+            while (true) {
+                int smallest = i;
+                int left = 2 * i + 1;
+                int right = left + 1;
+                if (left < size && counts[left] < counts[smallest]) {
+                    smallest = left;
+                }
+                if (right < size && counts[right] < counts[smallest]) {
+                    smallest = right;
+                }
+                if (smallest == i) {
+                    return;
+                }
+                swap(i, smallest);
+                i = smallest;
+            }
+        }
+        
+        private void swap(int a, int b) {
+            long id = ids[a];
+            long count = counts[a];
+            set(a, ids[b], counts[b]);
+            set(b, id, count);
+        }
+        
+        private void set(int index, long id, long count) {
+            ids[index] = id;
+            counts[index] = count;
+            positions.put(id, index);
+        }
+    }
+}
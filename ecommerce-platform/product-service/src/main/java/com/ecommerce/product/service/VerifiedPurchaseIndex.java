@@ -0,0 +1,186 @@
+package com.ecommerce.product.service;
+
+import com.ecommerce.product.client.OrderServiceClient;
+import com.ecommerce.product.dto.PurchaseDto;
+import com.ecommerce.product.util.BloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides whether a review comes from someone who received the product, mostly without asking
+ * order-service.
+ * <p>
+ * A {@link BloomFilter} holds every delivered (user, product) pair, read from order-service's
+ * delivered-order feed: in full at startup and on {@link #rebuild()}, then incrementally every
+ * {@code catalog.purchases.poll-interval}. A pair the filter has never seen cannot be a purchase, so
+ * the review is unverified with no remote call. A pair it may have seen is confirmed with one exact
+ * lookup, so a false positive costs a call but never a wrong badge. Until the first load completes
+ * every check takes the exact path. If order-service is down the review is simply left unverified.
+ * <p>
+ * The filter is sized for {@code catalog.purchases.expected-pairs} at
+ * {@code catalog.purchases.false-positive-rate}, about 1.2 MB per million pairs at 1%, and is rebuilt
+ * twice as large once it fills up. A purchase delivered since the last poll is missed until the next
+ * one. {@code catalog.purchases.lookups} counts outcomes: filtered, confirmed, rejected (a false
+ * positive) and unavailable.
+ */
+@Service
+@Slf4j
+public class VerifiedPurchaseIndex {
+    
+    private final OrderServiceClient orderServiceClient;
+    private final boolean enabled;
+    private final double falsePositiveRate;
+    private final int pageSize;
+    private final Duration pollInterval;
+    private final ScheduledExecutorService scheduler;
+    private final Counter filtered;
+    private final Counter confirmed;
+    private final Counter rejected;
+    private final Counter unavailable;
+    
+    private volatile BloomFilter filter;
+    private long expectedPairs;
+    private Cursor cursor = Cursor.START;
+    
+    public VerifiedPurchaseIndex(OrderServiceClient orderServiceClient,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${catalog.purchases.enabled:true}") boolean enabled,
+                                 @Value("${catalog.purchases.expected-pairs:1000000}") long expectedPairs,
+                                 @Value("${catalog.purchases.false-positive-rate:0.01}") double falsePositiveRate,
+                                 @Value("${catalog.purchases.page-size:1000}") int pageSize,
+                                 @Value("${catalog.purchases.poll-interval:30s}") Duration pollInterval) {
+        this.orderServiceClient = orderServiceClient;
+        this.enabled = enabled;
+        this.expectedPairs = expectedPairs;
+        this.falsePositiveRate = falsePositiveRate;
+        this.pageSize = pageSize;
+        this.pollInterval = pollInterval;
+        this.filtered = lookups(meterRegistry, "filtered");
+        this.confirmed = lookups(meterRegistry, "confirmed");
+        this.rejected = lookups(meterRegistry, "rejected");
+        this.unavailable = lookups(meterRegistry, "unavailable");
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "verified-purchases");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    public boolean isVerifiedPurchase(long userId, long productId) {
+        if (!enabled) {
+            return false;
+        }
+        BloomFilter current = filter;
+        if (current != null && !current.mightContain(pairKey(userId, productId))) {
+            filtered.increment();
+            return false;
+        }
+        try {
+            boolean purchased = orderServiceClient.hasDeliveredPurchase(userId, productId);
+            (purchased ? confirmed : rejected).increment();
+            return purchased;
+        } catch (RuntimeException ex) {
+            unavailable.increment();
+            log.warn("Could not verify purchase of product {} by user {}: {}", productId, userId, ex.getMessage());
+            return false;
+        }
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            scheduler.scheduleWithFixedDelay(this::pollQuietly, 0, pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+    
+    /**
+     * Reads the whole feed into a new filter and swaps it in; lookups keep using the old one meanwhile.
+     */
+    public synchronized void rebuild() {
+        long started = System.nanoTime();
+        BloomFilter built = new BloomFilter(expectedPairs, falsePositiveRate);
+        cursor = load(built, Cursor.START);
+        filter = built;
+        log.info("Verified-purchase filter built with {} pairs ({} KB) in {} ms",
+                built.addedCount(), built.memoryBytes() / 1024, (System.nanoTime() - started) / 1_000_000);
+    }
+    
+    /**
+     * Adds purchases delivered since the last poll, rebuilding instead if there is no filter yet and
+     * afterwards if this one has filled up.
+     */
+    public synchronized void poll() {
+        BloomFilter current = filter;
+        if (current == null) {
+            rebuild();
+            return;
+        }
+        cursor = load(current, cursor);
+        if (current.isSaturated()) {
+            expectedPairs *= 2;
+            rebuild();
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+    
+    /**
+     * Reads the feed from {@code from} to its end into {@code target}, returning where it stopped. The
+     * caller only keeps the new cursor once every page is in, so a failed read is retried in full.
+     */
+    private Cursor load(BloomFilter target, Cursor from) {
+        Cursor position = from;
+        PurchaseDto.DeliveredPage page;
+        do {
+            page = orderServiceClient.getDeliveredSince(position.since(), position.afterOrderId(), pageSize);
+            for (PurchaseDto.DeliveredOrder order : page.getOrders()) {
+                if (order.getUserId() != null && order.getProductIds() != null) {
+                    order.getProductIds().forEach(productId -> target.add(pairKey(order.getUserId(), productId)));
+                }
+            }
+            position = new Cursor(page.getNextSince(), page.getNextAfterOrderId());
+        } while (page.isHasMore());
+        return position;
+    }
+    
+    private void pollQuietly() {
+        try {
+            poll();
+        } catch (RuntimeException ex) {
+            log.warn("Verified-purchase feed poll failed, keeping the current filter: {}", ex.getMessage());
+        }
+    }
+    
+    /**
+     * One key per pair; the odd multiplier keeps distinct users apart before the product is mixed in.
+     */
+    private static long pairKey(long userId, long productId) {
+        return userId * 0x9E3779B97F4A7C15L ^ productId;
+    }
+    
+    private record Cursor(LocalDateTime since, long afterOrderId) {
+        static final Cursor START = new Cursor(LocalDateTime.of(1970, 1, 1, 0, 0), 0);
+    }
+    
+    private static Counter lookups(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("catalog.purchases.lookups")
+                .description("Verified-purchase checks by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
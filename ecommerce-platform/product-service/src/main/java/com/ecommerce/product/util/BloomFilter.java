@@ -0,0 +1,100 @@
+package com.ecommerce.product.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free Bloom filter over {@code long} keys.
+ * <p>
+ * Sized for an expected number of keys and a target false-positive rate: {@code m = -n ln p / (ln 2)^2}
+ * bits and {@code k = (m / n) ln 2} probes, about 9.6 bits per key at 1%. Probe positions come from
+ * one 64-bit hash split in two ({@code h1 + i * h2}, Kirsch and Mitzenmacher), so a lookup is one hash
+ * and k bit reads. Bits live in an {@link AtomicLongArray}, so adds and lookups can run concurrently;
+ * a lookup racing an add of the same key may miss it, never the reverse. Past its expected size the
+ * false-positive rate climbs; {@link #isSaturated()} tells the owner to rebuild a larger one.
+ */
+public final class BloomFilter {
+    
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int probes;
+    private final long expectedKeys;
+    private final AtomicLong added = new AtomicLong();
+    
+    public BloomFilter(long expectedKeys, double falsePositiveRate) {
+        if (expectedKeys < 1) {
+            throw new IllegalArgumentException("expectedKeys must be positive");
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("falsePositiveRate must be between 0 and 1");
+        }
+        long words = Math.max(1, (long) Math.ceil(-expectedKeys * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)) / 64));
+        if (words > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Filter too large: " + expectedKeys + " keys");
+        }
+        this.bits = new AtomicLongArray((int) words);
+        this.bitCount = words * 64;
+        this.probes = Math.max(1, (int) Math.round((double) bitCount / expectedKeys * Math.log(2)));
+        this.expectedKeys = expectedKeys;
+    }
+    
+    public void add(long key) {
+        long hash = mix(key);
+        long h1 = hash;
+        long h2 = (hash >>> 32) | 1;
+        for (int i = 0; i < probes; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current = bits.get(word);
+            if ((current & mask) == 0) {
+                bits.getAndUpdate(word, value -> value | mask);
+            }
+        }
+        added.incrementAndGet();
+    }
+    
+    /**
+     * False means the key was never added; true means it probably was.
+     */
+    public boolean mightContain(long key) {
+        long hash = mix(key);
+        long h1 = hash;
+        long h2 = (hash >>> 32) | 1;
+        for (int i = 0; i < probes; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Adds so far, duplicates included, so an upper bound on the distinct keys held.
+     */
+    public long addedCount() {
+        return added.get();
+    }
+    
+    public boolean isSaturated() {
+        return added.get() > expectedKeys;
+    }
+    
+    public long memoryBytes() {
+        return bitCount / 8;
+    }
+    
+    /**
+     * Murmur3's 64-bit finalizer.
+     */
+    private static long mix(long key) {
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,495 @@
+package com.ecommerce.product.util;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Compressed set of non-negative ints in the style of Roaring bitmaps.
+ * <p>
+ * Values are split by their high 16 bits into chunks of 65536. A chunk holding at most
+ * {@value #ARRAY_MAX} values is a sorted {@code char[]}; a denser one is a 65536-bit bitset. Sparse
+ * sets therefore cost about two bytes per value and dense ones one bit, and intersections run a
+ * merge or a word-wise AND per chunk instead of per value.
+ * <p>
+ * Not thread-safe; callers guard instances themselves.
+ */
+public final class CompressedBitmap {
+    
+    static final int ARRAY_MAX = 4096;
+    private static final int WORDS = 1024;
+    
+    private char[] keys = new char[4];
+    private Container[] containers = new Container[4];
+    private int size;
+    
+    public static CompressedBitmap of(int... values) {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        for (int value : values) {
+            bitmap.add(value);
+        }
+        return bitmap;
+    }
+    
+    public void add(int value) {
+        char high = (char) (value >>> 16);
+        int index = Arrays.binarySearch(keys, 0, size, high);
+        if (index >= 0) {
+            containers[index] = containers[index].add((char) value);
+        } else {
+            insert(-index - 1, high, new ArrayContainer().add((char) value));
+        }
+    }
+    
+    public void remove(int value) {
+        int index = Arrays.binarySearch(keys, 0, size, (char) (value >>> 16));
+        if (index < 0) {
+            return;
+        }
+        Container container = containers[index].remove((char) value);
+        if (container.cardinality() == 0) {
+            System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+            System.arraycopy(containers, index + 1, containers, index, size - index - 1);
+            containers[--size] = null;
+        } else {
+            containers[index] = container;
+        }
+    }
+    
+    public boolean contains(int value) {
+        int index = Arrays.binarySearch(keys, 0, size, (char) (value >>> 16));
+        return index >= 0 && containers[index].contains((char) value);
+    }
+    
+    public long cardinality() {
+        long total = 0;
+        for (int i = 0; i < size; i++) {
+            total += containers[i].cardinality();
+        }
+        return total;
+    }
+    
+    public boolean isEmpty() {
+        return size == 0;
+    }
+    
+    public static CompressedBitmap and(CompressedBitmap a, CompressedBitmap b) {
+        CompressedBitmap result = new CompressedBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < a.size && j < b.size) {
+            if (a.keys[i] < b.keys[j]) {
+                i++;
+            } else if (a.keys[i] > b.keys[j]) {
+                j++;
+            } else {
+                Container container = a.containers[i].and(b.containers[j]);
+                if (container.cardinality() > 0) {
+                    result.insert(result.size, a.keys[i], container);
+                }
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Size of the intersection, without building it.
+     */
+    public static long andCardinality(CompressedBitmap a, CompressedBitmap b) {
+        long total = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.size && j < b.size) {
+            if (a.keys[i] < b.keys[j]) {
+                i++;
+            } else if (a.keys[i] > b.keys[j]) {
+                j++;
+            } else {
+                total += a.containers[i++].andCardinality(b.containers[j++]);
+            }
+        }
+        return total;
+    }
+    
+    public static CompressedBitmap or(CompressedBitmap a, CompressedBitmap b) {
+        CompressedBitmap result = new CompressedBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < a.size || j < b.size) {
+            if (j == b.size || (i < a.size && a.keys[i] < b.keys[j])) {
+                result.insert(result.size, a.keys[i], a.containers[i++].copy());
+            } else if (i == a.size || a.keys[i] > b.keys[j]) {
+                result.insert(result.size, b.keys[j], b.containers[j++].copy());
+            } else {
+                result.insert(result.size, a.keys[i], a.containers[i++].or(b.containers[j++]));
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Values in ascending order, skipping the first {@code offset} and returning at most {@code limit}.
+     * Whole chunks before the offset are skipped by their cardinality.
+     */
+    public int[] page(long offset, int limit) {
+        int[] out = new int[(int) Math.max(0, Math.min(limit, cardinality() - offset))];
+        int filled = 0;
+        long skip = offset;
+        for (int i = 0; i < size && filled < out.length; i++) {
+            Container container = containers[i];
+            if (skip >= container.cardinality()) {
+                skip -= container.cardinality();
+                continue;
+            }
+            filled = container.copyTo(keys[i] << 16, (int) skip, out, filled);
+            skip = 0;
+        }
+        return out;
+    }
+    
+    public void forEach(IntConsumer consumer) {
+        for (int i = 0; i < size; i++) {
+            containers[i].forEach(keys[i] << 16, consumer);
+        }
+    }
+    
+    public CompressedBitmap copy() {
+        CompressedBitmap copy = new CompressedBitmap();
+        copy.keys = Arrays.copyOf(keys, keys.length);
+        copy.containers = new Container[containers.length];
+        for (int i = 0; i < size; i++) {
+            copy.containers[i] = containers[i].copy();
+        }
+        copy.size = size;
+        return copy;
+    }
+    
+    private void insert(int index, char key, Container container) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            containers = Arrays.copyOf(containers, size * 2);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(containers, index, containers, index + 1, size - index);
+        keys[index] = key;
+        containers[index] = container;
+        size++;
+    }
+    
+    /**
+     * One 65536-value chunk. Mutators may return a different container when the representation flips.
+     */
+    private abstract static sealed class Container permits ArrayContainer, BitmapContainer {
+        abstract Container add(char value);
+        
+        abstract Container remove(char value);
+        
+        abstract boolean contains(char value);
+        
+        abstract int cardinality();
+        
+        abstract Container and(Container other);
+        
+        abstract int andCardinality(Container other);
+        
+        abstract Container or(Container other);
+        
+        abstract Container copy();
+        
+        abstract void forEach(int base, IntConsumer consumer);
+        
+        /**
+         * Copies values from the {@code skip}-th on into {@code out} starting at {@code from}; returns the new fill.
+         */
+        abstract int copyTo(int base, int skip, int[] out, int from);
+    }
+    
+    private static final class ArrayContainer extends Container {
+        private char[] values;
+        private int cardinality;
+        
+        ArrayContainer() {
+            this(new char[4], 0);
+        }
+        
+        ArrayContainer(char[] values, int cardinality) {
+            this.values = values;
+            this.cardinality = cardinality;
+        }
+        
+        @Override
+        Container add(char value) {
+            int index = Arrays.binarySearch(values, 0, cardinality, value);
+            if (index >= 0) {
+                return this;
+            }
+            if (cardinality == ARRAY_MAX) {
+                return toBitmap().add(value);
+            }
+            index = -index - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_MAX, cardinality * 2));
+            }
+            System.arraycopy(values, index, values, index + 1, cardinality - index);
+            values[index] = value;
+            cardinality++;
+            return this;
+        }
+        
+        @Override
+        Container remove(char value) {
+            int index = Arrays.binarySearch(values, 0, cardinality, value);
+            if (index >= 0) {
+                System.arraycopy(values, index + 1, values, index, cardinality - index - 1);
+                cardinality--;
+            }
+            return this;
+        }
+        
+        @Override
+        boolean contains(char value) {
+            return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+        }
+        
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+        
+        @Override
+        Container and(Container other) {
+            char[] out = new char[Math.min(cardinality, other.cardinality())];
+            int n = 0;
+            if (other instanceof ArrayContainer array) {
+                int i = 0;
+                int j = 0;
+                while (i < cardinality && j < array.cardinality) {
+                    if (values[i] < array.values[j]) {
+                        i++;
+                    } else if (values[i] > array.values[j]) {
+                        j++;
+                    } else {
+                        out[n++] = values[i];
+                        i++;
+                        j++;
+                    }
+                }
+            } else {
+                for (int i = 0; i < cardinality; i++) {
+                    if (other.contains(values[i])) {
+                        out[n++] = values[i];
+                    }
+                }
+            }
+            return new ArrayContainer(out, n);
+        }
+        
+        @Override
+        int andCardinality(Container other) {
+            int n = 0;
+            if (other instanceof ArrayContainer array) {
+                int i = 0;
+                int j = 0;
+                while (i < cardinality && j < array.cardinality) {
+                    if (values[i] < array.values[j]) {
+                        i++;
+                    } else if (values[i] > array.values[j]) {
+                        j++;
+                    } else {
+                        n++;
+                        i++;
+                        j++;
+                    }
+                }
+            } else {
+                for (int i = 0; i < cardinality; i++) {
+                    if (other.contains(values[i])) {
+                        n++;
+                    }
+                }
+            }
+            return n;
+        }
+        
+        @Override
+        Container or(Container other) {
+            Container result = other.copy();
+            for (int i = 0; i < cardinality; i++) {
+                result = result.add(values[i]);
+            }
+            return result;
+        }
+        
+        @Override
+        Container copy() {
+            return new ArrayContainer(Arrays.copyOf(values, Math.max(4, cardinality)), cardinality);
+        }
+        
+        @Override
+        void forEach(int base, IntConsumer consumer) {
+            for (int i = 0; i < cardinality; i++) {
+                consumer.accept(base | values[i]);
+            }
+        }
+        
+        @Override
+        int copyTo(int base, int skip, int[] out, int from) {
+            int n = from;
+            for (int i = skip; i < cardinality && n < out.length; i++) {
+                out[n++] = base | values[i];
+            }
+            return n;
+        }
+        
+        private BitmapContainer toBitmap() {
+            BitmapContainer bitmap = new BitmapContainer();
+            for (int i = 0; i < cardinality; i++) {
+                bitmap.add(values[i]);
+            }
+            return bitmap;
+        }
+    }
+    
+    private static final class BitmapContainer extends Container {
+        private final long[] words;
+        private int cardinality;
+        
+        BitmapContainer() {
+            this(new long[WORDS], 0);
+        }
+        
+        BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+        
+        @Override
+        Container add(char value) {
+            long before = words[value >>> 6];
+            long after = before | (1L << value);
+            if (before != after) {
+                words[value >>> 6] = after;
+                cardinality++;
+            }
+            return this;
+        }
+        
+        @Override
+        Container remove(char value) {
+            long before = words[value >>> 6];
+            long after = before & ~(1L << value);
+            if (before != after) {
+                words[value >>> 6] = after;
+                cardinality--;
+            }
+            return cardinality <= ARRAY_MAX ? toArray() : this;
+        }
+        
+        @Override
+        boolean contains(char value) {
+            return (words[value >>> 6] & (1L << value)) != 0;
+        }
+        
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+        
+        @Override
+        Container and(Container other) {
+            if (other instanceof ArrayContainer) {
+                return other.and(this);
+            }
+            long[] otherWords = ((BitmapContainer) other).words;
+            long[] out = new long[WORDS];
+            int n = 0;
+            for (int i = 0; i < WORDS; i++) {
+                out[i] = words[i] & otherWords[i];
+                n += Long.bitCount(out[i]);
+            }
+            BitmapContainer result = new BitmapContainer(out, n);
+            return n <= ARRAY_MAX ? result.toArray() : result;
+        }
+        
+        @Override
+        int andCardinality(Container other) {
+            if (other instanceof ArrayContainer) {
+                return other.andCardinality(this);
+            }
+            long[] otherWords = ((BitmapContainer) other).words;
+            int n = 0;
+            for (int i = 0; i < WORDS; i++) {
+                n += Long.bitCount(words[i] & otherWords[i]);
+            }
+            return n;
+        }
+        
+        @Override
+        Container or(Container other) {
+            if (other instanceof ArrayContainer) {
+                return other.or(this);
+            }
+            long[] otherWords = ((BitmapContainer) other).words;
+            long[] out = new long[WORDS];
+            int n = 0;
+            for (int i = 0; i < WORDS; i++) {
+                out[i] = words[i] | otherWords[i];
+                n += Long.bitCount(out[i]);
+            }
+            return new BitmapContainer(out, n);
+        }
+        
+        @Override
+        Container copy() {
+            return new BitmapContainer(words.clone(), cardinality);
+        }
+        
+        @Override
+        void forEach(int base, IntConsumer consumer) {
+            for (int i = 0; i < WORDS; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    consumer.accept(base | (i << 6) | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+        }
+        
+        @Override
+        int copyTo(int base, int skip, int[] out, int from) {
+            int n = from;
+            int toSkip = skip;
+            for (int i = 0; i < WORDS && n < out.length; i++) {
+                long word = words[i];
+                int bits = Long.bitCount(word);
+                if (toSkip >= bits) {
+                    toSkip -= bits;
+                    continue;
+                }
+                while (word != 0 && n < out.length) {
+                    if (toSkip > 0) {
+                        toSkip--;
+                    } else {
+                        out[n++] = base | (i << 6) | Long.numberOfTrailingZeros(word);
+                    }
+                    word &= word - 1;
+                }
+            }
+            return n;
+        }
+        
+        private ArrayContainer toArray() {
+            char[] values = new char[cardinality];
+            int n = 0;
+            for (int i = 0; i < WORDS; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    values[n++] = (char) ((i << 6) | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            return new ArrayContainer(values, n);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.ecommerce.product.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free count-min sketch over {@code long} keys.
+ * <p>
+ * Each key has one counter in each of {@value #DEPTH} rows, and its estimate is the smallest of them:
+ * never below the true count, and above it by at most about {@code 2N / width} in most rows, where N
+ * is the total added. Memory is {@code 4 * width} longs whatever the number of distinct keys.
+ * <p>
+ * The counters for one key sit in a single 64-byte block, as in Caffeine's frequency sketch: the hash
+ * picks the block and each row owns two of its eight slots. An add then costs one cache miss instead
+ * of four; the price is that rows are not fully independent, so the error tail is somewhat
+ * heavier than the textbook bound. Counters are plain atomics, so concurrent adds never block each
+ * other; {@link #decay} scales every counter in place for exponentially fading counts.
+ */
+public final class CountMinSketch {
+    
+    /** Counters per key. */
+    public static final int DEPTH = 4;
+    private static final int BLOCK = 2 * DEPTH;
+    
+    private final int blockMask;
+    private final AtomicLongArray counters;
+    
+    /**
+     * @param width counters per row, rounded up to a power of two; the sketch holds {@value #DEPTH} rows
+     */
+    public CountMinSketch(int width) {
+        if (width < 1) {
+            throw new IllegalArgumentException("width must be positive");
+        }
+        // Each block gives every row two slots, so a row of rowWidth counters spans rowWidth / 2 blocks
+        int blocks = Math.max(1, Integer.highestOneBit(Math.max(1, width - 1)) << 1) / 2;
+        this.blockMask = Math.max(1, blocks) - 1;
+        this.counters = new AtomicLongArray((blockMask + 1) * BLOCK);
+    }
+    
+    /**
+     * Adds {@code amount} to {@code key} and returns its new estimate.
+     */
+    public long add(long key, long amount) {
+        long hash = mix(key);
+        int base = ((int) hash & blockMask) * BLOCK;
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            estimate = Math.min(estimate, counters.addAndGet(base + slot(hash, row), amount));
+        }
+        return estimate;
+    }
+    
+    public long estimate(long key) {
+        long hash = mix(key);
+        int base = ((int) hash & blockMask) * BLOCK;
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            estimate = Math.min(estimate, counters.get(base + slot(hash, row)));
+        }
+        return estimate;
+    }
+    
+    /**
+     * Multiplies every counter by {@code factor}; adds racing with the scan are kept, not lost.
+     */
+    public void decay(double factor) {
+        for (int i = 0; i < counters.length(); i++) {
+            if (counters.get(i) != 0) {
+                counters.getAndUpdate(i, count -> (long) (count * factor));
+            }
+        }
+    }
+    
+    public long memoryBytes() {
+        return (long) counters.length() * Long.BYTES;
+    }
+    
+    /**
+     * Row {@code row}'s slot in the block: slots {@code 2 * row} and {@code 2 * row + 1}, by one hash bit each.
+     */
+    private static int slot(long hash, int row) {
+        return 2 * row + (int) ((hash >>> (32 + row)) & 1);
+    }
+    
+    /**
+     * Murmur3's 64-bit finalizer: spreads sequential ids over the whole range.
+     */
+    private static long mix(long key) {
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
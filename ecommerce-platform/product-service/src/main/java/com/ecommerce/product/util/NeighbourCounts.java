@@ -0,0 +1,85 @@
+package com.ecommerce.product.util;
+
+import java.util.Arrays;
+
+/**
+ * Bounded co-occurrence counts for one product: a Space-Saving summary (Metwally, Agrawal and El
+ * Abbadi) over neighbour ids.
+ * <p>
+ * At most {@code capacity} (neighbour, count) pairs are held in two flat arrays. A held neighbour is
+ * incremented in place; a new one takes a free slot or, once full, replaces the smallest entry and
+ * inherits its count. Any neighbour seen more than {@code total / capacity} times is guaranteed a slot,
+ * and a held count overestimates by at most what it inherited, so with a capacity a few times the
+ * number of neighbours served the top of the list is the true top. Not thread-safe; the owner
+ * serializes access.
+ */
+public final class NeighbourCounts {
+    
+    private final long[] ids;
+    private final int[] counts;
+    private int size;
+    
+    public NeighbourCounts(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.ids = new long[capacity];
+        this.counts = new int[capacity];
+    }
+    
+    public void increment(long neighbourId) {
+        for (int i = 0; i < size; i++) {
+            if (ids[i] == neighbourId) {
+                counts[i]++;
+                return;
+            }
+        }
+        if (size < ids.length) {
+            ids[size] = neighbourId;
+            counts[size++] = 1;
+            return;
+        }
+        int smallest = 0;
+        for (int i = 1; i < size; i++) {
+            if (counts[i] < counts[smallest]) {
+                smallest = i;
+            }
+        }
+        ids[smallest] = neighbourId;
+        counts[smallest]++;
+    }
+    
+    /**
+     * Count held for the neighbour, or 0 if it has no slot.
+     */
+    public int count(long neighbourId) {
+        for (int i = 0; i < size; i++) {
+            if (ids[i] == neighbourId) {
+                return counts[i];
+            }
+        }
+        return 0;
+    }
+    
+    /**
+     * Up to {@code n} neighbour ids, highest count first, ties by lower id.
+     */
+    public long[] top(int n) {
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> counts[a] != counts[b]
+                ? Integer.compare(counts[b], counts[a])
+                : Long.compare(ids[a], ids[b]));
+        long[] top = new long[Math.min(n, size)];
+        for (int i = 0; i < top.length; i++) {
+            top[i] = ids[order[i]];
+        }
+        return top;
+    }
+    
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,226 @@
+package com.ecommerce.product.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Immutable weighted prefix index answering "best k values whose key starts with p".
+ * <p>
+ * Keys are stored sorted as UTF-8 in one byte array, where byte order is code point order and a
+ * string prefix is a byte prefix, so all keys under a prefix form one contiguous range found by two
+ * binary searches. A max segment tree over the key weights then yields the range's entries best
+ * first: the heap holds sub-ranges keyed by their heaviest entry, and each pop splits one range in two.
+ * A lookup costs O(log n + k log n) whatever the range size, and the whole index is a few arrays of
+ * primitives plus the distinct values.
+ * <p>
+ * Several keys may point at the same value (a name indexed under each of its words, say); each value
+ * is returned once, at its best weight.
+ */
+public final class PrefixIndex<T> {
+    
+    private final byte[] keyBytes;
+    private final int[] keyOffsets;
+    private final int[] targets;
+    private final long[] weights;
+    private final int[] tree;
+    private final int leaves;
+    private final List<T> values;
+    
+    private PrefixIndex(byte[] keyBytes, int[] keyOffsets, int[] targets, long[] weights, List<T> values) {
+        this.keyBytes = keyBytes;
+        this.keyOffsets = keyOffsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.values = values;
+        int n = weights.length;
+        int size = 1;
+        while (size < n) {
+            size <<= 1;
+        }
+        this.leaves = size;
+        this.tree = new int[2 * size];
+        Arrays.fill(tree, -1);
+        for (int i = 0; i < n; i++) {
+            tree[size + i] = i;
+        }
+        for (int node = size - 1; node > 0; node--) {
+            tree[node] = heavier(tree[2 * node], tree[2 * node + 1]);
+        }
+    }
+    
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+    
+    public int size() {
+        return weights.length;
+    }
+    
+    /**
+     * Up to {@code limit} distinct values with a key starting with {@code prefix}, heaviest first.
+     */
+    public List<T> top(String prefix, int limit) {
+        if (limit <= 0 || weights.length == 0) {
+            return List.of();
+        }
+        byte[] p = prefix.getBytes(StandardCharsets.UTF_8);
+        int from = lowerBound(p);
+        int to = upperBound(p, from);
+        if (from >= to) {
+            return List.of();
+        }
+        
+        PriorityQueue<long[]> ranges = new PriorityQueue<>((a, b) -> Long.compare(weights[(int) b[2]], weights[(int) a[2]]));
+        ranges.add(new long[]{from, to, argMax(from, to)});
+        List<T> result = new ArrayList<>(limit);
+        Set<Integer> seen = new HashSet<>();
+        while (!ranges.isEmpty() && result.size() < limit) {
+            long[] range = ranges.poll();
+            int best = (int) range[2];
+            if (seen.add(targets[best])) {
+                result.add(values.get(targets[best]));
+            }
+            if (range[0] < best) {
+                ranges.add(new long[]{range[0], best, argMax((int) range[0], best)});
+            }
+            if (best + 1 < range[1]) {
+                ranges.add(new long[]{best + 1, range[1], argMax(best + 1, (int) range[1])});
+            }
+        }
+        return Collections.unmodifiableList(result);
+    }
+    
+    /**
+     * Heaviest key index in {@code [from, to)}.
+     */
+    private int argMax(int from, int to) {
+        int best = -1;
+        for (int lo = from + leaves, hi = to + leaves; lo < hi; lo >>= 1, hi >>= 1) {
+            if ((lo & 1) == 1) {
+                best = heavier(best, tree[lo++]);
+            }
+            if ((hi & 1) == 1) {
+                best = heavier(best, tree[--hi]);
+            }
+        }
+        return best;
+    }
+    
+    private int heavier(int a, int b) {
+        if (a < 0) {
+            return b;
+        }
+        if (b < 0) {
+            return a;
+        }
+        return weights[b] > weights[a] ? b : a;
+    }
+    
+    /**
+     * First key not less than {@code prefix}.
+     */
+    private int lowerBound(byte[] prefix) {
+        int lo = 0;
+        int hi = weights.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (compare(mid, prefix, false) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+    
+    /**
+     * First key at or after {@code from} that neither starts with nor sorts before {@code prefix}.
+     */
+    private int upperBound(byte[] prefix, int from) {
+        int lo = from;
+        int hi = weights.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (compare(mid, prefix, true) <= 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+    
+    /**
+     * Compares key {@code index} with {@code prefix}; with {@code truncate}, only the key's first
+     * {@code prefix.length} bytes take part, so every key starting with the prefix compares equal.
+     */
+    private int compare(int index, byte[] prefix, boolean truncate) {
+        int start = keyOffsets[index];
+        int length = keyOffsets[index + 1] - start;
+        if (truncate) {
+            length = Math.min(length, prefix.length);
+        }
+        return Arrays.compareUnsigned(keyBytes, start, start + length, prefix, 0, prefix.length);
+    }
+    
+    public static final class Builder<T> {
+        
+        private final List<byte[]> keys = new ArrayList<>();
+        private final List<T> values = new ArrayList<>();
+        private int[] keyTargets = new int[16];
+        private long[] keyWeights = new long[16];
+        
+        private Builder() {
+        }
+        
+        /**
+         * Adds a value reachable under each of {@code valueKeys}; blank keys are skipped.
+         */
+        public Builder<T> add(T value, long weight, Iterable<String> valueKeys) {
+            int target = values.size();
+            values.add(value);
+            for (String key : valueKeys) {
+                if (key != null && !key.isBlank()) {
+                    int index = keys.size();
+                    if (index == keyTargets.length) {
+                        keyTargets = Arrays.copyOf(keyTargets, index * 2);
+                        keyWeights = Arrays.copyOf(keyWeights, index * 2);
+                    }
+                    keys.add(key.getBytes(StandardCharsets.UTF_8));
+                    keyTargets[index] = target;
+                    keyWeights[index] = weight;
+                }
+            }
+            return this;
+        }
+        
+        public PrefixIndex<T> build() {
+            Integer[] order = new Integer[keys.size()];
+            Arrays.setAll(order, i -> i);
+            Arrays.sort(order, (a, b) -> Arrays.compareUnsigned(keys.get(a), keys.get(b)));
+            
+            int totalBytes = keys.stream().mapToInt(key -> key.length).sum();
+            byte[] keyBytes = new byte[totalBytes];
+            int[] keyOffsets = new int[order.length + 1];
+            int[] targets = new int[order.length];
+            long[] weights = new long[order.length];
+            int offset = 0;
+            for (int i = 0; i < order.length; i++) {
+                byte[] key = keys.get(order[i]);
+                System.arraycopy(key, 0, keyBytes, offset, key.length);
+                keyOffsets[i] = offset;
+                offset += key.length;
+                targets[i] = keyTargets[order[i]];
+                weights[i] = keyWeights[order[i]];
+            }
+            keyOffsets[order.length] = offset;
+            return new PrefixIndex<>(keyBytes, keyOffsets, targets, weights, List.copyOf(values));
+        }
+    }
+}
@@ -0,0 +1,602 @@
+package com.ecommerce.product.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Product sort and filter attributes stored column by column in a memory-mapped file, with one sort
+ * permutation per column.
+ * <p>
+ * After a 64-byte header the file holds {@code capacity} slots of each column: id, price in cents,
+ * category id, created-at in epoch microseconds, stock and rating in hundredths. Then comes one int
+ * permutation per {@link SortKey}. That is 60 bytes per product, all of it outside the Java heap. A
+ * permutation lists the slots in (value, id) order, so a page in price order is a slice of it. Because
+ * every (value, id) pair is distinct, binary search finds any row's exact position. A single change is
+ * applied in place: each permutation whose value changed has the run between the row's old and new
+ * positions moved by one entry with a single bulk copy. A large batch of changes is written straight to
+ * the columns and followed by a full re-sort.
+ * <p>
+ * The header also holds the {@code updated_at} watermark up to which the owner has applied changes,
+ * and whether the file was closed cleanly. A file that was still open when its process died fails
+ * {@link #open}. Not thread-safe; callers guard instances themselves.
+ */
+public final class ProductColumnFile implements Closeable {
+    
+    public enum SortKey {
+        ID, PRICE, RATING, STOCK, CREATED_AT
+    }
+    
+    private static final SortKey[] KEYS = SortKey.values();
+    private static final int MAGIC = 0x50434f4c;  // "PCOL"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 64;
+    private static final int MAGIC_AT = 0;
+    private static final int VERSION_AT = 4;
+    private static final int CAPACITY_AT = 8;
+    private static final int SIZE_AT = 12;
+    private static final int CLEAN_AT = 16;
+    private static final int WATERMARK_AT = 24;
+    private static final int ROW_BYTES = 4 * Long.BYTES + 2 * Integer.BYTES + KEYS.length * Integer.BYTES;
+    public static final int MAX_CAPACITY = (Integer.MAX_VALUE - HEADER_BYTES) / ROW_BYTES;
+    
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private final int idsAt;
+    private final int pricesAt;
+    private final int categoriesAt;
+    private final int createdAt;
+    private final int stocksAt;
+    private final int ratingsAt;
+    private final int[] permutationsAt = new int[KEYS.length];
+    private Path path;
+    private int size;
+    
+    private ProductColumnFile(Path path, FileChannel channel, MappedByteBuffer buffer, int capacity, int size) {
+        this.path = path;
+        this.channel = channel;
+        this.buffer = buffer;
+        this.capacity = capacity;
+        this.size = size;
+        this.idsAt = HEADER_BYTES;
+        this.pricesAt = idsAt + capacity * Long.BYTES;
+        this.categoriesAt = pricesAt + capacity * Long.BYTES;
+        this.createdAt = categoriesAt + capacity * Long.BYTES;
+        this.stocksAt = createdAt + capacity * Long.BYTES;
+        this.ratingsAt = stocksAt + capacity * Integer.BYTES;
+        int permutationAt = ratingsAt + capacity * Integer.BYTES;
+        for (int i = 0; i < KEYS.length; i++) {
+            permutationsAt[i] = permutationAt;
+            permutationAt += capacity * Integer.BYTES;
+        }
+    }
+    
+    /**
+     * Creates an empty file with room for {@code capacity} products, replacing any file at {@code path}.
+     */
+    public static ProductColumnFile create(Path path, int capacity) throws IOException {
+        if (capacity < 1 || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("capacity must be between 1 and " + MAX_CAPACITY);
+        }
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            MappedByteBuffer buffer = map(channel, HEADER_BYTES + (long) capacity * ROW_BYTES);
+            buffer.putInt(MAGIC_AT, MAGIC);
+            buffer.putInt(VERSION_AT, FORMAT_VERSION);
+            buffer.putInt(CAPACITY_AT, capacity);
+            buffer.putInt(SIZE_AT, 0);
+            buffer.putInt(CLEAN_AT, 0);
+            buffer.putLong(WATERMARK_AT, Long.MIN_VALUE);
+            return new ProductColumnFile(path, channel, buffer, capacity, 0);
+        } catch (IOException | RuntimeException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+    
+    /**
+     * Maps a file written by an earlier {@link #close()}, marking it in use until the next one.
+     *
+     * @throws IOException if the file is missing, in another format, or was not closed cleanly
+     */
+    public static ProductColumnFile open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long length = channel.size();
+            if (length < HEADER_BYTES) {
+                throw new IOException("Not a product column file: " + path);
+            }
+            MappedByteBuffer buffer = map(channel, length);
+            if (buffer.getInt(MAGIC_AT) != MAGIC || buffer.getInt(VERSION_AT) != FORMAT_VERSION) {
+                throw new IOException("Not a product column file in format " + FORMAT_VERSION + ": " + path);
+            }
+            int capacity = buffer.getInt(CAPACITY_AT);
+            int size = buffer.getInt(SIZE_AT);
+            if (capacity < 1 || capacity > MAX_CAPACITY || length != HEADER_BYTES + (long) capacity * ROW_BYTES
+                    || size < 0 || size > capacity) {
+                throw new IOException("Product column file is truncated or corrupt: " + path);
+            }
+            if (buffer.getInt(CLEAN_AT) != 1) {
+                throw new IOException("Product column file was not closed cleanly: " + path);
+            }
+            buffer.putInt(CLEAN_AT, 0);
+            buffer.force();
+            return new ProductColumnFile(path, channel, buffer, capacity, size);
+        } catch (IOException | RuntimeException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+    
+    public Path path() {
+        return path;
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    public int capacity() {
+        return capacity;
+    }
+    
+    public long memoryBytes() {
+        return HEADER_BYTES + (long) capacity * ROW_BYTES;
+    }
+    
+    /**
+     * The {@code updated_at} (epoch microseconds) up to which changes have been applied, or
+     * {@link Long#MIN_VALUE} if none have.
+     */
+    public long watermark() {
+        return buffer.getLong(WATERMARK_AT);
+    }
+    
+    public void setWatermark(long watermark) {
+        buffer.putLong(WATERMARK_AT, watermark);
+    }
+    
+    public boolean contains(long id) {
+        return slotOf(id) >= 0;
+    }
+    
+    /**
+     * Adds the row or, if its id is present, replaces it, keeping every permutation in order.
+     */
+    public void upsert(Row row) {
+        int slot = slotOf(row.id());
+        if (slot < 0) {
+            requireRoom(1);
+            write(size, row);
+            for (SortKey key : KEYS) {
+                insertIntoPermutation(key, size, size);
+            }
+            setSize(size + 1);
+            return;
+        }
+        // Old positions are found while the columns still hold the old values; -1 marks an unchanged key
+        long[] before = new long[KEYS.length];
+        int[] positions = new int[KEYS.length];
+        for (SortKey key : KEYS) {
+            int k = key.ordinal();
+            before[k] = key(key, slot);
+            positions[k] = key == SortKey.ID || before[k] == key(key, row) ? -1 : positionOf(key, slot, size);
+        }
+        write(slot, row);
+        for (SortKey key : KEYS) {
+            int k = key.ordinal();
+            if (positions[k] >= 0) {
+                movePermutationEntry(key, slot, positions[k], key(key, slot) > before[k]);
+            }
+        }
+    }
+    
+    /**
+     * Removes the row with this id, if present. The last slot moves into its place.
+     */
+    public boolean remove(long id) {
+        int slot = slotOf(id);
+        if (slot < 0) {
+            return false;
+        }
+        for (SortKey key : KEYS) {
+            removeFromPermutation(key, positionOf(key, slot, size), size);
+        }
+        int last = size - 1;
+        if (slot != last) {
+            for (SortKey key : KEYS) {
+                setPermutation(key, positionOf(key, last, last), slot);
+            }
+            copySlot(last, slot);
+        }
+        setSize(last);
+        return true;
+    }
+    
+    /**
+     * Applies many changes at once: columns first, then one re-sort of every permutation. Cheaper than
+     * {@link #upsert} and {@link #remove} once a batch touches more than a small share of the rows.
+     */
+    public void applyInBulk(Collection<Row> upserts, Collection<Long> removals) {
+        List<Row> added = new ArrayList<>();
+        for (Row row : upserts) {
+            int slot = slotOf(row.id());
+            if (slot < 0) {
+                added.add(row);
+            } else {
+                write(slot, row);
+            }
+        }
+        // Slots are resolved through the id permutation, which stays valid until the re-sort below
+        int[] removedSlots = removals.stream().mapToInt(this::slotOf).filter(slot -> slot >= 0).distinct().toArray();
+        requireRoom(added.size());
+        for (Row row : added) {
+            append(row);
+        }
+        Arrays.sort(removedSlots);
+        for (int i = removedSlots.length - 1; i >= 0; i--) {
+            int last = size - 1;
+            if (removedSlots[i] != last) {
+                copySlot(last, removedSlots[i]);
+            }
+            setSize(last);
+        }
+        sortAll();
+    }
+    
+    /**
+     * Writes the row to the next free slot without touching the permutations; follow a run of appends
+     * with {@link #sortAll()}. The id must not be present.
+     */
+    public void append(Row row) {
+        requireRoom(1);
+        write(size, row);
+        setSize(size + 1);
+    }
+    
+    /**
+     * Rebuilds every permutation from the columns.
+     */
+    public void sortAll() {
+        long[] ids = new long[size];
+        for (int slot = 0; slot < size; slot++) {
+            ids[slot] = id(slot);
+        }
+        for (SortKey key : KEYS) {
+            long[] values = new long[size];
+            int[] slots = new int[size];
+            for (int slot = 0; slot < size; slot++) {
+                values[slot] = key(key, slot);
+                slots[slot] = slot;
+            }
+            mergeSort(slots, new int[size], 0, size, values, ids);
+            for (int position = 0; position < size; position++) {
+                setPermutation(key, position, slots[position]);
+            }
+        }
+    }
+    
+    /**
+     * Copies every row, permutation and the watermark into a new file of the given capacity.
+     */
+    public ProductColumnFile copyTo(Path target, int newCapacity) throws IOException {
+        if (newCapacity < size) {
+            throw new IllegalArgumentException("New capacity " + newCapacity + " is below the " + size + " rows held");
+        }
+        ProductColumnFile copy = create(target, newCapacity);
+        try {
+            copyRegion(idsAt, copy.idsAt, Long.BYTES, copy);
+            copyRegion(pricesAt, copy.pricesAt, Long.BYTES, copy);
+            copyRegion(categoriesAt, copy.categoriesAt, Long.BYTES, copy);
+            copyRegion(createdAt, copy.createdAt, Long.BYTES, copy);
+            copyRegion(stocksAt, copy.stocksAt, Integer.BYTES, copy);
+            copyRegion(ratingsAt, copy.ratingsAt, Integer.BYTES, copy);
+            for (int i = 0; i < KEYS.length; i++) {
+                copyRegion(permutationsAt[i], copy.permutationsAt[i], Integer.BYTES, copy);
+            }
+            copy.setSize(size);
+            copy.setWatermark(watermark());
+            return copy;
+        } catch (RuntimeException ex) {
+            copy.close();
+            throw ex;
+        }
+    }
+    
+    /**
+     * Renames the file, replacing whatever is at {@code target}; the mapping stays valid.
+     */
+    public void moveTo(Path target) throws IOException {
+        Files.move(path, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        path = target;
+    }
+    
+    /**
+     * Ids of the matching rows from {@code offset} on, in the key's order (ties by id) or its reverse,
+     * and how many rows match in total. Without a filter this reads only the page; with one it visits
+     * every row to count the matches.
+     */
+    public Page page(SortKey key, boolean descending, Filter filter, long offset, int limit) {
+        int wanted = Math.max(0, Math.min(limit, size));
+        if (filter == null || filter.isEmpty()) {
+            int from = (int) Math.min(Math.max(offset, 0), size);
+            long[] ids = new long[Math.min(wanted, size - from)];
+            for (int i = 0; i < ids.length; i++) {
+                int position = from + i;
+                ids[i] = id(permutation(key, descending ? size - 1 - position : position));
+            }
+            return new Page(size, ids);
+        }
+        long[] ids = new long[wanted];
+        int found = 0;
+        long matched = 0;
+        for (int i = 0; i < size; i++) {
+            int slot = permutation(key, descending ? size - 1 - i : i);
+            if (matches(filter, slot)) {
+                if (matched >= offset && found < wanted) {
+                    ids[found++] = id(slot);
+                }
+                matched++;
+            }
+        }
+        return new Page(matched, Arrays.copyOf(ids, found));
+    }
+    
+    /**
+     * Flushes the mapping and marks the file closed cleanly, so the next {@link #open} accepts it.
+     */
+    @Override
+    public void close() throws IOException {
+        if (!channel.isOpen()) {
+            return;
+        }
+        buffer.force();
+        buffer.putInt(CLEAN_AT, 1);
+        buffer.force();
+        channel.close();
+    }
+    
+    private boolean matches(Filter filter, int slot) {
+        long price = buffer.getLong(pricesAt + slot * Long.BYTES);
+        if (price < filter.minPriceCents() || price > filter.maxPriceCents()) {
+            return false;
+        }
+        if (buffer.getInt(ratingsAt + slot * Integer.BYTES) < filter.minRatingHundredths()) {
+            return false;
+        }
+        if (filter.inStockOnly() && buffer.getInt(stocksAt + slot * Integer.BYTES) <= 0) {
+            return false;
+        }
+        return filter.categoryIds() == null
+                || Arrays.binarySearch(filter.categoryIds(), buffer.getLong(categoriesAt + slot * Long.BYTES)) >= 0;
+    }
+    
+    private int slotOf(long id) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int slot = permutation(SortKey.ID, mid);
+            long midId = id(slot);
+            if (midId < id) {
+                low = mid + 1;
+            } else if (midId > id) {
+                high = mid - 1;
+            } else {
+                return slot;
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * Position of {@code slot} in the key's permutation, searched among its first {@code length} entries.
+     */
+    private int positionOf(SortKey key, int slot, int length) {
+        int position = lowerBound(key, key(key, slot), id(slot), 0, length);
+        if (position >= length || permutation(key, position) != slot) {
+            throw new IllegalStateException("Permutation " + key + " has lost slot " + slot);
+        }
+        return position;
+    }
+    
+    /**
+     * First position in {@code [from, to)} whose (value, id) is not below the given pair, or {@code to}.
+     */
+    private int lowerBound(SortKey key, long value, long id, int from, int to) {
+        int low = from;
+        int high = to;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int slot = permutation(key, mid);
+            long midValue = key(key, slot);
+            if (midValue < value || (midValue == value && id(slot) < id)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+    
+    private void insertIntoPermutation(SortKey key, int slot, int length) {
+        int position = lowerBound(key, key(key, slot), id(slot), 0, length);
+        shiftPermutation(key, position, length, 1);
+        setPermutation(key, position, slot);
+    }
+    
+    private void removeFromPermutation(SortKey key, int position, int length) {
+        shiftPermutation(key, position + 1, length, -1);
+    }
+    
+    /**
+     * Moves {@code slot}, whose value has just changed, from {@code position} to its new place. Only the
+     * entries between the two positions shift; every other entry is still in order around them.
+     */
+    private void movePermutationEntry(SortKey key, int slot, int position, boolean up) {
+        long value = key(key, slot);
+        long id = id(slot);
+        if (up) {
+            int target = lowerBound(key, value, id, position + 1, size) - 1;
+            shiftPermutation(key, position + 1, target + 1, -1);
+            setPermutation(key, target, slot);
+        } else {
+            int target = lowerBound(key, value, id, 0, position);
+            shiftPermutation(key, target, position, 1);
+            setPermutation(key, target, slot);
+        }
+    }
+    
+    /**
+     * Moves the entries at positions {@code [from, to)} by {@code by} positions in one bulk copy, which
+     * behaves as if through an intermediate buffer when the ranges overlap.
+     */
+    private void shiftPermutation(SortKey key, int from, int to, int by) {
+        if (to > from) {
+            int base = permutationsAt[key.ordinal()];
+            buffer.put(base + (from + by) * Integer.BYTES, buffer, base + from * Integer.BYTES, (to - from) * Integer.BYTES);
+        }
+    }
+    
+    private void write(int slot, Row row) {
+        buffer.putLong(idsAt + slot * Long.BYTES, row.id());
+        buffer.putLong(pricesAt + slot * Long.BYTES, row.priceCents());
+        buffer.putLong(categoriesAt + slot * Long.BYTES, row.categoryId());
+        buffer.putLong(createdAt + slot * Long.BYTES, row.createdAtMicros());
+        buffer.putInt(stocksAt + slot * Integer.BYTES, row.stock());
+        buffer.putInt(ratingsAt + slot * Integer.BYTES, row.ratingHundredths());
+    }
+    
+    private void copySlot(int from, int to) {
+        buffer.putLong(idsAt + to * Long.BYTES, buffer.getLong(idsAt + from * Long.BYTES));
+        buffer.putLong(pricesAt + to * Long.BYTES, buffer.getLong(pricesAt + from * Long.BYTES));
+        buffer.putLong(categoriesAt + to * Long.BYTES, buffer.getLong(categoriesAt + from * Long.BYTES));
+        buffer.putLong(createdAt + to * Long.BYTES, buffer.getLong(createdAt + from * Long.BYTES));
+        buffer.putInt(stocksAt + to * Integer.BYTES, buffer.getInt(stocksAt + from * Integer.BYTES));
+        buffer.putInt(ratingsAt + to * Integer.BYTES, buffer.getInt(ratingsAt + from * Integer.BYTES));
+    }
+    
+    private void copyRegion(int from, int to, int width, ProductColumnFile target) {
+        ByteBuffer source = buffer.slice(from, size * width);
+        target.buffer.put(to, source, 0, source.remaining());
+    }
+    
+    private long id(int slot) {
+        return buffer.getLong(idsAt + slot * Long.BYTES);
+    }
+    
+    private long key(SortKey key, int slot) {
+        return switch (key) {
+            case ID -> id(slot);
+            case PRICE -> buffer.getLong(pricesAt + slot * Long.BYTES);
+            case RATING -> buffer.getInt(ratingsAt + slot * Integer.BYTES);
+            case STOCK -> buffer.getInt(stocksAt + slot * Integer.BYTES);
+            case CREATED_AT -> buffer.getLong(createdAt + slot * Long.BYTES);
+        };
+    }
+    
+    private static long key(SortKey key, Row row) {
+        return switch (key) {
+            case ID -> row.id();
+            case PRICE -> row.priceCents();
+            case RATING -> row.ratingHundredths();
+            case STOCK -> row.stock();
+            case CREATED_AT -> row.createdAtMicros();
+        };
+    }
+    
+    private int permutation(SortKey key, int position) {
+        return buffer.getInt(permutationsAt[key.ordinal()] + position * Integer.BYTES);
+    }
+    
+    private void setPermutation(SortKey key, int position, int slot) {
+        buffer.putInt(permutationsAt[key.ordinal()] + position * Integer.BYTES, slot);
+    }
+    
+    private void setSize(int size) {
+        this.size = size;
+        buffer.putInt(SIZE_AT, size);
+    }
+    
+    private void requireRoom(int rows) {
+        if (size + rows > capacity) {
+            throw new IllegalStateException("Product column file is full: " + size + " of " + capacity + " rows");
+        }
+    }
+    
+    /**
+     * Sorts {@code slots[from, to)} by (values[slot], ids[slot]); stable, no boxing.
+     */
+    private static void mergeSort(int[] slots, int[] scratch, int from, int to, long[] values, long[] ids) {
+        if (to - from < 2) {
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        mergeSort(slots, scratch, from, middle, values, ids);
+        mergeSort(slots, scratch, middle, to, values, ids);
+        System.arraycopy(slots, from, scratch, from, to - from);
+        int left = from;
+        int right = middle;
+        for (int i = from; i < to; i++) {
+            if (right >= to || (left < middle && !after(scratch[left], scratch[right], values, ids))) {
+                slots[i] = scratch[left++];
+            } else {
+                slots[i] = scratch[right++];
+            }
+        }
+    }
+    
+    private static boolean after(int a, int b, long[] values, long[] ids) {
+        return values[a] > values[b] || (values[a] == values[b] && ids[a] > ids[b]);
+    }
+    
+    private static MappedByteBuffer map(FileChannel channel, long length) throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        return buffer;
+    }
+    
+    /**
+     * One product's columns. Prices are in cents, ratings in hundredths, {@code categoryId} is 0 when
+     * the product has none.
+     */
+    public record Row(long id, long priceCents, long categoryId, long createdAtMicros, int stock, int ratingHundredths) {
+    }
+    
+    /**
+     * Bounds are inclusive; {@code categoryIds}, if not null, is the set of categories to keep.
+     */
+    public record Filter(long minPriceCents, long maxPriceCents, int minRatingHundredths, boolean inStockOnly,
+                         long[] categoryIds) {
+        
+        public static final Filter NONE = new Filter(Long.MIN_VALUE, Long.MAX_VALUE, Integer.MIN_VALUE, false, null);
+        
+        public Filter {
+            if (categoryIds != null) {
+                categoryIds = categoryIds.clone();
+                Arrays.sort(categoryIds);
+            }
+        }
+        
+        public boolean isEmpty() {
+            return minPriceCents == Long.MIN_VALUE && maxPriceCents == Long.MAX_VALUE
+                    && minRatingHundredths == Integer.MIN_VALUE && !inStockOnly && categoryIds == null;
+        }
+    }
+    
+    public record Page(long total, long[] ids) {
+    }
+}
@@ -0,0 +1,73 @@
+-- Catalog schema as previously generated by Hibernate, plus the indexes its repository queries need.
+-- Runs in the schema named by spring.flyway.schemas (product); portable SQL only, PostgreSQL-specific
+-- DDL goes under db/vendor/postgresql.
+
+CREATE TABLE categories (
+    id                 BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name               VARCHAR(255) NOT NULL,
+    description        TEXT,
+    parent_category_id BIGINT,
+    created_at         TIMESTAMP(6) NOT NULL,
+    CONSTRAINT uk_categories_name UNIQUE (name),
+    CONSTRAINT fk_categories_parent FOREIGN KEY (parent_category_id) REFERENCES categories (id)
+);
+
+CREATE TABLE category_closure (
+    ancestor_id   BIGINT  NOT NULL,
+    descendant_id BIGINT  NOT NULL,
+    depth         INTEGER NOT NULL,
+    CONSTRAINT pk_category_closure PRIMARY KEY (ancestor_id, descendant_id)
+);
+
+CREATE TABLE products (
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name           VARCHAR(255)   NOT NULL,
+    description    TEXT,
+    price          NUMERIC(10, 2) NOT NULL,
+    category_id    BIGINT,
+    stock_quantity INTEGER        NOT NULL,
+    sku            VARCHAR(255)   NOT NULL,
+    average_rating NUMERIC(3, 2),
+    total_reviews  INTEGER,
+    created_at     TIMESTAMP(6)   NOT NULL,
+    updated_at     TIMESTAMP(6),
+    CONSTRAINT uk_products_sku UNIQUE (sku),
+    CONSTRAINT fk_products_category FOREIGN KEY (category_id) REFERENCES categories (id)
+);
+
+CREATE TABLE product_images (
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    product_id    BIGINT       NOT NULL,
+    image_url     VARCHAR(255) NOT NULL,
+    is_primary    BOOLEAN,
+    display_order INTEGER,
+    CONSTRAINT fk_product_images_product FOREIGN KEY (product_id) REFERENCES products (id)
+);
+
+CREATE TABLE reviews (
+    id                BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    product_id        BIGINT       NOT NULL,
+    user_id           BIGINT       NOT NULL,
+    rating            INTEGER      NOT NULL,
+    title             VARCHAR(255) NOT NULL,
+    comment           TEXT,
+    verified_purchase BOOLEAN,
+    created_at        TIMESTAMP(6) NOT NULL,
+    updated_at        TIMESTAMP(6),
+    CONSTRAINT fk_reviews_product FOREIGN KEY (product_id) REFERENCES products (id)
+);
+
+-- findByParentCategoryId, root listing
+CREATE INDEX idx_categories_parent_category_id ON categories (parent_category_id);
+-- closure upkeep when a category is added or removed; subtree reads use the primary key
+CREATE INDEX idx_category_closure_descendant ON category_closure (descendant_id);
+-- category and category-subtree listings
+CREATE INDEX idx_products_category_id ON products (category_id);
+-- catalog version, change feeds
+CREATE INDEX idx_products_updated_at ON products (updated_at);
+-- image loads and the card view's primary image
+CREATE INDEX idx_product_images_product_id ON product_images (product_id);
+-- reviews of a product, one user's review of it, rating summaries
+CREATE INDEX idx_reviews_product_id_user_id ON reviews (product_id, user_id);
+-- findByUserId
+CREATE INDEX idx_reviews_user_id ON reviews (user_id);
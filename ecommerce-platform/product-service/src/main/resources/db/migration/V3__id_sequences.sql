@@ -0,0 +1,12 @@
+-- Pooled sequences replace the identity columns, so Hibernate can batch inserts. Each nextval
+-- reserves a block of 50 ids, which must match allocationSize on the entities.
+
+CREATE SEQUENCE categories_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE products_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE product_images_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE reviews_seq START WITH 1 INCREMENT BY 50;
+
+ALTER TABLE categories ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE products ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE product_images ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE reviews ALTER COLUMN id DROP IDENTITY;
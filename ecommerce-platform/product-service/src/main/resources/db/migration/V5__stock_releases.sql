@@ -0,0 +1,10 @@
+-- Keyed stock releases already applied, so a release retried after a lost response or a crash
+-- returns each hold's stock once. Rows older than inventory.release-key-retention are pruned.
+
+CREATE TABLE stock_releases (
+    release_key VARCHAR(100) NOT NULL PRIMARY KEY,
+    released_at TIMESTAMP(6) NOT NULL
+);
+
+-- pruning of old keys
+CREATE INDEX idx_stock_releases_released_at ON stock_releases (released_at);
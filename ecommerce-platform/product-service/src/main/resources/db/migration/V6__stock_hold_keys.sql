@@ -0,0 +1,11 @@
+-- Keyed stock releases become per-hold key states, so a hold's reservation is applied once and its
+-- release returns stock only if that reservation was applied. The existing rows are applied releases.
+-- Rows older than inventory.hold-key-retention are pruned.
+
+ALTER TABLE stock_releases RENAME TO stock_hold_keys;
+ALTER TABLE stock_hold_keys RENAME COLUMN release_key TO hold_key;
+ALTER TABLE stock_hold_keys RENAME COLUMN released_at TO updated_at;
+ALTER TABLE stock_hold_keys ADD COLUMN state VARCHAR(20) NOT NULL DEFAULT 'RELEASED';
+
+-- pruning of old keys
+ALTER INDEX idx_stock_releases_released_at RENAME TO idx_stock_hold_keys_updated_at;
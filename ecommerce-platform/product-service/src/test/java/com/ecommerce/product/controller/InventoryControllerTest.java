@@ -0,0 +1,136 @@
+package com.ecommerce.product.controller;
+
+import com.ecommerce.common.client.ServiceClient;
+import com.ecommerce.product.model.Category;
+import com.ecommerce.product.model.Product;
+import com.ecommerce.product.repository.CategoryRepository;
+import com.ecommerce.product.repository.ProductRepository;
+import com.ecommerce.product.repository.StockHoldKeyRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class InventoryControllerTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private CategoryRepository categoryRepository;
+    
+    @Autowired
+    private StockHoldKeyRepository stockHoldKeyRepository;
+    
+    private Product kettle;
+    
+    @BeforeEach
+    void setUp() {
+        Category kitchen = categoryRepository.save(Category.builder().name("Kitchen").build());
+        kettle = productRepository.save(Product.builder()
+                .name("Kettle")
+                .sku("KIT-1")
+                .category(kitchen)
+                .price(new BigDecimal("25.00"))
+                .stockQuantity(10)
+                .images(List.of())
+                .build());
+    }
+    
+    @AfterEach
+    void tearDown() {
+        stockHoldKeyRepository.deleteAll();
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+    }
+    
+    @Test
+    void rejectsAnonymousStockChanges() throws Exception {
+        // Act & Assert
+        mockMvc.perform(post("/api/internal/inventory/reserve").contentType(MediaType.APPLICATION_JSON).content(lines(4)))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/api/internal/inventory/release").contentType(MediaType.APPLICATION_JSON).content(lines(4))
+                        .header(ServiceClient.SERVICE_TOKEN_HEADER, "guessed-token"))
+                .andExpect(status().isForbidden());
+        assertEquals(10, productRepository.findById(kettle.getId()).orElseThrow().getStockQuantity());
+    }
+    
+    @Test
+    void reservesStockForTheServiceToken() throws Exception {
+        // Act
+        mockMvc.perform(post("/api/internal/inventory/reserve").contentType(MediaType.APPLICATION_JSON).content(lines(4))
+                        .header(ServiceClient.SERVICE_TOKEN_HEADER, "test-service-token"))
+                .andExpect(status().isOk());
+        
+        // Assert
+        assertEquals(6, productRepository.findById(kettle.getId()).orElseThrow().getStockQuantity());
+    }
+    
+    @Test
+    void retriedReservationsAndReleasesApplyEachHoldOnce() throws Exception {
+        // Arrange: holds 1 and 2 reserved, the reservation retried after a lost response
+        String reservation = "{\"lines\":[" + keyedLine(2, "inventory-hold:1") + "," + keyedLine(3, "inventory-hold:2") + "]}";
+        adjust("reserve", reservation);
+        adjust("reserve", reservation);
+        assertEquals(5, stock());
+        
+        // Act: hold 1 released before its response was lost, then both retried twice
+        String retry = "{\"lines\":[" + keyedLine(2, "inventory-hold:1") + "," + keyedLine(3, "inventory-hold:2") + "]}";
+        adjust("release", "{\"lines\":[" + keyedLine(2, "inventory-hold:1") + "]}");
+        adjust("release", retry);
+        adjust("release", retry);
+        
+        // Assert
+        assertEquals(10, stock());
+    }
+    
+    @Test
+    void releaseBeforeItsReservationReturnsNothingAndCancelsIt() throws Exception {
+        // Arrange: the checkout gave up on a reservation that had not landed yet
+        String hold = "{\"lines\":[" + keyedLine(4, "inventory-hold:3") + "]}";
+        adjust("release", hold);
+        assertEquals(10, stock());
+        
+        // Act: the reservation arrives late
+        adjust("reserve", hold);
+        
+        // Assert
+        assertEquals(10, stock());
+    }
+    
+    private int stock() {
+        return productRepository.findById(kettle.getId()).orElseThrow().getStockQuantity();
+    }
+    
+    private void adjust(String action, String body) throws Exception {
+        mockMvc.perform(post("/api/internal/inventory/" + action).contentType(MediaType.APPLICATION_JSON).content(body)
+                        .header(ServiceClient.SERVICE_TOKEN_HEADER, "test-service-token"))
+                .andExpect(status().isOk());
+    }
+    
+    private String keyedLine(int quantity, String holdKey) {
+        return "{\"productId\":" + kettle.getId() + ",\"quantity\":" + quantity + ",\"holdKey\":\"" + holdKey + "\"}";
+    }
+    
+    private String lines(int quantity) {
+        return "{\"lines\":[{\"productId\":" + kettle.getId() + ",\"quantity\":" + quantity + "}]}";
+    }
+}
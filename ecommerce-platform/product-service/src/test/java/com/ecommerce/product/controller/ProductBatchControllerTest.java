@@ -0,0 +1,111 @@
+package com.ecommerce.product.controller;
+
+import com.ecommerce.common.sql.SqlCapture;
+import com.ecommerce.common.sql.SqlStatementTracker;
+import com.ecommerce.product.model.Category;
+import com.ecommerce.product.model.Product;
+import com.ecommerce.product.model.ProductImage;
+import com.ecommerce.product.repository.CategoryRepository;
+import com.ecommerce.product.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ProductBatchControllerTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private CategoryRepository categoryRepository;
+    
+    private final List<Long> ids = new ArrayList<>();
+    
+    @BeforeEach
+    void setUp() {
+        Category category = categoryRepository.save(Category.builder().name("Mugs").build());
+        for (int i = 1; i <= 4; i++) {
+            Product product = Product.builder()
+                    .name("Mug " + i)
+                    .price(new BigDecimal("12.00"))
+                    .category(category)
+                    .stockQuantity(10)
+                    .sku("MUG-" + i)
+                    .build();
+            product.setImages(List.of(ProductImage.builder().product(product)
+                    .imageUrl("https://cdn.example.com/mug-" + i + ".jpg").isPrimary(true).displayOrder(0).build()));
+            ids.add(productRepository.save(product).getId());
+        }
+    }
+    
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+    }
+    
+    @Test
+    void returnsProductsInRequestOrderAndReportsMissingIds() throws Exception {
+        // Arrange
+        long unknownId = ids.get(3) + 1000;
+        
+        // Act & Assert
+        mockMvc.perform(get("/api/products/batch")
+                        .param("ids", ids.get(2) + "," + unknownId + "," + ids.get(0) + "," + ids.get(2)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.products.length()").value(2))
+                .andExpect(jsonPath("$.data.products[0].name").value("Mug 3"))
+                .andExpect(jsonPath("$.data.products[0].images[0].imageUrl").value("https://cdn.example.com/mug-3.jpg"))
+                .andExpect(jsonPath("$.data.products[1].name").value("Mug 1"))
+                .andExpect(jsonPath("$.data.missing[0]").value(unknownId));
+    }
+    
+    @Test
+    void coldBatchIsTwoStatementsAndWarmBatchIsOne() throws Exception {
+        // Arrange
+        String body = "{\"ids\":" + ids + "}";
+        
+        // Act & Assert
+        try (SqlCapture sql = SqlStatementTracker.begin()) {
+            mockMvc.perform(post("/api/products/batch").contentType(MediaType.APPLICATION_JSON).content(body))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data.products.length()").value(4));
+            // Versions, then one join-fetch for every product not yet cached
+            assertEquals(2, sql.getStatementCount(), sql.describe());
+        }
+        try (SqlCapture sql = SqlStatementTracker.begin()) {
+            mockMvc.perform(post("/api/products/batch").contentType(MediaType.APPLICATION_JSON).content(body))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data.products[3].name").value("Mug 4"));
+            assertEquals(1, sql.getStatementCount(), sql.describe());
+        }
+    }
+    
+    @Test
+    void rejectsEmptyBody() throws Exception {
+        mockMvc.perform(post("/api/products/batch").contentType(MediaType.APPLICATION_JSON).content("{\"ids\":[]}"))
+                .andExpect(status().isBadRequest());
+    }
+}
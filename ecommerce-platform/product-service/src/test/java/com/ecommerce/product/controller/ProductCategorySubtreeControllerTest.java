@@ -0,0 +1,134 @@
+package com.ecommerce.product.controller;
+
+import com.ecommerce.common.exceptions.BadRequestException;
+import com.ecommerce.common.sql.SqlCapture;
+import com.ecommerce.common.sql.SqlStatementTracker;
+import com.ecommerce.product.dto.CategoryDto;
+import com.ecommerce.product.model.Product;
+import com.ecommerce.product.repository.CategoryClosureRepository;
+import com.ecommerce.product.repository.CategoryRepository;
+import com.ecommerce.product.repository.ProductRepository;
+import com.ecommerce.product.service.CategoryService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ProductCategorySubtreeControllerTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private CategoryService categoryService;
+    
+    @Autowired
+    private CategoryRepository categoryRepository;
+    
+    @Autowired
+    private CategoryClosureRepository categoryClosureRepository;
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    private Long home;
+    private Long kitchen;
+    private Long knives;
+    
+    @BeforeEach
+    void setUp() {
+        home = categoryService.createCategory(category("Home", null)).getId();
+        kitchen = categoryService.createCategory(category("Kitchen", home)).getId();
+        knives = categoryService.createCategory(category("Knives", kitchen)).getId();
+        Long garden = categoryService.createCategory(category("Garden", null)).getId();
+        productRepository.saveAll(List.of(
+                product("HOM-1", "Lamp", "30.00", home),
+                product("KIT-1", "Kettle", "10.00", kitchen),
+                product("KNI-1", "Chef knife", "20.00", knives),
+                product("GDN-1", "Rake", "5.00", garden)));
+    }
+    
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+        categoryService.rebuildClosure();
+    }
+    
+    @Test
+    void listsTheWholeSubtreeSortedInOneQuery() throws Exception {
+        try (SqlCapture sql = SqlStatementTracker.begin()) {
+            // Act & Assert
+            mockMvc.perform(get("/api/products/category/{id}", home)
+                            .param("view", "card").param("sortBy", "price").param("direction", "DESC"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data.totalElements").value(3))
+                    .andExpect(jsonPath("$.data.content[0].name").value("Lamp"))
+                    .andExpect(jsonPath("$.data.content[1].name").value("Chef knife"))
+                    .andExpect(jsonPath("$.data.content[2].name").value("Kettle"));
+            // One projection over the closure subquery; nothing per product and no walk down the parent links
+            assertTrue(sql.getRepeatedShapes(2).isEmpty(), sql.describe());
+            assertTrue(sql.getShapes().keySet().stream().anyMatch(shape -> shape.contains("category_closure")), sql.describe());
+            assertTrue(sql.getShapes().keySet().stream().noneMatch(shape -> shape.contains("parent_category_id")), sql.describe());
+        }
+    }
+    
+    @Test
+    void fullViewAndDirectOnlyListingsFollowTheFlag() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/products/category/{id}", kitchen))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.totalElements").value(2));
+        mockMvc.perform(get("/api/products/category/{id}", home).param("includeSubcategories", "false"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.totalElements").value(1))
+                .andExpect(jsonPath("$.data.content[0].sku").value("HOM-1"));
+    }
+    
+    @Test
+    void deletingKeepsTheClosureInStep() {
+        // Arrange
+        Long pans = categoryService.createCategory(category("Pans", kitchen)).getId();
+        assertTrue(categoryClosureRepository.findDescendantIds(home).contains(pans));
+        
+        // Act
+        categoryService.deleteCategory(pans);
+        
+        // Assert
+        assertFalse(categoryClosureRepository.findDescendantIds(home).contains(pans));
+        assertEquals(List.of(knives), categoryClosureRepository.findDescendantIds(knives));
+        assertThrows(BadRequestException.class, () -> categoryService.deleteCategory(kitchen));
+    }
+    
+    private static CategoryDto.CreateCategoryRequest category(String name, Long parentId) {
+        return CategoryDto.CreateCategoryRequest.builder().name(name).parentCategoryId(parentId).build();
+    }
+    
+    private Product product(String sku, String name, String price, Long categoryId) {
+        return Product.builder()
+                .name(name)
+                .price(new BigDecimal(price))
+                .category(categoryRepository.findById(categoryId).orElseThrow())
+                .stockQuantity(3)
+                .sku(sku)
+                .build();
+    }
+}
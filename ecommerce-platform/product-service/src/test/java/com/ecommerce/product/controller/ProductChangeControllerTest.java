@@ -0,0 +1,144 @@
+package com.ecommerce.product.controller;
+
+import com.ecommerce.product.model.Category;
+import com.ecommerce.product.model.Product;
+import com.ecommerce.product.repository.CategoryRepository;
+import com.ecommerce.product.repository.ProductRepository;
+import com.ecommerce.product.service.ProductChangeFeed;
+import com.ecommerce.product.service.ProductService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ProductChangeControllerTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private CategoryRepository categoryRepository;
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Autowired
+    private ProductChangeFeed productChangeFeed;
+    
+    private Product kettle;
+    
+    @BeforeEach
+    void setUp() {
+        Category kitchen = categoryRepository.save(Category.builder().name("Kitchen").build());
+        kettle = productRepository.save(Product.builder()
+                .name("Kettle")
+                .sku("KIT-1")
+                .category(kitchen)
+                .price(new BigDecimal("25.00"))
+                .stockQuantity(10)
+                .images(List.of())
+                .build());
+    }
+    
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+    }
+    
+    @Test
+    void longPollReturnsTheCommittedChangeWithItsNewStock() throws Exception {
+        // Arrange
+        long head = productChangeFeed.head();
+        MvcResult waiting = mockMvc.perform(get("/api/products/changes").param("after", Long.toString(head)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        
+        // Act
+        productService.updateStock(kettle.getId(), 3);
+        
+        // Assert
+        mockMvc.perform(asyncDispatch(waiting))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.reset").value(false))
+                .andExpect(jsonPath("$.data.lastSequence").value(head + 1))
+                .andExpect(jsonPath("$.data.changes[0].sequence").value(head + 1))
+                .andExpect(jsonPath("$.data.changes[0].type").value("STOCK_CHANGED"))
+                .andExpect(jsonPath("$.data.changes[0].productId").value(kettle.getId()))
+                .andExpect(jsonPath("$.data.changes[0].stockQuantity").value(3));
+    }
+    
+    @Test
+    void longPollResetsAnUnknownSequence() throws Exception {
+        // Act
+        MvcResult result = mockMvc.perform(get("/api/products/changes").param("after", "1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        
+        // Assert
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.reset").value(true))
+                .andExpect(jsonPath("$.data.lastSequence").value(productChangeFeed.head()));
+    }
+    
+    @Test
+    void streamResumesAfterLastEventId() throws Exception {
+        // Arrange: one change the client has seen, one it missed while disconnected
+        long seen = productChangeFeed.head() + 1;
+        productService.updateStock(kettle.getId(), 8);
+        awaitHead(seen);
+        productService.deleteProduct(kettle.getId());
+        
+        // Act
+        MvcResult stream = mockMvc.perform(get("/api/products/changes/stream").header("Last-Event-ID", seen))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        
+        // Assert
+        // The event's id, name and data lines are written separately; wait for the data
+        String body = awaitContent(stream, "\"type\":\"DELETED\"");
+        assertTrue(body.contains("id:" + (seen + 1) + "\nevent:change\n"), body);
+        assertFalse(body.contains("id:" + seen + "\n"), body);
+    }
+    
+    // Changes are recorded on the feed's own thread after the commit
+    private void awaitHead(long sequence) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (productChangeFeed.head() < sequence && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+    }
+    
+    private static String awaitContent(MvcResult result, String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 5_000;
+        String body = result.getResponse().getContentAsString();
+        while (!body.contains(expected) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            body = result.getResponse().getContentAsString();
+        }
+        return body;
+    }
+}
@@ -0,0 +1,121 @@
+package com.ecommerce.product.controller;
+
+import com.ecommerce.common.sql.SqlCapture;
+import com.ecommerce.common.sql.SqlStatementTracker;
+import com.ecommerce.product.model.Category;
+import com.ecommerce.product.model.Product;
+import com.ecommerce.product.model.ProductImage;
+import com.ecommerce.product.repository.CategoryRepository;
+import com.ecommerce.product.repository.ProductRepository;
+import com.ecommerce.product.service.ProductFacetIndex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pins the number of SQL statements each catalog read issues, so a new lazy load in the mapping code
+ * fails here instead of turning into an N+1 in production.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ProductControllerSqlBudgetTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private CategoryRepository categoryRepository;
+    
+    @Autowired
+    private ProductFacetIndex productFacetIndex;
+    
+    private Product first;
+    
+    @BeforeEach
+    void setUp() {
+        Category category = categoryRepository.save(Category.builder().name("Lighting").build());
+        List<Product> products = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            Product product = Product.builder()
+                    .name("Lamp " + i)
+                    .price(new BigDecimal("19.99"))
+                    .category(category)
+                    .stockQuantity(10)
+                    .sku("LAMP-" + i)
+                    .build();
+            product.setImages(List.of(ProductImage.builder()
+                    .product(product)
+                    .imageUrl("https://cdn.example.com/lamp-" + i + ".jpg")
+                    .isPrimary(true)
+                    .displayOrder(0)
+                    .build()));
+            products.add(product);
+        }
+        products = productRepository.saveAll(products);
+        first = products.get(0);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+        productFacetIndex.rebuild();
+    }
+    
+    @Test
+    void productByIdIsOneLookupOnceCached() throws Exception {
+        // Arrange
+        mockMvc.perform(get("/api/products/{id}", first.getId())).andExpect(status().isOk());
+        
+        // Act & Assert
+        try (SqlCapture sql = SqlStatementTracker.begin()) {
+            mockMvc.perform(get("/api/products/{id}", first.getId())).andExpect(status().isOk());
+            // ETag version and fragment version share the updated_at lookup shape
+            assertEquals(2, sql.getStatementCount(), sql.describe());
+            assertEquals(1, sql.getShapes().size(), sql.describe());
+        }
+    }
+    
+    @Test
+    void productPageDoesNotLoadPerProductOnceCached() throws Exception {
+        // Arrange
+        mockMvc.perform(get("/api/products").param("size", "5")).andExpect(status().isOk());
+        
+        // Act & Assert
+        try (SqlCapture sql = SqlStatementTracker.begin()) {
+            mockMvc.perform(get("/api/products").param("size", "5")).andExpect(status().isOk());
+            // Page query and count; the listing version is still memoized
+            assertEquals(2, sql.getStatementCount(), sql.describe());
+        }
+    }
+    
+    @Test
+    void filteredPageLoadsItsProductsWithDetailsInOneQuery() throws Exception {
+        // Arrange: seeded straight through the repository, so no change events reached the index
+        productFacetIndex.rebuild();
+        
+        // Act & Assert
+        try (SqlCapture sql = SqlStatementTracker.begin()) {
+            mockMvc.perform(get("/api/products/filter").param("size", "5")).andExpect(status().isOk());
+            // Products with category and images, then the category facet labels
+            assertEquals(2, sql.getStatementCount(), sql.describe());
+        }
+    }
+}
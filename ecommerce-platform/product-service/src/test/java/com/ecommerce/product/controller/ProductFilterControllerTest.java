@@ -0,0 +1,101 @@
+package com.ecommerce.product.controller;
+
+import com.ecommerce.product.model.Category;
+import com.ecommerce.product.model.Product;
+import com.ecommerce.product.repository.CategoryRepository;
+import com.ecommerce.product.repository.ProductRepository;
+import com.ecommerce.product.service.ProductFacetIndex;
+import com.ecommerce.product.service.ProductService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static com.ecommerce.product.controller.ProductFixtures.product;
+import static org.hamcrest.Matchers.contains;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ProductFilterControllerTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private CategoryRepository categoryRepository;
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Autowired
+    private ProductFacetIndex productFacetIndex;
+    
+    private Category lighting;
+    private Product cheapLamp;
+    
+    @BeforeEach
+    void setUp() {
+        lighting = categoryRepository.save(Category.builder().name("Lighting").build());
+        Category garden = categoryRepository.save(Category.builder().name("Garden").build());
+        cheapLamp = productRepository.save(product("Desk lamp", "LAMP-1", lighting, "19.99", 5, "4.50"));
+        productRepository.save(product("Floor lamp", "LAMP-2", lighting, "120.00", 0, "3.20"));
+        productRepository.save(product("Pendant", "LAMP-3", lighting, "45.00", 2, "0"));
+        productRepository.save(product("Hose", "GARD-1", garden, "30.00", 8, "4.10"));
+        // Seeded straight through the repository, so no change events reached the index
+        productFacetIndex.rebuild();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+        productFacetIndex.rebuild();
+    }
+    
+    @Test
+    void intersectsFacetsAndCountsEachAgainstTheOthers() throws Exception {
+        // Act & Assert: in-stock lighting under 50
+        mockMvc.perform(get("/api/products/filter")
+                        .param("categoryId", lighting.getId().toString())
+                        .param("priceBand", "0-25", "25-50")
+                        .param("inStock", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.products.totalElements").value(2))
+                .andExpect(jsonPath("$.data.products.content[*].name", contains("Desk lamp", "Pendant")))
+                // Categories are counted without the category selection: the hose matches the rest
+                .andExpect(jsonPath("$.data.facets.category[*].label", contains("Lighting", "Garden")))
+                .andExpect(jsonPath("$.data.facets.category[*].count", contains(2, 1)))
+                // Price bands ignore the price selection; the floor lamp is left out by the stock filter
+                .andExpect(jsonPath("$.data.facets.price[?(@.value == '100-250')].count", contains(0)))
+                .andExpect(jsonPath("$.data.facets.rating[*].count", contains(1, 0, 0, 0, 1)))
+                .andExpect(jsonPath("$.data.facets.availability[*].count", contains(2, 0)));
+    }
+    
+    @Test
+    void followsCommittedStockChanges() throws Exception {
+        // Act
+        productService.updateStock(cheapLamp.getId(), 0);
+        
+        // Assert
+        mockMvc.perform(get("/api/products/filter").param("inStock", "false"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.products.content[*].name", contains("Desk lamp", "Floor lamp")));
+    }
+    
+    @Test
+    void rejectsUnknownBand() throws Exception {
+        mockMvc.perform(get("/api/products/filter").param("priceBand", "10-20"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,28 @@
+package com.ecommerce.product.controller;
+
+import com.ecommerce.product.model.Category;
+import com.ecommerce.product.model.Product;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Products for the catalog listing tests, built unsaved and without images.
+ */
+final class ProductFixtures {
+    
+    private ProductFixtures() {
+    }
+    
+    static Product product(String name, String sku, Category category, String price, int stock, String rating) {
+        return Product.builder()
+                .name(name)
+                .sku(sku)
+                .category(category)
+                .price(new BigDecimal(price))
+                .stockQuantity(stock)
+                .averageRating(new BigDecimal(rating))
+                .images(List.of())
+                .build();
+    }
+}
@@ -0,0 +1,110 @@
+package com.ecommerce.product.controller;
+
+import com.ecommerce.common.sql.SqlCapture;
+import com.ecommerce.common.sql.SqlStatementTracker;
+import com.ecommerce.product.model.Category;
+import com.ecommerce.product.model.Product;
+import com.ecommerce.product.model.ProductImage;
+import com.ecommerce.product.repository.CategoryRepository;
+import com.ecommerce.product.repository.ProductRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ProductListViewControllerTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private CategoryRepository categoryRepository;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @BeforeEach
+    void setUp() {
+        Category category = categoryRepository.save(Category.builder().name("Rugs").build());
+        List<Product> products = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            Product product = Product.builder()
+                    .name("Rug " + i)
+                    .description("A long description of rug " + i)
+                    .price(new BigDecimal("89.00"))
+                    .category(category)
+                    .stockQuantity(4)
+                    .sku("RUG-" + i)
+                    .build();
+            product.setImages(List.of(
+                    ProductImage.builder().product(product).imageUrl("https://cdn.example.com/rug-" + i + ".jpg")
+                            .isPrimary(true).displayOrder(0).build(),
+                    ProductImage.builder().product(product).imageUrl("https://cdn.example.com/rug-" + i + "-side.jpg")
+                            .isPrimary(false).displayOrder(1).build()));
+            products.add(product);
+        }
+        productRepository.saveAll(products);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+    }
+    
+    @Test
+    void cardViewIsOneProjectionQueryWithoutDescriptionOrImageList() throws Exception {
+        try (SqlCapture sql = SqlStatementTracker.begin()) {
+            // Act & Assert
+            mockMvc.perform(get("/api/products").param("view", "card").param("size", "5"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data.content[0].primaryImageUrl").value("https://cdn.example.com/rug-1.jpg"))
+                    .andExpect(jsonPath("$.data.content[0].description").doesNotExist())
+                    .andExpect(jsonPath("$.data.content[0].images").doesNotExist());
+            // Page and count, besides the listing version; no per-product image or category loads
+            long listingStatements = sql.getShapes().keySet().stream().filter(shape -> !shape.contains("max(")).count();
+            assertEquals(2, listingStatements, sql.describe());
+            assertTrue(sql.getRepeatedShapes(2).isEmpty(), sql.describe());
+            assertTrue(sql.getShapes().keySet().stream().noneMatch(shape -> shape.contains("description")), sql.describe());
+        }
+        DistributionSummary payload = meterRegistry.find("catalog.products.list.payload").tag("view", "card").summary();
+        assertTrue(payload != null && payload.totalAmount() > 0);
+    }
+    
+    @Test
+    void sparseFieldsetReturnsOnlyTheNamedFields() throws Exception {
+        mockMvc.perform(get("/api/products").param("fields", "id,name,createdAt").param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.content[0].name").value("Rug 1"))
+                .andExpect(jsonPath("$.data.content[0].createdAt").exists())
+                .andExpect(jsonPath("$.data.content[0].price").doesNotExist());
+    }
+    
+    @Test
+    void rejectsFieldsOutsideTheView() throws Exception {
+        mockMvc.perform(get("/api/products").param("view", "card").param("fields", "description"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,151 @@
+package com.ecommerce.product.controller;
+
+import com.ecommerce.product.dto.ProductDto;
+import com.ecommerce.product.model.Category;
+import com.ecommerce.product.model.Product;
+import com.ecommerce.product.repository.CategoryRepository;
+import com.ecommerce.product.repository.ProductRepository;
+import com.ecommerce.product.service.ProductService;
+import com.ecommerce.product.service.ProductSnapshotIndex;
+import com.ecommerce.product.util.ProductColumnFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+
+import static com.ecommerce.product.controller.ProductFixtures.product;
+import static org.hamcrest.Matchers.contains;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ProductSnapshotControllerTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private CategoryRepository categoryRepository;
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Autowired
+    private ProductSnapshotIndex productSnapshotIndex;
+    
+    private Product deskLamp;
+    private Product pendant;
+    
+    @BeforeEach
+    void setUp() {
+        Category lighting = categoryRepository.save(Category.builder().name("Lighting").build());
+        Category garden = categoryRepository.save(Category.builder().name("Garden").build());
+        deskLamp = productRepository.save(product("Desk lamp", "LAMP-1", lighting, "19.99", 5, "4.50"));
+        productRepository.save(product("Floor lamp", "LAMP-2", lighting, "120.00", 0, "3.20"));
+        pendant = productRepository.save(product("Pendant", "LAMP-3", lighting, "45.00", 2, "0"));
+        productRepository.save(product("Hose", "GARD-1", garden, "30.00", 8, "4.10"));
+        // Seeded straight through the repository, so no change events reached the snapshot
+        productSnapshotIndex.rebuild();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+        productSnapshotIndex.rebuild();
+    }
+    
+    @Test
+    void sortsByPriceFromTheSnapshot() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/products").param("sortBy", "price").param("direction", "DESC").param("size", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.totalElements").value(4))
+                .andExpect(jsonPath("$.data.content[*].name", contains("Floor lamp", "Pendant", "Hose")))
+                .andExpect(jsonPath("$.data.content[0].images").isArray());
+    }
+    
+    @Test
+    void filtersByPriceRatingAndStock() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/products")
+                        .param("minPrice", "19.99")
+                        .param("maxPrice", "50")
+                        .param("inStockOnly", "true")
+                        .param("sortBy", "averageRating")
+                        .param("direction", "DESC")
+                        .param("view", "card"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.totalElements").value(3))
+                .andExpect(jsonPath("$.data.content[*].name", contains("Desk lamp", "Hose", "Pendant")));
+        mockMvc.perform(get("/api/products").param("minRating", "4.2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.content[*].name", contains("Desk lamp")));
+    }
+    
+    @Test
+    void followsCommittedPriceChanges() throws Exception {
+        // Act
+        productService.updateProduct(deskLamp.getId(), ProductDto.UpdateProductRequest.builder()
+                .price(new BigDecimal("99.00"))
+                .build());
+        productSnapshotIndex.applyPending();
+        
+        // Assert
+        mockMvc.perform(get("/api/products").param("sortBy", "price"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.content[*].name", contains("Hose", "Pendant", "Desk lamp", "Floor lamp")));
+    }
+    
+    @Test
+    void appliesCommittedStockChangesOnItsOwnThread() throws Exception {
+        // Act
+        productService.updateStock(pendant.getId(), 50);
+        
+        // Assert: the committing call returned before the snapshot moved the pendant
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (productSnapshotIndex.page(Sort.by(Sort.Order.desc("stockQuantity")), ProductColumnFile.Filter.NONE, 0, 1)
+                .productIds().get(0) != pendant.getId().longValue() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        mockMvc.perform(get("/api/products").param("sortBy", "stockQuantity").param("direction", "DESC"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.content[*].name", contains("Pendant", "Hose", "Desk lamp", "Floor lamp")));
+    }
+    
+    @Test
+    void dropsProductsDeletedBehindItsBack() throws Exception {
+        // Arrange: no change event, as for a delete made through another instance
+        productRepository.deleteById(pendant.getId());
+        
+        // Act & Assert
+        mockMvc.perform(get("/api/products").param("sortBy", "price"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.content[*].name", contains("Desk lamp", "Hose", "Floor lamp")));
+        productSnapshotIndex.applyPending();
+        mockMvc.perform(get("/api/products").param("sortBy", "price"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.totalElements").value(3));
+    }
+    
+    @Test
+    void rejectsFiltersWithASortTheSnapshotLacks() throws Exception {
+        mockMvc.perform(get("/api/products").param("minPrice", "10").param("sortBy", "name"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value(
+                        "Filtered listings sort by one of [id, price, averageRating, stockQuantity, createdAt]"));
+    }
+}
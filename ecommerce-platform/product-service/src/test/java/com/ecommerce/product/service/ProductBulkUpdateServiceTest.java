@@ -0,0 +1,176 @@
+package com.ecommerce.product.service;
+
+import com.ecommerce.product.dto.BulkUpdateDto;
+import com.ecommerce.product.event.ProductChangedEvent;
+import com.ecommerce.product.model.Category;
+import com.ecommerce.product.model.Product;
+import com.ecommerce.product.repository.CategoryRepository;
+import com.ecommerce.product.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "catalog.bulk.chunk-size=2")
+@ActiveProfiles("test")
+@RecordApplicationEvents
+class ProductBulkUpdateServiceTest {
+    
+    @Autowired
+    private ProductBulkUpdateService productBulkUpdateService;
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private CategoryRepository categoryRepository;
+    
+    @Autowired
+    private CategoryService categoryService;
+    
+    @Autowired
+    private ApplicationEvents events;
+    
+    private Category lighting;
+    private final LocalDateTime longAgo = LocalDateTime.now().minusDays(30).truncatedTo(ChronoUnit.SECONDS);
+    
+    @BeforeEach
+    void setUp() {
+        lighting = categoryRepository.save(Category.builder().name("Lighting").build());
+        Category lamps = categoryRepository.save(Category.builder().name("Lamps").parentCategory(lighting).build());
+        Category garden = categoryRepository.save(Category.builder().name("Garden").build());
+        categoryService.rebuildClosure();
+        productRepository.saveAll(List.of(
+                product("LGT-1", "40.00", lighting, 5),
+                product("LMP-1", "20.00", lamps, 0),
+                product("LMP-2", "9.99", lamps, 3),
+                product("GDN-1", "40.00", garden, 7)));
+    }
+    
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+        categoryService.rebuildClosure();
+    }
+    
+    @Test
+    void percentageRuleCoversTheSubtreeInChunks() {
+        // Arrange
+        BulkUpdateDto.PriceAdjustmentRequest request = BulkUpdateDto.PriceAdjustmentRequest.builder()
+                .categoryId(lighting.getId())
+                .type(BulkUpdateDto.PriceAdjustmentType.PERCENTAGE)
+                .value(new BigDecimal("-15"))
+                .rounding(BulkUpdateDto.PriceRounding.NINETY_NINE)
+                .build();
+        
+        // Act
+        BulkUpdateDto.BulkUpdateSummary summary = productBulkUpdateService.adjustPrices(request);
+        
+        // Assert
+        assertEquals(3, summary.getUpdated());
+        assertEquals(2, summary.getChunks());
+        assertEquals(0, new BigDecimal("33.99").compareTo(price("LGT-1")));
+        assertEquals(0, new BigDecimal("16.99").compareTo(price("LMP-1")));
+        assertEquals(0, new BigDecimal("7.99").compareTo(price("LMP-2")));
+        assertEquals(0, new BigDecimal("40.00").compareTo(price("GDN-1")));
+        assertTrue(productRepository.findBySku("LMP-2").orElseThrow().getUpdatedAt().isAfter(longAgo));
+        assertTrue(productRepository.findBySku("GDN-1").orElseThrow().getUpdatedAt().isEqual(longAgo));
+        assertEquals(2, events.stream(ProductChangedEvent.class).count());
+    }
+    
+    @Test
+    void listedProductsReportIdsThatDoNotExist() {
+        // Arrange: chunks of two, the second holding only the unknown id
+        Long lamp = productRepository.findBySku("LMP-1").orElseThrow().getId();
+        Long hose = productRepository.findBySku("GDN-1").orElseThrow().getId();
+        Long unknown = Math.max(lamp, hose) + 1_000;
+        BulkUpdateDto.PriceAdjustmentRequest request = BulkUpdateDto.PriceAdjustmentRequest.builder()
+                .productIds(List.of(unknown, hose, lamp))
+                .type(BulkUpdateDto.PriceAdjustmentType.ABSOLUTE)
+                .value(new BigDecimal("-5.00"))
+                .build();
+        
+        // Act
+        BulkUpdateDto.BulkUpdateSummary summary = productBulkUpdateService.adjustPrices(request);
+        
+        // Assert
+        assertEquals(2, summary.getMatched());
+        assertEquals(2, summary.getUpdated());
+        assertEquals(1, summary.getUnknownProductIdCount());
+        assertEquals(List.of(unknown), summary.getUnknownProductIds());
+        assertEquals(0, new BigDecimal("15.00").compareTo(price("LMP-1")));
+        assertEquals(0, new BigDecimal("35.00").compareTo(price("GDN-1")));
+        // The chunk with nothing to change publishes nothing
+        assertEquals(1, events.stream(ProductChangedEvent.class).count());
+    }
+    
+    @Test
+    void stockSetSkipsUnchangedRowsAndReportsUnknownSkus() {
+        // Arrange
+        BulkUpdateDto.StockSyncRequest request = BulkUpdateDto.StockSyncRequest.builder()
+                .mode(BulkUpdateDto.StockSyncMode.SET)
+                .lines(List.of(line("LGT-1", 5), line("LMP-1", 12), line("NOPE-1", 4), line("GDN-1", 0)))
+                .build();
+        
+        // Act
+        BulkUpdateDto.BulkUpdateSummary summary = productBulkUpdateService.syncStock(request);
+        
+        // Assert
+        assertEquals(3, summary.getMatched());
+        assertEquals(2, summary.getUpdated());
+        assertEquals(List.of("NOPE-1"), summary.getUnknownSkus());
+        assertEquals(12, productRepository.findBySku("LMP-1").orElseThrow().getStockQuantity());
+        assertEquals(0, productRepository.findBySku("GDN-1").orElseThrow().getStockQuantity());
+        assertTrue(productRepository.findBySku("LGT-1").orElseThrow().getUpdatedAt().isEqual(longAgo));
+        // One event per chunk, each naming only the product that changed
+        assertEquals(List.of(1, 1), events.stream(ProductChangedEvent.class).map(event -> event.productIds().size()).toList());
+    }
+    
+    @Test
+    void stockDeltaDoesNotGoBelowZero() {
+        // Arrange
+        BulkUpdateDto.StockSyncRequest request = BulkUpdateDto.StockSyncRequest.builder()
+                .mode(BulkUpdateDto.StockSyncMode.DELTA)
+                .lines(List.of(line("LMP-2", -2), line("LMP-2", -4), line("GDN-1", 3)))
+                .build();
+        
+        // Act
+        productBulkUpdateService.syncStock(request);
+        
+        // Assert
+        assertEquals(0, productRepository.findBySku("LMP-2").orElseThrow().getStockQuantity());
+        assertEquals(10, productRepository.findBySku("GDN-1").orElseThrow().getStockQuantity());
+    }
+    
+    private Product product(String sku, String price, Category category, int stock) {
+        return Product.builder()
+                .name(sku)
+                .sku(sku)
+                .price(new BigDecimal(price))
+                .category(category)
+                .stockQuantity(stock)
+                .updatedAt(longAgo)
+                .build();
+    }
+    
+    private BigDecimal price(String sku) {
+        return productRepository.findBySku(sku).orElseThrow().getPrice();
+    }
+    
+    private static BulkUpdateDto.StockSyncLine line(String sku, int quantity) {
+        return BulkUpdateDto.StockSyncLine.builder().sku(sku).quantity(quantity).build();
+    }
+}
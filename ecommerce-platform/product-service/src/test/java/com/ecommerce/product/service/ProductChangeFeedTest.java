@@ -0,0 +1,207 @@
+package com.ecommerce.product.service;
+
+import com.ecommerce.product.dto.ChangeFeedDto;
+import com.ecommerce.product.event.ProductChangedEvent;
+import com.ecommerce.product.event.ProductChangedEvent.ChangeType;
+import com.ecommerce.product.repository.ProductRepository;
+import com.ecommerce.product.repository.ProductRepository.SnapshotRow;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductChangeFeedTest {
+    
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ProductChangeFeed feed = new ProductChangeFeed(productRepository, meterRegistry, 8, 3, 10, Duration.ofHours(1));
+    
+    @AfterEach
+    void tearDown() {
+        feed.shutdown();
+    }
+    
+    @Test
+    void numbersChangesInOrderWithTheStateAfterThem() throws Exception {
+        // Arrange
+        long start = feed.head();
+        SnapshotRow kettle = row(1, "19.99", 4);
+        AtomicReference<String> readOn = new AtomicReference<>();
+        when(productRepository.findSnapshotRowsByIdIn(any())).thenAnswer(invocation -> {
+            readOn.set(Thread.currentThread().getName());
+            return List.of(kettle);
+        });
+        
+        // Act: product 2 was deleted before its update was recorded
+        feed.onProductChanged(new ProductChangedEvent(ChangeType.STOCK_CHANGED, List.of(1L, 2L)));
+        feed.onProductChanged(ProductChangedEvent.of(ChangeType.DELETED, 3L));
+        awaitHead(start + 3);
+        
+        // Assert: the committing thread does not wait for the read
+        assertEquals("catalog-changes-recorder", readOn.get());
+        ChangeFeedDto.ChangePage page = feed.page(start, 10);
+        assertFalse(page.isReset());
+        assertEquals(start + 3, page.getLastSequence());
+        assertEquals(List.of(start + 1, start + 2, start + 3),
+                page.getChanges().stream().map(ChangeFeedDto.Change::getSequence).toList());
+        assertEquals(ChangeType.STOCK_CHANGED, page.getChanges().get(0).getType());
+        assertEquals(new BigDecimal("19.99"), page.getChanges().get(0).getPrice());
+        assertEquals(4, page.getChanges().get(0).getStockQuantity());
+        assertEquals(ChangeType.DELETED, page.getChanges().get(1).getType());
+        assertNull(page.getChanges().get(2).getPrice());
+        assertEquals(List.of(start + 3), feed.page(start + 2, 10).getChanges().stream()
+                .map(ChangeFeedDto.Change::getSequence).toList());
+    }
+    
+    @Test
+    void resetsClientsWhoseSequenceLeftTheWindowOrIsUnknown() throws Exception {
+        // Arrange
+        long start = feed.head();
+        
+        // Act: ten changes through a ring of eight
+        for (long id = 1; id <= 10; id++) {
+            feed.onProductChanged(ProductChangedEvent.of(ChangeType.DELETED, id));
+        }
+        awaitHead(start + 10);
+        
+        // Assert
+        assertTrue(feed.page(start + 1, 10).isReset());
+        assertEquals(start + 10, feed.page(start + 1, 10).getLastSequence());
+        assertFalse(feed.page(start + 2, 10).isReset());
+        assertEquals(8, feed.page(start + 2, 10).getChanges().size());
+        assertTrue(feed.page(start + 11, 10).isReset());
+    }
+    
+    @Test
+    void longPollCompletesOnTheNextChangeOrTimesOutEmpty() throws Exception {
+        // Arrange
+        long start = feed.head();
+        CompletableFuture<ChangeFeedDto.ChangePage> waiting = feed.await(start, 10, Duration.ofSeconds(10));
+        CompletableFuture<ChangeFeedDto.ChangePage> idle = feed.await(start, 10, Duration.ofMillis(50));
+        assertFalse(waiting.isDone());
+        
+        // Act
+        idle.get(5, TimeUnit.SECONDS);
+        feed.onProductChanged(ProductChangedEvent.of(ChangeType.DELETED, 7L));
+        
+        // Assert
+        assertEquals(7L, waiting.get(5, TimeUnit.SECONDS).getChanges().get(0).getProductId());
+        assertTrue(idle.get().getChanges().isEmpty());
+        assertEquals(start, idle.get().getLastSequence());
+    }
+    
+    @Test
+    void streamsTheBacklogThenNewChanges() throws Exception {
+        // Arrange
+        long start = feed.head();
+        feed.onProductChanged(ProductChangedEvent.of(ChangeType.DELETED, 1L));
+        RecordingSink sink = new RecordingSink(null);
+        
+        // Act
+        feed.subscribe(start, sink).orElseThrow();
+        feed.onProductChanged(ProductChangedEvent.of(ChangeType.DELETED, 2L));
+        
+        // Assert
+        assertTrue(sink.received(2), "received " + sink.productIds);
+        assertEquals(List.of(1L, 2L), sink.productIds);
+    }
+    
+    @Test
+    void dropsASubscriberThatFallsTooFarBehind() throws Exception {
+        // Arrange: the client stalls on its first write
+        CountDownLatch stalled = new CountDownLatch(1);
+        RecordingSink sink = new RecordingSink(stalled);
+        long start = feed.head();
+        feed.subscribe(start, sink).orElseThrow();
+        feed.onProductChanged(ProductChangedEvent.of(ChangeType.DELETED, 1L));
+        
+        // Act: more changes than max-lag pile up behind it
+        for (long id = 2; id <= 6; id++) {
+            feed.onProductChanged(ProductChangedEvent.of(ChangeType.DELETED, id));
+        }
+        awaitHead(start + 6);
+        stalled.countDown();
+        
+        // Assert
+        assertTrue(sink.closed.await(5, TimeUnit.SECONDS));
+        assertTrue(sink.overflowed);
+        assertEquals(1, meterRegistry.get("catalog.changes.overflows").counter().count());
+        assertEquals(0, meterRegistry.get("catalog.changes.subscribers").gauge().value());
+    }
+    
+    private void awaitHead(long sequence) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (feed.head() < sequence && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(sequence, feed.head());
+    }
+    
+    private static SnapshotRow row(long id, String price, int stock) {
+        SnapshotRow row = mock(SnapshotRow.class);
+        when(row.getId()).thenReturn(id);
+        when(row.getPrice()).thenReturn(new BigDecimal(price));
+        when(row.getStockQuantity()).thenReturn(stock);
+        return row;
+    }
+    
+    private static final class RecordingSink implements ProductChangeFeed.Sink {
+        
+        private final CountDownLatch stall;
+        private final List<Long> productIds = new ArrayList<>();
+        private final CountDownLatch closed = new CountDownLatch(1);
+        private volatile boolean overflowed;
+        
+        private RecordingSink(CountDownLatch stall) {
+            this.stall = stall;
+        }
+        
+        @Override
+        public synchronized void send(List<ChangeFeedDto.Change> changes) {
+            if (stall != null) {
+                try {
+                    stall.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            changes.forEach(change -> productIds.add(change.getProductId()));
+            notifyAll();
+        }
+        
+        @Override
+        public void reset(long lastSequence) {
+        }
+        
+        @Override
+        public void heartbeat() {
+        }
+        
+        @Override
+        public void close(boolean overflowed) {
+            this.overflowed = overflowed;
+            closed.countDown();
+        }
+        
+        synchronized boolean received(int count) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (productIds.size() < count && System.currentTimeMillis() < deadline) {
+                wait(100);
+            }
+            return productIds.size() >= count;
+        }
+    }
+}
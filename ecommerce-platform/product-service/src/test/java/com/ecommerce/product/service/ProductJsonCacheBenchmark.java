@@ -0,0 +1,77 @@
+package com.ecommerce.product.service;
+
+import com.ecommerce.common.dto.ApiResponse;
+import com.ecommerce.product.dto.ProductDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.RawValue;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * Compares encoding catalog responses with plain Jackson against splicing pre-encoded product
+ * fragments. Run with {@code gradle :product-service:benchmark}.
+ */
+@Tag("benchmark")
+class ProductJsonCacheBenchmark {
+    
+    private static final int WARMUP_ITERATIONS = 20_000;
+    private static final int MEASURED_ITERATIONS = 50_000;
+    
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final ProductJsonCache cache = new ProductJsonCache(objectMapper, 1_000);
+    
+    @Test
+    void singleProduct() throws Exception {
+        ProductDto.ProductResponse product = ProductJsonCacheTest.sampleProduct(1L);
+        RawValue fragment = cache.put(1L, product.getUpdatedAt(), product);
+        
+        compare("1 product",
+                () -> objectMapper.writeValueAsBytes(ApiResponse.success(product)),
+                () -> objectMapper.writeValueAsBytes(ApiResponse.success(fragment)));
+    }
+    
+    @Test
+    void pageOfHundredProducts() throws Exception {
+        List<ProductDto.ProductResponse> products = LongStream.rangeClosed(1, 100)
+                .mapToObj(ProductJsonCacheTest::sampleProduct)
+                .collect(Collectors.toList());
+        List<RawValue> fragments = products.stream()
+                .map(product -> cache.put(product.getId(), product.getUpdatedAt(), product))
+                .collect(Collectors.toList());
+        
+        compare("100 products",
+                () -> objectMapper.writeValueAsBytes(ApiResponse.success(new PageImpl<>(products, PageRequest.of(0, 100), 1_000))),
+                () -> objectMapper.writeValueAsBytes(ApiResponse.success(new PageImpl<>(fragments, PageRequest.of(0, 100), 1_000))));
+    }
+    
+    private void compare(String label, Callable<byte[]> jackson, Callable<byte[]> spliced) throws Exception {
+        double jacksonNanos = measure(jackson);
+        double splicedNanos = measure(spliced);
+        System.out.printf("%-13s jackson %,10.0f ns/op   fragments %,10.0f ns/op   speedup %.1fx   (%,d bytes)%n",
+                label, jacksonNanos, splicedNanos, jacksonNanos / splicedNanos, spliced.call().length);
+    }
+    
+    private static double measure(Callable<byte[]> encoder) throws Exception {
+        long sink = 0;
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            sink += encoder.call().length;
+        }
+        long started = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            sink += encoder.call().length;
+        }
+        long elapsed = System.nanoTime() - started;
+        if (sink == 42) {
+            System.out.println();
+        }
+        return (double) elapsed / MEASURED_ITERATIONS;
+    }
+}
@@ -0,0 +1,94 @@
+package com.ecommerce.product.service;
+
+import com.ecommerce.common.dto.ApiResponse;
+import com.ecommerce.product.dto.ProductDto;
+import com.ecommerce.product.event.ProductChangedEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.RawValue;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductJsonCacheTest {
+    
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final ProductJsonCache cache = new ProductJsonCache(objectMapper, 100);
+    
+    @Test
+    void splicedPageMatchesPlainSerialization() throws Exception {
+        // Arrange
+        List<ProductDto.ProductResponse> products = LongStream.rangeClosed(1, 5)
+                .mapToObj(ProductJsonCacheTest::sampleProduct)
+                .collect(Collectors.toList());
+        List<RawValue> fragments = products.stream()
+                .map(product -> cache.put(product.getId(), product.getUpdatedAt(), product))
+                .collect(Collectors.toList());
+        LocalDateTime timestamp = LocalDateTime.of(2024, 1, 1, 0, 0);
+        
+        // Act
+        ApiResponse<?> plain = ApiResponse.success(new PageImpl<>(products, PageRequest.of(0, 5), 20));
+        ApiResponse<?> spliced = ApiResponse.success(new PageImpl<>(fragments, PageRequest.of(0, 5), 20));
+        plain.setTimestamp(timestamp);
+        spliced.setTimestamp(timestamp);
+        
+        // Assert
+        assertEquals(objectMapper.writeValueAsString(plain), objectMapper.writeValueAsString(spliced));
+    }
+    
+    @Test
+    void fragmentIsOnlyUsedForTheVersionItWasBuiltFrom() {
+        // Arrange
+        ProductDto.ProductResponse product = sampleProduct(1L);
+        cache.put(1L, product.getUpdatedAt(), product);
+        
+        // Act & Assert
+        assertNotNull(cache.getIfCurrent(1L, product.getUpdatedAt()));
+        assertNull(cache.getIfCurrent(1L, product.getUpdatedAt().plusNanos(1_000)));
+    }
+    
+    @Test
+    void committedChangeEvictsFragment() {
+        // Arrange
+        ProductDto.ProductResponse product = sampleProduct(1L);
+        cache.put(1L, product.getUpdatedAt(), product);
+        
+        // Act
+        cache.onProductChanged(ProductChangedEvent.of(ProductChangedEvent.ChangeType.STOCK_CHANGED, 1L));
+        
+        // Assert
+        assertNull(cache.getIfCurrent(1L, product.getUpdatedAt()));
+        assertEquals(0, cache.size());
+    }
+    
+    static ProductDto.ProductResponse sampleProduct(long id) {
+        LocalDateTime created = LocalDateTime.of(2024, 3, 1, 12, 30, 15, 123_456_000);
+        return ProductDto.ProductResponse.builder()
+                .id(id)
+                .name("Product " + id)
+                .description("A sturdy, well-reviewed product with a \"quoted\" description and ünïcödé")
+                .price(new BigDecimal("1299.99"))
+                .categoryId(3L)
+                .categoryName("Electronics")
+                .stockQuantity(42)
+                .sku("SKU-" + id)
+                .averageRating(new BigDecimal("4.50"))
+                .totalReviews(12)
+                .images(List.of(
+                        ProductDto.ProductImageDto.builder().id(id * 10).imageUrl("https://cdn.example.com/p/" + id + "/1.jpg")
+                                .isPrimary(true).displayOrder(0).build(),
+                        ProductDto.ProductImageDto.builder().id(id * 10 + 1).imageUrl("https://cdn.example.com/p/" + id + "/2.jpg")
+                                .isPrimary(false).displayOrder(1).build()))
+                .createdAt(created)
+                .updatedAt(created.plusDays(id))
+                .build();
+    }
+}
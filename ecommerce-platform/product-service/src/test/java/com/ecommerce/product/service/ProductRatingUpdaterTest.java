@@ -0,0 +1,111 @@
+package com.ecommerce.product.service;
+
+import com.ecommerce.product.dto.ReviewDto;
+import com.ecommerce.product.event.ProductChangedEvent;
+import com.ecommerce.product.model.Product;
+import com.ecommerce.product.repository.ProductRepository;
+import com.ecommerce.product.repository.ReviewRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = "catalog.ratings.flush-interval=1h")
+@ActiveProfiles("test")
+@RecordApplicationEvents
+class ProductRatingUpdaterTest {
+    
+    @Autowired
+    private ReviewService reviewService;
+    
+    @Autowired
+    private ProductRatingUpdater productRatingUpdater;
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private ReviewRepository reviewRepository;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Autowired
+    private ApplicationEvents events;
+    
+    private Product product;
+    
+    @BeforeEach
+    void setUp() {
+        product = productRepository.save(Product.builder()
+                .name("Launch Headphones")
+                .sku("HP-LAUNCH")
+                .price(new BigDecimal("199.00"))
+                .stockQuantity(100)
+                .build());
+    }
+    
+    @AfterEach
+    void tearDown() {
+        reviewRepository.deleteAll();
+        productRepository.deleteAll();
+    }
+    
+    @Test
+    void manyReviewsOfOneProductBecomeOneRatingUpdate() {
+        // Arrange
+        int[] ratings = {5, 4, 4, 3, 5, 2};
+        for (int i = 0; i < ratings.length; i++) {
+            reviewService.createReview(100L + i, review(ratings[i]));
+        }
+        assertEquals(0, productRepository.findById(product.getId()).orElseThrow().getTotalReviews());
+        long lagCount = meterRegistry.get("catalog.ratings.lag").timer().count();
+        
+        // Act
+        int applied = productRatingUpdater.flush();
+        
+        // Assert
+        Product updated = productRepository.findById(product.getId()).orElseThrow();
+        assertEquals(1, applied);
+        assertEquals(6, updated.getTotalReviews());
+        assertEquals(0, new BigDecimal("3.83").compareTo(updated.getAverageRating()));
+        assertEquals(1, events.stream(ProductChangedEvent.class)
+                .filter(event -> event.type() == ProductChangedEvent.ChangeType.RATING_CHANGED)
+                .count());
+        assertEquals(lagCount + 1, meterRegistry.get("catalog.ratings.lag").timer().count());
+        assertEquals(0, productRatingUpdater.flush());
+    }
+    
+    @Test
+    void deletingTheLastReviewResetsTheRating() {
+        // Arrange
+        ReviewDto.ReviewResponse created = reviewService.createReview(7L, review(1));
+        productRatingUpdater.flush();
+        
+        // Act
+        reviewService.deleteReview(created.getId(), 7L);
+        productRatingUpdater.flush();
+        
+        // Assert
+        Product updated = productRepository.findById(product.getId()).orElseThrow();
+        assertEquals(0, updated.getTotalReviews());
+        assertEquals(0, BigDecimal.ZERO.compareTo(updated.getAverageRating()));
+    }
+    
+    private ReviewDto.CreateReviewRequest review(int rating) {
+        return ReviewDto.CreateReviewRequest.builder()
+                .productId(product.getId())
+                .rating(rating)
+                .title("Rated " + rating)
+                .build();
+    }
+}
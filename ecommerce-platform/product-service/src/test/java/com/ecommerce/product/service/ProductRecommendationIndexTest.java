@@ -0,0 +1,90 @@
+package com.ecommerce.product.service;
+
+import com.ecommerce.product.client.OrderServiceClient;
+import com.ecommerce.product.dto.PurchaseDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductRecommendationIndexTest {
+    
+    private final OrderServiceClient orderServiceClient = mock(OrderServiceClient.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ProductRecommendationIndex index = new ProductRecommendationIndex(
+            orderServiceClient, meterRegistry, true, 3, 6, 1000, 2, 3, Duration.ofHours(1), Duration.ofHours(24));
+    private final LocalDateTime deliveredAt = LocalDateTime.of(2026, 3, 1, 12, 0);
+    
+    @BeforeEach
+    void setUp() {
+        // Tents go with stoves twice and with lanterns once; order 2 appears again on the second page
+        when(orderServiceClient.getDeliveredSince(any(), eq(0L), anyInt())).thenReturn(page(true, 2,
+                delivered(1, 100L, 101L, 102L), delivered(2, 100L, 101L)));
+        when(orderServiceClient.getDeliveredSince(any(), eq(2L), anyInt())).thenReturn(page(false, 3,
+                delivered(2, 100L, 101L), delivered(3, 103L)));
+        when(orderServiceClient.getDeliveredSince(any(), eq(3L), anyInt())).thenReturn(page(false, 3));
+    }
+    
+    @AfterEach
+    void tearDown() {
+        index.shutdown();
+    }
+    
+    @Test
+    void rebuildCountsEachOrderOnceAcrossPartitions() {
+        // Act
+        long orders = index.rebuild();
+        
+        // Assert
+        assertEquals(2, orders);
+        assertEquals(List.of(101L, 102L), index.boughtTogether(100, 5));
+        assertEquals(List.of(100L, 102L), index.boughtTogether(101, 5));
+        assertEquals(List.of(), index.boughtTogether(103, 5));
+        assertEquals(3, meterRegistry.get("catalog.recommendations.products").gauge().value());
+    }
+    
+    @Test
+    void pollFoldsNewOrdersIntoTheServedLists() {
+        // Arrange
+        index.rebuild();
+        when(orderServiceClient.getDeliveredSince(any(), eq(3L), anyInt())).thenReturn(page(false, 5,
+                delivered(4, 100L, 102L), delivered(5, 100L, 102L)));
+        
+        // Act
+        long orders = index.poll();
+        
+        // Assert
+        assertEquals(2, orders);
+        assertEquals(List.of(102L), index.boughtTogether(100, 1));
+        assertEquals(List.of(100L, 101L), index.boughtTogether(102, 5));
+    }
+    
+    private PurchaseDto.DeliveredOrder delivered(long orderId, Long... productIds) {
+        return PurchaseDto.DeliveredOrder.builder()
+                .orderId(orderId)
+                .userId(7L)
+                .updatedAt(deliveredAt)
+                .productIds(List.of(productIds))
+                .build();
+    }
+    
+    private PurchaseDto.DeliveredPage page(boolean hasMore, long lastOrderId, PurchaseDto.DeliveredOrder... orders) {
+        return PurchaseDto.DeliveredPage.builder()
+                .orders(List.of(orders))
+                .nextSince(deliveredAt)
+                .nextAfterOrderId(lastOrderId)
+                .hasMore(hasMore)
+                .build();
+    }
+}
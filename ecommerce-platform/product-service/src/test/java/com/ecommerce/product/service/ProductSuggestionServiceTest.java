@@ -0,0 +1,66 @@
+package com.ecommerce.product.service;
+
+import com.ecommerce.product.event.ProductChangedEvent;
+import com.ecommerce.product.event.ProductChangedEvent.ChangeType;
+import com.ecommerce.product.repository.CategoryRepository;
+import com.ecommerce.product.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProductSuggestionServiceTest {
+    
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final CategoryRepository categoryRepository = mock(CategoryRepository.class);
+    private final ProductSuggestionService service = new ProductSuggestionService(productRepository, categoryRepository,
+            Duration.ofMillis(10), Duration.ofMillis(400), Duration.ofHours(1));
+    
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+    
+    @Test
+    void stockAndRatingChangesWaitForThePeriodicRebuild() throws Exception {
+        // Arrange
+        when(productRepository.findSuggestionSourcesAfter(anyLong(), any())).thenReturn(List.of());
+        service.rebuild();
+        
+        // Act
+        service.onProductChanged(ProductChangedEvent.of(ChangeType.STOCK_CHANGED, 1L));
+        service.onProductChanged(ProductChangedEvent.of(ChangeType.RATING_CHANGED, 1L));
+        Thread.sleep(600);
+        
+        // Assert
+        verify(productRepository, times(1)).findSuggestionSourcesAfter(anyLong(), any());
+    }
+    
+    @Test
+    void editsRightAfterARebuildWaitForTheMinimumInterval() throws Exception {
+        // Arrange
+        when(productRepository.findSuggestionSourcesAfter(anyLong(), any())).thenReturn(List.of());
+        service.rebuild();
+        
+        // Act: a burst of edits well inside the minimum interval
+        service.onProductChanged(ProductChangedEvent.of(ChangeType.UPDATED, 1L));
+        service.onProductChanged(ProductChangedEvent.of(ChangeType.CREATED, 2L));
+        service.onProductChanged(ProductChangedEvent.of(ChangeType.DELETED, 3L));
+        Thread.sleep(100);
+        
+        // Assert
+        verify(productRepository, times(1)).findSuggestionSourcesAfter(anyLong(), any());
+        verify(productRepository, timeout(5_000).times(2)).findSuggestionSourcesAfter(anyLong(), any());
+        Thread.sleep(100);
+        verify(productRepository, times(2)).findSuggestionSourcesAfter(anyLong(), any());
+    }
+}
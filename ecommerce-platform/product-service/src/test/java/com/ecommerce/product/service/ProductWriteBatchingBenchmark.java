@@ -0,0 +1,122 @@
+package com.ecommerce.product.service;
+
+import com.ecommerce.common.sql.SqlCapture;
+import com.ecommerce.common.sql.SqlStatementTracker;
+import com.ecommerce.product.dto.ProductDto;
+import com.ecommerce.product.model.Category;
+import com.ecommerce.product.repository.CategoryRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.stream.IntStream;
+
+/**
+ * Compares cascaded product writes with JDBC batching off, one round trip per row as under the old
+ * identity columns, and on. Run with {@code gradle :product-service:benchmark}. Against H2 in memory a
+ * round trip costs next to nothing, so the round-trip counts are the figure to compare; for latency,
+ * point it at PostgreSQL with {@code SPRING_DATASOURCE_URL}, {@code SPRING_DATASOURCE_USERNAME},
+ * {@code SPRING_DATASOURCE_PASSWORD}, {@code SPRING_JPA_PROPERTIES_HIBERNATE_DIALECT} and
+ * {@code SPRING_FLYWAY_SCHEMAS}.
+ */
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductWriteBatchingBenchmark {
+    
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int MEASURED_ROUNDS = 100;
+    private static final int UNBATCHED = 1;
+    private static final int CONFIGURED = 0;
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Autowired
+    private CategoryRepository categoryRepository;
+    
+    @Autowired
+    private EntityManager entityManager;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    private TransactionTemplate transactionTemplate;
+    private Category category;
+    private int nextSku;
+    
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        category = categoryRepository.save(Category.builder().name("Benchmark " + System.nanoTime()).build());
+    }
+    
+    @Test
+    void productWithTenImages() {
+        compare("1 product, 10 images", 1, 10);
+    }
+    
+    @Test
+    void importOfTwentyProducts() {
+        compare("20 products, 10 images each", 20, 10);
+    }
+    
+    private void compare(String label, int products, int images) {
+        Result unbatched = measure(UNBATCHED, products, images);
+        Result batched = measure(CONFIGURED, products, images);
+        System.out.printf("%-28s unbatched %4d round trips %,9.0f us/op (%,9.0f in JDBC)   batched %4d round trips %,9.0f us/op (%,9.0f in JDBC)   speedup %.1fx%n",
+                label, unbatched.roundTrips(), unbatched.micros(), unbatched.jdbcMicros(),
+                batched.roundTrips(), batched.micros(), batched.jdbcMicros(), unbatched.micros() / batched.micros());
+    }
+    
+    private Result measure(int batchSize, int products, int images) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            write(batchSize, products, images);
+        }
+        int roundTrips = 0;
+        long jdbcNanos = 0;
+        long started = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            try (SqlCapture sql = SqlStatementTracker.begin()) {
+                write(batchSize, products, images);
+                roundTrips = sql.getRoundTripCount();
+                jdbcNanos += sql.getExecutionTime().toNanos();
+            }
+        }
+        long elapsed = System.nanoTime() - started;
+        return new Result(roundTrips, elapsed / 1_000.0 / MEASURED_ROUNDS, jdbcNanos / 1_000.0 / MEASURED_ROUNDS);
+    }
+    
+    /**
+     * Creates the products through {@link ProductService} in one transaction, the way an import would.
+     */
+    private void write(int batchSize, int products, int images) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (batchSize != CONFIGURED) {
+                entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+            }
+            for (int p = 0; p < products; p++) {
+                String sku = "BENCH-" + category.getId() + "-" + nextSku++;
+                productService.createProduct(ProductDto.CreateProductRequest.builder()
+                        .name("Benchmark product " + sku)
+                        .price(new BigDecimal("19.99"))
+                        .categoryId(category.getId())
+                        .stockQuantity(10)
+                        .sku(sku)
+                        .imageUrls(IntStream.range(0, images).mapToObj(i -> "https://cdn.example.com/" + sku + "/" + i + ".jpg").toList())
+                        .build());
+            }
+        });
+    }
+    
+    private record Result(int roundTrips, double micros, double jdbcMicros) {
+    }
+}
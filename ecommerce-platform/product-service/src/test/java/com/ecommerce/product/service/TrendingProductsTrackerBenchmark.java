@@ -0,0 +1,54 @@
+package com.ecommerce.product.service;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-view cost of {@link TrendingProductsTracker#recordView} under skewed traffic from one thread and one per core.
+ * Run with {@code gradle :product-service:benchmark}.
+ */
+@Tag("benchmark")
+class TrendingProductsTrackerBenchmark {
+    
+    private static final int VIEWS_PER_THREAD = 5_000_000;
+    
+    @Test
+    void recordViewUnderContention() throws Exception {
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int threads : cores > 1 ? new int[]{1, cores} : new int[]{1}) {
+            TrendingProductsTracker tracker = new TrendingProductsTracker(65_536, 1_000, 100, 100, 200,
+                    Duration.ofMinutes(30), Duration.ofMinutes(1));
+            run(tracker, threads);
+            double nanos = run(tracker, threads);
+            System.out.printf("%d thread(s): %.1f ns per view%n", threads, nanos);
+            tracker.shutdown();
+        }
+    }
+    
+    private static double run(TrendingProductsTracker tracker, int threads) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(threads);
+        AtomicLong busyNanos = new AtomicLong();
+        for (int t = 0; t < threads; t++) {
+            new Thread(() -> {
+                // Roughly Zipfian over a million products in fifty categories
+                long[] ids = new long[VIEWS_PER_THREAD];
+                for (int i = 0; i < ids.length; i++) {
+                    ids[i] = (long) Math.pow(1_000_000, ThreadLocalRandom.current().nextDouble());
+                }
+                long started = System.nanoTime();
+                for (long id : ids) {
+                    tracker.recordView(id, id % 50);
+                }
+                busyNanos.addAndGet(System.nanoTime() - started);
+                done.countDown();
+            }).start();
+        }
+        done.await();
+        return (double) busyNanos.get() / threads / VIEWS_PER_THREAD;
+    }
+}
@@ -0,0 +1,100 @@
+package com.ecommerce.product.service;
+
+import com.ecommerce.product.service.TrendingProductsTracker.Trending;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrendingProductsTrackerTest {
+    
+    private final TrendingProductsTracker tracker =
+            new TrendingProductsTracker(1024, 3, 2, 20, 1, Duration.ofMinutes(10), Duration.ofMinutes(10));
+    
+    @AfterEach
+    void tearDown() {
+        tracker.shutdown();
+    }
+    
+    @Test
+    void keepsTheMostViewedProductsAndEvictsTheLeast() {
+        // Arrange & Act: four products competing for three slots, the late riser overtaking
+        view(1L, 50);
+        view(2L, 30);
+        view(3L, 10);
+        view(4L, 40);
+        
+        // Assert
+        List<Long> top = tracker.top().stream().map(Trending::productId).toList();
+        assertEquals(List.of(1L, 4L, 2L), top);
+        assertEquals(50.0, tracker.top().get(0).views(), 0.5);
+    }
+    
+    @Test
+    void decayHalvesOverTheHalfLife() {
+        // Arrange
+        view(7L, 100);
+        
+        // Act: one decay step equal to the half-life
+        tracker.decay();
+        view(8L, 60);
+        
+        // Assert
+        List<Trending> top = tracker.top();
+        assertEquals(8L, top.get(0).productId());
+        assertEquals(50.0, top.get(1).views(), 0.5);
+    }
+    
+    @Test
+    void tracksBusyCategoriesBeyondTheGlobalTop() {
+        // Arrange: category 5 turns busy on product 11's views, then its products compete for two slots,
+        // all of them outside the global top three
+        view(1L, 50);
+        view(2L, 40);
+        view(3L, 30);
+        view(11L, 20, 5L);
+        view(12L, 9, 5L);
+        view(13L, 7, 5L);
+        view(14L, 3, 5L);
+        
+        // Act
+        List<Long> inCategory = tracker.topInCategory(5L).stream().map(Trending::productId).toList();
+        
+        // Assert: the two most viewed of the category, and no heap for a second category past the limit
+        assertEquals(List.of(12L, 13L), inCategory);
+        assertEquals(List.of(1L, 2L, 3L), tracker.top().stream().map(Trending::productId).toList());
+        view(21L, 30, 6L);
+        assertTrue(tracker.topInCategory(6L).isEmpty());
+    }
+    
+    @Test
+    void quietCategoriesHaveNoHeapAndDecayedOnesLoseIt() {
+        // Arrange
+        view(11L, 15, 5L);
+        assertTrue(tracker.topInCategory(5L).isEmpty());
+        view(11L, 10, 5L);
+        assertEquals(List.of(11L), tracker.topInCategory(5L).stream().map(Trending::productId).toList());
+        
+        // Act: 25 views halve to 12.5, above half the threshold; halving again drops below it
+        tracker.decay();
+        List<Trending> afterOneStep = tracker.topInCategory(5L);
+        tracker.decay();
+        
+        // Assert
+        assertEquals(1, afterOneStep.size());
+        assertTrue(tracker.topInCategory(5L).isEmpty());
+    }
+    
+    private void view(long productId, int times) {
+        view(productId, times, null);
+    }
+    
+    private void view(long productId, int times, Long categoryId) {
+        for (int i = 0; i < times; i++) {
+            tracker.recordView(productId, categoryId);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.ecommerce.product.service;
+
+import com.ecommerce.product.client.OrderServiceClient;
+import com.ecommerce.product.dto.PurchaseDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class VerifiedPurchaseIndexTest {
+    
+    private final OrderServiceClient orderServiceClient = mock(OrderServiceClient.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final VerifiedPurchaseIndex index = new VerifiedPurchaseIndex(
+            orderServiceClient, meterRegistry, true, 1000, 0.01, 2, Duration.ofHours(1));
+    private final LocalDateTime deliveredAt = LocalDateTime.of(2026, 3, 1, 12, 0);
+    
+    @BeforeEach
+    void setUp() {
+        // Two pages of delivered orders: user 7 bought products 100 and 101, user 8 bought 100
+        when(orderServiceClient.getDeliveredSince(any(), eq(0L), anyInt())).thenReturn(page(true, 2,
+                delivered(1, 7, 100L, 101L), delivered(2, 8, 100L)));
+        when(orderServiceClient.getDeliveredSince(any(), eq(2L), anyInt())).thenReturn(page(false, 3,
+                delivered(3, 9, 102L)));
+        when(orderServiceClient.getDeliveredSince(any(), eq(3L), anyInt())).thenReturn(page(false, 3));
+    }
+    
+    @AfterEach
+    void tearDown() {
+        index.shutdown();
+    }
+    
+    @Test
+    void pairsOutsideTheFilterNeedNoRemoteCall() {
+        // Arrange
+        index.rebuild();
+        
+        // Act
+        boolean verified = index.isVerifiedPurchase(7, 555);
+        
+        // Assert
+        assertFalse(verified);
+        verify(orderServiceClient, never()).hasDeliveredPurchase(anyLong(), anyLong());
+        assertEquals(1, meterRegistry.get("catalog.purchases.lookups").tag("outcome", "filtered").counter().count());
+    }
+    
+    @Test
+    void filterHitsAreConfirmedExactly() {
+        // Arrange
+        index.rebuild();
+        when(orderServiceClient.hasDeliveredPurchase(9, 102)).thenReturn(true);
+        
+        // Act & Assert
+        assertTrue(index.isVerifiedPurchase(9, 102));
+        verify(orderServiceClient).hasDeliveredPurchase(9, 102);
+    }
+    
+    @Test
+    void pollAddsNewDeliveriesAfterTheCursor() {
+        // Arrange
+        index.rebuild();
+        when(orderServiceClient.getDeliveredSince(any(), eq(3L), anyInt())).thenReturn(page(false, 4,
+                delivered(4, 10, 103L)));
+        when(orderServiceClient.hasDeliveredPurchase(10, 103)).thenReturn(true);
+        
+        // Act
+        index.poll();
+        
+        // Assert
+        assertTrue(index.isVerifiedPurchase(10, 103));
+    }
+    
+    private PurchaseDto.DeliveredOrder delivered(long orderId, long userId, Long... productIds) {
+        return PurchaseDto.DeliveredOrder.builder()
+                .orderId(orderId)
+                .userId(userId)
+                .updatedAt(deliveredAt)
+                .productIds(List.of(productIds))
+                .build();
+    }
+    
+    private PurchaseDto.DeliveredPage page(boolean hasMore, long lastOrderId, PurchaseDto.DeliveredOrder... orders) {
+        return PurchaseDto.DeliveredPage.builder()
+                .orders(List.of(orders))
+                .nextSince(deliveredAt)
+                .nextAfterOrderId(lastOrderId)
+                .hasMore(hasMore)
+                .build();
+    }
+}
@@ -0,0 +1,54 @@
+package com.ecommerce.product.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTest {
+    
+    @Test
+    void hasNoFalseNegativesAndKeepsNearTheTargetRate() {
+        // Arrange
+        BloomFilter filter = new BloomFilter(100_000, 0.01);
+        Random random = new Random(11);
+        long[] keys = random.longs(100_000).toArray();
+        
+        // Act
+        for (long key : keys) {
+            filter.add(key);
+        }
+        
+        // Assert
+        for (long key : keys) {
+            assertTrue(filter.mightContain(key));
+        }
+        int falsePositives = 0;
+        int probes = 200_000;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain(random.nextLong())) {
+                falsePositives++;
+            }
+        }
+        double rate = (double) falsePositives / probes;
+        assertTrue(rate < 0.015, "false-positive rate " + rate);
+        assertTrue(filter.memoryBytes() < 130_000, filter.memoryBytes() + " bytes");
+        assertFalse(filter.isSaturated());
+    }
+    
+    @Test
+    void reportsSaturationPastTheExpectedSize() {
+        // Arrange
+        BloomFilter filter = new BloomFilter(10, 0.01);
+        
+        // Act
+        for (long key = 0; key < 11; key++) {
+            filter.add(key);
+        }
+        
+        // Assert
+        assertTrue(filter.isSaturated());
+        assertEquals(11, filter.addedCount());
+    }
+}
@@ -0,0 +1,80 @@
+package com.ecommerce.product.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressedBitmapTest {
+    
+    @Test
+    void matchesBitSetAcrossSparseAndDenseChunks() {
+        // Arrange: one sparse chunk, one that crosses the array/bitset threshold, one nearly full
+        Random random = new Random(42);
+        CompressedBitmap a = new CompressedBitmap();
+        CompressedBitmap b = new CompressedBitmap();
+        BitSet expectedA = new BitSet();
+        BitSet expectedB = new BitSet();
+        int[][] ranges = {{0, 300}, {65_536, 12_000}, {3 * 65_536, 60_000}};
+        for (int[] range : ranges) {
+            for (int i = 0; i < range[1]; i++) {
+                int value = range[0] + random.nextInt(65_536);
+                a.add(value);
+                expectedA.set(value);
+                int other = range[0] + random.nextInt(65_536);
+                b.add(other);
+                expectedB.set(other);
+            }
+        }
+        
+        // Act: remove enough to push the middle chunk back under the threshold
+        for (int value = 65_536; value < 65_536 + 60_000; value++) {
+            a.remove(value);
+            expectedA.clear(value);
+        }
+        
+        // Assert
+        assertEquals(expectedA.cardinality(), a.cardinality());
+        assertEquals(expectedA.stream().boxed().toList(), toList(a));
+        BitSet and = (BitSet) expectedA.clone();
+        and.and(expectedB);
+        BitSet or = (BitSet) expectedA.clone();
+        or.or(expectedB);
+        assertEquals(and.stream().boxed().toList(), toList(CompressedBitmap.and(a, b)));
+        assertEquals(and.cardinality(), CompressedBitmap.andCardinality(a, b));
+        assertEquals(or.stream().boxed().toList(), toList(CompressedBitmap.or(a, b)));
+        for (int probe = 0; probe < 4 * 65_536; probe += 97) {
+            assertEquals(expectedA.get(probe), a.contains(probe), "contains " + probe);
+        }
+    }
+    
+    @Test
+    void pagesSkipWholeChunks() {
+        // Arrange
+        CompressedBitmap bitmap = new CompressedBitmap();
+        List<Integer> expected = new ArrayList<>();
+        for (int value = 0; value < 200_000; value += 3) {
+            bitmap.add(value);
+            expected.add(value);
+        }
+        
+        // Act
+        int[] page = bitmap.page(30_000, 50);
+        int[] tail = bitmap.page(expected.size() - 10, 50);
+        
+        // Assert
+        assertArrayEquals(expected.subList(30_000, 30_050).stream().mapToInt(Integer::intValue).toArray(), page);
+        assertEquals(10, tail.length);
+        assertEquals(0, bitmap.page(expected.size() + 5, 50).length);
+    }
+    
+    private static List<Integer> toList(CompressedBitmap bitmap) {
+        List<Integer> values = new ArrayList<>();
+        bitmap.forEach(values::add);
+        return values;
+    }
+}
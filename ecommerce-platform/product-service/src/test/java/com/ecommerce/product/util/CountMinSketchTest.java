@@ -0,0 +1,56 @@
+package com.ecommerce.product.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CountMinSketchTest {
+    
+    @Test
+    void neverUnderestimatesAndStaysWithinTheErrorBound() {
+        // Arrange: Zipf-ish traffic over 50k keys into a sketch far smaller than the key space
+        CountMinSketch sketch = new CountMinSketch(4096);
+        Random random = new Random(3);
+        Map<Long, Long> exact = new HashMap<>();
+        int total = 500_000;
+        
+        // Act
+        for (int i = 0; i < total; i++) {
+            long key = (long) Math.pow(50_000, random.nextDouble());
+            sketch.add(key, 1);
+            exact.merge(key, 1L, Long::sum);
+        }
+        
+        // Assert
+        long bound = 2L * total / 4096;
+        long overBound = 0;
+        for (Map.Entry<Long, Long> entry : exact.entrySet()) {
+            long estimate = sketch.estimate(entry.getKey());
+            assertTrue(estimate >= entry.getValue(), "underestimated " + entry.getKey());
+            if (estimate - entry.getValue() > bound) {
+                overBound++;
+            }
+        }
+        // Each key exceeds the bound with probability at most 2^-4
+        assertTrue(overBound <= exact.size() / 16, overBound + " of " + exact.size() + " over bound");
+        assertEquals(0, sketch.estimate(-1L) > bound ? 1 : 0);
+    }
+    
+    @Test
+    void decayScalesCounts() {
+        // Arrange
+        CountMinSketch sketch = new CountMinSketch(1024);
+        sketch.add(42L, 1000);
+        
+        // Act
+        sketch.decay(0.5);
+        
+        // Assert
+        assertEquals(500, sketch.estimate(42L));
+        assertEquals(532, sketch.add(42L, 32));
+    }
+}
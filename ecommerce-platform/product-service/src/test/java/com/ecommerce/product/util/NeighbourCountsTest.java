@@ -0,0 +1,43 @@
+package com.ecommerce.product.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class NeighbourCountsTest {
+    
+    @Test
+    void topIsOrderedByCountThenId() {
+        // Arrange
+        NeighbourCounts counts = new NeighbourCounts(8);
+        for (long id : new long[] {5, 3, 5, 9, 3, 5, 7}) {
+            counts.increment(id);
+        }
+        
+        // Act
+        long[] top = counts.top(3);
+        
+        // Assert
+        assertArrayEquals(new long[] {5, 3, 7}, top);
+        assertEquals(3, counts.count(5));
+    }
+    
+    @Test
+    void frequentNeighboursKeepTheirSlotWhenFull() {
+        // Arrange
+        NeighbourCounts counts = new NeighbourCounts(4);
+        
+        // Act: two steady neighbours among a long tail of one-offs
+        for (long tail = 1000; tail < 1100; tail++) {
+            counts.increment(1);
+            counts.increment(2);
+            counts.increment(tail);
+        }
+        
+        // Assert
+        assertEquals(4, counts.size());
+        assertArrayEquals(new long[] {1, 2}, counts.top(2));
+        assertEquals(100, counts.count(1));
+    }
+}
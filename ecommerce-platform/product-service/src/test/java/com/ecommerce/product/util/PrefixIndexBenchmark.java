@@ -0,0 +1,57 @@
+package com.ecommerce.product.util;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Lookup latency of a typeahead-sized {@link PrefixIndex}: two million keys, prefixes of one to four
+ * characters. Run with {@code gradle :product-service:benchmark}.
+ */
+@Tag("benchmark")
+class PrefixIndexBenchmark {
+    
+    private static final int KEYS = 2_000_000;
+    private static final int LOOKUPS = 200_000;
+    
+    @Test
+    void topTenLatency() {
+        Random random = new Random(1);
+        PrefixIndex.Builder<Integer> builder = PrefixIndex.builder();
+        for (int value = 0; value < KEYS / 2; value++) {
+            builder.add(value, random.nextInt(1_000_000), List.of(word(random), word(random)));
+        }
+        long buildStarted = System.nanoTime();
+        PrefixIndex<Integer> index = builder.build();
+        long buildMillis = (System.nanoTime() - buildStarted) / 1_000_000;
+        
+        String[] prefixes = new String[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            prefixes[i] = word(random).substring(0, 1 + random.nextInt(4));
+        }
+        long sink = 0;
+        for (int i = 0; i < LOOKUPS; i++) {
+            sink += index.top(prefixes[i], 10).size();
+        }
+        long[] nanos = new long[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            long started = System.nanoTime();
+            sink += index.top(prefixes[i], 10).size();
+            nanos[i] = System.nanoTime() - started;
+        }
+        Arrays.sort(nanos);
+        System.out.printf("%,d keys (built in %,d ms)   p50 %,d ns   p99 %,d ns   p99.9 %,d ns   (%d)%n",
+                index.size(), buildMillis, nanos[LOOKUPS / 2], nanos[LOOKUPS * 99 / 100], nanos[LOOKUPS * 999 / 1000], sink);
+    }
+    
+    private static String word(Random random) {
+        char[] word = new char[4 + random.nextInt(8)];
+        for (int i = 0; i < word.length; i++) {
+            word[i] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(word);
+    }
+}
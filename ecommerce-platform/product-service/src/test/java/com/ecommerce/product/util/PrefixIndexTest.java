@@ -0,0 +1,82 @@
+package com.ecommerce.product.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrefixIndexTest {
+    
+    @Test
+    void returnsHeaviestDistinctValuesUnderPrefix() {
+        // Arrange
+        PrefixIndex<String> index = PrefixIndex.<String>builder()
+                .add("Desk Lamp", 50, List.of("desk lamp", "lamp"))
+                .add("Lamp Shade", 80, List.of("lamp shade", "shade"))
+                .add("Lampoon", 10, List.of("lampoon"))
+                .add("Ladder", 99, List.of("ladder"))
+                .add("Café Table", 30, List.of("cafe table", "table"))
+                .build();
+        
+        // Act & Assert
+        assertEquals(List.of("Lamp Shade", "Desk Lamp", "Lampoon"), index.top("lamp", 5));
+        assertEquals(List.of("Ladder", "Lamp Shade"), index.top("la", 2));
+        assertEquals(List.of("Café Table"), index.top("cafe", 5));
+        assertEquals(List.of(), index.top("lamps", 5));
+        assertEquals(List.of(), index.top("zzz", 5));
+    }
+    
+    @Test
+    void matchesBruteForceOnRandomKeys() {
+        // Arrange
+        Random random = new Random(7);
+        PrefixIndex.Builder<Integer> builder = PrefixIndex.builder();
+        Map<String, Integer> keyToValue = new TreeMap<>();
+        long[] weights = new long[2_000];
+        for (int value = 0; value < weights.length; value++) {
+            weights[value] = random.nextInt(1_000_000);
+            List<String> keys = new ArrayList<>();
+            for (int k = 0; k < 3; k++) {
+                String key = randomWord(random);
+                if (keyToValue.putIfAbsent(key, value) == null) {
+                    keys.add(key);
+                }
+            }
+            builder.add(value, weights[value], keys);
+        }
+        PrefixIndex<Integer> index = builder.build();
+        
+        for (int probe = 0; probe < 500; probe++) {
+            String prefix = randomWord(random).substring(0, 1 + random.nextInt(2));
+            
+            // Act
+            List<Integer> actual = index.top(prefix, 10);
+            
+            // Assert
+            List<Integer> expected = keyToValue.entrySet().stream()
+                    .filter(entry -> entry.getKey().startsWith(prefix))
+                    .map(Map.Entry::getValue)
+                    .distinct()
+                    .sorted(Comparator.comparingLong((Integer value) -> weights[value]).reversed())
+                    .limit(10)
+                    .toList();
+            assertEquals(new LinkedHashSet<>(expected).stream().map(value -> weights[value]).toList(),
+                    actual.stream().map(value -> weights[value]).toList(), "prefix " + prefix);
+        }
+    }
+    
+    static String randomWord(Random random) {
+        char[] word = new char[3 + random.nextInt(6)];
+        for (int i = 0; i < word.length; i++) {
+            word[i] = (char) ('a' + random.nextInt(6));
+        }
+        return new String(word);
+    }
+}
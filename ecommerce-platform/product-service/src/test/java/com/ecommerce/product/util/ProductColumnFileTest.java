@@ -0,0 +1,163 @@
+package com.ecommerce.product.util;
+
+import com.ecommerce.product.util.ProductColumnFile.Filter;
+import com.ecommerce.product.util.ProductColumnFile.Row;
+import com.ecommerce.product.util.ProductColumnFile.SortKey;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.ToLongFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductColumnFileTest {
+    
+    @TempDir
+    Path directory;
+    
+    @Test
+    void pagesInValueThenIdOrderWithFilters() throws IOException {
+        // Arrange
+        try (ProductColumnFile file = ProductColumnFile.create(directory.resolve("catalog"), 10)) {
+            file.append(row(1, 1999, 7, 5, 450));
+            file.append(row(2, 12000, 7, 3, 320));
+            file.append(row(3, 4500, 7, 2, 0));
+            file.append(row(4, 1999, 8, 8, 410));
+            file.sortAll();
+            
+            // Act
+            ProductColumnFile.Page byPrice = file.page(SortKey.PRICE, false, Filter.NONE, 0, 10);
+            ProductColumnFile.Page byPriceDescending = file.page(SortKey.PRICE, true, Filter.NONE, 1, 2);
+            ProductColumnFile.Page filtered = file.page(SortKey.RATING, true,
+                    new Filter(1000, 5000, Integer.MIN_VALUE, true, new long[]{7}), 0, 10);
+            
+            // Assert
+            assertArrayEquals(new long[]{1, 4, 3, 2}, byPrice.ids());
+            assertEquals(4, byPrice.total());
+            assertArrayEquals(new long[]{3, 4}, byPriceDescending.ids());
+            assertArrayEquals(new long[]{1, 3}, filtered.ids());
+            assertEquals(2, filtered.total());
+        }
+    }
+    
+    @Test
+    void keepsEveryPermutationSortedThroughUpsertsAndRemovals() throws IOException {
+        // Arrange
+        Random random = new Random(5);
+        Map<Long, Row> expected = new HashMap<>();
+        try (ProductColumnFile file = ProductColumnFile.create(directory.resolve("catalog"), 600)) {
+            
+            // Act: inserts, moves and removals, each applied in place
+            for (int i = 0; i < 3000; i++) {
+                long id = 1 + random.nextInt(500);
+                if (random.nextInt(4) == 0) {
+                    file.remove(id);
+                    expected.remove(id);
+                } else {
+                    Row row = row(id, random.nextInt(100), random.nextInt(5), random.nextInt(10), random.nextInt(500));
+                    file.upsert(row);
+                    expected.put(id, row);
+                }
+            }
+            
+            // Assert
+            assertEquals(expected.size(), file.size());
+            assertOrder(file, SortKey.PRICE, expected.values(), Row::priceCents);
+            assertOrder(file, SortKey.STOCK, expected.values(), Row::stock);
+            assertOrder(file, SortKey.RATING, expected.values(), Row::ratingHundredths);
+            assertOrder(file, SortKey.ID, expected.values(), Row::id);
+        }
+    }
+    
+    @Test
+    void appliesLargeBatchesWithOneResort() throws IOException {
+        // Arrange
+        try (ProductColumnFile file = ProductColumnFile.create(directory.resolve("catalog"), 100)) {
+            for (long id = 1; id <= 50; id++) {
+                file.append(row(id, id * 100, 1, 1, 0));
+            }
+            file.sortAll();
+            List<Row> changes = new ArrayList<>();
+            for (long id = 41; id <= 60; id++) {
+                changes.add(row(id, 10_000 - id, 1, 1, 0));
+            }
+            
+            // Act
+            file.applyInBulk(changes, List.of(1L, 2L, 3L));
+            
+            // Assert
+            assertEquals(57, file.size());
+            assertFalse(file.contains(2));
+            ProductColumnFile.Page cheapest = file.page(SortKey.PRICE, false, Filter.NONE, 0, 3);
+            assertArrayEquals(new long[]{4, 5, 6}, cheapest.ids());
+            ProductColumnFile.Page dearest = file.page(SortKey.PRICE, true, Filter.NONE, 0, 2);
+            assertArrayEquals(new long[]{41, 42}, dearest.ids());
+        }
+    }
+    
+    @Test
+    void reopensACleanlyClosedFileAndRejectsOneLeftOpen() throws IOException {
+        // Arrange
+        Path path = directory.resolve("catalog");
+        try (ProductColumnFile file = ProductColumnFile.create(path, 10)) {
+            file.append(row(1, 500, 1, 1, 0));
+            file.append(row(2, 300, 1, 1, 0));
+            file.sortAll();
+            file.setWatermark(42);
+        }
+        
+        // Act
+        ProductColumnFile reopened = ProductColumnFile.open(path);
+        
+        // Assert
+        assertEquals(2, reopened.size());
+        assertEquals(42, reopened.watermark());
+        assertArrayEquals(new long[]{2, 1}, reopened.page(SortKey.PRICE, false, Filter.NONE, 0, 10).ids());
+        // Still open, as after a crash
+        assertThrows(IOException.class, () -> ProductColumnFile.open(path));
+        reopened.close();
+    }
+    
+    @Test
+    void growsIntoALargerCopy() throws IOException {
+        // Arrange
+        Path path = directory.resolve("catalog");
+        ProductColumnFile file = ProductColumnFile.create(path, 2);
+        file.upsert(row(1, 200, 1, 1, 0));
+        file.upsert(row(2, 100, 1, 1, 0));
+        
+        // Act
+        ProductColumnFile grown = file.copyTo(directory.resolve("catalog.growing"), 4);
+        grown.moveTo(path);
+        file.close();
+        grown.upsert(row(3, 150, 1, 1, 0));
+        
+        // Assert
+        assertEquals(4, grown.capacity());
+        assertEquals(path, grown.path());
+        assertArrayEquals(new long[]{2, 3, 1}, grown.page(SortKey.PRICE, false, Filter.NONE, 0, 10).ids());
+        grown.close();
+    }
+    
+    private static void assertOrder(ProductColumnFile file, SortKey key, Collection<Row> rows,
+                                    ToLongFunction<Row> value) {
+        long[] expected = rows.stream()
+                .sorted(Comparator.comparingLong(value).thenComparingLong(Row::id))
+                .mapToLong(Row::id)
+                .toArray();
+        assertArrayEquals(expected, file.page(key, false, Filter.NONE, 0, rows.size() + 1).ids(), key.name());
+    }
+    
+    private static Row row(long id, long priceCents, long categoryId, int stock, int ratingHundredths) {
+        return new Row(id, priceCents, categoryId, id * 1_000, stock, ratingHundredths);
+    }
+}